@@ -0,0 +1,371 @@
+package de.csiem.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the previous regex resolver (a {@code contains} per relative keyword, then one scan per date format)
+ * against {@link MemoryDateResolver} and its single-pass {@link DateCueLexer}: the date texts of a typical split
+ * answer, resolved one by one without and with the memo, and the candidate days of a transcript.
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec -Djmh.args=MemoryDateResolverBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryDateResolverBenchmark {
+
+    private static final Instant UPLOAD = Instant.parse("2026-02-26T20:00:00Z");
+    private static final List<String> DATE_TEXTS = List.of(
+        "gestern", "am Montag", "heute", "am 12.01.", "vorgestern", "am 3. März", "letzte Woche", "12.01.2024"
+    );
+    private static final String[] SENTENCES = {
+        "Heute Morgen waren wir nach dem Frühstück noch kurz beim Bäcker um die Ecke.",
+        "Gestern hat sie zum ersten Mal ganz allein die Treppe geschafft.",
+        "We drove to the coast in the afternoon and watched the boats come in.",
+        "Am Sonntag waren wir bei Oma, und am 3. März hat er Geburtstag gefeiert.",
+        "In the evening she helped me put away the shopping and counted the apples."
+    };
+
+    @Param({"200", "2000"})
+    public int words;
+
+    private String transcript;
+    private MemoryDateResolver resolver;
+    private Baseline baseline;
+    private long uploadDays;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        for (int i = 0; count < words; i++) {
+            String sentence = SENTENCES[i % SENTENCES.length];
+            text.append(sentence).append(' ');
+            count += sentence.split(" ").length;
+        }
+        transcript = text.toString();
+        resolver = new MemoryDateResolver();
+        baseline = new Baseline();
+    }
+
+    @Benchmark
+    public List<Instant> baselineResolve() {
+        List<Instant> resolved = new ArrayList<>(DATE_TEXTS.size());
+        for (String dateText : DATE_TEXTS) {
+            resolved.add(baseline.resolveRecordedAt(dateText, UPLOAD));
+        }
+        return resolved;
+    }
+
+    @Benchmark
+    public List<Instant> lexerResolve() {
+        // A new upload day on every call, so every text misses the memo and goes through the lexer.
+        return resolver.resolveAll(DATE_TEXTS, UPLOAD.plus(Duration.ofDays(++uploadDays % 3650)));
+    }
+
+    @Benchmark
+    public List<Instant> memoizedResolve() {
+        return resolver.resolveAll(DATE_TEXTS, UPLOAD);
+    }
+
+    @Benchmark
+    public Set<LocalDate> baselineCandidateDates() {
+        return baseline.candidateDates(transcript, UPLOAD);
+    }
+
+    @Benchmark
+    public Set<LocalDate> lexerCandidateDates() {
+        return resolver.candidateDates(transcript, UPLOAD);
+    }
+
+    /**
+     * {@link MemoryDateResolver} as it was before the lexer.
+     */
+    private static final class Baseline {
+
+        private static final ZoneId BERLIN_ZONE = ZoneId.of("Europe/Berlin");
+
+        private static final Pattern NUMERIC_WITH_YEAR = Pattern.compile("\\b(\\d{1,2})\\.(\\d{1,2})\\.(\\d{2,4})\\b");
+        private static final Pattern NUMERIC_WITHOUT_YEAR = Pattern.compile("\\b(\\d{1,2})\\.(\\d{1,2})\\.?\\b");
+        private static final Pattern TEXTUAL_DATE = Pattern.compile(
+            "\\b(?:am\\s+|an\\s+)?(\\d{1,2})\\.?\\s*(januar|jan|februar|feb|märz|maerz|marz|mär|april|apr|mai|juni|jun|juli|jul|august|aug|september|sep|sept|oktober|okt|november|nov|dezember|dez)(?:\\s+(\\d{4}))?\\b",
+            Pattern.CASE_INSENSITIVE
+        );
+        private static final Pattern WEEKDAY_PATTERN = Pattern.compile(
+            "\\b(?:am\\s+|an\\s+)?(montag|dienstag|mittwoch|donnerstag|freitag|samstag|sonntag)\\b",
+            Pattern.CASE_INSENSITIVE
+        );
+
+        private static final List<String> RELATIVE_KEYWORDS = List.of(
+            "vorgestern", "gestern", "heute", "letzte woche", "weihnachten"
+        );
+        private static final List<Pattern> DATE_PATTERNS = List.of(
+            NUMERIC_WITH_YEAR, NUMERIC_WITHOUT_YEAR, TEXTUAL_DATE, WEEKDAY_PATTERN
+        );
+        // The splitter may translate English cues into the German date_text the resolver understands.
+        private static final Pattern ENGLISH_CUE_PATTERN = Pattern.compile(
+            "\\b(day before yesterday|yesterday|last week|christmas|monday|tuesday|wednesday|thursday|friday|saturday|sunday)\\b"
+        );
+        private static final Map<String, String> ENGLISH_CUES = Map.ofEntries(
+            Map.entry("day before yesterday", "vorgestern"),
+            Map.entry("yesterday", "gestern"),
+            Map.entry("last week", "letzte woche"),
+            Map.entry("christmas", "weihnachten"),
+            Map.entry("monday", "montag"),
+            Map.entry("tuesday", "dienstag"),
+            Map.entry("wednesday", "mittwoch"),
+            Map.entry("thursday", "donnerstag"),
+            Map.entry("friday", "freitag"),
+            Map.entry("saturday", "samstag"),
+            Map.entry("sunday", "sonntag")
+        );
+
+        private static final Map<String, Month> MONTHS = Map.ofEntries(
+            Map.entry("januar", Month.JANUARY),
+            Map.entry("jan", Month.JANUARY),
+            Map.entry("februar", Month.FEBRUARY),
+            Map.entry("feb", Month.FEBRUARY),
+            Map.entry("märz", Month.MARCH),
+            Map.entry("maerz", Month.MARCH),
+            Map.entry("marz", Month.MARCH),
+            Map.entry("mär", Month.MARCH),
+            Map.entry("april", Month.APRIL),
+            Map.entry("apr", Month.APRIL),
+            Map.entry("mai", Month.MAY),
+            Map.entry("juni", Month.JUNE),
+            Map.entry("jun", Month.JUNE),
+            Map.entry("juli", Month.JULY),
+            Map.entry("jul", Month.JULY),
+            Map.entry("august", Month.AUGUST),
+            Map.entry("aug", Month.AUGUST),
+            Map.entry("september", Month.SEPTEMBER),
+            Map.entry("sep", Month.SEPTEMBER),
+            Map.entry("sept", Month.SEPTEMBER),
+            Map.entry("oktober", Month.OCTOBER),
+            Map.entry("okt", Month.OCTOBER),
+            Map.entry("november", Month.NOVEMBER),
+            Map.entry("nov", Month.NOVEMBER),
+            Map.entry("dezember", Month.DECEMBER),
+            Map.entry("dez", Month.DECEMBER)
+        );
+
+        private static final Map<String, DayOfWeek> WEEKDAYS = Map.of(
+            "montag", DayOfWeek.MONDAY,
+            "dienstag", DayOfWeek.TUESDAY,
+            "mittwoch", DayOfWeek.WEDNESDAY,
+            "donnerstag", DayOfWeek.THURSDAY,
+            "freitag", DayOfWeek.FRIDAY,
+            "samstag", DayOfWeek.SATURDAY,
+            "sonntag", DayOfWeek.SUNDAY
+        );
+
+        public Instant resolveRecordedAt(String dateText, Instant uploadTimestamp) {
+            if (uploadTimestamp == null) {
+                return Instant.now();
+            }
+
+            ZonedDateTime uploadBerlin = uploadTimestamp.atZone(BERLIN_ZONE);
+            if (dateText == null || dateText.isBlank()) {
+                return uploadTimestamp;
+            }
+
+            return resolveDate(normalize(dateText), uploadBerlin.toLocalDate())
+                .map(date -> toInstant(date, uploadBerlin.toLocalTime()))
+                .orElse(uploadTimestamp);
+        }
+
+        /**
+         * Every day a transcript could refer to, as {@link #resolveRecordedAt} would resolve the date cues in it, plus
+         * the upload day that parts without a cue fall back to. Errs on the side of too many dates: each match of
+         * each pattern counts, so a split the resolver could date is never missed.
+         */
+        public Set<LocalDate> candidateDates(String transcript, Instant uploadTimestamp) {
+            Instant reference = uploadTimestamp == null ? Instant.now() : uploadTimestamp;
+            LocalDate uploadDate = reference.atZone(BERLIN_ZONE).toLocalDate();
+            Set<LocalDate> dates = new HashSet<>();
+            dates.add(uploadDate);
+
+            String normalized = normalize(transcript);
+            if (normalized.isEmpty()) {
+                return dates;
+            }
+            for (String keyword : RELATIVE_KEYWORDS) {
+                if (normalized.contains(keyword)) {
+                    parseSpecialRelative(keyword, uploadDate).ifPresent(dates::add);
+                }
+            }
+            for (Pattern pattern : DATE_PATTERNS) {
+                Matcher matcher = pattern.matcher(normalized);
+                while (matcher.find()) {
+                    resolveDate(matcher.group(), uploadDate).ifPresent(dates::add);
+                }
+            }
+            Matcher english = ENGLISH_CUE_PATTERN.matcher(normalized);
+            while (english.find()) {
+                resolveDate(ENGLISH_CUES.get(english.group(1)), uploadDate).ifPresent(dates::add);
+            }
+            return dates;
+        }
+
+        private Optional<LocalDate> resolveDate(String normalized, LocalDate uploadDate) {
+            return parseSpecialRelative(normalized, uploadDate)
+                .or(() -> parseNumericWithYear(normalized))
+                .or(() -> parseTextualDate(normalized, uploadDate))
+                .or(() -> parseNumericWithoutYear(normalized, uploadDate))
+                .or(() -> parseWeekday(normalized, uploadDate));
+        }
+
+        private Optional<LocalDate> parseSpecialRelative(String normalized, LocalDate uploadDate) {
+            if (normalized.contains("vorgestern")) {
+                return Optional.of(uploadDate.minusDays(2));
+            }
+            if (normalized.contains("gestern")) {
+                return Optional.of(uploadDate.minusDays(1));
+            }
+            if (normalized.contains("heute")) {
+                return Optional.of(uploadDate);
+            }
+            if (normalized.contains("letzte woche")) {
+                return Optional.of(uploadDate.minusDays(7));
+            }
+            if (normalized.contains("weihnachten")) {
+                LocalDate christmas = LocalDate.of(uploadDate.getYear(), Month.DECEMBER, 25);
+                if (christmas.isAfter(uploadDate)) {
+                    christmas = christmas.minusYears(1);
+                }
+                return Optional.of(christmas);
+            }
+            return Optional.empty();
+        }
+
+        private Optional<LocalDate> parseNumericWithYear(String normalized) {
+            Matcher matcher = NUMERIC_WITH_YEAR.matcher(normalized);
+            if (!matcher.find()) {
+                return Optional.empty();
+            }
+
+            int day = parseInt(matcher.group(1));
+            int month = parseInt(matcher.group(2));
+            int year = normalizeYear(parseInt(matcher.group(3)));
+            return safeDate(year, month, day);
+        }
+
+        private Optional<LocalDate> parseNumericWithoutYear(String normalized, LocalDate uploadDate) {
+            Matcher matcher = NUMERIC_WITHOUT_YEAR.matcher(normalized);
+            if (!matcher.find()) {
+                return Optional.empty();
+            }
+
+            int day = parseInt(matcher.group(1));
+            int month = parseInt(matcher.group(2));
+            LocalDate resolved = safeDate(uploadDate.getYear(), month, day).orElse(null);
+            if (resolved == null) {
+                return Optional.empty();
+            }
+            if (resolved.isAfter(uploadDate)) {
+                resolved = resolved.minusYears(1);
+            }
+            return Optional.of(resolved);
+        }
+
+        private Optional<LocalDate> parseTextualDate(String normalized, LocalDate uploadDate) {
+            Matcher matcher = TEXTUAL_DATE.matcher(normalized);
+            if (!matcher.find()) {
+                return Optional.empty();
+            }
+
+            int day = parseInt(matcher.group(1));
+            String monthLabel = normalize(matcher.group(2));
+            Month month = MONTHS.get(monthLabel);
+            if (month == null) {
+                return Optional.empty();
+            }
+
+            String yearLabel = matcher.group(3);
+            int year = yearLabel == null ? uploadDate.getYear() : normalizeYear(parseInt(yearLabel));
+
+            LocalDate resolved = safeDate(year, month.getValue(), day).orElse(null);
+            if (resolved == null) {
+                return Optional.empty();
+            }
+
+            if (yearLabel == null && resolved.isAfter(uploadDate)) {
+                resolved = resolved.minusYears(1);
+            }
+            return Optional.of(resolved);
+        }
+
+        private Optional<LocalDate> parseWeekday(String normalized, LocalDate uploadDate) {
+            Matcher matcher = WEEKDAY_PATTERN.matcher(normalized);
+            if (!matcher.find()) {
+                return Optional.empty();
+            }
+
+            DayOfWeek target = WEEKDAYS.get(normalize(matcher.group(1)));
+            if (target == null) {
+                return Optional.empty();
+            }
+
+            int delta = (uploadDate.getDayOfWeek().getValue() - target.getValue() + 7) % 7;
+            return Optional.of(uploadDate.minusDays(delta));
+        }
+
+        private Optional<LocalDate> safeDate(int year, int month, int day) {
+            try {
+                return Optional.of(LocalDate.of(year, month, day));
+            } catch (Exception ignored) {
+                return Optional.empty();
+            }
+        }
+
+        private int parseInt(String value) {
+            return Integer.parseInt(value);
+        }
+
+        private int normalizeYear(int year) {
+            if (year < 100) {
+                return 2000 + year;
+            }
+            return year;
+        }
+
+        private Instant toInstant(LocalDate date, LocalTime localTime) {
+            return date.atTime(localTime).atZone(BERLIN_ZONE).toInstant();
+        }
+
+        private String normalize(String value) {
+            return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
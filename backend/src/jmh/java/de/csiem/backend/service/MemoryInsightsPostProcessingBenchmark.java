@@ -0,0 +1,395 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.MemoryInsightsService.MemoryInsights;
+import de.csiem.backend.service.MemoryInsightsService.ProcessedInsights;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the previous sanitize and validation rules of {@link MemoryInsightsService} (a regex compiled per clinical
+ * word, a whitespace regex in every normalize, a re-split per dropped summary word, the transcript tokenized for
+ * every language check) against the current ones, on a model answer whose summary runs past the word limit.
+ * Add {@code -prof gc} to the arguments for bytes allocated per call ({@code gc.alloc.rate.norm}).
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec -Djmh.args="MemoryInsightsPostProcessingBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryInsightsPostProcessingBenchmark {
+
+    private static final String TRANSCRIPT = "At breakfast she asked for more apples in a full sentence for the first time, "
+        + "all on her own, and then she clapped for herself while we all laughed around the table.";
+    private static final String TITLE = "First full sentence at breakfast";
+    private static final String[] SUMMARY_CLAUSES = {
+        "She independently asked for more apples in a full sentence",
+        "and clapped for herself while everyone smiled",
+        "in the warm atmosphere of a slow Sunday breakfast"
+    };
+
+    @Param({"20", "60", "240"})
+    public int summaryWords;
+
+    private String summary;
+    private MemoryInsightsService service;
+    private Baseline baseline;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        for (int i = 0; count < summaryWords; i++) {
+            String clause = SUMMARY_CLAUSES[i % SUMMARY_CLAUSES.length];
+            text.append(clause).append(' ');
+            count += clause.split(" ").length;
+        }
+        summary = text.toString().trim() + ". Another sentence that gets dropped.";
+        service = new MemoryInsightsService(new AppProperties());
+        baseline = new Baseline();
+    }
+
+    @Benchmark
+    public MemoryInsights baseline() {
+        return baseline.validate(TITLE, summary, TRANSCRIPT);
+    }
+
+    @Benchmark
+    public MemoryInsights current() {
+        return service.validate(TITLE, summary, TRANSCRIPT);
+    }
+
+    /**
+     * The post-processing of {@link MemoryInsightsService#validate} as it was before the single-pass rewrite.
+     */
+    private static final class Baseline {
+
+        private static final int MAX_TITLE_LENGTH = 72;
+        private static final int MAX_TITLE_WORDS = 10;
+        private static final int MAX_SUMMARY_WORDS = 22;
+        private static final Pattern LEADING_LIST_PATTERN = Pattern.compile("^(?:[-*]|\\d+[.)])\\s*");
+        private static final Pattern FIRST_SENTENCE_PATTERN = Pattern.compile("^(.+?[.!?])(?:\\s+.*)?$");
+
+        private static final Set<String> TITLE_GENERIC_PATTERNS = Set.of(
+            "moment", "memory", "today", "a day", "nice", "sweet"
+        );
+        private static final Set<String> TITLE_FILLER_WORDS = Set.of(
+            "a", "an", "the", "my", "our", "little", "special", "beautiful", "nice", "sweet", "joyful",
+            "meaningful", "proud", "happy", "lovely", "wonderful", "moment", "memory", "today",
+            "ein", "eine", "der", "die", "das", "besonderer", "besondere", "schoener", "suesser"
+        );
+        private static final Map<String, String> CLINICAL_WORD_REPLACEMENTS = Map.of(
+            "independently", "on their own",
+            "facilitated", "helped",
+            "atmosphere", "mood",
+            "demonstrated", "showed"
+        );
+
+        private static final Set<String> STOP_WORDS_EN = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "had", "has", "have",
+            "he", "her", "hers", "him", "his", "i", "if", "in", "is", "it", "its", "me", "my", "of",
+            "on", "or", "our", "she", "that", "the", "their", "them", "they", "this", "to", "was", "we",
+            "were", "with", "you", "your"
+        );
+        private static final Set<String> STOP_WORDS_DE = Set.of(
+            "aber", "als", "am", "an", "auch", "auf", "aus", "bei", "bin", "bis", "da", "dann", "das",
+            "dem", "den", "der", "des", "die", "doch", "du", "ein", "eine", "einem", "einer", "eines",
+            "er", "es", "für", "hat", "habe", "haben", "ich", "im", "in", "ist", "mit", "nach", "nicht",
+            "noch", "oder", "sie", "sind", "so", "und", "uns", "unser", "war", "waren", "wie", "wir", "zu", "zum", "zur"
+        );
+        private static final Set<String> LANGUAGE_MARKERS_DE = Set.of(
+            "der", "die", "das", "und", "nicht", "ein", "eine", "wir", "heute", "gestern", "woche", "kind"
+        );
+        private static final Set<String> LANGUAGE_MARKERS_EN = Set.of(
+            "the", "and", "not", "a", "an", "we", "today", "yesterday", "week", "child"
+        );
+        private static final Pattern UMLAUT_PATTERN = Pattern.compile("[äöüßÄÖÜ]");
+
+        MemoryInsights validate(String title, String summary, String transcript) {
+            String normalized = normalize(transcript);
+            if (normalized.isBlank()) {
+                return null;
+            }
+            ProcessedInsights processed = validateOutput(
+                title == null ? "" : title,
+                summary == null ? "" : summary,
+                normalized,
+                detectLanguage(normalized)
+            );
+            return processed.valid() && !processed.genericTitle() ? processed.insights() : null;
+        }
+
+        private ProcessedInsights validateOutput(
+            String titleRaw,
+            String summaryRaw,
+            String transcript,
+            DetectedLanguage transcriptLanguage
+        ) {
+            if (titleRaw.isBlank() || summaryRaw.isBlank()) {
+                return ProcessedInsights.invalid(false);
+            }
+
+            String title = sanitizeTitle(titleRaw, transcript);
+            String summary = sanitizeSummary(summaryRaw, transcript, title);
+            if (title.isBlank() || summary.isBlank()) {
+                return ProcessedInsights.invalid(false);
+            }
+            if (!matchesLanguage(title, transcriptLanguage) || !matchesLanguage(summary, transcriptLanguage)) {
+                return ProcessedInsights.invalid(false);
+            }
+
+            boolean genericTitle = isGenericTitle(title);
+            return new ProcessedInsights(new MemoryInsights(title, summary), true, genericTitle);
+        }
+
+        private String normalize(String transcript) {
+            if (transcript == null) {
+                return "";
+            }
+            return transcript.trim().replaceAll("\\s+", " ");
+        }
+
+        private List<String> tokenize(String text) {
+            String cleaned = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}' ]", " ");
+            String[] split = cleaned.trim().split("\\s+");
+
+            List<String> words = new ArrayList<>();
+            for (String word : split) {
+                if (!word.isBlank()) {
+                    words.add(word);
+                }
+            }
+            return words;
+        }
+
+        private String sanitizeTitle(String value, String transcript) {
+            String title = normalize(value)
+                .replaceAll("[\\n\\r\\t]+", " ")
+                .replaceAll("^[\"'`]+|[\"'`.,!?;:]+$", "");
+            if (title.isBlank()) {
+                return "";
+            }
+
+            title = enforceTitleWordLimit(title);
+            if (title.length() > MAX_TITLE_LENGTH) {
+                title = title.substring(0, MAX_TITLE_LENGTH - 3).trim() + "...";
+            }
+
+            if (equalsIgnoringPunctuation(title, transcript)) {
+                return "";
+            }
+
+            return title;
+        }
+
+        private String sanitizeSummary(String value, String transcript, String title) {
+            String summary = normalize(value)
+                .replace('\n', ' ')
+                .replace('\r', ' ');
+            summary = LEADING_LIST_PATTERN.matcher(summary).replaceFirst("");
+            summary = keepFirstSentence(summary);
+            summary = softenClinicalLanguage(summary);
+            summary = limitSummaryWordCount(summary, MAX_SUMMARY_WORDS);
+            if (summary.isBlank()) {
+                return "";
+            }
+
+            if (!summary.endsWith(".") && !summary.endsWith("!") && !summary.endsWith("?")) {
+                summary = summary + ".";
+            }
+
+            if (equalsIgnoringPunctuation(summary, transcript) || equalsIgnoringPunctuation(summary, title)) {
+                return "";
+            }
+            if (summaryRepeatsTitle(summary, title)) {
+                return "";
+            }
+
+            return summary;
+        }
+
+        private String enforceTitleWordLimit(String value) {
+            List<String> words = splitWords(value);
+            if (words.size() <= MAX_TITLE_WORDS) {
+                return String.join(" ", words);
+            }
+
+            List<String> withoutFillers = new ArrayList<>();
+            for (String word : words) {
+                String normalizedWord = word.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+                if (!TITLE_FILLER_WORDS.contains(normalizedWord)) {
+                    withoutFillers.add(word);
+                }
+            }
+            if (withoutFillers.size() >= 3 && withoutFillers.size() < words.size()) {
+                words = withoutFillers;
+            }
+
+            if (words.size() > MAX_TITLE_WORDS) {
+                words = new ArrayList<>(words.subList(0, MAX_TITLE_WORDS));
+            }
+            return String.join(" ", words).trim();
+        }
+
+        private String keepFirstSentence(String value) {
+            String normalized = normalize(value);
+            if (normalized.isBlank()) {
+                return "";
+            }
+            Matcher matcher = FIRST_SENTENCE_PATTERN.matcher(normalized);
+            if (matcher.matches()) {
+                return normalize(matcher.group(1));
+            }
+            return normalized;
+        }
+
+        private String softenClinicalLanguage(String value) {
+            String softened = value;
+            for (Map.Entry<String, String> entry : CLINICAL_WORD_REPLACEMENTS.entrySet()) {
+                softened = softened.replaceAll(
+                    "(?i)\\b" + Pattern.quote(entry.getKey()) + "\\b",
+                    entry.getValue()
+                );
+            }
+            return normalize(softened);
+        }
+
+        private String limitSummaryWordCount(String summary, int maxWords) {
+            String current = normalize(summary);
+            if (splitWords(current).size() <= maxWords) {
+                return current;
+            }
+
+            while (splitWords(current).size() > maxWords) {
+                int clauseBreak = Math.max(
+                    Math.max(current.lastIndexOf(","), current.lastIndexOf(";")),
+                    Math.max(current.lastIndexOf(" - "), current.lastIndexOf(" -- "))
+                );
+                if (clauseBreak > 20) {
+                    current = normalize(current.substring(0, clauseBreak));
+                    continue;
+                }
+                List<String> words = splitWords(current);
+                if (words.isEmpty()) {
+                    return "";
+                }
+                words.remove(words.size() - 1);
+                current = String.join(" ", words);
+            }
+            return current;
+        }
+
+        private boolean summaryRepeatsTitle(String summary, String title) {
+            String normalizedSummary = normalize(summary).toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N} ]", "");
+            String normalizedTitle = normalize(title).toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N} ]", "");
+            if (normalizedSummary.isBlank() || normalizedTitle.isBlank()) {
+                return false;
+            }
+            if (normalizedSummary.equals(normalizedTitle)) {
+                return true;
+            }
+            return normalizedSummary.startsWith(normalizedTitle + " ");
+        }
+
+        private boolean isGenericTitle(String title) {
+            String normalizedTitle = normalize(title).toLowerCase(Locale.ROOT);
+            for (String banned : TITLE_GENERIC_PATTERNS) {
+                if (normalizedTitle.contains(banned)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private List<String> splitWords(String text) {
+            String normalized = normalize(text);
+            if (normalized.isBlank()) {
+                return List.of();
+            }
+            String[] split = normalized.split("\\s+");
+            List<String> words = new ArrayList<>();
+            for (String word : split) {
+                if (!word.isBlank()) {
+                    words.add(word);
+                }
+            }
+            return words;
+        }
+
+        private boolean equalsIgnoringPunctuation(String left, String right) {
+            if (left == null || right == null) {
+                return false;
+            }
+            String normalizedLeft = left.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            String normalizedRight = right.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            return !normalizedLeft.isBlank() && normalizedLeft.equals(normalizedRight);
+        }
+
+        private boolean matchesLanguage(String text, DetectedLanguage expected) {
+            if (expected == DetectedLanguage.UNKNOWN) {
+                return true;
+            }
+            DetectedLanguage actual = detectLanguage(text);
+            if (actual == DetectedLanguage.UNKNOWN) {
+                return true;
+            }
+            return actual == expected;
+        }
+
+        private DetectedLanguage detectLanguage(String text) {
+            String normalized = normalize(text).toLowerCase(Locale.ROOT);
+            if (normalized.isBlank()) {
+                return DetectedLanguage.UNKNOWN;
+            }
+            if (UMLAUT_PATTERN.matcher(normalized).find()) {
+                return DetectedLanguage.GERMAN;
+            }
+
+            List<String> words = tokenize(normalized);
+            int deScore = 0;
+            int enScore = 0;
+            for (String word : words) {
+                if (LANGUAGE_MARKERS_DE.contains(word) || STOP_WORDS_DE.contains(word)) {
+                    deScore++;
+                }
+                if (LANGUAGE_MARKERS_EN.contains(word) || STOP_WORDS_EN.contains(word)) {
+                    enScore++;
+                }
+            }
+
+            if (deScore == 0 && enScore == 0) {
+                return DetectedLanguage.UNKNOWN;
+            }
+            if (deScore == enScore) {
+                return DetectedLanguage.UNKNOWN;
+            }
+            return deScore > enScore ? DetectedLanguage.GERMAN : DetectedLanguage.ENGLISH;
+        }
+
+        private enum DetectedLanguage {
+            GERMAN,
+            ENGLISH,
+            UNKNOWN
+        }
+    }
+}
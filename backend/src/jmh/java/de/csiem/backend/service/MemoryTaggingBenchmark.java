@@ -0,0 +1,96 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.model.MemoryTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous keyword scan (one {@code String.contains} per English keyword) against the compiled
+ * automaton in {@link MemoryTaggingService}, which covers the English and German dictionaries in one pass. The
+ * transcripts mix German and English sentences and are mostly made of words no keyword matches, like real ones.
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec -Djmh.args=MemoryTaggingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryTaggingBenchmark {
+
+    private static final String[] SENTENCES = {
+        "Heute Morgen waren wir nach dem Frühstück noch kurz beim Bäcker um die Ecke.",
+        "Auf dem Rückweg hat sie jede Pfütze gefunden und ist mit beiden Füßen hineingesprungen.",
+        "We drove to the coast in the afternoon and watched the boats come in.",
+        "Er hat lange am Fenster gestanden und den Müllwagen beobachtet.",
+        "In the evening she helped me put away the shopping and counted the apples.",
+        "Danach sind wir zu Oma gefahren und haben zusammen Kuchen gegessen."
+    };
+
+    @Param({"200", "2000", "20000"})
+    public int words;
+
+    private String transcript;
+    private MemoryTaggingService service;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        for (int i = 0; count < words; i++) {
+            String sentence = SENTENCES[i % SENTENCES.length];
+            text.append(sentence).append(' ');
+            count += sentence.split(" ").length;
+        }
+        transcript = text.toString();
+        service = new MemoryTaggingService();
+    }
+
+    @Benchmark
+    public Set<MemoryTag> containsScan() {
+        String normalized = transcript.toLowerCase(Locale.ROOT);
+        Set<MemoryTag> tags = new LinkedHashSet<>();
+        addIfMatches(tags, normalized, MemoryTag.LANGUAGE, "say", "said", "word", "talk", "speak", "story", "read");
+        addIfMatches(tags, normalized, MemoryTag.MOTOR_SKILLS, "walk", "run", "jump", "climb", "stack", "tower", "dance", "kick");
+        addIfMatches(tags, normalized, MemoryTag.EMOTIONAL, "happy", "sad", "angry", "upset", "excited", "proud", "cry", "frustrat");
+        addIfMatches(tags, normalized, MemoryTag.SOCIAL, "friend", "share", "together", "hello", "teacher", "class", "playdate");
+        addIfMatches(tags, normalized, MemoryTag.MILESTONE, "first time", "for the first time", "learned to", "finally", "milestone");
+        addIfMatches(tags, normalized, MemoryTag.PLAY, "play", "toy", "game", "pretend", "puzzle", "blocks", "building");
+        addIfMatches(tags, normalized, MemoryTag.FAMILY, "mom", "dad", "mother", "father", "sister", "brother", "grandma", "grandpa", "family");
+        addIfMatches(tags, normalized, MemoryTag.FUNNY, "funny", "laugh", "giggle", "joke", "silly", "hilarious");
+        addIfMatches(tags, normalized, MemoryTag.GROWTH, "improv", "better", "growing", "progress", "new skill", "without help");
+        addIfMatches(tags, normalized, MemoryTag.CHALLENGE, "hard", "difficult", "struggle", "challeng", "tried", "couldn't", "could not", "failed");
+        if (tags.isEmpty()) {
+            tags.add(MemoryTag.GROWTH);
+        }
+        return tags;
+    }
+
+    @Benchmark
+    public Set<MemoryTag> automatonScan() {
+        return service.detectTags(transcript);
+    }
+
+    private static void addIfMatches(Set<MemoryTag> tags, String transcript, MemoryTag tag, String... keywords) {
+        for (String keyword : keywords) {
+            if (transcript.contains(keyword)) {
+                tags.add(tag);
+                return;
+            }
+        }
+    }
+}
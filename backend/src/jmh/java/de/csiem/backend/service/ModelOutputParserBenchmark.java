@@ -0,0 +1,147 @@
+package de.csiem.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the previous regex extraction of model output against {@link ModelOutputParser}. Inputs come from the
+ * test corpus in {@code src/test/resources/model-outputs}, plus a synthetic split answer with many entries.
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec -Djmh.args=ModelOutputParserBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelOutputParserBenchmark {
+
+    private static final Pattern MEMORIES_ARRAY_PATTERN = Pattern.compile("\"memories\"\\s*:\\s*\\[(.*)]", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern OBJECT_PATTERN = Pattern.compile("\\{([^{}]*)}", Pattern.DOTALL);
+    private static final Pattern EXCERPT_PATTERN = Pattern.compile("\"excerpt\"\\s*:\\s*\"((?:\\\\.|[^\\\\\"])*)\"", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern DATE_TEXT_PATTERN = Pattern.compile("\"date_text\"\\s*:\\s*(null|\"((?:\\\\.|[^\\\\\"])*)\")", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern CONFIDENCE_PATTERN = Pattern.compile("\"confidence\"\\s*:\\s*([-+]?\\d*\\.?\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern JSON_TITLE_PATTERN = Pattern.compile("\"title\"\\s*:\\s*\"((?:\\\\.|[^\\\"])*)\"", Pattern.CASE_INSENSITIVE);
+    private static final Pattern JSON_SUMMARY_PATTERN = Pattern.compile("\"summary\"\\s*:\\s*\"((?:\\\\.|[^\\\"])*)\"", Pattern.CASE_INSENSITIVE);
+
+    @Param({"split-two-memories.json", "split-nested-braces.json", "split-escaped-quotes.json", "synthetic-40"})
+    public String splitInput;
+
+    @Param({"insights-clean.json", "insights-fenced.md"})
+    public String insightsInput;
+
+    private String splitOutput;
+    private String insightsOutput;
+
+    @Setup
+    public void setUp() throws IOException {
+        splitOutput = splitInput.startsWith("synthetic-")
+            ? synthetic(Integer.parseInt(splitInput.substring("synthetic-".length())))
+            : corpus(splitInput);
+        insightsOutput = corpus(insightsInput);
+    }
+
+    @Benchmark
+    public List<ModelOutputParser.SplitCandidate> regexSplit() {
+        String json = splitOutput;
+        int start = json.indexOf('{');
+        int end = json.lastIndexOf('}');
+        if (start >= 0 && end > start) {
+            json = json.substring(start, end + 1);
+        }
+        Matcher arrayMatcher = MEMORIES_ARRAY_PATTERN.matcher(json);
+        List<ModelOutputParser.SplitCandidate> parsed = new ArrayList<>();
+        if (!arrayMatcher.find()) {
+            return parsed;
+        }
+        Matcher objectMatcher = OBJECT_PATTERN.matcher(arrayMatcher.group(1));
+        while (objectMatcher.find()) {
+            String object = objectMatcher.group(1);
+            String excerpt = group(EXCERPT_PATTERN, object, 1);
+            Matcher date = DATE_TEXT_PATTERN.matcher(object);
+            String dateText = date.find() && date.group(2) != null ? unescape(date.group(2)) : null;
+            Matcher confidence = CONFIDENCE_PATTERN.matcher(object);
+            parsed.add(new ModelOutputParser.SplitCandidate(
+                excerpt == null ? "" : unescape(excerpt),
+                dateText,
+                confidence.find() ? Double.parseDouble(confidence.group(1)) : 0.5
+            ));
+        }
+        return parsed;
+    }
+
+    @Benchmark
+    public List<ModelOutputParser.SplitCandidate> streamingSplit() {
+        return ModelOutputParser.readSplitCandidates(splitOutput);
+    }
+
+    @Benchmark
+    public ModelOutputParser.InsightsOutput regexInsights() {
+        String title = group(JSON_TITLE_PATTERN, insightsOutput, 1);
+        String summary = group(JSON_SUMMARY_PATTERN, insightsOutput, 1);
+        return new ModelOutputParser.InsightsOutput(
+            title == null ? "" : unescape(title),
+            summary == null ? "" : unescape(summary)
+        );
+    }
+
+    @Benchmark
+    public ModelOutputParser.InsightsOutput streamingInsights() {
+        return ModelOutputParser.readInsights(insightsOutput);
+    }
+
+    private static String group(Pattern pattern, String input, int group) {
+        Matcher matcher = pattern.matcher(input);
+        return matcher.find() ? matcher.group(group) : null;
+    }
+
+    private static String unescape(String value) {
+        return value
+            .replace("\\\\n", "\n")
+            .replace("\\\\r", "\r")
+            .replace("\\\\t", "\t")
+            .replace("\\\\\"", "\"")
+            .replace("\\\\\\\\", "\\");
+    }
+
+    private static String synthetic(int entries) {
+        StringBuilder json = new StringBuilder("{\"memories\":[");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"excerpt\":\"On day ").append(i)
+                .append(" she stacked the \\\"big\\\" blocks into a tower and knocked it over, laughing.\\nThen we tidied up.\",")
+                .append("\"date_text\":").append(i % 3 == 0 ? "null" : "\"" + i + " days ago\"")
+                .append(",\"confidence\":0.").append(70 + i % 30).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String corpus(String name) throws IOException {
+        try (InputStream input = ModelOutputParserBenchmark.class.getResourceAsStream("/model-outputs/" + name)) {
+            if (input == null) {
+                throw new IOException("Missing corpus file " + name);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package de.csiem.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old String + JsonNode tree path against streaming decoding for memory list pages.
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec -Djmh.args=SupabaseRowDecoderBenchmark}; for allocation
+ * per page use {@code -Dexec.args="-classpath %classpath org.openjdk.jmh.Main SupabaseRowDecoderBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupabaseRowDecoderBenchmark {
+
+    private static final String SENTENCE = "Today she stacked five blocks on her own and laughed when the tower fell over. ";
+
+    @Param({"20", "100"})
+    public int rows;
+
+    @Param({"200", "2000"})
+    public int transcriptLength;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        StringBuilder transcript = new StringBuilder();
+        while (transcript.length() < transcriptLength) {
+            transcript.append(SENTENCE);
+        }
+        String text = transcript.substring(0, transcriptLength);
+
+        StringBuilder json = new StringBuilder("[");
+        Instant recordedAt = Instant.parse("2025-06-01T08:00:00Z");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            Instant at = recordedAt.minusSeconds(3_600L * i);
+            json.append("{\"id\":\"").append(UUID.randomUUID())
+                .append("\",\"created_at\":\"").append(postgresTimestamp(at.plusSeconds(5)))
+                .append("\",\"recorded_at\":\"").append(postgresTimestamp(at))
+                .append("\",\"status\":\"READY\",\"is_highlight\":").append(i % 7 == 0)
+                .append(",\"title\":\"Blocks tower ").append(i)
+                .append("\",\"summary\":\"She built a tower and knocked it down.\",\"transcript\":\"").append(text)
+                .append("\",\"error_message\":null,\"tags\":[\"Play\",\"Motor skills\"]}");
+        }
+        json.append(']');
+        body = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<MemoryRow> stringAndTree() throws IOException {
+        String text = new String(body, StandardCharsets.UTF_8);
+        JsonNode tree = objectMapper.readTree(text);
+        List<MemoryRow> result = new ArrayList<>();
+        for (JsonNode row : tree) {
+            List<String> tags = new ArrayList<>();
+            for (JsonNode tag : row.get("tags")) {
+                tags.add(tag.asText(""));
+            }
+            result.add(new MemoryRow(
+                UUID.fromString(row.get("id").asText()),
+                Instant.parse(row.get("created_at").asText()),
+                Instant.parse(row.get("recorded_at").asText()),
+                row.get("status").asText(""),
+                row.get("is_highlight").asBoolean(false),
+                row.get("title").asText(null),
+                row.get("summary").asText(null),
+                row.get("transcript").asText(null),
+                row.get("error_message").isNull() ? null : row.get("error_message").asText(),
+                tags
+            ));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<MemoryRow> streaming() throws IOException {
+        return SupabaseRowDecoder.readMemoryRows(new ByteArrayInputStream(body));
+    }
+
+    private String postgresTimestamp(Instant instant) {
+        return instant.toString().replace("Z", "+00:00");
+    }
+}
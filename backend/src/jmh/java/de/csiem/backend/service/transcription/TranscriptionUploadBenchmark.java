@@ -0,0 +1,132 @@
+package de.csiem.backend.service.transcription;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap cost of sending a recording to the transcription endpoint: buffering the upload into a byte array (the old
+ * path) versus streaming the multipart temp file. Eight threads model concurrent uploads; the multipart body is
+ * written to a discarding stream so only the client side is measured.
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec -Dexec.args="-classpath %classpath org.openjdk.jmh.Main
+ * TranscriptionUploadBenchmark -prof gc"} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m"})
+@Threads(8)
+public class TranscriptionUploadBenchmark {
+
+    @Param({"5", "25"})
+    public int megabytes;
+
+    private final FormHttpMessageConverter converter = new FormHttpMessageConverter();
+    private Path recording;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(42).nextBytes(chunk);
+        recording = Files.createTempFile("benchmark-recording-", ".webm");
+        try (OutputStream output = Files.newOutputStream(recording)) {
+            for (int i = 0; i < megabytes; i++) {
+                output.write(chunk);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(recording);
+    }
+
+    @Benchmark
+    public long bufferedUpload() throws IOException {
+        byte[] audioBytes = Files.readAllBytes(recording);
+        return write(new ByteArrayResource(audioBytes) {
+            @Override
+            public String getFilename() {
+                return "recording.webm";
+            }
+        });
+    }
+
+    @Benchmark
+    public long streamedUpload() throws IOException {
+        return write(new FileSystemResource(recording));
+    }
+
+    private long write(Resource audio) throws IOException {
+        HttpHeaders fileHeaders = new HttpHeaders();
+        fileHeaders.setContentType(MediaType.parseMediaType("audio/webm"));
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new HttpEntity<>(audio, fileHeaders));
+        body.add("model", "gpt-4o-mini-transcribe");
+
+        CountingMessage message = new CountingMessage();
+        converter.write(body, MediaType.MULTIPART_FORM_DATA, message);
+        return message.body.count;
+    }
+
+    private static final class CountingMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final CountingStream body = new CountingStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
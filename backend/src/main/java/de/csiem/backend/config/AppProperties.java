@@ -2,8 +2,12 @@ package de.csiem.backend.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 @ConfigurationProperties(prefix = "app")
@@ -15,6 +19,12 @@ public class AppProperties {
     private final Insights insights = new Insights();
     private final Splitter splitter = new Splitter();
     private final Supabase supabase = new Supabase();
+    private final Processing processing = new Processing();
+    private final AiCache aiCache = new AiCache();
+    private final OpenAi openai = new OpenAi();
+    private final OpenAiLimits openaiLimits = new OpenAiLimits();
+    private final Pipeline pipeline = new Pipeline();
+    private final Tagging tagging = new Tagging();
 
     public UUID getDefaultUserId() {
         return defaultUserId;
@@ -48,6 +58,30 @@ public class AppProperties {
         return supabase;
     }
 
+    public Processing getProcessing() {
+        return processing;
+    }
+
+    public AiCache getAiCache() {
+        return aiCache;
+    }
+
+    public OpenAi getOpenai() {
+        return openai;
+    }
+
+    public OpenAiLimits getOpenaiLimits() {
+        return openaiLimits;
+    }
+
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    public Tagging getTagging() {
+        return tagging;
+    }
+
     public List<String> getCorsOriginsAsList() {
         return Arrays.stream(corsAllowedOrigins.split(","))
             .map(String::trim)
@@ -59,6 +93,12 @@ public class AppProperties {
         private String openaiBaseUrl = "https://api.openai.com";
         private String openaiModel = "gpt-4o-mini-transcribe";
         private String openaiApiKey;
+        private boolean chunkingEnabled = false;
+        private Duration chunkDuration = Duration.ofSeconds(60);
+        private Duration chunkOverlap = Duration.ofSeconds(2);
+        private Duration chunkSilenceWindow = Duration.ofSeconds(5);
+        private int chunkParallelism = 4;
+        private String ffmpegPath = "ffmpeg";
 
         public String getOpenaiBaseUrl() {
             return openaiBaseUrl;
@@ -83,6 +123,54 @@ public class AppProperties {
         public void setOpenaiApiKey(String openaiApiKey) {
             this.openaiApiKey = openaiApiKey;
         }
+
+        public boolean isChunkingEnabled() {
+            return chunkingEnabled;
+        }
+
+        public void setChunkingEnabled(boolean chunkingEnabled) {
+            this.chunkingEnabled = chunkingEnabled;
+        }
+
+        public Duration getChunkDuration() {
+            return chunkDuration;
+        }
+
+        public void setChunkDuration(Duration chunkDuration) {
+            this.chunkDuration = chunkDuration;
+        }
+
+        public Duration getChunkOverlap() {
+            return chunkOverlap;
+        }
+
+        public void setChunkOverlap(Duration chunkOverlap) {
+            this.chunkOverlap = chunkOverlap;
+        }
+
+        public Duration getChunkSilenceWindow() {
+            return chunkSilenceWindow;
+        }
+
+        public void setChunkSilenceWindow(Duration chunkSilenceWindow) {
+            this.chunkSilenceWindow = chunkSilenceWindow;
+        }
+
+        public int getChunkParallelism() {
+            return chunkParallelism;
+        }
+
+        public void setChunkParallelism(int chunkParallelism) {
+            this.chunkParallelism = chunkParallelism;
+        }
+
+        public String getFfmpegPath() {
+            return ffmpegPath;
+        }
+
+        public void setFfmpegPath(String ffmpegPath) {
+            this.ffmpegPath = ffmpegPath;
+        }
     }
 
     public static class Insights {
@@ -90,6 +178,7 @@ public class AppProperties {
         private String openaiBaseUrl = "https://api.openai.com";
         private String openaiModel = "gpt-4o-mini";
         private String openaiApiKey;
+        private int maxInputTokens = 4000;
 
         public boolean isEnabled() {
             return enabled;
@@ -122,6 +211,477 @@ public class AppProperties {
         public void setOpenaiApiKey(String openaiApiKey) {
             this.openaiApiKey = openaiApiKey;
         }
+
+        public int getMaxInputTokens() {
+            return maxInputTokens;
+        }
+
+        public void setMaxInputTokens(int maxInputTokens) {
+            this.maxInputTokens = maxInputTokens;
+        }
+    }
+
+    public static class Processing {
+        private boolean async = false;
+        private int maxConcurrency = 4;
+        private int queueCapacity = 50;
+        private Duration shutdownTimeout = Duration.ofSeconds(60);
+        private int enrichmentParallelism = 4;
+        private Duration enrichmentTimeout = Duration.ofSeconds(45);
+        private boolean durableQueue = false;
+        private Duration jobLease = Duration.ofMinutes(2);
+        private Duration jobHeartbeatInterval = Duration.ofSeconds(30);
+        private int jobMaxAttempts = 3;
+        private Duration jobRetryBackoff = Duration.ofSeconds(30);
+        private Duration jobPollInterval = Duration.ofSeconds(2);
+        private Duration abandonedAfter = Duration.ofMinutes(30);
+        private Duration reaperInterval = Duration.ofMinutes(1);
+        private Duration progressStreamTimeout = Duration.ofMinutes(2);
+        private Duration progressRetention = Duration.ofMinutes(10);
+        private int progressBufferSize = 16;
+        private Duration progressSendTimeout = Duration.ofSeconds(10);
+        private Duration progressTicketTtl = Duration.ofSeconds(30);
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+
+        public int getEnrichmentParallelism() {
+            return enrichmentParallelism;
+        }
+
+        public void setEnrichmentParallelism(int enrichmentParallelism) {
+            this.enrichmentParallelism = enrichmentParallelism;
+        }
+
+        public Duration getEnrichmentTimeout() {
+            return enrichmentTimeout;
+        }
+
+        public void setEnrichmentTimeout(Duration enrichmentTimeout) {
+            this.enrichmentTimeout = enrichmentTimeout;
+        }
+
+        public boolean isDurableQueue() {
+            return durableQueue;
+        }
+
+        public void setDurableQueue(boolean durableQueue) {
+            this.durableQueue = durableQueue;
+        }
+
+        public Duration getJobLease() {
+            return jobLease;
+        }
+
+        public void setJobLease(Duration jobLease) {
+            this.jobLease = jobLease;
+        }
+
+        public Duration getJobHeartbeatInterval() {
+            return jobHeartbeatInterval;
+        }
+
+        public void setJobHeartbeatInterval(Duration jobHeartbeatInterval) {
+            this.jobHeartbeatInterval = jobHeartbeatInterval;
+        }
+
+        public int getJobMaxAttempts() {
+            return jobMaxAttempts;
+        }
+
+        public void setJobMaxAttempts(int jobMaxAttempts) {
+            this.jobMaxAttempts = jobMaxAttempts;
+        }
+
+        public Duration getJobRetryBackoff() {
+            return jobRetryBackoff;
+        }
+
+        public void setJobRetryBackoff(Duration jobRetryBackoff) {
+            this.jobRetryBackoff = jobRetryBackoff;
+        }
+
+        public Duration getJobPollInterval() {
+            return jobPollInterval;
+        }
+
+        public void setJobPollInterval(Duration jobPollInterval) {
+            this.jobPollInterval = jobPollInterval;
+        }
+
+        public Duration getAbandonedAfter() {
+            return abandonedAfter;
+        }
+
+        public void setAbandonedAfter(Duration abandonedAfter) {
+            this.abandonedAfter = abandonedAfter;
+        }
+
+        public Duration getReaperInterval() {
+            return reaperInterval;
+        }
+
+        public void setReaperInterval(Duration reaperInterval) {
+            this.reaperInterval = reaperInterval;
+        }
+
+        public Duration getProgressStreamTimeout() {
+            return progressStreamTimeout;
+        }
+
+        public void setProgressStreamTimeout(Duration progressStreamTimeout) {
+            this.progressStreamTimeout = progressStreamTimeout;
+        }
+
+        public Duration getProgressRetention() {
+            return progressRetention;
+        }
+
+        public void setProgressRetention(Duration progressRetention) {
+            this.progressRetention = progressRetention;
+        }
+
+        public int getProgressBufferSize() {
+            return progressBufferSize;
+        }
+
+        public void setProgressBufferSize(int progressBufferSize) {
+            this.progressBufferSize = progressBufferSize;
+        }
+
+        public Duration getProgressSendTimeout() {
+            return progressSendTimeout;
+        }
+
+        public void setProgressSendTimeout(Duration progressSendTimeout) {
+            this.progressSendTimeout = progressSendTimeout;
+        }
+
+        public Duration getProgressTicketTtl() {
+            return progressTicketTtl;
+        }
+
+        public void setProgressTicketTtl(Duration progressTicketTtl) {
+            this.progressTicketTtl = progressTicketTtl;
+        }
+    }
+
+    public static class AiCache {
+        private boolean enabled = true;
+        private boolean persistent = true;
+        private Duration ttl = Duration.ofHours(24);
+        private long maxSize = 1000;
+        private long maxPersistentEntries = 50000;
+        private Duration cleanupInterval = Duration.ofHours(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isPersistent() {
+            return persistent;
+        }
+
+        public void setPersistent(boolean persistent) {
+            this.persistent = persistent;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getMaxPersistentEntries() {
+            return maxPersistentEntries;
+        }
+
+        public void setMaxPersistentEntries(long maxPersistentEntries) {
+            this.maxPersistentEntries = maxPersistentEntries;
+        }
+
+        public Duration getCleanupInterval() {
+            return cleanupInterval;
+        }
+
+        public void setCleanupInterval(Duration cleanupInterval) {
+            this.cleanupInterval = cleanupInterval;
+        }
+    }
+
+    public static class OpenAi {
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(120);
+        private int maxConnections = 20;
+        private Duration keepAlive = Duration.ofSeconds(60);
+        private boolean structuredOutput = true;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public boolean isStructuredOutput() {
+            return structuredOutput;
+        }
+
+        public void setStructuredOutput(boolean structuredOutput) {
+            this.structuredOutput = structuredOutput;
+        }
+    }
+
+    public static class Tagging {
+        private List<String> dictionaries = List.of("classpath:tagging/en.properties", "classpath:tagging/de.properties");
+
+        public List<String> getDictionaries() {
+            return dictionaries;
+        }
+
+        public void setDictionaries(List<String> dictionaries) {
+            this.dictionaries = dictionaries;
+        }
+    }
+
+    public static class Pipeline {
+        private boolean enabled = true;
+        private Duration budget = Duration.ofSeconds(90);
+        private Duration minSplitBudget = Duration.ofSeconds(30);
+        private Duration minInsightsBudget = Duration.ofSeconds(10);
+        private Duration minTitleRetryBudget = Duration.ofSeconds(15);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getBudget() {
+            return budget;
+        }
+
+        public void setBudget(Duration budget) {
+            this.budget = budget;
+        }
+
+        public Duration getMinSplitBudget() {
+            return minSplitBudget;
+        }
+
+        public void setMinSplitBudget(Duration minSplitBudget) {
+            this.minSplitBudget = minSplitBudget;
+        }
+
+        public Duration getMinInsightsBudget() {
+            return minInsightsBudget;
+        }
+
+        public void setMinInsightsBudget(Duration minInsightsBudget) {
+            this.minInsightsBudget = minInsightsBudget;
+        }
+
+        public Duration getMinTitleRetryBudget() {
+            return minTitleRetryBudget;
+        }
+
+        public void setMinTitleRetryBudget(Duration minTitleRetryBudget) {
+            this.minTitleRetryBudget = minTitleRetryBudget;
+        }
+    }
+
+    public static class OpenAiLimits {
+        private boolean enabled = true;
+        private int requestsPerMinute = 500;
+        private int tokensPerMinute = 200000;
+        private Duration maxQueueWait = Duration.ofSeconds(30);
+        private int initialConcurrency = 8;
+        private int minConcurrency = 1;
+        private int maxConcurrency = 32;
+        private Duration latencyThreshold = Duration.ofSeconds(30);
+        private Duration transcriptionLatencyThreshold = Duration.ofMinutes(3);
+        private Map<String, ModelLimits> models = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public int getTokensPerMinute() {
+            return tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(int tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
+
+        public Duration getMaxQueueWait() {
+            return maxQueueWait;
+        }
+
+        public void setMaxQueueWait(Duration maxQueueWait) {
+            this.maxQueueWait = maxQueueWait;
+        }
+
+        public int getInitialConcurrency() {
+            return initialConcurrency;
+        }
+
+        public void setInitialConcurrency(int initialConcurrency) {
+            this.initialConcurrency = initialConcurrency;
+        }
+
+        public int getMinConcurrency() {
+            return minConcurrency;
+        }
+
+        public void setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public Duration getTranscriptionLatencyThreshold() {
+            return transcriptionLatencyThreshold;
+        }
+
+        public void setTranscriptionLatencyThreshold(Duration transcriptionLatencyThreshold) {
+            this.transcriptionLatencyThreshold = transcriptionLatencyThreshold;
+        }
+
+        public Map<String, ModelLimits> getModels() {
+            return models;
+        }
+
+        public void setModels(Map<String, ModelLimits> models) {
+            this.models = models;
+        }
+
+        public int requestsPerMinuteFor(String model) {
+            ModelLimits limits = models.get(model);
+            return limits != null && limits.getRequestsPerMinute() != null ? limits.getRequestsPerMinute() : requestsPerMinute;
+        }
+
+        public int tokensPerMinuteFor(String model) {
+            ModelLimits limits = models.get(model);
+            return limits != null && limits.getTokensPerMinute() != null ? limits.getTokensPerMinute() : tokensPerMinute;
+        }
+    }
+
+    public static class ModelLimits {
+        private Integer requestsPerMinute;
+        private Integer tokensPerMinute;
+
+        public Integer getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(Integer requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public Integer getTokensPerMinute() {
+            return tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(Integer tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
     }
 
     public static class Splitter {
@@ -131,6 +691,9 @@ public class AppProperties {
         private String openaiApiKey;
         private int maxMemories = 5;
         private int minExcerptChars = 20;
+        private int maxInputTokens = 4500;
+        private boolean dateCheck = true;
+        private SplitterMode mode = SplitterMode.SEPARATE;
 
         public boolean isEnabled() {
             return enabled;
@@ -179,11 +742,49 @@ public class AppProperties {
         public void setMinExcerptChars(int minExcerptChars) {
             this.minExcerptChars = minExcerptChars;
         }
+
+        public int getMaxInputTokens() {
+            return maxInputTokens;
+        }
+
+        public void setMaxInputTokens(int maxInputTokens) {
+            this.maxInputTokens = maxInputTokens;
+        }
+
+        public boolean isDateCheck() {
+            return dateCheck;
+        }
+
+        public void setDateCheck(boolean dateCheck) {
+            this.dateCheck = dateCheck;
+        }
+
+        public SplitterMode getMode() {
+            return mode;
+        }
+
+        public void setMode(SplitterMode mode) {
+            this.mode = mode;
+        }
     }
 
     public static class Supabase {
         private String url;
         private String anonKey;
+        private String serviceRoleKey;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private int maxConnections = 50;
+        private Duration keepAlive = Duration.ofSeconds(60);
+        private int warmUpConnections = 2;
+        private boolean localJwtVerification = true;
+        private String jwtSecret;
+        private Duration jwksCacheTtl = Duration.ofMinutes(10);
+        private CountStrategy countStrategy = CountStrategy.EXACT;
+        private boolean timelineRpc = false;
+        private Duration timelineRpcRetryAfter = Duration.ofMinutes(5);
+        private Duration authorizationCacheTtl = Duration.ofSeconds(60);
+        private int authorizationCacheMaxSize = 10_000;
 
         public String getUrl() {
             return url;
@@ -200,5 +801,138 @@ public class AppProperties {
         public void setAnonKey(String anonKey) {
             this.anonKey = anonKey;
         }
+
+        public String getServiceRoleKey() {
+            return serviceRoleKey;
+        }
+
+        public void setServiceRoleKey(String serviceRoleKey) {
+            this.serviceRoleKey = serviceRoleKey;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public int getWarmUpConnections() {
+            return warmUpConnections;
+        }
+
+        public void setWarmUpConnections(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+        }
+
+        public boolean isLocalJwtVerification() {
+            return localJwtVerification;
+        }
+
+        public void setLocalJwtVerification(boolean localJwtVerification) {
+            this.localJwtVerification = localJwtVerification;
+        }
+
+        public String getJwtSecret() {
+            return jwtSecret;
+        }
+
+        public void setJwtSecret(String jwtSecret) {
+            this.jwtSecret = jwtSecret;
+        }
+
+        public Duration getJwksCacheTtl() {
+            return jwksCacheTtl;
+        }
+
+        public void setJwksCacheTtl(Duration jwksCacheTtl) {
+            this.jwksCacheTtl = jwksCacheTtl;
+        }
+
+        public CountStrategy getCountStrategy() {
+            return countStrategy;
+        }
+
+        public void setCountStrategy(CountStrategy countStrategy) {
+            this.countStrategy = countStrategy;
+        }
+
+        public boolean isTimelineRpc() {
+            return timelineRpc;
+        }
+
+        public void setTimelineRpc(boolean timelineRpc) {
+            this.timelineRpc = timelineRpc;
+        }
+
+        public Duration getTimelineRpcRetryAfter() {
+            return timelineRpcRetryAfter;
+        }
+
+        public void setTimelineRpcRetryAfter(Duration timelineRpcRetryAfter) {
+            this.timelineRpcRetryAfter = timelineRpcRetryAfter;
+        }
+
+        public Duration getAuthorizationCacheTtl() {
+            return authorizationCacheTtl;
+        }
+
+        public void setAuthorizationCacheTtl(Duration authorizationCacheTtl) {
+            this.authorizationCacheTtl = authorizationCacheTtl;
+        }
+
+        public int getAuthorizationCacheMaxSize() {
+            return authorizationCacheMaxSize;
+        }
+
+        public void setAuthorizationCacheMaxSize(int authorizationCacheMaxSize) {
+            this.authorizationCacheMaxSize = authorizationCacheMaxSize;
+        }
+    }
+
+    public enum SplitterMode {
+        /**
+         * One splitter call, then one insights call per memory.
+         */
+        SEPARATE,
+        /**
+         * One call returns the segments with their titles and summaries.
+         */
+        COMBINED
+    }
+
+    public enum CountStrategy {
+        EXACT,
+        PLANNED,
+        ESTIMATED;
+
+        public String preferHeader() {
+            return "count=" + name().toLowerCase(Locale.ROOT);
+        }
     }
 }
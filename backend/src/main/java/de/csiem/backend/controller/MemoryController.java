@@ -1,13 +1,21 @@
 package de.csiem.backend.controller;
 
+import de.csiem.backend.config.AppProperties;
 import de.csiem.backend.dto.CreateMemoryRequest;
 import de.csiem.backend.dto.CreateMemoryResponse;
 import de.csiem.backend.dto.MemoryListResponse;
+import de.csiem.backend.dto.MemoryProgressEvent;
 import de.csiem.backend.dto.MemoryResponse;
+import de.csiem.backend.dto.TokenResponse;
 import de.csiem.backend.dto.UpdateMemoryRequest;
+import de.csiem.backend.model.MemoryProcessingStage;
+import de.csiem.backend.model.MemoryStatus;
+import de.csiem.backend.service.MemoryProgressBus;
 import de.csiem.backend.service.MemoryService;
+import de.csiem.backend.service.MemoryStreamTickets;
 import de.csiem.backend.service.SupabaseMemoryService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
@@ -23,9 +31,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
+import static org.springframework.http.HttpStatus.ACCEPTED;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
@@ -35,10 +48,22 @@ public class MemoryController {
 
     private final MemoryService memoryService;
     private final SupabaseMemoryService supabaseMemoryService;
+    private final MemoryProgressBus progressBus;
+    private final MemoryStreamTickets streamTickets;
+    private final AppProperties appProperties;
 
-    public MemoryController(MemoryService memoryService, SupabaseMemoryService supabaseMemoryService) {
+    public MemoryController(
+        MemoryService memoryService,
+        SupabaseMemoryService supabaseMemoryService,
+        MemoryProgressBus progressBus,
+        MemoryStreamTickets streamTickets,
+        AppProperties appProperties
+    ) {
         this.memoryService = memoryService;
         this.supabaseMemoryService = supabaseMemoryService;
+        this.progressBus = progressBus;
+        this.streamTickets = streamTickets;
+        this.appProperties = appProperties;
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -46,12 +71,12 @@ public class MemoryController {
         @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
         @Valid @ModelAttribute CreateMemoryRequest request
     ) {
-        if (useSupabase()) {
-            return ResponseEntity.status(CREATED).body(
-                supabaseMemoryService.createMemory(requireAuthorizationHeader(authorizationHeader), request)
-            );
-        }
-        return ResponseEntity.status(CREATED).body(memoryService.createMemory(request));
+        CreateMemoryResponse response = useSupabase()
+            ? supabaseMemoryService.createMemory(requireAuthorizationHeader(authorizationHeader), request)
+            : memoryService.createMemory(request);
+        // Still PROCESSING means the work continues in the background; clients follow GET /api/memories/{id}/events.
+        HttpStatus status = response.status() == MemoryStatus.PROCESSING ? ACCEPTED : CREATED;
+        return ResponseEntity.status(status).body(response);
     }
 
     @GetMapping
@@ -62,7 +87,8 @@ public class MemoryController {
         @RequestParam(value = "familyId", required = false) String familyId,
         @RequestParam(value = "month", required = false) String month,
         @RequestParam(value = "tags", required = false) List<String> tags,
-        @RequestParam(value = "highlights", defaultValue = "false") boolean highlightsOnly
+        @RequestParam(value = "highlights", defaultValue = "false") boolean highlightsOnly,
+        @RequestParam(value = "cursor", required = false) String cursor
     ) {
         if (useSupabase()) {
             return supabaseMemoryService.getMemories(
@@ -72,10 +98,11 @@ public class MemoryController {
                 familyId,
                 month,
                 tags,
-                highlightsOnly
+                highlightsOnly,
+                cursor
             );
         }
-        return memoryService.getMemories(page, size, month, tags, highlightsOnly);
+        return memoryService.getMemories(page, size, month, tags, highlightsOnly, cursor);
     }
 
     @GetMapping("/{id}")
@@ -89,6 +116,67 @@ public class MemoryController {
         return memoryService.getMemory(id);
     }
 
+    /**
+     * Issues a single-use ticket for {@code GET /{id}/events}, for clients such as {@code EventSource} that cannot
+     * send the {@code Authorization} header.
+     */
+    @PostMapping("/{id}/events/ticket")
+    public TokenResponse createMemoryEventsTicket(
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+        @PathVariable("id") UUID id
+    ) {
+        // Loading the memory doubles as the access check.
+        getMemory(authorizationHeader, id);
+        return new TokenResponse(streamTickets.issue(id, useSupabase() ? authorizationHeader : null));
+    }
+
+    /**
+     * Streams processing progress as server-sent events until the memory is READY or FAILED. Reconnecting clients
+     * send {@code Last-Event-ID} and receive only what they missed. Without an {@code Authorization} header the
+     * stream needs a {@code ticket} from {@code POST /{id}/events/ticket}.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMemoryEvents(
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+        @RequestParam(value = "ticket", required = false) String ticket,
+        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+        @PathVariable("id") UUID id
+    ) {
+        if (!StringUtils.hasText(authorizationHeader) && ticket != null) {
+            authorizationHeader = streamTickets.redeem(ticket, id);
+        }
+        // Loading the memory doubles as the access check.
+        MemoryResponse memory = getMemory(authorizationHeader, id);
+        SseEmitter emitter = new SseEmitter(appProperties.getProcessing().getProgressStreamTimeout().toMillis());
+
+        if (memory.status() != MemoryStatus.PROCESSING) {
+            MemoryProcessingStage stage = memory.status() == MemoryStatus.READY
+                ? MemoryProcessingStage.READY
+                : MemoryProcessingStage.FAILED;
+            MemoryProgressEvent event = new MemoryProgressEvent(
+                id,
+                stage,
+                memory.status(),
+                List.of(id),
+                memory.errorMessage(),
+                Instant.now()
+            );
+            send(emitter, new MemoryProgressBus.Delivery(0, event));
+            return emitter;
+        }
+
+        MemoryProgressBus.Subscription subscription = progressBus.subscribe(
+            id,
+            lastEventId == null ? 0 : lastEventId,
+            delivery -> send(emitter, delivery),
+            emitter::complete
+        );
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+
     @PatchMapping("/{id}")
     public MemoryResponse updateMemory(
         @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
@@ -114,6 +202,20 @@ public class MemoryController {
         return ResponseEntity.noContent().build();
     }
 
+    private void send(SseEmitter emitter, MemoryProgressBus.Delivery delivery) {
+        try {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(delivery.id()))
+                .data(delivery.event(), MediaType.APPLICATION_JSON));
+            if (delivery.event().stage().isTerminal()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away; the bus drops the subscriber.
+            throw new IllegalStateException("Progress stream closed", ex);
+        }
+    }
+
     private boolean useSupabase() {
         return supabaseMemoryService.isEnabled();
     }
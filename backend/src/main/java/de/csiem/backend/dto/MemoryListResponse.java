@@ -7,6 +7,8 @@ public record MemoryListResponse(
     int page,
     int size,
     long totalElements,
-    int totalPages
+    int totalPages,
+    String nextCursor,
+    String prevCursor
 ) {
 }
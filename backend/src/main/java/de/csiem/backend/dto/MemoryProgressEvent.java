@@ -0,0 +1,18 @@
+package de.csiem.backend.dto;
+
+import de.csiem.backend.model.MemoryProcessingStage;
+import de.csiem.backend.model.MemoryStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record MemoryProgressEvent(
+    UUID memoryId,
+    MemoryProcessingStage stage,
+    MemoryStatus status,
+    List<UUID> ids,
+    String errorMessage,
+    Instant at
+) {
+}
@@ -0,0 +1,79 @@
+package de.csiem.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "ai_stage_cache")
+public class AiStageCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 255)
+    private String cacheKey;
+
+    @Column(name = "stage", nullable = false, length = 32)
+    private String stage;
+
+    @Column(name = "subject_hash", length = 64)
+    private String subjectHash;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    protected AiStageCacheEntry() {
+    }
+
+    public AiStageCacheEntry(
+        String cacheKey,
+        String stage,
+        String subjectHash,
+        String payload,
+        Instant createdAt,
+        Instant expiresAt
+    ) {
+        this.cacheKey = cacheKey;
+        this.stage = stage;
+        this.subjectHash = subjectHash;
+        this.payload = payload;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public String getSubjectHash() {
+        return subjectHash;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
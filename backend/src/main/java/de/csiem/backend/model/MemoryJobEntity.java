@@ -0,0 +1,161 @@
+package de.csiem.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One queued processing run for a memory. The recording itself lives in the {@code audio} column, which is
+ * streamed through JDBC and deliberately not mapped here.
+ */
+@Entity
+@Table(name = "memory_jobs")
+public class MemoryJobEntity {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "memory_id", nullable = false)
+    private UUID memoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private MemoryJobStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "max_attempts", nullable = false)
+    private int maxAttempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    @Column(name = "upload_timestamp", nullable = false)
+    private Instant uploadTimestamp;
+
+    @Column(name = "audio_filename", nullable = false, length = 255)
+    private String audioFilename;
+
+    @Column(name = "audio_content_type", nullable = false, length = 100)
+    private String audioContentType;
+
+    @Column(name = "audio_length", nullable = false)
+    private long audioLength;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    protected MemoryJobEntity() {
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = Instant.now();
+    }
+
+    public void lease(String owner, Instant now, Instant expiresAt) {
+        status = MemoryJobStatus.RUNNING;
+        attempts++;
+        leaseOwner = owner;
+        heartbeatAt = now;
+        leaseExpiresAt = expiresAt;
+    }
+
+    public void retryAt(Instant nextAttempt, String error) {
+        status = MemoryJobStatus.PENDING;
+        availableAt = nextAttempt;
+        leaseOwner = null;
+        leaseExpiresAt = null;
+        lastError = error;
+    }
+
+    public void markFailed(String error) {
+        status = MemoryJobStatus.FAILED;
+        leaseOwner = null;
+        leaseExpiresAt = null;
+        lastError = error;
+    }
+
+    public boolean hasAttemptsLeft() {
+        return attempts < maxAttempts;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getMemoryId() {
+        return memoryId;
+    }
+
+    public MemoryJobStatus getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public Instant getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public Instant getUploadTimestamp() {
+        return uploadTimestamp;
+    }
+
+    public String getAudioFilename() {
+        return audioFilename;
+    }
+
+    public String getAudioContentType() {
+        return audioContentType;
+    }
+
+    public long getAudioLength() {
+        return audioLength;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,7 @@
+package de.csiem.backend.model;
+
+public enum MemoryJobStatus {
+    PENDING,
+    RUNNING,
+    FAILED
+}
@@ -0,0 +1,21 @@
+package de.csiem.backend.model;
+
+public enum MemoryProcessingStage {
+    TRANSCRIBING,
+    SPLITTING,
+    ENRICHING,
+    READY,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == READY || this == FAILED;
+    }
+
+    public MemoryStatus status() {
+        return switch (this) {
+            case READY -> MemoryStatus.READY;
+            case FAILED -> MemoryStatus.FAILED;
+            default -> MemoryStatus.PROCESSING;
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package de.csiem.backend.repository;
+
+import de.csiem.backend.model.AiStageCacheEntry;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface AiStageCacheRepository extends JpaRepository<AiStageCacheEntry, String> {
+
+    @Modifying
+    @Query("delete from AiStageCacheEntry e where e.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    @Modifying
+    @Query(
+        value = "delete from ai_stage_cache where cache_key in "
+            + "(select cache_key from ai_stage_cache order by created_at asc limit :count)",
+        nativeQuery = true
+    )
+    int deleteOldest(@Param("count") long count);
+
+    @Modifying
+    @Query("delete from AiStageCacheEntry e where e.subjectHash in :subjectHashes")
+    int deleteBySubjectHashIn(@Param("subjectHashes") Collection<String> subjectHashes);
+}
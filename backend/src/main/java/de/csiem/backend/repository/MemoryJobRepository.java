@@ -0,0 +1,61 @@
+package de.csiem.backend.repository;
+
+import de.csiem.backend.model.MemoryJobEntity;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface MemoryJobRepository extends JpaRepository<MemoryJobEntity, UUID> {
+
+    /**
+     * Locks the next due job; rows already locked by another worker are skipped instead of waited on.
+     */
+    @Query(
+        value = "select * from memory_jobs where status = 'PENDING' and available_at <= :now "
+            + "order by available_at limit 1 for update skip locked",
+        nativeQuery = true
+    )
+    Optional<MemoryJobEntity> lockNextDue(@Param("now") Instant now);
+
+    @Query(
+        value = "select * from memory_jobs where status = 'RUNNING' and lease_expires_at < :now "
+            + "order by lease_expires_at limit :limit for update skip locked",
+        nativeQuery = true
+    )
+    List<MemoryJobEntity> lockExpiredLeases(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query(
+        "update MemoryJobEntity j set j.heartbeatAt = :now, j.leaseExpiresAt = :leaseExpiresAt, j.updatedAt = :now "
+            + "where j.id = :id and j.leaseOwner = :owner and j.status = de.csiem.backend.model.MemoryJobStatus.RUNNING"
+    )
+    int heartbeat(
+        @Param("id") UUID id,
+        @Param("owner") String owner,
+        @Param("now") Instant now,
+        @Param("leaseExpiresAt") Instant leaseExpiresAt
+    );
+
+    /**
+     * Locks the job only while {@code owner} still holds its lease.
+     */
+    @Query(
+        value = "select * from memory_jobs where id = :id and lease_owner = :owner and status = 'RUNNING' for update",
+        nativeQuery = true
+    )
+    Optional<MemoryJobEntity> lockLeased(@Param("id") UUID id, @Param("owner") String owner);
+
+    @Modifying
+    @Query(
+        "delete from MemoryJobEntity j "
+            + "where j.id = :id and j.leaseOwner = :owner and j.status = de.csiem.backend.model.MemoryJobStatus.RUNNING"
+    )
+    int deleteLeased(@Param("id") UUID id, @Param("owner") String owner);
+}
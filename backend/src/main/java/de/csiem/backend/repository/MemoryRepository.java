@@ -6,7 +6,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,5 +22,19 @@ public interface MemoryRepository extends JpaRepository<MemoryEntity, UUID>, Jpa
 
     Optional<MemoryEntity> findByIdAndUser_IdAndIsParentFalse(UUID id, UUID userId);
 
+    Optional<MemoryEntity> findFirstByParentMemory_IdAndUser_IdOrderByRecordedAtAscCreatedAtAsc(UUID parentMemoryId, UUID userId);
+
     long countByParentMemory_Id(UUID parentMemoryId);
+
+    /**
+     * Fails memories stuck in {@code PROCESSING} that no queued job will ever pick up again.
+     */
+    @Modifying
+    @Query(
+        "update MemoryEntity m set m.status = de.csiem.backend.model.MemoryStatus.FAILED, m.errorMessage = :message, "
+            + "m.updatedAt = :now where m.status = de.csiem.backend.model.MemoryStatus.PROCESSING "
+            + "and m.updatedAt < :cutoff and not exists (select j.id from MemoryJobEntity j where j.memoryId = m.id "
+            + "and j.status <> de.csiem.backend.model.MemoryJobStatus.FAILED)"
+    )
+    int failAbandoned(@Param("cutoff") Instant cutoff, @Param("now") Instant now, @Param("message") String message);
 }
@@ -0,0 +1,139 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.prompts.PromptTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The splitter flow both {@code app.splitter.mode}s share: gates, prompt fitting, the cached chat call and the
+ * fallback to a single memory. A mode only supplies its prompt, the chat request and the insights per segment.
+ */
+abstract class AbstractMemorySplittingService implements MemorySplittingService {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractMemorySplittingService.class);
+
+    private final AppProperties appProperties;
+    private final AiStageCache stageCache;
+    private final OpenAiClient openAiClient;
+    private final SplitPlanner planner;
+
+    AbstractMemorySplittingService(
+        AppProperties appProperties,
+        MemoryDateResolver dateResolver,
+        AiStageCache stageCache,
+        OpenAiClient openAiClient,
+        MeterRegistry meterRegistry
+    ) {
+        this.appProperties = appProperties;
+        this.stageCache = stageCache;
+        this.openAiClient = openAiClient;
+        this.planner = new SplitPlanner(dateResolver, meterRegistry);
+    }
+
+    abstract PromptTemplate prompt(int maxMemories, int minExcerptChars);
+
+    abstract OpenAiClient.ChatRequest chatRequest(PromptTemplate prompt, String systemPrompt, String userPrompt);
+
+    /**
+     * Validated insights the model returned with {@code candidate}, or {@code null} to generate them later.
+     */
+    abstract MemoryInsightsService.MemoryInsights insights(ModelOutputParser.SplitCandidate candidate, String excerpt);
+
+    @Override
+    public List<SplitMemory> split(String transcript, Instant uploadTimestamp) {
+        return split(transcript, uploadTimestamp, PipelineDeadline.unlimited());
+    }
+
+    @Override
+    public List<SplitMemory> split(String transcript, Instant uploadTimestamp, PipelineDeadline deadline) {
+        String normalizedTranscript = SplitPlanner.normalize(transcript);
+        if (normalizedTranscript.isBlank()) {
+            return List.of(new SplitMemory("", uploadTimestamp, 1.0));
+        }
+
+        AppProperties.Splitter splitter = appProperties.getSplitter();
+        int maxMemories = Math.max(1, splitter.getMaxMemories());
+        int minExcerptChars = Math.max(1, splitter.getMinExcerptChars());
+
+        List<SplitPlanner.Segment> segments = splitWithAi(
+            normalizedTranscript,
+            uploadTimestamp,
+            splitter,
+            maxMemories,
+            minExcerptChars,
+            deadline
+        );
+        return planner.plan(segments, normalizedTranscript, uploadTimestamp, maxMemories, minExcerptChars);
+    }
+
+    private List<SplitPlanner.Segment> splitWithAi(
+        String transcript,
+        Instant uploadTimestamp,
+        AppProperties.Splitter splitter,
+        int maxMemories,
+        int minExcerptChars,
+        PipelineDeadline deadline
+    ) {
+        if (!splitter.isEnabled()) {
+            return List.of();
+        }
+
+        OpenAiClient.StageSettings settings = openAiClient.settings(OpenAiClient.Stage.SPLIT);
+        if (!settings.isConfigured()) {
+            return List.of();
+        }
+
+        // A single-day transcript stays one memory whatever the model says, so the call is skipped.
+        if (splitter.isDateCheck() && !planner.mentionsSeveralDays(transcript, uploadTimestamp)) {
+            return List.of();
+        }
+
+        PromptTemplate prompt = prompt(maxMemories, minExcerptChars);
+        String systemPrompt = prompt.systemPrompt();
+        String userPrompt = prompt.userPrompt(prompt.fit(transcript, splitter.getMaxInputTokens()));
+
+        try {
+            // Only the raw model output is cached; dates are still resolved against this upload's timestamp.
+            String content = stageCache.get(
+                AiStageCache.Stage.SPLIT,
+                settings.model(),
+                prompt.version(),
+                systemPrompt + "\n\n" + userPrompt,
+                transcript,
+                String.class,
+                () -> openAiClient.chatJson(
+                    chatRequest(prompt, systemPrompt, userPrompt).withTimeLimit(deadline.timeLimit())
+                ),
+                output -> true
+            );
+            if (content == null) {
+                return List.of();
+            }
+
+            return parseSegments(content);
+        } catch (Exception ex) {
+            log.warn("AI split failed, keeping the transcript as one memory: {}", ex.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<SplitPlanner.Segment> parseSegments(String content) {
+        List<SplitPlanner.Segment> parsed = new ArrayList<>();
+        for (ModelOutputParser.SplitCandidate candidate : ModelOutputParser.readSplitCandidates(content)) {
+            String excerpt = SplitPlanner.normalize(candidate.excerpt());
+            if (excerpt.isBlank()) {
+                continue;
+            }
+            String dateText = candidate.dateText() == null ? null : SplitPlanner.normalize(candidate.dateText());
+            parsed.add(new SplitPlanner.Segment(excerpt, dateText, candidate.confidence(), insights(candidate, excerpt)));
+        }
+        return parsed;
+    }
+}
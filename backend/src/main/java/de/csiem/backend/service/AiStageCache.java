@@ -0,0 +1,355 @@
+package de.csiem.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.AiStageCacheEntry;
+import de.csiem.backend.repository.AiStageCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed cache for AI stage results, keyed by stage, model, prompt version and the SHA-256 of the input.
+ * An in-memory LRU sits in front of the {@code ai_stage_cache} table so results survive restarts. Rows hold no raw
+ * text: the key is a hash, and the payload is encrypted with a key derived from the input, so only a caller holding
+ * the same input can read it back. Cache failures never fail the caller; they only cost a fresh model call.
+ */
+@Component
+public class AiStageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AiStageCache.class);
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final AppProperties.AiCache settings;
+    private final AiStageCacheRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Cache<String, Cached> local;
+    private final Map<Stage, Counter> memoryHits = new EnumMap<>(Stage.class);
+    private final Map<Stage, Counter> persistentHits = new EnumMap<>(Stage.class);
+    private final Map<Stage, Counter> misses = new EnumMap<>(Stage.class);
+
+    public AiStageCache(
+        AppProperties appProperties,
+        AiStageCacheRepository repository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.settings = appProperties.getAiCache();
+        this.repository = repository;
+        // Own transaction, so a failed cache write can never mark the caller's transaction rollback-only.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.local = Caffeine.newBuilder()
+            .expireAfterWrite(settings.getTtl())
+            .maximumSize(settings.getMaxSize())
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "ai.stage.cache");
+        for (Stage stage : Stage.values()) {
+            memoryHits.put(stage, lookupCounter(meterRegistry, stage, "memory_hit"));
+            persistentHits.put(stage, lookupCounter(meterRegistry, stage, "persistent_hit"));
+            misses.put(stage, lookupCounter(meterRegistry, stage, "miss"));
+        }
+    }
+
+    /**
+     * Returns the cached result for a text prompt or calls {@code loader}. {@code subject} is the transcript the
+     * result is about, so the entry is evicted together with it; only results {@code cacheable} accepts are stored,
+     * e.g. not one a deadline cut short. {@code null} results are never cached.
+     */
+    public <T> T get(
+        Stage stage,
+        String model,
+        String promptVersion,
+        String input,
+        String subject,
+        Class<T> type,
+        Supplier<T> loader,
+        Predicate<? super T> cacheable
+    ) {
+        if (!settings.isEnabled()) {
+            return loader.get();
+        }
+        String inputHash = sha256(input.getBytes(StandardCharsets.UTF_8));
+        return lookup(stage, model, promptVersion, inputHash, type, loader, cacheable, value -> subject);
+    }
+
+    /**
+     * Same as above for inputs the caller hashed with {@link #sha256}, e.g. a recording streamed from disk. The
+     * subject comes from the result, such as the transcript of that recording.
+     */
+    public <T> T getByHash(
+        Stage stage,
+        String model,
+        String promptVersion,
+        String inputHash,
+        Class<T> type,
+        Supplier<T> loader,
+        Function<? super T, String> subject
+    ) {
+        if (!settings.isEnabled()) {
+            return loader.get();
+        }
+        return lookup(stage, model, promptVersion, inputHash, type, loader, value -> true, subject);
+    }
+
+    /**
+     * Drops every entry about one of {@code subjects}, e.g. the transcripts of a deleted memory.
+     */
+    public void evictSubjects(Collection<String> subjects) {
+        Set<String> subjectHashes = subjects.stream()
+            .filter(StringUtils::hasText)
+            .map(AiStageCache::subjectHash)
+            .collect(Collectors.toSet());
+        if (subjectHashes.isEmpty()) {
+            return;
+        }
+        local.asMap().values().removeIf(cached -> subjectHashes.contains(cached.subjectHash()));
+        if (!settings.isPersistent()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.deleteBySubjectHashIn(subjectHashes));
+        } catch (RuntimeException ex) {
+            log.warn("AI cache eviction failed: {}", ex.getMessage());
+        }
+    }
+
+    private <T> T lookup(
+        Stage stage,
+        String model,
+        String promptVersion,
+        String inputHash,
+        Class<T> type,
+        Supplier<T> loader,
+        Predicate<? super T> cacheable,
+        Function<? super T, String> subject
+    ) {
+        String address = String.join(":", stage.key(), model, promptVersion, inputHash);
+        String key = sha256(address.getBytes(StandardCharsets.UTF_8));
+
+        Cached hit = local.getIfPresent(key);
+        if (hit != null) {
+            T cached = decode(hit.payload(), type);
+            if (cached != null) {
+                memoryHits.get(stage).increment();
+                return cached;
+            }
+        }
+
+        AiStageCacheEntry entry = readPersistent(key);
+        String payload = entry == null ? null : open(address, entry.getPayload());
+        if (payload != null) {
+            T cached = decode(payload, type);
+            if (cached != null) {
+                persistentHits.get(stage).increment();
+                local.put(key, new Cached(payload, entry.getSubjectHash()));
+                return cached;
+            }
+        }
+
+        misses.get(stage).increment();
+        T value = loader.get();
+        if (value != null && cacheable.test(value)) {
+            String about = subject.apply(value);
+            store(key, address, stage, StringUtils.hasText(about) ? subjectHash(about) : null, value);
+        }
+        return value;
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.ai-cache.cleanup-interval:1h}",
+        fixedDelayString = "${app.ai-cache.cleanup-interval:1h}"
+    )
+    public void evictPersistentEntries() {
+        if (!settings.isEnabled() || !settings.isPersistent()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int expired = repository.deleteExpired(Instant.now());
+                long excess = repository.count() - settings.getMaxPersistentEntries();
+                int trimmed = excess > 0 ? repository.deleteOldest(excess) : 0;
+                if (expired > 0 || trimmed > 0) {
+                    log.debug("Evicted {} expired and {} surplus AI cache entries", expired, trimmed);
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.warn("AI cache cleanup failed: {}", ex.getMessage());
+        }
+    }
+
+    private AiStageCacheEntry readPersistent(String key) {
+        if (!settings.isPersistent()) {
+            return null;
+        }
+        try {
+            return transactionTemplate.execute(status -> repository.findById(key)
+                .filter(entry -> !entry.isExpired(Instant.now()))
+                .orElse(null));
+        } catch (RuntimeException ex) {
+            log.warn("AI cache lookup failed: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String key, String address, Stage stage, String subjectHash, Object value) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(value);
+        } catch (Exception ex) {
+            log.warn("Could not serialize {} result for the AI cache: {}", stage.key(), ex.getMessage());
+            return;
+        }
+        local.put(key, new Cached(payload, subjectHash));
+
+        if (!settings.isPersistent()) {
+            return;
+        }
+        Instant now = Instant.now();
+        try {
+            String sealed = seal(address, payload);
+            transactionTemplate.executeWithoutResult(status -> repository.save(new AiStageCacheEntry(
+                key,
+                stage.key(),
+                subjectHash,
+                sealed,
+                now,
+                now.plus(settings.getTtl())
+            )));
+        } catch (RuntimeException ex) {
+            log.warn("AI cache write failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Encrypts the payload with a key derived from its cache address, which contains the input hash the table
+     * never stores.
+     */
+    private static String seal(String address, String payload) {
+        byte[] iv = new byte[GCM_IV_BYTES];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, payloadKey(address), new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not encrypt the AI cache payload", ex);
+        }
+    }
+
+    private static String open(String address, String stored) {
+        try {
+            byte[] sealed = Base64.getDecoder().decode(stored);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, payloadKey(address), new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_BYTES));
+            return new String(cipher.doFinal(sealed, GCM_IV_BYTES, sealed.length - GCM_IV_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static SecretKeySpec payloadKey(String address) {
+        return new SecretKeySpec(sha256Digest().digest(("payload:" + address).getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+
+    private static String subjectHash(String subject) {
+        return sha256(subject.trim().replaceAll("\\s+", " ").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> T decode(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, Stage stage, String result) {
+        return Counter.builder("ai.stage.cache.lookups")
+            .tag("stage", stage.key())
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    public static String sha256(byte[] input) {
+        return HexFormat.of().formatHex(sha256Digest().digest(input));
+    }
+
+    /**
+     * Hashes a stream without holding it in memory, e.g. an uploaded recording on disk.
+     */
+    public static String sha256(InputStream input) throws IOException {
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private record Cached(String payload, String subjectHash) {
+    }
+
+    public enum Stage {
+        TRANSCRIPTION,
+        SPLIT,
+        INSIGHTS;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.csiem.backend.service;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Audio of one upload. Transcription streams it from disk, so a recording is never held on the heap as a whole.
+ */
+public final class AudioUpload implements AutoCloseable {
+
+    private final Resource resource;
+    private final long contentLength;
+    private final String filename;
+    private final String contentType;
+    private final Path ownedFile;
+
+    private AudioUpload(Resource resource, long contentLength, String filename, String contentType, Path ownedFile) {
+        this.resource = resource;
+        this.contentLength = contentLength;
+        this.filename = filename;
+        this.contentType = contentType;
+        this.ownedFile = ownedFile;
+    }
+
+    /**
+     * Reads straight from the multipart temp file; only valid until the request completes.
+     */
+    public static AudioUpload of(MultipartFile file) {
+        return new AudioUpload(file.getResource(), file.getSize(), filename(file), contentType(file), null);
+    }
+
+    /**
+     * Moves the upload into a temp file owned by the returned object, so a background job can read it after the
+     * request has completed. {@link #close()} deletes the file.
+     */
+    public static AudioUpload detach(MultipartFile file) throws IOException {
+        Path copy = Files.createTempFile("memory-audio-", ".upload");
+        try {
+            file.transferTo(copy);
+            return new AudioUpload(new FileSystemResource(copy), Files.size(copy), filename(file), contentType(file), copy);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(copy);
+            throw ex;
+        }
+    }
+
+    /**
+     * Takes ownership of an already spooled recording; {@link #close()} deletes the file.
+     */
+    public static AudioUpload ofTempFile(Path file, String filename, String contentType) throws IOException {
+        return new AudioUpload(new FileSystemResource(file), Files.size(file), filename, contentType, file);
+    }
+
+    public Resource resource() {
+        return resource;
+    }
+
+    public long contentLength() {
+        return contentLength;
+    }
+
+    public String filename() {
+        return filename;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    @Override
+    public void close() {
+        if (ownedFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(ownedFile);
+        } catch (IOException ignored) {
+            ownedFile.toFile().deleteOnExit();
+        }
+    }
+
+    private static String filename(MultipartFile file) {
+        return Optional.ofNullable(file.getOriginalFilename()).orElse("recording.webm");
+    }
+
+    private static String contentType(MultipartFile file) {
+        return Optional.ofNullable(file.getContentType()).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+}
@@ -0,0 +1,69 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.prompts.PromptRegistry;
+import de.csiem.backend.service.prompts.PromptTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Splitter for {@code app.splitter.mode=combined}: one chat completion returns the segments together with a title
+ * and summary for each. Those go through {@link MemoryInsightsService#validate} here; segments whose insights do
+ * not pass are enriched with the usual per-memory insights call later.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.splitter", name = "mode", havingValue = "combined")
+public class CombinedMemorySplittingService extends AbstractMemorySplittingService {
+
+    private static final int MAX_COMPLETION_TOKENS = 3000;
+
+    private final MemoryInsightsService memoryInsightsService;
+    private final Counter validInsights;
+    private final Counter rejectedInsights;
+
+    public CombinedMemorySplittingService(
+        AppProperties appProperties,
+        MemoryDateResolver dateResolver,
+        AiStageCache stageCache,
+        OpenAiClient openAiClient,
+        MemoryInsightsService memoryInsightsService,
+        MeterRegistry meterRegistry
+    ) {
+        super(appProperties, dateResolver, stageCache, openAiClient, meterRegistry);
+        this.memoryInsightsService = memoryInsightsService;
+        this.validInsights = insightsCounter(meterRegistry, "valid");
+        this.rejectedInsights = insightsCounter(meterRegistry, "rejected");
+    }
+
+    @Override
+    PromptTemplate prompt(int maxMemories, int minExcerptChars) {
+        return PromptRegistry.splitWithInsights(maxMemories, minExcerptChars);
+    }
+
+    @Override
+    OpenAiClient.ChatRequest chatRequest(PromptTemplate prompt, String systemPrompt, String userPrompt) {
+        return new OpenAiClient.ChatRequest(OpenAiClient.Stage.SPLIT, 0.2, systemPrompt, userPrompt, MAX_COMPLETION_TOKENS)
+            .withSchema(prompt.schema());
+    }
+
+    @Override
+    MemoryInsightsService.MemoryInsights insights(ModelOutputParser.SplitCandidate candidate, String excerpt) {
+        MemoryInsightsService.MemoryInsights insights = memoryInsightsService.validate(
+            candidate.title(),
+            candidate.summary(),
+            excerpt
+        );
+        (insights == null ? rejectedInsights : validInsights).increment();
+        return insights;
+    }
+
+    private static Counter insightsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("memory.splitter.combined.insights")
+            .description("Titles and summaries from the combined splitter call; rejected ones get a separate insights call")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
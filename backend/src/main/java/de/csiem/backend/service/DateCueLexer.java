@@ -0,0 +1,290 @@
+package de.csiem.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the date cues {@link MemoryDateResolver} understands in one pass over lower-cased text, instead of one
+ * {@code contains} per relative keyword and one regex scan per date format. Each kind of cue is matched exactly like
+ * the regex it replaces, word boundaries included ({@code \b} between ASCII word characters and the rest), and a
+ * kind's occurrences do not overlap, as with repeated {@code Matcher.find} calls.
+ */
+final class DateCueLexer {
+
+    enum Kind {
+        /** Contained anywhere, even inside a word, like the former {@code contains} checks. */
+        RELATIVE,
+        /** {@code 12.01.2024} or {@code 12.1.24}. */
+        NUMERIC_WITH_YEAR,
+        /** {@code am 3. märz}, {@code 3 mär 2024}. */
+        TEXTUAL_DATE,
+        /** {@code 12.01.} or {@code 12.1}. */
+        NUMERIC_WITHOUT_YEAR,
+        /** {@code am montag}. */
+        WEEKDAY,
+        /** An English cue such as {@code yesterday}; the label is the German cue it stands for. */
+        ENGLISH_CUE
+    }
+
+    /**
+     * One occurrence of a cue at {@code [start, end)}. {@code day}, {@code month} and {@code year} are set for numeric
+     * and textual dates, with {@code year} -1 when none was given; {@code label} is the keyword, month or weekday.
+     */
+    record Cue(Kind kind, int start, int end, String label, int day, int month, int year) {
+    }
+
+    static final List<String> RELATIVE_KEYWORDS = List.of(
+        "vorgestern", "gestern", "heute", "letzte woche", "weihnachten"
+    );
+    private static final String[] RELATIVE_LABELS = RELATIVE_KEYWORDS.toArray(String[]::new);
+    private static final int KINDS = Kind.values().length;
+    // In the order of the former regex alternation, which decides between "sep" and "sept".
+    private static final String[] MONTH_LABELS = {
+        "januar", "jan", "februar", "feb", "märz", "maerz", "marz", "mär", "april", "apr", "mai", "juni", "jun",
+        "juli", "jul", "august", "aug", "september", "sep", "sept", "oktober", "okt", "november", "nov", "dezember", "dez"
+    };
+    private static final int[] MONTH_NUMBERS = {
+        1, 1, 2, 2, 3, 3, 3, 3, 4, 4, 5, 6, 6, 7, 7, 8, 8, 9, 9, 9, 10, 10, 11, 11, 12, 12
+    };
+    private static final String[] WEEKDAY_LABELS = {
+        "montag", "dienstag", "mittwoch", "donnerstag", "freitag", "samstag", "sonntag"
+    };
+    // The splitter may translate English cues into the German date_text the resolver understands.
+    private static final String[] ENGLISH_LABELS = {
+        "day before yesterday", "yesterday", "last week", "christmas",
+        "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"
+    };
+    private static final Map<String, String> ENGLISH_CUES = Map.ofEntries(
+        Map.entry("day before yesterday", "vorgestern"),
+        Map.entry("yesterday", "gestern"),
+        Map.entry("last week", "letzte woche"),
+        Map.entry("christmas", "weihnachten"),
+        Map.entry("monday", "montag"),
+        Map.entry("tuesday", "dienstag"),
+        Map.entry("wednesday", "mittwoch"),
+        Map.entry("thursday", "donnerstag"),
+        Map.entry("friday", "freitag"),
+        Map.entry("saturday", "samstag"),
+        Map.entry("sunday", "sonntag")
+    );
+
+    // First characters of the relative keywords, so most positions are ruled out with one lookup.
+    private static final boolean[] RELATIVE_FIRST_CHARS = firstChars(RELATIVE_LABELS);
+    // First characters of everything that can start at a word boundary: digits, "am"/"an", weekdays, English cues.
+    private static final boolean[] WORD_FIRST_CHARS = firstChars(ENGLISH_LABELS, WEEKDAY_LABELS, new String[] {
+        "a", "0", "1", "2", "3", "4", "5", "6", "7", "8", "9"
+    });
+
+    private DateCueLexer() {
+    }
+
+    /**
+     * Every cue in {@code text}, which must already be lower-cased, ordered by start within each kind.
+     */
+    static List<Cue> lex(String text) {
+        List<Cue> cues = new ArrayList<>();
+        // Where the next occurrence of each kind may start, so occurrences of one kind never overlap.
+        int[] next = new int[KINDS];
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128 && RELATIVE_FIRST_CHARS[c]) {
+                for (String keyword : RELATIVE_LABELS) {
+                    if (startsWith(text, keyword, i)) {
+                        cues.add(new Cue(Kind.RELATIVE, i, i + keyword.length(), keyword, 0, 0, -1));
+                    }
+                }
+            }
+            if (c >= 128 || !WORD_FIRST_CHARS[c] || isWordChar(text, i - 1)) {
+                continue;
+            }
+
+            int afterPrefix = afterPrefix(text, i);
+            add(cues, next, i, numericWithYear(text, i));
+            add(cues, next, i, textualDate(text, i, afterPrefix));
+            add(cues, next, i, numericWithoutYear(text, i));
+            add(cues, next, i, weekday(text, i, afterPrefix));
+            add(cues, next, i, englishCue(text, i));
+        }
+        return cues;
+    }
+
+    private static void add(List<Cue> cues, int[] next, int position, Cue cue) {
+        if (cue != null && position >= next[cue.kind().ordinal()]) {
+            cues.add(cue);
+            next[cue.kind().ordinal()] = cue.end();
+        }
+    }
+
+    // Past an optional "am " or "an ", or start itself when there is none.
+    private static int afterPrefix(String text, int start) {
+        if (!text.startsWith("am", start) && !text.startsWith("an", start)) {
+            return start;
+        }
+        int position = start + 2;
+        while (position < text.length() && isSpace(text.charAt(position))) {
+            position++;
+        }
+        return position > start + 2 ? position : start;
+    }
+
+    private static Cue numericWithYear(String text, int start) {
+        int dayDigits = digitRun(text, start);
+        if (dayDigits < 1 || dayDigits > 2 || !isChar(text, start + dayDigits, '.')) {
+            return null;
+        }
+        int monthStart = start + dayDigits + 1;
+        int monthDigits = digitRun(text, monthStart);
+        if (monthDigits < 1 || monthDigits > 2 || !isChar(text, monthStart + monthDigits, '.')) {
+            return null;
+        }
+        int yearStart = monthStart + monthDigits + 1;
+        int yearDigits = digitRun(text, yearStart);
+        if (yearDigits < 2 || yearDigits > 4 || isWordChar(text, yearStart + yearDigits)) {
+            return null;
+        }
+        return new Cue(
+            Kind.NUMERIC_WITH_YEAR,
+            start,
+            yearStart + yearDigits,
+            null,
+            number(text, start, dayDigits),
+            number(text, monthStart, monthDigits),
+            number(text, yearStart, yearDigits)
+        );
+    }
+
+    private static Cue numericWithoutYear(String text, int start) {
+        int dayDigits = digitRun(text, start);
+        if (dayDigits < 1 || dayDigits > 2 || !isChar(text, start + dayDigits, '.')) {
+            return null;
+        }
+        int monthStart = start + dayDigits + 1;
+        int monthDigits = digitRun(text, monthStart);
+        if (monthDigits < 1 || monthDigits > 2) {
+            return null;
+        }
+        int end = monthStart + monthDigits;
+        // The trailing dot is only part of the match when a word follows it; otherwise the boundary is before it.
+        if (isChar(text, end, '.') && isWordChar(text, end + 1)) {
+            end++;
+        } else if (isWordChar(text, end)) {
+            return null;
+        }
+        return new Cue(
+            Kind.NUMERIC_WITHOUT_YEAR,
+            start,
+            end,
+            null,
+            number(text, start, dayDigits),
+            number(text, monthStart, monthDigits),
+            -1
+        );
+    }
+
+    private static Cue textualDate(String text, int start, int dayStart) {
+        int dayDigits = digitRun(text, dayStart);
+        if (dayDigits < 1 || dayDigits > 2) {
+            return null;
+        }
+        int monthStart = dayStart + dayDigits;
+        if (isChar(text, monthStart, '.')) {
+            monthStart++;
+        }
+        while (monthStart < text.length() && isSpace(text.charAt(monthStart))) {
+            monthStart++;
+        }
+
+        for (int m = 0; m < MONTH_LABELS.length; m++) {
+            String label = MONTH_LABELS[m];
+            if (!startsWith(text, label, monthStart)) {
+                continue;
+            }
+            int end = monthStart + label.length();
+            int yearStart = end;
+            while (yearStart < text.length() && isSpace(text.charAt(yearStart))) {
+                yearStart++;
+            }
+            int year = -1;
+            if (yearStart > end && digitRun(text, yearStart) == 4 && !isWordChar(text, yearStart + 4)) {
+                year = number(text, yearStart, 4);
+                end = yearStart + 4;
+            } else if (isWordChar(text, end)) {
+                continue;
+            }
+            return new Cue(Kind.TEXTUAL_DATE, start, end, label, number(text, dayStart, dayDigits), MONTH_NUMBERS[m], year);
+        }
+        return null;
+    }
+
+    private static Cue weekday(String text, int start, int labelStart) {
+        for (String label : WEEKDAY_LABELS) {
+            if (startsWith(text, label, labelStart) && !isWordChar(text, labelStart + label.length())) {
+                return new Cue(Kind.WEEKDAY, start, labelStart + label.length(), label, 0, 0, -1);
+            }
+        }
+        return null;
+    }
+
+    private static Cue englishCue(String text, int start) {
+        for (String label : ENGLISH_LABELS) {
+            if (startsWith(text, label, start) && !isWordChar(text, start + label.length())) {
+                return new Cue(Kind.ENGLISH_CUE, start, start + label.length(), ENGLISH_CUES.get(label), 0, 0, -1);
+            }
+        }
+        return null;
+    }
+
+    private static boolean[] firstChars(String[]... labelGroups) {
+        boolean[] firstChars = new boolean[128];
+        for (String[] labels : labelGroups) {
+            for (String label : labels) {
+                firstChars[label.charAt(0)] = true;
+            }
+        }
+        return firstChars;
+    }
+
+    // Compares the first character before calling startsWith, which is most of the time all it takes.
+    private static boolean startsWith(String text, String label, int position) {
+        return position < text.length() && text.charAt(position) == label.charAt(0) && text.startsWith(label, position);
+    }
+
+    private static int digitRun(String text, int start) {
+        int end = start;
+        while (end < text.length() && isDigit(text.charAt(end))) {
+            end++;
+        }
+        return end - start;
+    }
+
+    private static int number(String text, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isChar(String text, int index, char expected) {
+        return index < text.length() && text.charAt(index) == expected;
+    }
+
+    // The regex \w, which \b is based on; outside the text counts as a non-word character.
+    private static boolean isWordChar(String text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return false;
+        }
+        char c = text.charAt(index);
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // The regex \s.
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,8 @@
+package de.csiem.backend.service;
+
+public record FamilyMemberRow(
+    String userId,
+    String role,
+    String joinedAt
+) {
+}
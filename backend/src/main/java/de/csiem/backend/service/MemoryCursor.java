@@ -0,0 +1,58 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.dto.MemoryListItemResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Position in the timeline order {@code (recorded_at desc, created_at desc, id desc)}.
+ * {@code before} cursors page towards newer memories, the others towards older ones.
+ */
+public record MemoryCursor(Instant recordedAt, Instant createdAt, UUID id, boolean before) {
+
+    private static final String VERSION = "v1";
+
+    public static MemoryCursor after(MemoryListItemResponse item) {
+        return new MemoryCursor(item.recordedAt(), item.createdAt(), item.id(), false);
+    }
+
+    public static MemoryCursor before(MemoryListItemResponse item) {
+        return new MemoryCursor(item.recordedAt(), item.createdAt(), item.id(), true);
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, before ? "b" : "a", recordedAt.toString(), createdAt.toString(), id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns {@code null} for a blank token, which requests the first page in cursor mode.
+     */
+    public static MemoryCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || !("a".equals(parts[1]) || "b".equals(parts[1]))) {
+                throw new IllegalArgumentException("Unsupported cursor");
+            }
+            return new MemoryCursor(
+                Instant.parse(parts[2]),
+                Instant.parse(parts[3]),
+                UUID.fromString(parts[4]),
+                "b".equals(parts[1])
+            );
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
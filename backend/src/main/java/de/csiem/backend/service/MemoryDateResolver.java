@@ -1,5 +1,7 @@
 package de.csiem.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
@@ -9,56 +11,19 @@ import java.time.LocalTime;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 @Service
 public class MemoryDateResolver {
 
     private static final ZoneId BERLIN_ZONE = ZoneId.of("Europe/Berlin");
-
-    private static final Pattern NUMERIC_WITH_YEAR = Pattern.compile("\\b(\\d{1,2})\\.(\\d{1,2})\\.(\\d{2,4})\\b");
-    private static final Pattern NUMERIC_WITHOUT_YEAR = Pattern.compile("\\b(\\d{1,2})\\.(\\d{1,2})\\.?\\b");
-    private static final Pattern TEXTUAL_DATE = Pattern.compile(
-        "\\b(?:am\\s+|an\\s+)?(\\d{1,2})\\.?\\s*(januar|jan|februar|feb|märz|maerz|marz|mär|april|apr|mai|juni|jun|juli|jul|august|aug|september|sep|sept|oktober|okt|november|nov|dezember|dez)(?:\\s+(\\d{4}))?\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-    private static final Pattern WEEKDAY_PATTERN = Pattern.compile(
-        "\\b(?:am\\s+|an\\s+)?(montag|dienstag|mittwoch|donnerstag|freitag|samstag|sonntag)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-
-    private static final Map<String, Month> MONTHS = Map.ofEntries(
-        Map.entry("januar", Month.JANUARY),
-        Map.entry("jan", Month.JANUARY),
-        Map.entry("februar", Month.FEBRUARY),
-        Map.entry("feb", Month.FEBRUARY),
-        Map.entry("märz", Month.MARCH),
-        Map.entry("maerz", Month.MARCH),
-        Map.entry("marz", Month.MARCH),
-        Map.entry("mär", Month.MARCH),
-        Map.entry("april", Month.APRIL),
-        Map.entry("apr", Month.APRIL),
-        Map.entry("mai", Month.MAY),
-        Map.entry("juni", Month.JUNE),
-        Map.entry("jun", Month.JUNE),
-        Map.entry("juli", Month.JULY),
-        Map.entry("jul", Month.JULY),
-        Map.entry("august", Month.AUGUST),
-        Map.entry("aug", Month.AUGUST),
-        Map.entry("september", Month.SEPTEMBER),
-        Map.entry("sep", Month.SEPTEMBER),
-        Map.entry("sept", Month.SEPTEMBER),
-        Map.entry("oktober", Month.OCTOBER),
-        Map.entry("okt", Month.OCTOBER),
-        Map.entry("november", Month.NOVEMBER),
-        Map.entry("nov", Month.NOVEMBER),
-        Map.entry("dezember", Month.DECEMBER),
-        Map.entry("dez", Month.DECEMBER)
-    );
+    private static final int MEMO_SIZE = 512;
 
     private static final Map<String, DayOfWeek> WEEKDAYS = Map.of(
         "montag", DayOfWeek.MONDAY,
@@ -70,90 +35,121 @@ public class MemoryDateResolver {
         "sonntag", DayOfWeek.SUNDAY
     );
 
+    // Splitter answers repeat the same few date texts, so one upload day rarely needs more than a handful of entries.
+    private final Cache<MemoKey, Optional<LocalDate>> memo = Caffeine.newBuilder()
+        .maximumSize(MEMO_SIZE)
+        .build();
+
     public Instant resolveRecordedAt(String dateText, Instant uploadTimestamp) {
         if (uploadTimestamp == null) {
             return Instant.now();
         }
+        return resolve(dateText, uploadTimestamp, uploadTimestamp.atZone(BERLIN_ZONE));
+    }
 
-        ZonedDateTime uploadBerlin = uploadTimestamp.atZone(BERLIN_ZONE);
-        if (dateText == null || dateText.isBlank()) {
-            return uploadTimestamp;
+    /**
+     * {@link #resolveRecordedAt} for every date text of one split answer, in order.
+     */
+    public List<Instant> resolveAll(List<String> dateTexts, Instant uploadTimestamp) {
+        List<Instant> resolved = new ArrayList<>(dateTexts.size());
+        ZonedDateTime uploadBerlin = uploadTimestamp == null ? null : uploadTimestamp.atZone(BERLIN_ZONE);
+        for (String dateText : dateTexts) {
+            resolved.add(uploadBerlin == null ? Instant.now() : resolve(dateText, uploadTimestamp, uploadBerlin));
         }
+        return resolved;
+    }
 
-        String normalized = normalize(dateText);
-
-        Optional<LocalDate> special = parseSpecialRelative(normalized, uploadBerlin.toLocalDate());
-        if (special.isPresent()) {
-            return toInstant(special.get(), uploadBerlin.toLocalTime());
+    private Instant resolve(String dateText, Instant uploadTimestamp, ZonedDateTime uploadBerlin) {
+        if (dateText == null || dateText.isBlank()) {
+            return uploadTimestamp;
         }
 
-        Optional<LocalDate> numericWithYear = parseNumericWithYear(normalized);
-        if (numericWithYear.isPresent()) {
-            return toInstant(numericWithYear.get(), uploadBerlin.toLocalTime());
-        }
+        LocalDate uploadDate = uploadBerlin.toLocalDate();
+        return memo.get(new MemoKey(normalize(dateText), uploadDate), key -> resolveDate(key.dateText(), uploadDate))
+            .map(date -> toInstant(date, uploadBerlin.toLocalTime()))
+            .orElse(uploadTimestamp);
+    }
 
-        Optional<LocalDate> textualDate = parseTextualDate(normalized, uploadBerlin.toLocalDate());
-        if (textualDate.isPresent()) {
-            return toInstant(textualDate.get(), uploadBerlin.toLocalTime());
-        }
+    /**
+     * Every day a transcript could refer to, as {@link #resolveRecordedAt} would resolve the date cues in it, plus
+     * the upload day that parts without a cue fall back to. Errs on the side of too many dates: each occurrence of
+     * each cue counts, so a split the resolver could date is never missed.
+     */
+    public Set<LocalDate> candidateDates(String transcript, Instant uploadTimestamp) {
+        Instant reference = uploadTimestamp == null ? Instant.now() : uploadTimestamp;
+        LocalDate uploadDate = reference.atZone(BERLIN_ZONE).toLocalDate();
+        Set<LocalDate> dates = new HashSet<>();
+        dates.add(uploadDate);
+
+        String normalized = normalize(transcript);
+        for (DateCueLexer.Cue cue : DateCueLexer.lex(normalized)) {
+            Optional<LocalDate> date = switch (cue.kind()) {
+                case RELATIVE -> relativeDate(cue.label(), uploadDate);
+                case ENGLISH_CUE -> resolveDate(cue.label(), uploadDate);
+                default -> resolveDate(normalized.substring(cue.start(), cue.end()), uploadDate);
+            };
+            date.ifPresent(dates::add);
+        }
+        return dates;
+    }
 
-        Optional<LocalDate> numericWithoutYear = parseNumericWithoutYear(normalized, uploadBerlin.toLocalDate());
-        if (numericWithoutYear.isPresent()) {
-            return toInstant(numericWithoutYear.get(), uploadBerlin.toLocalTime());
-        }
+    private Optional<LocalDate> resolveDate(String normalized, LocalDate uploadDate) {
+        List<DateCueLexer.Cue> cues = DateCueLexer.lex(normalized);
+        return parseSpecialRelative(cues, uploadDate)
+            .or(() -> parseNumericWithYear(first(cues, DateCueLexer.Kind.NUMERIC_WITH_YEAR)))
+            .or(() -> parseTextualDate(first(cues, DateCueLexer.Kind.TEXTUAL_DATE), uploadDate))
+            .or(() -> parseNumericWithoutYear(first(cues, DateCueLexer.Kind.NUMERIC_WITHOUT_YEAR), uploadDate))
+            .or(() -> parseWeekday(first(cues, DateCueLexer.Kind.WEEKDAY), uploadDate));
+    }
 
-        Optional<LocalDate> weekday = parseWeekday(normalized, uploadBerlin.toLocalDate());
-        if (weekday.isPresent()) {
-            return toInstant(weekday.get(), uploadBerlin.toLocalTime());
+    private DateCueLexer.Cue first(List<DateCueLexer.Cue> cues, DateCueLexer.Kind kind) {
+        for (DateCueLexer.Cue cue : cues) {
+            if (cue.kind() == kind) {
+                return cue;
+            }
         }
-
-        return uploadTimestamp;
+        return null;
     }
 
-    private Optional<LocalDate> parseSpecialRelative(String normalized, LocalDate uploadDate) {
-        if (normalized.contains("vorgestern")) {
-            return Optional.of(uploadDate.minusDays(2));
-        }
-        if (normalized.contains("gestern")) {
-            return Optional.of(uploadDate.minusDays(1));
-        }
-        if (normalized.contains("heute")) {
-            return Optional.of(uploadDate);
-        }
-        if (normalized.contains("letzte woche")) {
-            return Optional.of(uploadDate.minusDays(7));
-        }
-        if (normalized.contains("weihnachten")) {
-            LocalDate christmas = LocalDate.of(uploadDate.getYear(), Month.DECEMBER, 25);
-            if (christmas.isAfter(uploadDate)) {
-                christmas = christmas.minusYears(1);
+    // The keyword order decides, not the position: "vorgestern" also contains "gestern".
+    private Optional<LocalDate> parseSpecialRelative(List<DateCueLexer.Cue> cues, LocalDate uploadDate) {
+        for (String keyword : DateCueLexer.RELATIVE_KEYWORDS) {
+            for (DateCueLexer.Cue cue : cues) {
+                if (cue.kind() == DateCueLexer.Kind.RELATIVE && cue.label().equals(keyword)) {
+                    return relativeDate(keyword, uploadDate);
+                }
             }
-            return Optional.of(christmas);
         }
         return Optional.empty();
     }
 
-    private Optional<LocalDate> parseNumericWithYear(String normalized) {
-        Matcher matcher = NUMERIC_WITH_YEAR.matcher(normalized);
-        if (!matcher.find()) {
+    private Optional<LocalDate> relativeDate(String keyword, LocalDate uploadDate) {
+        return switch (keyword) {
+            case "vorgestern" -> Optional.of(uploadDate.minusDays(2));
+            case "gestern" -> Optional.of(uploadDate.minusDays(1));
+            case "heute" -> Optional.of(uploadDate);
+            case "letzte woche" -> Optional.of(uploadDate.minusDays(7));
+            case "weihnachten" -> {
+                LocalDate christmas = LocalDate.of(uploadDate.getYear(), Month.DECEMBER, 25);
+                yield Optional.of(christmas.isAfter(uploadDate) ? christmas.minusYears(1) : christmas);
+            }
+            default -> Optional.empty();
+        };
+    }
+
+    private Optional<LocalDate> parseNumericWithYear(DateCueLexer.Cue cue) {
+        if (cue == null) {
             return Optional.empty();
         }
-
-        int day = parseInt(matcher.group(1));
-        int month = parseInt(matcher.group(2));
-        int year = normalizeYear(parseInt(matcher.group(3)));
-        return safeDate(year, month, day);
+        return safeDate(normalizeYear(cue.year()), cue.month(), cue.day());
     }
 
-    private Optional<LocalDate> parseNumericWithoutYear(String normalized, LocalDate uploadDate) {
-        Matcher matcher = NUMERIC_WITHOUT_YEAR.matcher(normalized);
-        if (!matcher.find()) {
+    private Optional<LocalDate> parseNumericWithoutYear(DateCueLexer.Cue cue, LocalDate uploadDate) {
+        if (cue == null) {
             return Optional.empty();
         }
 
-        int day = parseInt(matcher.group(1));
-        int month = parseInt(matcher.group(2));
-        LocalDate resolved = safeDate(uploadDate.getYear(), month, day).orElse(null);
+        LocalDate resolved = safeDate(uploadDate.getYear(), cue.month(), cue.day()).orElse(null);
         if (resolved == null) {
             return Optional.empty();
         }
@@ -163,40 +159,30 @@ public class MemoryDateResolver {
         return Optional.of(resolved);
     }
 
-    private Optional<LocalDate> parseTextualDate(String normalized, LocalDate uploadDate) {
-        Matcher matcher = TEXTUAL_DATE.matcher(normalized);
-        if (!matcher.find()) {
+    private Optional<LocalDate> parseTextualDate(DateCueLexer.Cue cue, LocalDate uploadDate) {
+        if (cue == null) {
             return Optional.empty();
         }
 
-        int day = parseInt(matcher.group(1));
-        String monthLabel = normalize(matcher.group(2));
-        Month month = MONTHS.get(monthLabel);
-        if (month == null) {
-            return Optional.empty();
-        }
-
-        String yearLabel = matcher.group(3);
-        int year = yearLabel == null ? uploadDate.getYear() : normalizeYear(parseInt(yearLabel));
-
-        LocalDate resolved = safeDate(year, month.getValue(), day).orElse(null);
+        boolean withYear = cue.year() >= 0;
+        int year = withYear ? normalizeYear(cue.year()) : uploadDate.getYear();
+        LocalDate resolved = safeDate(year, cue.month(), cue.day()).orElse(null);
         if (resolved == null) {
             return Optional.empty();
         }
 
-        if (yearLabel == null && resolved.isAfter(uploadDate)) {
+        if (!withYear && resolved.isAfter(uploadDate)) {
             resolved = resolved.minusYears(1);
         }
         return Optional.of(resolved);
     }
 
-    private Optional<LocalDate> parseWeekday(String normalized, LocalDate uploadDate) {
-        Matcher matcher = WEEKDAY_PATTERN.matcher(normalized);
-        if (!matcher.find()) {
+    private Optional<LocalDate> parseWeekday(DateCueLexer.Cue cue, LocalDate uploadDate) {
+        if (cue == null) {
             return Optional.empty();
         }
 
-        DayOfWeek target = WEEKDAYS.get(normalize(matcher.group(1)));
+        DayOfWeek target = WEEKDAYS.get(cue.label());
         if (target == null) {
             return Optional.empty();
         }
@@ -213,10 +199,6 @@ public class MemoryDateResolver {
         }
     }
 
-    private int parseInt(String value) {
-        return Integer.parseInt(value);
-    }
-
     private int normalizeYear(int year) {
         if (year < 100) {
             return 2000 + year;
@@ -231,4 +213,7 @@ public class MemoryDateResolver {
     private String normalize(String value) {
         return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
     }
+
+    private record MemoKey(String dateText, LocalDate uploadDate) {
+    }
 }
@@ -0,0 +1,144 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.MemoryTag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * Generates insights and tags for the excerpts of a split recording.
+ * Excerpts are enriched concurrently on virtual threads, at most {@code enrichmentParallelism} at a time, within one
+ * shared {@code enrichmentTimeout}; excerpts that miss it get the fallback title like a failed model call would.
+ */
+@Service
+public class MemoryEnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryEnrichmentService.class);
+
+    private final MemoryInsightsService memoryInsightsService;
+    private final MemoryTaggingService memoryTaggingService;
+    private final AppProperties.Processing settings;
+
+    public MemoryEnrichmentService(
+        MemoryInsightsService memoryInsightsService,
+        MemoryTaggingService memoryTaggingService,
+        AppProperties appProperties
+    ) {
+        this.memoryInsightsService = memoryInsightsService;
+        this.memoryTaggingService = memoryTaggingService;
+        this.settings = appProperties.getProcessing();
+    }
+
+    public Enrichment enrich(String excerpt) {
+        return enrich(excerpt, PipelineDeadline.unlimited());
+    }
+
+    public Enrichment enrich(String excerpt, PipelineDeadline pipelineDeadline) {
+        return enrich(excerpt, null, pipelineDeadline);
+    }
+
+    private Enrichment enrich(
+        String excerpt,
+        MemoryInsightsService.MemoryInsights knownInsights,
+        PipelineDeadline pipelineDeadline
+    ) {
+        return new Enrichment(
+            excerpt,
+            knownInsights != null ? knownInsights : memoryInsightsService.generate(excerpt, pipelineDeadline),
+            memoryTaggingService.detectTags(excerpt)
+        );
+    }
+
+    public List<Enrichment> enrichAll(List<String> excerpts) {
+        return enrichAll(excerpts, PipelineDeadline.unlimited());
+    }
+
+    public List<Enrichment> enrichAll(List<String> excerpts, PipelineDeadline pipelineDeadline) {
+        return enrichAll(excerpts, Collections.nCopies(excerpts.size(), null), pipelineDeadline);
+    }
+
+    /**
+     * Returns one enrichment per excerpt, in input order. Excerpts still running when the deadline passes, or whose
+     * enrichment failed, are cancelled and get fallback insights, so finished ones are kept and the upload never
+     * fails here. The enrichment timeout is capped at what is left of the pipeline budget.
+     * {@code knownInsights} holds, per excerpt, insights the splitter already produced, or {@code null} where they
+     * still have to be generated.
+     */
+    public List<Enrichment> enrichAll(
+        List<String> excerpts,
+        List<MemoryInsightsService.MemoryInsights> knownInsights,
+        PipelineDeadline pipelineDeadline
+    ) {
+        if (excerpts.size() <= 1) {
+            return excerpts.isEmpty()
+                ? List.of()
+                : List.of(enrich(excerpts.getFirst(), knownInsights.getFirst(), pipelineDeadline));
+        }
+
+        long deadline = System.nanoTime() + pipelineDeadline.cap(settings.getEnrichmentTimeout()).toNanos();
+        Semaphore permits = new Semaphore(Math.max(settings.getEnrichmentParallelism(), 1));
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("memory-enrichment-", 0).factory());
+        try {
+            List<Future<Enrichment>> futures = new ArrayList<>(excerpts.size());
+            for (int i = 0; i < excerpts.size(); i++) {
+                String excerpt = excerpts.get(i);
+                MemoryInsightsService.MemoryInsights known = knownInsights.get(i);
+                if (known != null) {
+                    futures.add(CompletableFuture.completedFuture(enrich(excerpt, known, pipelineDeadline)));
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return enrich(excerpt, null, pipelineDeadline);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<Enrichment> results = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Enrichment> future = futures.get(i);
+                try {
+                    results.add(future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException | ExecutionException ex) {
+                    future.cancel(true);
+                    log.warn("Enrichment of excerpt {} did not finish, using the fallback title: {}", i, ex.toString());
+                    pipelineDeadline.downgrade("insights");
+                    results.add(fallback(excerpts.get(i)));
+                }
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Memory enrichment interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Enrichment fallback(String excerpt) {
+        return new Enrichment(excerpt, memoryInsightsService.fallback(excerpt), memoryTaggingService.detectTags(excerpt));
+    }
+
+    public record Enrichment(String excerpt, MemoryInsightsService.MemoryInsights insights, Set<MemoryTag> tags) {
+    }
+}
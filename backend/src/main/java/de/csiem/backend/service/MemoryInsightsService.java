@@ -1,9 +1,18 @@
 package de.csiem.backend.service;
 
 import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.prompts.InsightsPrompt;
+import de.csiem.backend.service.prompts.PromptRegistry;
+import de.csiem.backend.service.prompts.PromptTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -15,56 +24,18 @@ import java.util.regex.Pattern;
 @Service
 public class MemoryInsightsService {
 
+    private static final Logger log = LoggerFactory.getLogger(MemoryInsightsService.class);
+    private static final int MAX_COMPLETION_TOKENS = 200;
     private static final int MAX_TITLE_LENGTH = 72;
     private static final int MAX_TITLE_WORDS = 10;
     private static final int MAX_SUMMARY_WORDS = 22;
     private static final Pattern QUOTED_TEXT_PATTERN = Pattern.compile("\"([^\"]+)\"");
-    private static final Pattern JSON_TITLE_PATTERN = Pattern.compile("\"title\"\\s*:\\s*\"((?:\\\\.|[^\\\"])*)\"", Pattern.CASE_INSENSITIVE);
-    private static final Pattern JSON_SUMMARY_PATTERN = Pattern.compile("\"summary\"\\s*:\\s*\"((?:\\\\.|[^\\\"])*)\"", Pattern.CASE_INSENSITIVE);
     private static final Pattern LEADING_LIST_PATTERN = Pattern.compile("^(?:[-*]|\\d+[.)])\\s*");
     private static final Pattern FIRST_SENTENCE_PATTERN = Pattern.compile("^(.+?[.!?])(?:\\s+.*)?$");
+    private static final Pattern TITLE_EDGE_PUNCTUATION_PATTERN = Pattern.compile("^[\"'`]+|[\"'`.,!?;:]+$");
+    private static final Pattern NON_ALPHANUMERIC_PATTERN = Pattern.compile("[^\\p{L}\\p{N}]");
+    private static final Pattern NON_ALPHANUMERIC_OR_SPACE_PATTERN = Pattern.compile("[^\\p{L}\\p{N} ]");
 
-    // Title/Summary generation rules for Reduced MVP:
-    // - title: specific, timeline-friendly, max 10 words, avoid generic filler terms
-    // - summary: exactly one warm sentence, max 22 words, adds meaning beyond title
-    // - both: strict JSON contract with deterministic post-processing and retry guards
-    private static final String METADATA_SYSTEM_PROMPT =
-        "You write concise, warm, timeline-friendly titles and summaries for parents' short memories. Output JSON only.";
-    private static final String METADATA_USER_PROMPT_TEMPLATE = """
-        TRANSCRIPT:
-        <<<
-        %s
-        >>>
-
-        TASK:
-        Return valid JSON ONLY with keys "title" and "summary".
-
-        RULES:
-        - Title: 3-7 words preferred, max 10 words. Make it specific and scannable.
-          - Describe the concrete moment (what happened).
-          - Avoid generic words like "moment", "memory", "today".
-          - Avoid clinical language.
-        - Summary: exactly 1 sentence, max 22 words, warm and reflective.
-          - Include what happened + why it mattered emotionally/developmentally, based strictly on the transcript.
-          - Avoid repeating the transcript verbatim.
-          - No advice, diagnosis, or speculation.
-
-        EXAMPLES:
-        Input transcript:
-        "At breakfast, he asked for more apples and said the full sentence without prompting... he clapped for himself."
-        Output:
-        {"title":"First full sentence at breakfast","summary":"He asked for more apples in a full sentence and clapped proudly - an exciting little step in his language."}
-
-        Input transcript:
-        "She put on her shoes by herself for the first time and smiled."
-        Output:
-        {"title":"Put on shoes by herself","summary":"She managed her shoes on her own for the first time, and her proud smile made the whole moment feel big."}
-
-        Now produce the JSON for the provided transcript.
-        """;
-    private static final String JSON_RETRY_NOTE = "Return ONLY valid JSON with exactly the keys \"title\" and \"summary\".";
-    private static final String SPECIFIC_TITLE_RETRY_NOTE =
-        "Your title is too generic. Make it concrete and timeline-friendly. Avoid words like moment, memory, today, nice, sweet, or a day.";
     private static final Set<String> TITLE_GENERIC_PATTERNS = Set.of(
         "moment", "memory", "today", "a day", "nice", "sweet"
     );
@@ -79,6 +50,10 @@ public class MemoryInsightsService {
         "atmosphere", "mood",
         "demonstrated", "showed"
     );
+    private static final Pattern CLINICAL_WORD_PATTERN = Pattern.compile(
+        "\\b(?:" + String.join("|", CLINICAL_WORD_REPLACEMENTS.keySet()) + ")\\b",
+        Pattern.CASE_INSENSITIVE
+    );
 
     private static final Set<String> STOP_WORDS_EN = Set.of(
         "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "had", "has", "have",
@@ -98,67 +73,133 @@ public class MemoryInsightsService {
     private static final Set<String> LANGUAGE_MARKERS_EN = Set.of(
         "the", "and", "not", "a", "an", "we", "today", "yesterday", "week", "child"
     );
-    private static final Pattern UMLAUT_PATTERN = Pattern.compile("[äöüßÄÖÜ]");
+    // Upper-case forms included, so the check does not need a lower-cased copy of the text.
+    private static final String UMLAUTS = "äöüßÄÖÜẞ";
 
     private final AppProperties appProperties;
+    private final AiStageCache stageCache;
+    private final OpenAiClient openAiClient;
+    private final MeterRegistry meterRegistry;
 
     public MemoryInsightsService(AppProperties appProperties) {
+        this(appProperties, null, null, null);
+    }
+
+    @Autowired
+    public MemoryInsightsService(
+        AppProperties appProperties,
+        AiStageCache stageCache,
+        OpenAiClient openAiClient,
+        MeterRegistry meterRegistry
+    ) {
         this.appProperties = appProperties;
+        this.stageCache = stageCache;
+        this.openAiClient = openAiClient;
+        this.meterRegistry = meterRegistry;
     }
 
     public MemoryInsights generate(String transcript) {
+        return generate(transcript, PipelineDeadline.unlimited());
+    }
+
+    /**
+     * Uses the fallback title when less than {@code min-insights-budget} is left and skips the retries when less
+     * than {@code min-title-retry-budget} is left.
+     */
+    public MemoryInsights generate(String transcript, PipelineDeadline deadline) {
         String normalized = normalize(transcript);
         if (normalized.isBlank()) {
             return new MemoryInsights("Untitled Memory", "");
         }
 
-        MemoryInsights aiInsights = generateWithAi(normalized);
+        List<String> words = tokenize(normalized);
+        DetectedLanguage language = detectLanguage(normalized, words);
+        MemoryInsights aiInsights = generateWithAi(normalized, language, deadline);
         if (aiInsights != null) {
             return aiInsights;
         }
 
-        return generateFallback(normalized);
+        return generateFallback(normalized, words, language);
+    }
+
+    /**
+     * The title and summary {@link #generate} falls back to, built locally without a model call.
+     */
+    public MemoryInsights fallback(String transcript) {
+        String normalized = normalize(transcript);
+        if (normalized.isBlank()) {
+            return new MemoryInsights("Untitled Memory", "");
+        }
+
+        List<String> words = tokenize(normalized);
+        return generateFallback(normalized, words, detectLanguage(normalized, words));
     }
 
-    private MemoryInsights generateWithAi(String transcript) {
+    private MemoryInsights generateWithAi(String transcript, DetectedLanguage transcriptLanguage, PipelineDeadline deadline) {
         AppProperties.Insights insights = appProperties.getInsights();
         if (!insights.isEnabled()) {
             return null;
         }
-        DetectedLanguage transcriptLanguage = detectLanguage(transcript);
-
-        String apiKey = firstNonBlank(insights.getOpenaiApiKey(), appProperties.getTranscription().getOpenaiApiKey());
-        if (apiKey == null || apiKey.isBlank()) {
+        if (openAiClient == null) {
+            return null;
+        }
+        OpenAiClient.StageSettings settings = openAiClient.settings(OpenAiClient.Stage.INSIGHTS);
+        if (!settings.isConfigured()) {
             return null;
         }
 
-        String baseUrl = firstNonBlank(insights.getOpenaiBaseUrl(), appProperties.getTranscription().getOpenaiBaseUrl());
-        String model = firstNonBlank(insights.getOpenaiModel(), "gpt-4o-mini");
+        if (!deadline.allows(appProperties.getPipeline().getMinInsightsBudget())) {
+            deadline.downgrade("insights");
+            return null;
+        }
 
-        RestClient client = RestClient.builder().baseUrl(baseUrl).build();
+        // A result the deadline cut short is kept out of the cache, so later uploads still get the retries.
+        RetryGate retries = new RetryGate(deadline, appProperties.getPipeline().getMinTitleRetryBudget());
+        if (stageCache == null) {
+            return requestValidatedInsights(transcript, transcriptLanguage, settings.model(), retries);
+        }
+        return stageCache.get(
+            AiStageCache.Stage.INSIGHTS,
+            settings.model(),
+            PromptRegistry.INSIGHTS.version(),
+            transcript,
+            transcript,
+            MemoryInsights.class,
+            () -> requestValidatedInsights(transcript, transcriptLanguage, settings.model(), retries),
+            result -> !retries.skipped()
+        );
+    }
 
+    private MemoryInsights requestValidatedInsights(
+        String transcript,
+        DetectedLanguage transcriptLanguage,
+        String model,
+        RetryGate retries
+    ) {
+        PipelineDeadline deadline = retries.deadline();
         try {
             // Rules live in code so we can enforce quality even when model output drifts.
-            String basePrompt = METADATA_USER_PROMPT_TEMPLATE.formatted(transcript);
+            PromptTemplate prompt = PromptRegistry.INSIGHTS;
+            String basePrompt = prompt.userPrompt(prompt.fit(transcript, appProperties.getInsights().getMaxInputTokens()));
             ProcessedInsights processed = parseAndValidateModelOutput(
-                requestInsights(client, apiKey, model, basePrompt),
+                requestInsights(basePrompt, model, "first", deadline),
                 transcript,
                 transcriptLanguage
             );
 
-            if (!processed.valid()) {
-                String retryPrompt = basePrompt + "\n\n" + JSON_RETRY_NOTE;
+            if (!processed.valid() && retries.allows("insights-json-retry")) {
+                String retryPrompt = basePrompt + "\n\n" + InsightsPrompt.JSON_RETRY_NOTE;
                 processed = parseAndValidateModelOutput(
-                    requestInsights(client, apiKey, model, retryPrompt),
+                    requestInsights(retryPrompt, model, "json_retry", deadline),
                     transcript,
                     transcriptLanguage
                 );
             }
 
-            if (processed.valid() && processed.genericTitle()) {
-                String retryPrompt = basePrompt + "\n\n" + SPECIFIC_TITLE_RETRY_NOTE;
+            if (processed.valid() && processed.genericTitle() && retries.allows("insights-title-retry")) {
+                String retryPrompt = basePrompt + "\n\n" + InsightsPrompt.SPECIFIC_TITLE_RETRY_NOTE;
                 ProcessedInsights specificRetry = parseAndValidateModelOutput(
-                    requestInsights(client, apiKey, model, retryPrompt),
+                    requestInsights(retryPrompt, model, "title_retry", deadline),
                     transcript,
                     transcriptLanguage
                 );
@@ -171,38 +212,34 @@ public class MemoryInsightsService {
                 return processed.insights();
             }
             return null;
-        } catch (Exception ignored) {
+        } catch (Exception ex) {
+            log.warn("AI insights failed, using the fallback title: {}", ex.getMessage());
             return null;
         }
     }
 
-    private String requestInsights(
-        RestClient client,
-        String apiKey,
-        String model,
-        String userPrompt
-    ) {
-        ChatCompletionsResponse response = client.post()
-            .uri("/v1/chat/completions")
-            .headers(headers -> headers.setBearerAuth(apiKey))
-            .body(new ChatCompletionsRequest(
-                model,
-                0.2,
-                new ResponseFormat("json_object"),
-                List.of(
-                    new ChatMessage("system", METADATA_SYSTEM_PROMPT),
-                    new ChatMessage("user", userPrompt)
-                )
-            ))
-            .retrieve()
-            .body(ChatCompletionsResponse.class);
-
-        if (response == null || response.choices() == null || response.choices().isEmpty()) {
-            return null;
+    /**
+     * {@code memory.insights.calls} counts every completion by model and call, so the share of
+     * {@code json_retry} and {@code title_retry} calls per {@code first} call is the retry rate.
+     */
+    private String requestInsights(String userPrompt, String model, String call, PipelineDeadline deadline) {
+        if (meterRegistry != null) {
+            Counter.builder("memory.insights.calls")
+                .description("Insights completions per memory, split into first calls and retries")
+                .tag("model", model)
+                .tag("call", call)
+                .tag("format", openAiClient.usesStructuredOutput() ? "json_schema" : "json_object")
+                .register(meterRegistry)
+                .increment();
         }
-        return response.choices().getFirst().message() != null
-            ? response.choices().getFirst().message().content()
-            : null;
+        OpenAiClient.ChatRequest request = new OpenAiClient.ChatRequest(
+            OpenAiClient.Stage.INSIGHTS,
+            0.2,
+            PromptRegistry.INSIGHTS.systemPrompt(),
+            userPrompt,
+            MAX_COMPLETION_TOKENS
+        ).withSchema(PromptRegistry.INSIGHTS.schema());
+        return openAiClient.chatJson(request.withTimeLimit(deadline.timeLimit()));
     }
 
     private ProcessedInsights parseAndValidateModelOutput(
@@ -214,8 +251,35 @@ public class MemoryInsightsService {
             return ProcessedInsights.invalid(false);
         }
 
-        String titleRaw = extractJsonValue(modelJson, JSON_TITLE_PATTERN);
-        String summaryRaw = extractJsonValue(modelJson, JSON_SUMMARY_PATTERN);
+        ModelOutputParser.InsightsOutput output = ModelOutputParser.readInsights(modelJson);
+        return validateOutput(output.title(), output.summary(), transcript, transcriptLanguage);
+    }
+
+    /**
+     * Runs the same sanitize and validation rules as the model answers of {@link #generate} on a title and summary
+     * produced elsewhere. Returns {@code null} when they do not pass or the title is generic, so the caller can fall
+     * back to {@link #generate}.
+     */
+    public MemoryInsights validate(String title, String summary, String transcript) {
+        String normalized = normalize(transcript);
+        if (normalized.isBlank()) {
+            return null;
+        }
+        ProcessedInsights processed = validateOutput(
+            title == null ? "" : title,
+            summary == null ? "" : summary,
+            normalized,
+            detectLanguage(normalized)
+        );
+        return processed.valid() && !processed.genericTitle() ? processed.insights() : null;
+    }
+
+    private ProcessedInsights validateOutput(
+        String titleRaw,
+        String summaryRaw,
+        String transcript,
+        DetectedLanguage transcriptLanguage
+    ) {
         if (titleRaw.isBlank() || summaryRaw.isBlank()) {
             return ProcessedInsights.invalid(false);
         }
@@ -233,51 +297,88 @@ public class MemoryInsightsService {
         return new ProcessedInsights(new MemoryInsights(title, summary), true, genericTitle);
     }
 
-    private String extractJsonValue(String json, Pattern pattern) {
-        Matcher matcher = pattern.matcher(json);
-        if (!matcher.find()) {
-            return "";
-        }
-        return unescapeJsonString(matcher.group(1));
-    }
-
-    private String unescapeJsonString(String value) {
-        return value
-            .replace("\\\\n", "\n")
-            .replace("\\\\r", "\r")
-            .replace("\\\\t", "\t")
-            .replace("\\\\\"", "\"")
-            .replace("\\\\\\\\", "\\");
-    }
-
-    private MemoryInsights generateFallback(String transcript) {
-        DetectedLanguage language = detectLanguage(transcript);
-        List<String> words = tokenize(transcript);
+    private MemoryInsights generateFallback(String transcript, List<String> words, DetectedLanguage language) {
         String title = buildFallbackTitle(transcript, words, language);
         String summary = buildFallbackSummary(title, language);
         return new MemoryInsights(title, summary);
     }
 
+    /**
+     * Trims and collapses whitespace runs to single spaces. Every step of the post-processing normalizes its input, so
+     * text that is already normalized is returned as is instead of being copied again.
+     */
     private String normalize(String transcript) {
         if (transcript == null) {
             return "";
         }
-        return transcript.trim().replaceAll("\\s+", " ");
+        String trimmed = transcript.trim();
+        int firstChange = 0;
+        while (firstChange < trimmed.length()) {
+            char c = trimmed.charAt(firstChange);
+            if (isSpace(c) && (c != ' ' || isSpace(trimmed.charAt(firstChange + 1)))) {
+                break;
+            }
+            firstChange++;
+        }
+        if (firstChange == trimmed.length()) {
+            return trimmed;
+        }
+
+        StringBuilder normalized = new StringBuilder(trimmed.length()).append(trimmed, 0, firstChange);
+        boolean space = false;
+        for (int i = firstChange; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (isSpace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
     }
 
-    private List<String> tokenize(String text) {
-        String cleaned = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}' ]", " ");
-        String[] split = cleaned.trim().split("\\s+");
+    // The characters of the regex class \s.
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 
+    /**
+     * Lower-cased runs of letters, digits and apostrophes.
+     */
+    private List<String> tokenize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
         List<String> words = new ArrayList<>();
-        for (String word : split) {
-            if (!word.isBlank()) {
-                words.add(word);
+        int start = -1;
+        for (int i = 0; i < lower.length(); ) {
+            int codePoint = lower.codePointAt(i);
+            if (isWordCodePoint(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
             }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            words.add(lower.substring(start));
         }
         return words;
     }
 
+    private static boolean isWordCodePoint(int codePoint) {
+        if (codePoint == '\'' || Character.isLetter(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.DECIMAL_DIGIT_NUMBER || type == Character.LETTER_NUMBER || type == Character.OTHER_NUMBER;
+    }
+
     private String buildFallbackTitle(String transcript, List<String> words, DetectedLanguage language) {
         String quoted = tryQuotedPhraseTitle(transcript, language);
         if (!quoted.isBlank()) {
@@ -346,9 +447,7 @@ public class MemoryInsightsService {
     }
 
     private String sanitizeTitle(String value, String transcript) {
-        String title = normalize(value)
-            .replaceAll("[\\n\\r\\t]+", " ")
-            .replaceAll("^[\"'`]+|[\"'`.,!?;:]+$", "");
+        String title = TITLE_EDGE_PUNCTUATION_PATTERN.matcher(normalize(value)).replaceAll("");
         if (title.isBlank()) {
             return "";
         }
@@ -366,10 +465,7 @@ public class MemoryInsightsService {
     }
 
     private String sanitizeSummary(String value, String transcript, String title) {
-        String summary = normalize(value)
-            .replace('\n', ' ')
-            .replace('\r', ' ');
-        summary = LEADING_LIST_PATTERN.matcher(summary).replaceFirst("");
+        String summary = LEADING_LIST_PATTERN.matcher(normalize(value)).replaceFirst("");
         summary = keepFirstSentence(summary);
         summary = softenClinicalLanguage(summary);
         summary = limitSummaryWordCount(summary, MAX_SUMMARY_WORDS);
@@ -399,7 +495,7 @@ public class MemoryInsightsService {
 
         List<String> withoutFillers = new ArrayList<>();
         for (String word : words) {
-            String normalizedWord = word.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+            String normalizedWord = NON_ALPHANUMERIC_PATTERN.matcher(word.toLowerCase(Locale.ROOT)).replaceAll("");
             if (!TITLE_FILLER_WORDS.contains(normalizedWord)) {
                 withoutFillers.add(word);
             }
@@ -427,44 +523,85 @@ public class MemoryInsightsService {
     }
 
     private String softenClinicalLanguage(String value) {
-        String softened = value;
-        for (Map.Entry<String, String> entry : CLINICAL_WORD_REPLACEMENTS.entrySet()) {
-            softened = softened.replaceAll(
-                "(?i)\\b" + Pattern.quote(entry.getKey()) + "\\b",
-                entry.getValue()
-            );
-        }
+        String softened = CLINICAL_WORD_PATTERN.matcher(value)
+            .replaceAll(match -> CLINICAL_WORD_REPLACEMENTS.get(match.group().toLowerCase(Locale.ROOT)));
         return normalize(softened);
     }
 
+    /**
+     * Cuts at the last clause break, or drops the last word, until at most {@code maxWords} words are left. The word
+     * offsets are found once, the clause break is only searched again once the cut passes it, and only the final cut
+     * is copied, so a long answer costs one pass instead of one split per dropped word.
+     */
     private String limitSummaryWordCount(String summary, int maxWords) {
-        String current = normalize(summary);
-        if (splitWords(current).size() <= maxWords) {
-            return current;
+        String text = normalize(summary);
+        int[] starts = new int[text.length() / 2 + 1];
+        int[] ends = new int[starts.length];
+        int count = 0;
+        for (int start = 0; start < text.length(); ) {
+            int end = text.indexOf(' ', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            if (!isBlank(text, start, end)) {
+                starts[count] = start;
+                ends[count] = end;
+                count++;
+            }
+            start = end + 1;
+        }
+        if (count <= maxWords) {
+            return text;
         }
 
-        while (splitWords(current).size() > maxWords) {
-            int clauseBreak = Math.max(
-                Math.max(current.lastIndexOf(","), current.lastIndexOf(";")),
-                Math.max(current.lastIndexOf(" - "), current.lastIndexOf(" -- "))
-            );
+        int length = text.length();
+        int clauseBreak = lastClauseBreak(text, length);
+        while (count > maxWords) {
             if (clauseBreak > 20) {
-                current = normalize(current.substring(0, clauseBreak));
+                length = clauseBreak;
+                while (length > 0 && text.charAt(length - 1) <= ' ') {
+                    length--;
+                }
+                while (count > 0
+                    && (starts[count - 1] >= length || isBlank(text, starts[count - 1], Math.min(ends[count - 1], length)))) {
+                    count--;
+                }
+                clauseBreak = lastClauseBreak(text, length);
                 continue;
             }
-            List<String> words = splitWords(current);
-            if (words.isEmpty()) {
+            if (count == 0) {
                 return "";
             }
-            words.remove(words.size() - 1);
-            current = String.join(" ", words);
+            count--;
+            length = count == 0 ? 0 : Math.min(ends[count - 1], length);
+            // A break that still fits in full is still the last one; " -- " is the longest marker.
+            if (clauseBreak + 4 > length) {
+                clauseBreak = lastClauseBreak(text, length);
+            }
+        }
+        return text.substring(0, length);
+    }
+
+    // The last clause break within the first length characters, or -1.
+    private static int lastClauseBreak(String text, int length) {
+        return Math.max(
+            Math.max(text.lastIndexOf(',', length - 1), text.lastIndexOf(';', length - 1)),
+            Math.max(text.lastIndexOf(" - ", length - 3), text.lastIndexOf(" -- ", length - 4))
+        );
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
         }
-        return current;
+        return true;
     }
 
     private boolean summaryRepeatsTitle(String summary, String title) {
-        String normalizedSummary = normalize(summary).toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N} ]", "");
-        String normalizedTitle = normalize(title).toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N} ]", "");
+        String normalizedSummary = NON_ALPHANUMERIC_OR_SPACE_PATTERN.matcher(normalize(summary).toLowerCase(Locale.ROOT)).replaceAll("");
+        String normalizedTitle = NON_ALPHANUMERIC_OR_SPACE_PATTERN.matcher(normalize(title).toLowerCase(Locale.ROOT)).replaceAll("");
         if (normalizedSummary.isBlank() || normalizedTitle.isBlank()) {
             return false;
         }
@@ -485,27 +622,56 @@ public class MemoryInsightsService {
     }
 
     private List<String> splitWords(String text) {
+        // After normalize the only separator left is a single space.
         String normalized = normalize(text);
-        if (normalized.isBlank()) {
-            return List.of();
-        }
-        String[] split = normalized.split("\\s+");
         List<String> words = new ArrayList<>();
-        for (String word : split) {
-            if (!word.isBlank()) {
-                words.add(word);
+        for (int start = 0; start < normalized.length(); ) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) {
+                end = normalized.length();
+            }
+            if (!isBlank(normalized, start, end)) {
+                words.add(normalized.substring(start, end));
             }
+            start = end + 1;
         }
         return words;
     }
 
+    /**
+     * Compares the lower-cased ASCII letters and digits of both texts in place, without building stripped copies of
+     * the transcript for every comparison.
+     */
     private boolean equalsIgnoringPunctuation(String left, String right) {
         if (left == null || right == null) {
             return false;
         }
-        String normalizedLeft = left.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
-        String normalizedRight = right.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
-        return !normalizedLeft.isBlank() && normalizedLeft.equals(normalizedRight);
+        int i = 0;
+        int j = 0;
+        boolean any = false;
+        while (true) {
+            while (i < left.length() && asciiAlphanumeric(left.charAt(i)) == 0) {
+                i++;
+            }
+            while (j < right.length() && asciiAlphanumeric(right.charAt(j)) == 0) {
+                j++;
+            }
+            if (i == left.length() || j == right.length()) {
+                return any && i == left.length() && j == right.length();
+            }
+            if (asciiAlphanumeric(left.charAt(i)) != asciiAlphanumeric(right.charAt(j))) {
+                return false;
+            }
+            any = true;
+            i++;
+            j++;
+        }
+    }
+
+    // The lower-cased character if it is an ASCII letter or digit, otherwise 0.
+    private static char asciiAlphanumeric(char c) {
+        char lower = Character.toLowerCase(c);
+        return (lower >= 'a' && lower <= 'z') || (lower >= '0' && lower <= '9') ? lower : 0;
     }
 
     private String toTitleCase(String value) {
@@ -538,13 +704,6 @@ public class MemoryInsightsService {
         return first + value.substring(1);
     }
 
-    private String firstNonBlank(String first, String second) {
-        if (first != null && !first.isBlank()) {
-            return first;
-        }
-        return second;
-    }
-
     private String defaultTitle(DetectedLanguage language) {
         if (language == DetectedLanguage.GERMAN) {
             return "Unbenannter Moment";
@@ -564,15 +723,23 @@ public class MemoryInsightsService {
     }
 
     private DetectedLanguage detectLanguage(String text) {
-        String normalized = normalize(text).toLowerCase(Locale.ROOT);
+        String normalized = normalize(text);
+        return detectLanguage(normalized, tokenize(normalized));
+    }
+
+    /**
+     * Takes the {@link #tokenize} words of {@code normalized}, so a caller that needs them anyway tokenizes once.
+     */
+    private DetectedLanguage detectLanguage(String normalized, List<String> words) {
         if (normalized.isBlank()) {
             return DetectedLanguage.UNKNOWN;
         }
-        if (UMLAUT_PATTERN.matcher(normalized).find()) {
-            return DetectedLanguage.GERMAN;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (UMLAUTS.indexOf(normalized.charAt(i)) >= 0) {
+                return DetectedLanguage.GERMAN;
+            }
         }
 
-        List<String> words = tokenize(normalized);
         int deScore = 0;
         int enScore = 0;
         for (String word : words) {
@@ -600,6 +767,38 @@ public class MemoryInsightsService {
     public record MemoryInsights(String title, String summary) {
     }
 
+    /**
+     * Lets a retry run while the deadline leaves {@code budget} and remembers when one was skipped.
+     */
+    private static final class RetryGate {
+
+        private final PipelineDeadline deadline;
+        private final Duration budget;
+        private boolean skipped;
+
+        private RetryGate(PipelineDeadline deadline, Duration budget) {
+            this.deadline = deadline;
+            this.budget = budget;
+        }
+
+        PipelineDeadline deadline() {
+            return deadline;
+        }
+
+        boolean allows(String step) {
+            if (deadline.allows(budget)) {
+                return true;
+            }
+            deadline.downgrade(step);
+            skipped = true;
+            return false;
+        }
+
+        boolean skipped() {
+            return skipped;
+        }
+    }
+
     record ProcessedInsights(MemoryInsights insights, boolean valid, boolean genericTitle) {
         static ProcessedInsights invalid(boolean genericTitle) {
             return new ProcessedInsights(null, false, genericTitle);
@@ -611,27 +810,4 @@ public class MemoryInsightsService {
         ENGLISH,
         UNKNOWN
     }
-
-    private record ChatCompletionsRequest(
-        String model,
-        double temperature,
-        ResponseFormat response_format,
-        List<ChatMessage> messages
-    ) {
-    }
-
-    private record ResponseFormat(String type) {
-    }
-
-    private record ChatMessage(String role, String content) {
-    }
-
-    private record ChatCompletionsResponse(List<Choice> choices) {
-    }
-
-    private record Choice(ChatMessageContent message) {
-    }
-
-    private record ChatMessageContent(String content) {
-    }
 }
@@ -0,0 +1,224 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.MemoryJobEntity;
+import de.csiem.backend.repository.MemoryJobRepository;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Durable queue for memory processing in the {@code memory_jobs} table. Workers claim jobs with
+ * {@code FOR UPDATE SKIP LOCKED} and hold them under a lease that heartbeats extend, so several backend instances
+ * can share the queue and a job whose worker died is handed out again once its lease expires.
+ */
+@Component
+public class MemoryJobQueue {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final int REAP_BATCH_SIZE = 50;
+
+    private final AppProperties.Processing settings;
+    private final MemoryJobRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate joiningTemplate;
+
+    public MemoryJobQueue(
+        AppProperties appProperties,
+        MemoryJobRepository repository,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.settings = appProperties.getProcessing();
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.joiningTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return settings.isDurableQueue();
+    }
+
+    /**
+     * Stores a job and its recording in the caller's transaction, so the job commits or rolls back together with
+     * the memory row it belongs to. The memory row has to be flushed already.
+     */
+    public void enqueue(UUID memoryId, MultipartFile audio, Instant uploadTimestamp) throws IOException {
+        String filename = Optional.ofNullable(audio.getOriginalFilename()).orElse("recording.webm");
+        String contentType = Optional.ofNullable(audio.getContentType()).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        Timestamp now = Timestamp.from(Instant.now());
+        long length = audio.getSize();
+
+        try (InputStream input = audio.getInputStream()) {
+            jdbcTemplate.update(
+                """
+                    insert into memory_jobs (id, memory_id, status, attempts, max_attempts, available_at, upload_timestamp,
+                                             audio_filename, audio_content_type, audio_length, audio, created_at, updated_at)
+                    values (?, ?, 'PENDING', 0, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """,
+                statement -> {
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setObject(2, memoryId);
+                    statement.setInt(3, Math.max(settings.getJobMaxAttempts(), 1));
+                    statement.setTimestamp(4, now);
+                    statement.setTimestamp(5, Timestamp.from(uploadTimestamp));
+                    statement.setString(6, filename);
+                    statement.setString(7, contentType);
+                    statement.setLong(8, length);
+                    statement.setBinaryStream(9, input, length);
+                    statement.setTimestamp(10, now);
+                    statement.setTimestamp(11, now);
+                }
+            );
+        }
+    }
+
+    public Optional<MemoryJobEntity> claimNext(String owner) {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            Optional<MemoryJobEntity> next = repository.lockNextDue(now);
+            next.ifPresent(job -> {
+                job.lease(owner, now, now.plus(settings.getJobLease()));
+                repository.save(job);
+            });
+            return next;
+        });
+    }
+
+    /**
+     * Extends the lease; returns {@code false} when the job was reaped and handed to another worker meanwhile.
+     */
+    public boolean heartbeat(UUID jobId, String owner) {
+        Integer updated = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            return repository.heartbeat(jobId, owner, now, now.plus(settings.getJobLease()));
+        });
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * Copies the recording of a claimed job into a temp file owned by the returned upload.
+     */
+    public AudioUpload openAudio(MemoryJobEntity job) throws IOException {
+        Path file = Files.createTempFile("memory-job-", ".upload");
+        try {
+            jdbcTemplate.query("select audio from memory_jobs where id = ?", resultSet -> {
+                try (InputStream input = resultSet.getBinaryStream(1)) {
+                    if (input == null) {
+                        throw new IllegalStateException("Memory job " + job.getId() + " has no audio");
+                    }
+                    Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, job.getId());
+            return AudioUpload.ofTempFile(file, job.getAudioFilename(), job.getAudioContentType());
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    /**
+     * Deletes the job if {@code owner} still holds its lease. Joins the caller's transaction, so the delete commits
+     * together with the result of the job; throws {@link LeaseLostException} when the job was reaped meanwhile.
+     */
+    public void complete(UUID jobId, String owner) {
+        joiningTemplate.executeWithoutResult(status -> {
+            if (repository.deleteLeased(jobId, owner) == 0) {
+                throw new LeaseLostException(jobId);
+            }
+        });
+    }
+
+    /**
+     * Schedules another attempt with exponential backoff, or marks the job failed once its attempts are used up.
+     * Leaves the job alone when {@code owner} no longer holds its lease.
+     */
+    public RetryOutcome retryOrFail(UUID jobId, String owner, String error) {
+        RetryOutcome outcome = transactionTemplate.execute(status -> repository.lockLeased(jobId, owner)
+            .map(job -> {
+                RetryOutcome result;
+                if (job.hasAttemptsLeft()) {
+                    job.retryAt(Instant.now().plus(backoff(settings.getJobRetryBackoff(), job.getAttempts())), error);
+                    result = RetryOutcome.RETRYING;
+                } else {
+                    job.markFailed(error);
+                    clearAudio(jobId);
+                    result = RetryOutcome.FAILED;
+                }
+                repository.save(job);
+                return result;
+            })
+            .orElse(RetryOutcome.LEASE_LOST));
+        return outcome == null ? RetryOutcome.LEASE_LOST : outcome;
+    }
+
+    /**
+     * Returns expired leases to the queue. Jobs that already used all attempts are failed instead; their memory ids
+     * are returned so the caller can fail the memories too.
+     */
+    public List<UUID> reapExpiredLeases() {
+        List<UUID> exhausted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            for (MemoryJobEntity job : repository.lockExpiredLeases(now, REAP_BATCH_SIZE)) {
+                if (job.hasAttemptsLeft()) {
+                    job.retryAt(now, "Lease expired");
+                } else {
+                    job.markFailed("Lease expired on the last attempt");
+                    clearAudio(job.getId());
+                    exhausted.add(job.getMemoryId());
+                }
+                repository.save(job);
+            }
+        });
+        return exhausted;
+    }
+
+    static Duration backoff(Duration base, int attempts) {
+        Duration delay = base.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private void clearAudio(UUID jobId) {
+        jdbcTemplate.update("update memory_jobs set audio = null where id = ?", jobId);
+    }
+
+    public enum RetryOutcome {
+        RETRYING,
+        FAILED,
+        LEASE_LOST
+    }
+
+    /**
+     * The job was reaped and may already run on another worker, so this worker must not write its result.
+     */
+    public static class LeaseLostException extends RuntimeException {
+
+        public LeaseLostException(UUID jobId) {
+            super("Lost the lease on memory job " + jobId);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.MemoryJobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Polls the durable {@link MemoryJobQueue} with {@code maxConcurrency} virtual threads and keeps the lease of each
+ * running job alive with heartbeats. Also reaps expired leases and memories abandoned by a crash.
+ */
+@Component
+public class MemoryJobWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryJobWorker.class);
+    private static final String ABANDONED_MESSAGE = "Processing was interrupted. Please record the memory again.";
+
+    private final AppProperties.Processing settings;
+    private final MemoryJobQueue queue;
+    private final MemoryService memoryService;
+    private final String owner = "worker-" + UUID.randomUUID();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private ExecutorService pollers;
+    private ScheduledExecutorService heartbeats;
+
+    public MemoryJobWorker(AppProperties appProperties, MemoryJobQueue queue, MemoryService memoryService) {
+        this.settings = appProperties.getProcessing();
+        this.queue = queue;
+        this.memoryService = memoryService;
+    }
+
+    @Override
+    public void start() {
+        if (!queue.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("memory-job-heartbeat").daemon().factory());
+        pollers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("memory-job-", 0).factory());
+        for (int i = 0; i < Math.max(settings.getMaxConcurrency(), 1); i++) {
+            pollers.execute(this::poll);
+        }
+        log.info("Memory job worker {} started", owner);
+    }
+
+    @Override
+    public void stop() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        pollers.shutdown();
+        try {
+            if (!pollers.awaitTermination(settings.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                // Interrupted jobs keep their rows; the lease expires and another instance picks them up.
+                log.warn("Memory jobs did not finish within {}; leaving them to lease expiry", settings.getShutdownTimeout());
+                pollers.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            pollers.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            heartbeats.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.processing.reaper-interval:1m}",
+        fixedDelayString = "${app.processing.reaper-interval:1m}"
+    )
+    public void reap() {
+        if (!queue.isEnabled()) {
+            return;
+        }
+        try {
+            List<UUID> exhausted = queue.reapExpiredLeases();
+            exhausted.forEach(memoryId -> memoryService.failQueuedMemory(memoryId, ABANDONED_MESSAGE));
+            int abandoned = memoryService.failAbandonedMemories(settings.getAbandonedAfter());
+            if (abandoned > 0) {
+                log.warn("Marked {} abandoned memory(s) as failed", abandoned);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Reaping memory jobs failed", ex);
+        }
+    }
+
+    private void poll() {
+        while (running.get()) {
+            try {
+                Optional<MemoryJobEntity> job = queue.claimNext(owner);
+                if (job.isPresent()) {
+                    run(job.get());
+                } else {
+                    Thread.sleep(settings.getJobPollInterval().toMillis());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Polling memory jobs failed", ex);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void run(MemoryJobEntity job) {
+        long interval = Math.max(settings.getJobHeartbeatInterval().toMillis(), 1);
+        Thread worker = Thread.currentThread();
+        AtomicBoolean leaseLost = new AtomicBoolean(false);
+        AtomicBoolean finished = new AtomicBoolean(false);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleWithFixedDelay(() -> {
+            try {
+                if (!leaseLost.get() && !queue.heartbeat(job.getId(), owner)) {
+                    // The job may already run elsewhere; stop instead of spending model calls on a result we can't save.
+                    log.warn("Lost the lease on memory job {}; stopping it", job.getId());
+                    synchronized (leaseLost) {
+                        if (!finished.get()) {
+                            leaseLost.set(true);
+                            worker.interrupt();
+                        }
+                    }
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Heartbeat for memory job {} failed", job.getId(), ex);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+
+        try (AudioUpload upload = queue.openAudio(job)) {
+            memoryService.processQueuedMemory(job, owner, upload);
+        } catch (Exception ex) {
+            if (leaseLost.get() || ex instanceof MemoryJobQueue.LeaseLostException) {
+                log.warn("Dropped memory job {} after losing its lease", job.getId());
+                return;
+            }
+            log.warn("Memory job {} failed on attempt {}", job.getId(), job.getAttempts(), ex);
+            MemoryJobQueue.RetryOutcome outcome = queue.retryOrFail(job.getId(), owner, String.valueOf(ex.getMessage()));
+            if (outcome == MemoryJobQueue.RetryOutcome.FAILED) {
+                memoryService.failQueuedMemory(job.getMemoryId(), "Memory processing failed. Please try again.");
+            }
+        } finally {
+            heartbeat.cancel(false);
+            synchronized (leaseLost) {
+                finished.set(true);
+                if (leaseLost.get()) {
+                    // Clear the interrupt meant for this job so the poll loop keeps going.
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(settings.getJobPollInterval().toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs memory processing (transcription, splitting, insights) off the request thread.
+ * Each job gets its own virtual thread; a semaphore caps how many run at once and a second one caps
+ * how many may wait. When full, callers fall back to processing synchronously.
+ */
+@Component
+public class MemoryProcessingExecutor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryProcessingExecutor.class);
+
+    private final AppProperties.Processing settings;
+    private final ExecutorService executor;
+    private final Semaphore running;
+    private final Semaphore admitted;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicBoolean accepting = new AtomicBoolean(false);
+
+    public MemoryProcessingExecutor(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.settings = appProperties.getProcessing();
+        int maxConcurrency = Math.max(settings.getMaxConcurrency(), 1);
+        this.running = new Semaphore(maxConcurrency);
+        this.admitted = new Semaphore(maxConcurrency + Math.max(settings.getQueueCapacity(), 0));
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("memory-processing-", 0).factory());
+
+        Gauge.builder("memory.processing.active", active, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("memory.processing.queued", this, MemoryProcessingExecutor::queued).register(meterRegistry);
+    }
+
+    public boolean isAsync() {
+        return settings.isAsync();
+    }
+
+    /**
+     * Reserves a slot for one job, or returns {@code null} when async mode is off, the executor is shutting
+     * down or the queue is full.
+     */
+    public Reservation tryReserve() {
+        if (!settings.isAsync() || !accepting.get() || !admitted.tryAcquire()) {
+            return null;
+        }
+        return new Reservation();
+    }
+
+    @Override
+    public void start() {
+        accepting.set(true);
+    }
+
+    @Override
+    public void stop() {
+        accepting.set(false);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(settings.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Memory processing did not drain within {}; interrupting {} job(s)", settings.getShutdownTimeout(), active.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return accepting.get();
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server so requests still in flight can hand over their jobs first.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private int queued() {
+        int maxConcurrency = Math.max(settings.getMaxConcurrency(), 1);
+        int capacity = maxConcurrency + Math.max(settings.getQueueCapacity(), 0);
+        return Math.max(capacity - admitted.availablePermits() - active.get(), 0);
+    }
+
+    public final class Reservation {
+
+        private final AtomicBoolean used = new AtomicBoolean(false);
+
+        private Reservation() {
+        }
+
+        public void submit(Runnable job) {
+            if (!used.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException ex) {
+                // Shutdown started after this job was reserved; finish it on the caller's thread instead of dropping it.
+                admitted.release();
+                job.run();
+            }
+        }
+
+        private void run(Runnable job) {
+            try {
+                running.acquire();
+                active.incrementAndGet();
+                try {
+                    job.run();
+                } finally {
+                    active.decrementAndGet();
+                    running.release();
+                }
+            } catch (InterruptedException ex) {
+                log.warn("Memory processing job interrupted before completion");
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.error("Memory processing job failed", ex);
+            } finally {
+                admitted.release();
+            }
+        }
+
+        public void cancel() {
+            if (used.compareAndSet(false, true)) {
+                admitted.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package de.csiem.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.dto.MemoryProgressEvent;
+import de.csiem.backend.model.MemoryProcessingStage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of processing progress per memory. Each memory keeps the last few events so late subscribers
+ * and reconnecting ones ({@code Last-Event-ID}) catch up; channels expire a while after their last event.
+ * Publishing only queues events: a subscriber's events are sent from a virtual thread that runs while it has any
+ * pending, so a stalled client never holds up processing. Subscribers whose send fails, blocks for longer than
+ * {@code progress-send-timeout} or falls too far behind are dropped.
+ */
+@Component
+public class MemoryProgressBus {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryProgressBus.class);
+    private static final long MAX_CHANNELS = 10_000;
+
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final Executor sendExecutor;
+    private final Cache<UUID, Channel> channels;
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    @Autowired
+    public MemoryProgressBus(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this(appProperties, meterRegistry, task -> Thread.ofVirtual().name("memory-progress").start(task));
+    }
+
+    MemoryProgressBus(AppProperties appProperties, MeterRegistry meterRegistry, Executor sendExecutor) {
+        AppProperties.Processing settings = appProperties.getProcessing();
+        this.bufferSize = Math.max(settings.getProgressBufferSize(), 1);
+        this.sendTimeoutNanos = settings.getProgressSendTimeout().toNanos();
+        this.sendExecutor = sendExecutor;
+        this.channels = Caffeine.newBuilder()
+            .expireAfterAccess(settings.getProgressRetention())
+            .maximumSize(MAX_CHANNELS)
+            .build();
+
+        Gauge.builder("memory.progress.subscribers", subscribers, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public void publish(UUID memoryId, MemoryProcessingStage stage) {
+        publish(memoryId, stage, List.of(), null);
+    }
+
+    /**
+     * Publishes right away, or after commit when called inside a transaction, so a client reacting to
+     * {@code READY} or {@code FAILED} never reads the row before the change is visible.
+     */
+    public void publish(UUID memoryId, MemoryProcessingStage stage, List<UUID> ids, String errorMessage) {
+        MemoryProgressEvent event = new MemoryProgressEvent(
+            memoryId,
+            stage,
+            stage.status(),
+            ids == null ? List.of() : List.copyOf(ids),
+            errorMessage,
+            Instant.now()
+        );
+        if (stage.isTerminal() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(event);
+                }
+            });
+            return;
+        }
+        deliver(event);
+    }
+
+    /**
+     * Replays buffered events newer than {@code lastEventId} and then forwards new ones until the returned
+     * subscription is closed. {@code dropped} runs, off the publishing thread, when the bus gives up on the
+     * subscriber, e.g. to close its connection.
+     */
+    public Subscription subscribe(UUID memoryId, long lastEventId, Consumer<Delivery> listener, Runnable dropped) {
+        Channel channel = channels.get(memoryId, id -> new Channel());
+        Subscriber subscriber = new Subscriber(memoryId, channel, listener, dropped);
+        subscribers.incrementAndGet();
+        channel.add(subscriber, lastEventId);
+        return new Subscription(subscriber);
+    }
+
+    private void deliver(MemoryProgressEvent event) {
+        channels.get(event.memoryId(), id -> new Channel()).append(event);
+    }
+
+    public record Delivery(long id, MemoryProgressEvent event) {
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final Subscriber subscriber;
+
+        private Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void close() {
+            subscriber.close();
+        }
+    }
+
+    private final class Channel {
+
+        private final ArrayDeque<Delivery> buffer = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private long nextId = 1;
+
+        /**
+         * Queues the event for every subscriber under the channel lock, so each gets every event once and in order.
+         */
+        private synchronized void append(MemoryProgressEvent event) {
+            Delivery delivery = new Delivery(nextId++, event);
+            if (buffer.size() == bufferSize) {
+                buffer.removeFirst();
+            }
+            buffer.addLast(delivery);
+            for (Subscriber subscriber : List.copyOf(subscribers)) {
+                subscriber.offer(delivery);
+            }
+        }
+
+        private synchronized void add(Subscriber subscriber, long lastEventId) {
+            subscribers.add(subscriber);
+            for (Delivery delivery : List.copyOf(buffer)) {
+                if (delivery.id() > lastEventId) {
+                    subscriber.offer(delivery);
+                }
+            }
+        }
+
+        private synchronized boolean remove(Subscriber subscriber) {
+            return subscribers.remove(subscriber);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final UUID memoryId;
+        private final Channel channel;
+        private final Consumer<Delivery> listener;
+        private final Runnable dropped;
+        private final ArrayDeque<Delivery> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean sending;
+        private long sendStartedAt;
+        private boolean closed;
+
+        private Subscriber(UUID memoryId, Channel channel, Consumer<Delivery> listener, Runnable dropped) {
+            this.memoryId = memoryId;
+            this.channel = channel;
+            this.listener = listener;
+            this.dropped = dropped;
+        }
+
+        private void offer(Delivery delivery) {
+            String problem = null;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (sending && System.nanoTime() - sendStartedAt > sendTimeoutNanos) {
+                    problem = "send stalled";
+                } else if (pending.size() >= 2 * bufferSize) {
+                    // Room for a full replay plus as many live events; a reconnect replays from the buffer.
+                    problem = "too far behind";
+                } else {
+                    pending.addLast(delivery);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                }
+            }
+            if (problem != null) {
+                log.debug("Dropping progress subscriber for memory {}: {}", memoryId, problem);
+                drop();
+                return;
+            }
+            sendExecutor.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Delivery next;
+                synchronized (this) {
+                    sending = false;
+                    next = closed ? null : pending.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    sending = true;
+                    sendStartedAt = System.nanoTime();
+                }
+                try {
+                    listener.accept(next);
+                } catch (RuntimeException ex) {
+                    log.debug("Dropping progress subscriber for memory {}", memoryId, ex);
+                    synchronized (this) {
+                        sending = false;
+                        draining = false;
+                    }
+                    drop();
+                    return;
+                }
+            }
+        }
+
+        private void drop() {
+            if (close()) {
+                sendExecutor.execute(dropped);
+            }
+        }
+
+        private boolean close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            if (!channel.remove(this)) {
+                return false;
+            }
+            subscribers.decrementAndGet();
+            return true;
+        }
+    }
+}
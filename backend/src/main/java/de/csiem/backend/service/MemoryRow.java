@@ -0,0 +1,19 @@
+package de.csiem.backend.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record MemoryRow(
+    UUID id,
+    Instant createdAt,
+    Instant recordedAt,
+    String status,
+    boolean highlight,
+    String title,
+    String summary,
+    String transcript,
+    String errorMessage,
+    List<String> tags
+) {
+}
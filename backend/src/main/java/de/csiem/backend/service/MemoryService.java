@@ -8,34 +8,45 @@ import de.csiem.backend.dto.MemoryListResponse;
 import de.csiem.backend.dto.MemoryResponse;
 import de.csiem.backend.dto.UpdateMemoryRequest;
 import de.csiem.backend.model.MemoryEntity;
+import de.csiem.backend.model.MemoryJobEntity;
+import de.csiem.backend.model.MemoryProcessingStage;
 import de.csiem.backend.model.MemoryStatus;
 import de.csiem.backend.model.MemoryTag;
 import de.csiem.backend.model.UserEntity;
 import de.csiem.backend.repository.MemoryRepository;
 import de.csiem.backend.repository.UserRepository;
 import de.csiem.backend.service.transcription.TranscriptionService;
+import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.YearMonth;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
@@ -52,7 +63,14 @@ public class MemoryService {
     private final MemorySplittingService memorySplittingService;
     private final MemoryTaggingService memoryTaggingService;
     private final MemoryInsightsService memoryInsightsService;
+    private final MemoryEnrichmentService memoryEnrichmentService;
     private final AppProperties appProperties;
+    private final MemoryProcessingExecutor processingExecutor;
+    private final MemoryJobQueue memoryJobQueue;
+    private final MemoryProgressBus progressBus;
+    private final PipelineBudget pipelineBudget;
+    private final AiStageCache stageCache;
+    private final TransactionTemplate transactionTemplate;
 
     public MemoryService(
         MemoryRepository memoryRepository,
@@ -61,7 +79,14 @@ public class MemoryService {
         MemorySplittingService memorySplittingService,
         MemoryTaggingService memoryTaggingService,
         MemoryInsightsService memoryInsightsService,
-        AppProperties appProperties
+        MemoryEnrichmentService memoryEnrichmentService,
+        AppProperties appProperties,
+        MemoryProcessingExecutor processingExecutor,
+        MemoryJobQueue memoryJobQueue,
+        MemoryProgressBus progressBus,
+        PipelineBudget pipelineBudget,
+        AiStageCache stageCache,
+        PlatformTransactionManager transactionManager
     ) {
         this.memoryRepository = memoryRepository;
         this.userRepository = userRepository;
@@ -69,11 +94,20 @@ public class MemoryService {
         this.memorySplittingService = memorySplittingService;
         this.memoryTaggingService = memoryTaggingService;
         this.memoryInsightsService = memoryInsightsService;
+        this.memoryEnrichmentService = memoryEnrichmentService;
         this.appProperties = appProperties;
+        this.processingExecutor = processingExecutor;
+        this.memoryJobQueue = memoryJobQueue;
+        this.progressBus = progressBus;
+        this.pipelineBudget = pipelineBudget;
+        this.stageCache = stageCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Transactional
     public CreateMemoryResponse createMemory(CreateMemoryRequest request) {
+        PipelineDeadline deadline = pipelineBudget.start();
         var audio = request.audio();
         Instant uploadTimestamp = request.recordedAt() != null ? request.recordedAt() : Instant.now();
         if (audio == null || audio.isEmpty()) {
@@ -89,39 +123,235 @@ public class MemoryService {
         );
         memoryRepository.save(memory);
 
+        if (memoryJobQueue.isEnabled()) {
+            try {
+                // The job row references the memory, so the memory has to reach the database first.
+                memoryRepository.flush();
+                memoryJobQueue.enqueue(memory.getId(), audio, uploadTimestamp);
+            } catch (IOException ex) {
+                return failMemory(memory, ex);
+            }
+            return toProcessingResponse(memory);
+        }
+
+        MemoryProcessingExecutor.Reservation reservation = processingExecutor.tryReserve();
+        AudioUpload upload;
+        try {
+            // A background job outlives the multipart upload, so it gets its own copy on disk.
+            upload = reservation == null ? AudioUpload.of(audio) : AudioUpload.detach(audio);
+        } catch (Exception ex) {
+            if (reservation != null) {
+                reservation.cancel();
+            }
+            return failMemory(memory, ex);
+        }
+
+        if (reservation == null) {
+            return processMemory(memory, upload, uploadTimestamp, deadline);
+        }
+
+        UUID memoryId = memory.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reservation.cancel();
+                    upload.close();
+                    return;
+                }
+                reservation.submit(() -> {
+                    try (upload) {
+                        processDetached(memoryId, upload, uploadTimestamp, deadline);
+                    }
+                });
+            }
+        });
+        return toProcessingResponse(memory);
+    }
+
+    private CreateMemoryResponse processMemory(
+        MemoryEntity memory,
+        AudioUpload upload,
+        Instant uploadTimestamp,
+        PipelineDeadline deadline
+    ) {
+        try {
+            return runPipeline(memory.getId(), upload, uploadTimestamp, deadline, result -> persistResult(memory, result));
+        } catch (Exception ex) {
+            return failMemory(memory, ex);
+        }
+    }
+
+    /**
+     * Runs the AI stages without a transaction and saves the result in a short one of its own, so a background run
+     * only holds a database connection while it writes.
+     */
+    private void processDetached(UUID memoryId, AudioUpload upload, Instant uploadTimestamp, PipelineDeadline deadline) {
         try {
+            runPipeline(memoryId, upload, uploadTimestamp, deadline, result -> persistResult(memoryId, result));
+        } catch (Exception ex) {
+            failProcessingMemory(memoryId, ex);
+        }
+    }
+
+    /**
+     * Transcribes, splits and enriches the recording, then hands the result to {@code persist}. Nothing here touches
+     * the database, so callers decide which transaction the result is written in.
+     */
+    private CreateMemoryResponse runPipeline(
+        UUID memoryId,
+        AudioUpload upload,
+        Instant uploadTimestamp,
+        PipelineDeadline deadline,
+        Function<PipelineResult, CreateMemoryResponse> persist
+    ) {
+        String outcome = "failed";
+        try {
+            progressBus.publish(memoryId, MemoryProcessingStage.TRANSCRIBING);
             String transcript = transcriptionService.transcribe(
-                audio.getBytes(),
-                Optional.ofNullable(audio.getOriginalFilename()).orElse("recording.webm"),
-                Optional.ofNullable(audio.getContentType()).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                upload.resource(),
+                upload.contentLength(),
+                upload.filename(),
+                upload.contentType(),
+                deadline
             );
+            deadline.finishStage("transcription");
+
+            progressBus.publish(memoryId, MemoryProcessingStage.SPLITTING);
+            List<SplitMemory> splitMemories = split(transcript, uploadTimestamp, deadline);
+            deadline.finishStage("split");
 
-            List<SplitMemory> splitMemories = memorySplittingService.split(transcript, uploadTimestamp);
+            progressBus.publish(memoryId, MemoryProcessingStage.ENRICHING);
+            PipelineResult result;
             if (splitMemories.size() <= 1) {
                 SplitMemory single = splitMemories.isEmpty()
                     ? new SplitMemory(transcript, uploadTimestamp, 1.0)
                     : splitMemories.getFirst();
-                return persistSingleMemory(memory, single);
+                result = enrichSingleMemory(transcript, single, deadline);
+            } else {
+                result = enrichSplitMemories(transcript, splitMemories, deadline);
             }
+            deadline.finishStage("insights");
+
+            CreateMemoryResponse response = persist.apply(result);
+            deadline.finishStage("persist");
+            progressBus.publish(memoryId, MemoryProcessingStage.READY, response.ids(), null);
+            outcome = "ready";
+            return response;
+        } finally {
+            pipelineBudget.report(deadline, outcome);
+        }
+    }
 
-            return persistSplitMemories(memory, transcript, splitMemories, user);
-        } catch (Exception ex) {
-            memory.markFailed(buildErrorMessage(ex));
-            MemoryEntity failed = memoryRepository.save(memory);
-            return new CreateMemoryResponse(
-                failed.getId(),
-                List.of(),
-                0,
-                failed.getStatus(),
-                failed.getErrorMessage(),
-                null,
-                null,
-                null,
-                List.of()
-            );
+    /**
+     * Keeps the recording as one memory when too little budget is left for the splitter.
+     */
+    private List<SplitMemory> split(String transcript, Instant uploadTimestamp, PipelineDeadline deadline) {
+        if (!pipelineBudget.allowsSplit(deadline)) {
+            deadline.downgrade("split");
+            return List.of();
+        }
+        return memorySplittingService.split(transcript, uploadTimestamp, deadline);
+    }
+
+    /**
+     * Runs one attempt of a queued job. The AI stages run outside any transaction; the result is saved in a short
+     * one that also completes the job, and only while {@code owner} still holds its lease. A failed attempt rethrows
+     * so the job can be retried; only the last attempt marks the memory as failed.
+     */
+    public void processQueuedMemory(MemoryJobEntity job, String owner, AudioUpload upload) {
+        UUID memoryId = job.getMemoryId();
+        boolean processing = memoryRepository.findById(memoryId)
+            .filter(memory -> memory.getStatus() == MemoryStatus.PROCESSING)
+            .isPresent();
+        if (!processing) {
+            memoryJobQueue.complete(job.getId(), owner);
+            return;
+        }
+        // Nobody waits on a queued job, so its budget starts with the attempt rather than the upload.
+        PipelineDeadline deadline = pipelineBudget.start();
+        try {
+            runPipeline(memoryId, upload, job.getUploadTimestamp(), deadline, result -> transactionTemplate.execute(tx -> {
+                memoryJobQueue.complete(job.getId(), owner);
+                return persistResult(processingMemory(memoryId), result);
+            }));
+        } catch (RuntimeException ex) {
+            if (job.hasAttemptsLeft() || ex instanceof MemoryJobQueue.LeaseLostException) {
+                throw ex;
+            }
+            transactionTemplate.executeWithoutResult(tx -> {
+                memoryJobQueue.complete(job.getId(), owner);
+                memoryRepository.findById(memoryId)
+                    .filter(memory -> memory.getStatus() == MemoryStatus.PROCESSING)
+                    .ifPresent(memory -> failMemory(memory, ex));
+            });
         }
     }
 
+    public void failQueuedMemory(UUID memoryId, String message) {
+        transactionTemplate.executeWithoutResult(tx ->
+            memoryRepository.findById(memoryId)
+                .filter(memory -> memory.getStatus() == MemoryStatus.PROCESSING)
+                .ifPresent(memory -> {
+                    memory.markFailed(message);
+                    progressBus.publish(memoryId, MemoryProcessingStage.FAILED, List.of(), message);
+                })
+        );
+    }
+
+    /**
+     * Fails memories left in {@code PROCESSING} by a crash outside the durable queue; without a job there is no
+     * audio left to retry with.
+     */
+    public int failAbandonedMemories(Duration abandonedAfter) {
+        Instant now = Instant.now();
+        Integer failed = transactionTemplate.execute(tx -> memoryRepository.failAbandoned(
+            now.minus(abandonedAfter),
+            now,
+            "Processing was interrupted. Please record the memory again."
+        ));
+        return failed == null ? 0 : failed;
+    }
+
+    private void failProcessingMemory(UUID memoryId, Exception ex) {
+        transactionTemplate.executeWithoutResult(tx ->
+            memoryRepository.findById(memoryId)
+                .filter(memory -> memory.getStatus() == MemoryStatus.PROCESSING)
+                .ifPresent(memory -> failMemory(memory, ex))
+        );
+    }
+
+    private CreateMemoryResponse failMemory(MemoryEntity memory, Exception ex) {
+        memory.markFailed(buildErrorMessage(ex));
+        MemoryEntity failed = memoryRepository.save(memory);
+        progressBus.publish(failed.getId(), MemoryProcessingStage.FAILED, List.of(), failed.getErrorMessage());
+        return new CreateMemoryResponse(
+            failed.getId(),
+            List.of(),
+            0,
+            failed.getStatus(),
+            failed.getErrorMessage(),
+            null,
+            null,
+            null,
+            List.of()
+        );
+    }
+
+    private CreateMemoryResponse toProcessingResponse(MemoryEntity memory) {
+        return new CreateMemoryResponse(
+            memory.getId(),
+            List.of(memory.getId()),
+            1,
+            memory.getStatus(),
+            null,
+            null,
+            null,
+            null,
+            List.of()
+        );
+    }
+
     @Transactional(readOnly = true)
     public MemoryListResponse getMemories(int page, int size) {
         return getMemories(page, size, null, List.of(), false);
@@ -134,16 +364,30 @@ public class MemoryService {
 
     @Transactional(readOnly = true)
     public MemoryListResponse getMemories(int page, int size, String month, List<String> tags, boolean highlightsOnly) {
+        return getMemories(page, size, month, tags, highlightsOnly, null);
+    }
+
+    /**
+     * A non-null {@code cursor} (blank for the first page) switches to keyset paging: rows are found with a
+     * seek predicate on (recordedAt, createdAt, id) instead of an offset, and no total is counted.
+     */
+    @Transactional(readOnly = true)
+    public MemoryListResponse getMemories(
+        int page,
+        int size,
+        String month,
+        List<String> tags,
+        boolean highlightsOnly,
+        String cursor
+    ) {
         int safePage = Math.max(page, 0);
         int safeSize = Math.min(Math.max(size, 1), 100);
-        Pageable pageable = PageRequest.of(
-            safePage,
-            safeSize,
-            Sort.by(
-                Sort.Order.desc("recordedAt").nullsLast(),
-                Sort.Order.desc("createdAt")
-            )
-        );
+        boolean cursorMode = cursor != null;
+        MemoryCursor position = MemoryCursor.decode(cursor);
+        boolean backwards = position != null && position.before();
+        Sort sort = backwards
+            ? Sort.by(Sort.Order.asc("recordedAt"), Sort.Order.asc("createdAt"), Sort.Order.asc("id"))
+            : Sort.by(Sort.Order.desc("recordedAt").nullsLast(), Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
 
         Instant fromInstant = null;
         Instant toInstant = null;
@@ -189,28 +433,97 @@ public class MemoryService {
             if (highlightsOnly) {
                 predicates.add(criteriaBuilder.isTrue(root.get("highlight")));
             }
+            if (position != null) {
+                predicates.add(seekPredicate(root, criteriaBuilder, position));
+            }
 
             return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
         };
 
-        Page<MemoryEntity> result = memoryRepository.findAll(specification, pageable);
+        if (cursorMode) {
+            // One extra row tells whether another page exists without counting the whole timeline.
+            List<MemoryEntity> rows = new ArrayList<>(memoryRepository.findBy(
+                specification,
+                query -> query.sortBy(sort).limit(safeSize + 1).all()
+            ));
+            boolean hasMore = rows.size() > safeSize;
+            List<MemoryEntity> window = new ArrayList<>(rows.subList(0, Math.min(rows.size(), safeSize)));
+            if (backwards) {
+                Collections.reverse(window);
+            }
+            List<MemoryListItemResponse> items = toListItems(window);
 
-        List<MemoryListItemResponse> items = result.getContent().stream()
-            .map(memory -> MemoryMapper.toMemoryListItemResponse(memory, snippet(memory.getTranscript())))
-            .toList();
+            boolean hasOlder = backwards || hasMore;
+            boolean hasNewer = backwards ? hasMore : position != null;
+            return new MemoryListResponse(
+                items,
+                0,
+                safeSize,
+                -1,
+                -1,
+                hasOlder && !items.isEmpty() ? MemoryCursor.after(items.getLast()).encode() : null,
+                hasNewer && !items.isEmpty() ? MemoryCursor.before(items.getFirst()).encode() : null
+            );
+        }
+
+        Page<MemoryEntity> result = memoryRepository.findAll(specification, PageRequest.of(safePage, safeSize, sort));
+        List<MemoryListItemResponse> items = toListItems(result.getContent());
 
         return new MemoryListResponse(
             items,
             result.getNumber(),
             result.getSize(),
             result.getTotalElements(),
-            result.getTotalPages()
+            result.getTotalPages(),
+            result.hasNext() && !items.isEmpty() ? MemoryCursor.after(items.getLast()).encode() : null,
+            result.hasPrevious() && !items.isEmpty() ? MemoryCursor.before(items.getFirst()).encode() : null
+        );
+    }
+
+    private List<MemoryListItemResponse> toListItems(List<MemoryEntity> memories) {
+        return memories.stream()
+            .map(memory -> MemoryMapper.toMemoryListItemResponse(memory, snippet(memory.getTranscript())))
+            .toList();
+    }
+
+    private Predicate seekPredicate(Root<MemoryEntity> root, CriteriaBuilder criteriaBuilder, MemoryCursor cursor) {
+        Path<Instant> recordedAt = root.get("recordedAt");
+        Path<Instant> createdAt = root.get("createdAt");
+        Path<UUID> id = root.get("id");
+        if (cursor.before()) {
+            return criteriaBuilder.or(
+                criteriaBuilder.greaterThan(recordedAt, cursor.recordedAt()),
+                criteriaBuilder.and(
+                    criteriaBuilder.equal(recordedAt, cursor.recordedAt()),
+                    criteriaBuilder.greaterThan(createdAt, cursor.createdAt())
+                ),
+                criteriaBuilder.and(
+                    criteriaBuilder.equal(recordedAt, cursor.recordedAt()),
+                    criteriaBuilder.equal(createdAt, cursor.createdAt()),
+                    criteriaBuilder.greaterThan(id, cursor.id())
+                )
+            );
+        }
+        return criteriaBuilder.or(
+            criteriaBuilder.lessThan(recordedAt, cursor.recordedAt()),
+            criteriaBuilder.and(
+                criteriaBuilder.equal(recordedAt, cursor.recordedAt()),
+                criteriaBuilder.lessThan(createdAt, cursor.createdAt())
+            ),
+            criteriaBuilder.and(
+                criteriaBuilder.equal(recordedAt, cursor.recordedAt()),
+                criteriaBuilder.equal(createdAt, cursor.createdAt()),
+                criteriaBuilder.lessThan(id, cursor.id())
+            )
         );
     }
 
     @Transactional(readOnly = true)
     public MemoryResponse getMemory(UUID id) {
-        MemoryEntity memory = memoryRepository.findByIdAndUser_IdAndIsParentFalse(id, appProperties.getDefaultUserId())
+        UUID userId = appProperties.getDefaultUserId();
+        // A recording that was split in the background hides its original row; pollers get the first split memory.
+        MemoryEntity memory = memoryRepository.findByIdAndUser_IdAndIsParentFalse(id, userId)
+            .or(() -> memoryRepository.findFirstByParentMemory_IdAndUser_IdOrderByRecordedAtAscCreatedAtAsc(id, userId))
             .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Memory not found"));
         return MemoryMapper.toMemoryResponse(memory);
     }
@@ -236,8 +549,9 @@ public class MemoryService {
             memory.setHighlight(request.isHighlight());
         }
 
-        if (request.transcript() != null) {
-            String nextTranscript = normalizeTranscript(request.transcript());
+        String nextTranscript = request.transcript() == null ? null : normalizeTranscript(request.transcript());
+        // An unchanged transcript keeps its summary and tags instead of paying for another model call.
+        if (nextTranscript != null && !nextTranscript.equals(memory.getTranscript())) {
             MemoryInsightsService.MemoryInsights insights = memoryInsightsService.generate(nextTranscript);
             memory.updateTranscriptAndSummary(nextTranscript, insights.summary());
 
@@ -260,18 +574,68 @@ public class MemoryService {
     public void deleteMemory(UUID id) {
         MemoryEntity memory = memoryRepository.findByIdAndUser_IdAndIsParentFalse(id, appProperties.getDefaultUserId())
             .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Memory not found"));
+        // The parent's full transcript contains this excerpt too, so its cached transcription and split go as well.
+        List<String> transcripts = new ArrayList<>();
+        transcripts.add(memory.getTranscript());
+        if (memory.getParentMemory() != null) {
+            transcripts.add(memory.getParentMemory().getTranscript());
+        }
+        stageCache.evictSubjects(transcripts);
         memoryRepository.delete(memory);
     }
 
-    private CreateMemoryResponse persistSingleMemory(MemoryEntity memory, SplitMemory splitMemory) {
+    private PipelineResult enrichSingleMemory(String transcript, SplitMemory splitMemory, PipelineDeadline deadline) {
         String excerpt = normalizeTranscript(splitMemory.excerpt());
-        MemoryInsightsService.MemoryInsights insights = memoryInsightsService.generate(excerpt);
+        MemoryInsightsService.MemoryInsights insights = splitMemory.insights() != null
+            ? splitMemory.insights()
+            : memoryInsightsService.generate(excerpt, deadline);
+        return new PipelineResult(
+            transcript,
+            List.of(splitMemory),
+            List.of(new MemoryEnrichmentService.Enrichment(excerpt, insights, memoryTaggingService.detectTags(excerpt)))
+        );
+    }
+
+    private PipelineResult enrichSplitMemories(String transcript, List<SplitMemory> splitMemories, PipelineDeadline deadline) {
+        List<MemoryEnrichmentService.Enrichment> enrichments = memoryEnrichmentService.enrichAll(
+            splitMemories.stream().map(splitMemory -> normalizeTranscript(splitMemory.excerpt())).toList(),
+            splitMemories.stream().map(SplitMemory::insights).toList(),
+            deadline
+        );
+        return new PipelineResult(transcript, splitMemories, enrichments);
+    }
+
+    /**
+     * Saves a pipeline result in a short transaction of its own, provided the memory is still waiting for it.
+     */
+    private CreateMemoryResponse persistResult(UUID memoryId, PipelineResult result) {
+        return transactionTemplate.execute(tx -> persistResult(processingMemory(memoryId), result));
+    }
+
+    private MemoryEntity processingMemory(UUID memoryId) {
+        return memoryRepository.findById(memoryId)
+            .filter(memory -> memory.getStatus() == MemoryStatus.PROCESSING)
+            .orElseThrow(() -> new IllegalStateException("Memory " + memoryId + " is no longer processing"));
+    }
+
+    private CreateMemoryResponse persistResult(MemoryEntity memory, PipelineResult result) {
+        if (result.enrichments().size() == 1) {
+            return persistSingleMemory(memory, result.splitMemories().getFirst(), result.enrichments().getFirst());
+        }
+        return persistSplitMemories(memory, result);
+    }
+
+    private CreateMemoryResponse persistSingleMemory(
+        MemoryEntity memory,
+        SplitMemory splitMemory,
+        MemoryEnrichmentService.Enrichment enrichment
+    ) {
         memory.setRecordedAt(splitMemory.recordedAt());
         memory.markReady(
-            excerpt,
-            memoryTaggingService.detectTags(excerpt),
-            insights.title(),
-            insights.summary()
+            enrichment.excerpt(),
+            enrichment.tags(),
+            enrichment.insights().title(),
+            enrichment.insights().summary()
         );
 
         MemoryEntity saved = memoryRepository.save(memory);
@@ -288,32 +652,26 @@ public class MemoryService {
         );
     }
 
-    private CreateMemoryResponse persistSplitMemories(
-        MemoryEntity parentMemory,
-        String fullTranscript,
-        List<SplitMemory> splitMemories,
-        UserEntity user
-    ) {
-        parentMemory.markReadyAsParent(fullTranscript);
+    private CreateMemoryResponse persistSplitMemories(MemoryEntity parentMemory, PipelineResult result) {
+        parentMemory.markReadyAsParent(result.transcript());
         MemoryEntity parentSaved = memoryRepository.save(parentMemory);
 
+        List<SplitMemory> splitMemories = result.splitMemories();
         List<MemoryEntity> children = new ArrayList<>();
-        for (SplitMemory splitMemory : splitMemories) {
-            String excerpt = normalizeTranscript(splitMemory.excerpt());
-            MemoryInsightsService.MemoryInsights insights = memoryInsightsService.generate(excerpt);
-
+        for (int i = 0; i < splitMemories.size(); i++) {
+            MemoryEnrichmentService.Enrichment enrichment = result.enrichments().get(i);
             MemoryEntity child = new MemoryEntity(
                 UUID.randomUUID(),
-                user,
-                splitMemory.recordedAt(),
+                parentSaved.getUser(),
+                splitMemories.get(i).recordedAt(),
                 MemoryStatus.READY
             );
             child.setParentMemory(parentSaved);
             child.markReady(
-                excerpt,
-                memoryTaggingService.detectTags(excerpt),
-                insights.title(),
-                insights.summary()
+                enrichment.excerpt(),
+                enrichment.tags(),
+                enrichment.insights().title(),
+                enrichment.insights().summary()
             );
             children.add(child);
         }
@@ -384,4 +742,14 @@ public class MemoryService {
         }
         return normalized;
     }
+
+    /**
+     * What the AI stages produced for one recording: one split memory and enrichment per memory to save.
+     */
+    private record PipelineResult(
+        String transcript,
+        List<SplitMemory> splitMemories,
+        List<MemoryEnrichmentService.Enrichment> enrichments
+    ) {
+    }
 }
@@ -6,4 +6,11 @@ import java.util.List;
 public interface MemorySplittingService {
 
     List<SplitMemory> split(String transcript, Instant uploadTimestamp);
+
+    /**
+     * Same as above within what is left of {@code deadline}; the default ignores it.
+     */
+    default List<SplitMemory> split(String transcript, Instant uploadTimestamp, PipelineDeadline deadline) {
+        return split(transcript, uploadTimestamp);
+    }
 }
@@ -0,0 +1,65 @@
+package de.csiem.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.csiem.backend.config.AppProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+/**
+ * Short-lived, single-use tickets for the progress stream of one memory. Browsers' {@code EventSource} cannot send
+ * an {@code Authorization} header, and an access token in the URL would end up in access and proxy logs; the
+ * ticket goes there instead. The caller's authorization stays in this process and is used once to open the stream.
+ * Tickets live in memory, like the progress bus, so the stream has to hit the instance that issued them.
+ */
+@Component
+public class MemoryStreamTickets {
+
+    private static final long MAX_TICKETS = 10_000;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Duration ttl;
+    private final Cache<String, Ticket> tickets;
+
+    public MemoryStreamTickets(AppProperties appProperties) {
+        this.ttl = appProperties.getProcessing().getProgressTicketTtl();
+        this.tickets = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(MAX_TICKETS)
+            .build();
+    }
+
+    /**
+     * Issues a ticket for {@code memoryId}; check the caller may read the memory first.
+     */
+    public String issue(UUID memoryId, String authorizationHeader) {
+        byte[] random = new byte[32];
+        RANDOM.nextBytes(random);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        tickets.put(ticket, new Ticket(memoryId, authorizationHeader, Instant.now().plus(ttl)));
+        return ticket;
+    }
+
+    /**
+     * Consumes the ticket and returns the authorization it was issued for, which may be {@code null} when the
+     * backend runs without Supabase.
+     */
+    public String redeem(String ticket, UUID memoryId) {
+        Ticket issued = ticket == null ? null : tickets.asMap().remove(ticket);
+        if (issued == null || !issued.memoryId().equals(memoryId) || Instant.now().isAfter(issued.expiresAt())) {
+            throw new ResponseStatusException(UNAUTHORIZED, "Invalid or expired stream ticket");
+        }
+        return issued.authorizationHeader();
+    }
+
+    private record Ticket(UUID memoryId, String authorizationHeader, Instant expiresAt) {
+    }
+}
@@ -1,32 +1,60 @@
 package de.csiem.backend.service;
 
+import de.csiem.backend.config.AppProperties;
 import de.csiem.backend.model.MemoryTag;
+import de.csiem.backend.service.tagging.KeywordAutomaton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
+/**
+ * Assigns tags from keyword dictionaries ({@code app.tagging.dictionaries}, one properties file per language mapping
+ * each {@link MemoryTag} to its keywords). All dictionaries are compiled into one {@link KeywordAutomaton} at startup,
+ * so a transcript is scanned once however many keywords there are.
+ */
 @Service
 public class MemoryTaggingService {
 
     private static final MemoryTag DEFAULT_TAG = MemoryTag.GROWTH;
 
+    private final KeywordAutomaton<MemoryTag> automaton;
+
+    public MemoryTaggingService() {
+        this(new AppProperties(), new DefaultResourceLoader());
+    }
+
+    @Autowired
+    public MemoryTaggingService(AppProperties appProperties, ResourceLoader resourceLoader) {
+        Map<MemoryTag, List<String>> keywords = new EnumMap<>(MemoryTag.class);
+        for (String location : appProperties.getTagging().getDictionaries()) {
+            loadDictionary(resourceLoader.getResource(location.trim()), keywords);
+        }
+        this.automaton = KeywordAutomaton.compile(keywords);
+    }
+
     public Set<MemoryTag> detectTags(String transcript) {
-        String normalized = transcript == null ? "" : transcript.toLowerCase(Locale.ROOT);
-        Set<MemoryTag> tags = new LinkedHashSet<>();
-
-        addIfMatches(tags, normalized, MemoryTag.LANGUAGE, "say", "said", "word", "talk", "speak", "story", "read");
-        addIfMatches(tags, normalized, MemoryTag.MOTOR_SKILLS, "walk", "run", "jump", "climb", "stack", "tower", "dance", "kick");
-        addIfMatches(tags, normalized, MemoryTag.EMOTIONAL, "happy", "sad", "angry", "upset", "excited", "proud", "cry", "frustrat");
-        addIfMatches(tags, normalized, MemoryTag.SOCIAL, "friend", "share", "together", "hello", "teacher", "class", "playdate");
-        addIfMatches(tags, normalized, MemoryTag.MILESTONE, "first time", "for the first time", "learned to", "finally", "milestone");
-        addIfMatches(tags, normalized, MemoryTag.PLAY, "play", "toy", "game", "pretend", "puzzle", "blocks", "building");
-        addIfMatches(tags, normalized, MemoryTag.FAMILY, "mom", "dad", "mother", "father", "sister", "brother", "grandma", "grandpa", "family");
-        addIfMatches(tags, normalized, MemoryTag.FUNNY, "funny", "laugh", "giggle", "joke", "silly", "hilarious");
-        addIfMatches(tags, normalized, MemoryTag.GROWTH, "improv", "better", "growing", "progress", "new skill", "without help");
-        addIfMatches(tags, normalized, MemoryTag.CHALLENGE, "hard", "difficult", "struggle", "challeng", "tried", "couldn't", "could not", "failed");
+        Set<MemoryTag> found = EnumSet.noneOf(MemoryTag.class);
+        automaton.scan(normalize(transcript), found::add);
 
+        // EnumSet iterates in declaration order, which keeps the tag order stable.
+        Set<MemoryTag> tags = new LinkedHashSet<>(found);
         if (tags.isEmpty()) {
             tags.add(DEFAULT_TAG);
         }
@@ -34,12 +62,49 @@ public class MemoryTaggingService {
         return tags;
     }
 
-    private void addIfMatches(Set<MemoryTag> tags, String transcript, MemoryTag tag, String... keywords) {
-        for (String keyword : keywords) {
-            if (transcript.contains(keyword)) {
-                tags.add(tag);
-                return;
+    /**
+     * Lower-cases, turns typographic apostrophes into plain ones and collapses whitespace runs, so multi-word keywords
+     * match however the transcript was spaced.
+     */
+    private static String normalize(String transcript) {
+        if (transcript == null) {
+            return "";
+        }
+        String lower = transcript.toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(lower.length());
+        boolean space = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && !normalized.isEmpty()) {
+                normalized.append(' ');
+            }
+            space = false;
+            normalized.append(c == '’' ? '\'' : c);
+        }
+        return normalized.toString();
+    }
+
+    private static void loadDictionary(Resource resource, Map<MemoryTag, List<String>> keywords) {
+        Properties dictionary = new Properties();
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            dictionary.load(reader);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read tag dictionary " + resource.getDescription(), ex);
+        }
+
+        for (String name : dictionary.stringPropertyNames()) {
+            MemoryTag tag;
+            try {
+                tag = MemoryTag.valueOf(name.trim());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException("Unknown tag " + name + " in " + resource.getDescription(), ex);
             }
+            keywords.computeIfAbsent(tag, ignored -> new ArrayList<>())
+                .addAll(Arrays.asList(dictionary.getProperty(name).split(",")));
         }
     }
 }
@@ -0,0 +1,160 @@
+package de.csiem.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the JSON the chat models return, token by token, into typed records. Model output is not always clean:
+ * it may be wrapped in prose or code fences, contain raw newlines inside strings, or be cut off at the token limit.
+ * Parsing starts at the first opening brace, and whatever was read before malformed input is kept.
+ */
+final class ModelOutputParser {
+
+    private static final double DEFAULT_CONFIDENCE = 0.5;
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+        .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+        .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+        .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+        .build();
+
+    private ModelOutputParser() {
+    }
+
+    /**
+     * Reads the entries of the first {@code "memories"} array. Entries without an excerpt keep an empty one so the
+     * caller decides what to drop; a missing date, title or summary stays {@code null}.
+     */
+    static List<SplitCandidate> readSplitCandidates(String content) {
+        List<SplitCandidate> candidates = new ArrayList<>();
+        int start = content == null ? -1 : content.indexOf('{');
+        if (start < 0) {
+            return candidates;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(content.substring(start))) {
+            if (!seekField(parser, "memories", JsonToken.START_ARRAY)) {
+                return candidates;
+            }
+            while (true) {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    break;
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    candidates.add(readCandidate(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException ex) {
+            // Truncated or broken output: keep the entries that were complete.
+        }
+        return candidates;
+    }
+
+    /**
+     * Reads the first {@code "title"} and {@code "summary"} strings; missing ones come back empty.
+     */
+    static InsightsOutput readInsights(String content) {
+        String title = "";
+        String summary = "";
+        int start = content == null ? -1 : content.indexOf('{');
+        if (start < 0) {
+            return new InsightsOutput(title, summary);
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(content.substring(start))) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && (title.isEmpty() || summary.isEmpty())) {
+                if (token != JsonToken.FIELD_NAME) {
+                    continue;
+                }
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                    continue;
+                }
+                if (title.isEmpty() && "title".equalsIgnoreCase(field)) {
+                    title = parser.getText();
+                } else if (summary.isEmpty() && "summary".equalsIgnoreCase(field)) {
+                    summary = parser.getText();
+                }
+            }
+        } catch (IOException ex) {
+            // Keep what was read before the output broke off.
+        }
+        return new InsightsOutput(title, summary);
+    }
+
+    private static boolean seekField(JsonParser parser, String name, JsonToken valueToken) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.FIELD_NAME && name.equalsIgnoreCase(parser.currentName())) {
+                if (parser.nextToken() == valueToken) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static SplitCandidate readCandidate(JsonParser parser) throws IOException {
+        String excerpt = "";
+        String dateText = null;
+        String title = null;
+        String summary = null;
+        double confidence = DEFAULT_CONFIDENCE;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName().toLowerCase(Locale.ROOT);
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_STRING && "excerpt".equals(field)) {
+                excerpt = parser.getText();
+            } else if (value == JsonToken.VALUE_STRING && "date_text".equals(field)) {
+                dateText = parser.getText();
+            } else if (value == JsonToken.VALUE_STRING && "title".equals(field)) {
+                title = parser.getText();
+            } else if (value == JsonToken.VALUE_STRING && "summary".equals(field)) {
+                summary = parser.getText();
+            } else if ("confidence".equals(field)) {
+                confidence = readConfidence(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new SplitCandidate(excerpt, dateText, confidence, title, summary);
+    }
+
+    private static double readConfidence(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            double confidence = parser.getDoubleValue();
+            return Double.isFinite(confidence) ? confidence : DEFAULT_CONFIDENCE;
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                double confidence = Double.parseDouble(parser.getText().trim());
+                return Double.isFinite(confidence) ? confidence : DEFAULT_CONFIDENCE;
+            } catch (NumberFormatException ex) {
+                return DEFAULT_CONFIDENCE;
+            }
+        }
+        parser.skipChildren();
+        return DEFAULT_CONFIDENCE;
+    }
+
+    /**
+     * {@code title} and {@code summary} are only present in answers to the combined split prompt.
+     */
+    record SplitCandidate(String excerpt, String dateText, double confidence, String title, String summary) {
+
+        SplitCandidate(String excerpt, String dateText, double confidence) {
+            this(excerpt, dateText, confidence, null, null);
+        }
+    }
+
+    record InsightsOutput(String title, String summary) {
+    }
+}
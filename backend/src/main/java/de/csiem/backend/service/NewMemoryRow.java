@@ -0,0 +1,13 @@
+package de.csiem.backend.service;
+
+import java.time.Instant;
+import java.util.List;
+
+public record NewMemoryRow(
+    Instant recordedAt,
+    String transcript,
+    String title,
+    String summary,
+    List<String> tags
+) {
+}
@@ -0,0 +1,86 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Starts {@link PipelineDeadline}s from {@code app.pipeline.*} and reports how each run used its budget:
+ * {@code memory.pipeline} times the whole run, {@code memory.pipeline.stage} times every stage,
+ * {@code memory.pipeline.budget.used} records the percentage of the budget each stage took, and
+ * {@code memory.pipeline.downgrades} counts the cheaper paths taken.
+ */
+@Component
+public class PipelineBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineBudget.class);
+
+    private final AppProperties.Pipeline settings;
+    private final MeterRegistry meterRegistry;
+
+    public PipelineBudget(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.settings = appProperties.getPipeline();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public PipelineDeadline start() {
+        if (!settings.isEnabled()) {
+            return PipelineDeadline.unlimited();
+        }
+        return PipelineDeadline.start(settings.getBudget());
+    }
+
+    public void report(PipelineDeadline deadline, String outcome) {
+        if (deadline.isUnlimited()) {
+            return;
+        }
+        Timer.builder("memory.pipeline")
+            .description("Memory processing from upload to persisted rows")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(deadline.elapsed());
+        double budgetNanos = Math.max(deadline.budget().toNanos(), 1);
+        for (Map.Entry<String, Duration> stage : deadline.stages().entrySet()) {
+            Timer.builder("memory.pipeline.stage")
+                .description("Time spent in each stage of memory processing")
+                .tag("stage", stage.getKey())
+                .register(meterRegistry)
+                .record(stage.getValue());
+            DistributionSummary.builder("memory.pipeline.budget.used")
+                .description("Share of the pipeline budget used by each stage")
+                .baseUnit("percent")
+                .tag("stage", stage.getKey())
+                .register(meterRegistry)
+                .record(stage.getValue().toNanos() * 100 / budgetNanos);
+        }
+        for (String step : deadline.downgrades()) {
+            Counter.builder("memory.pipeline.downgrades")
+                .description("Pipeline steps replaced by a cheaper path because the budget ran low")
+                .tag("step", step)
+                .register(meterRegistry)
+                .increment();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(
+                "Memory pipeline {} after {} ms of {} ms, stages {}, downgrades {}",
+                outcome,
+                deadline.elapsed().toMillis(),
+                deadline.budget().toMillis(),
+                deadline.stages(),
+                deadline.downgrades()
+            );
+        }
+    }
+
+    public boolean allowsSplit(PipelineDeadline deadline) {
+        return deadline.allows(settings.getMinSplitBudget());
+    }
+}
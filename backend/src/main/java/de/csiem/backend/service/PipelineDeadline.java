@@ -0,0 +1,117 @@
+package de.csiem.backend.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Time left for one memory on its way from upload to persisted rows. It is handed down the pipeline so later stages
+ * can see how much budget the earlier ones used and pick a cheaper path instead of running past the deadline.
+ * Stage marks are taken by the pipeline thread; downgrades may be recorded from enrichment threads.
+ */
+public final class PipelineDeadline {
+
+    private static final Duration FOREVER = Duration.ofSeconds(Long.MAX_VALUE, 999_999_999);
+    private static final PipelineDeadline UNLIMITED = new PipelineDeadline(null, System::nanoTime);
+
+    private final Duration budget;
+    private final LongSupplier clock;
+    private final long startedAt;
+    private long stageStartedAt;
+    private final Map<String, Duration> stages = new LinkedHashMap<>();
+    private final List<String> downgrades = new CopyOnWriteArrayList<>();
+
+    private PipelineDeadline(Duration budget, LongSupplier clock) {
+        this.budget = budget;
+        this.clock = clock;
+        this.startedAt = clock.getAsLong();
+        this.stageStartedAt = startedAt;
+    }
+
+    public static PipelineDeadline start(Duration budget) {
+        return start(budget, System::nanoTime);
+    }
+
+    static PipelineDeadline start(Duration budget, LongSupplier clock) {
+        return new PipelineDeadline(budget, clock);
+    }
+
+    /**
+     * A deadline that never runs out, for callers outside the create pipeline.
+     */
+    public static PipelineDeadline unlimited() {
+        return UNLIMITED;
+    }
+
+    public boolean isUnlimited() {
+        return budget == null;
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+
+    public Duration elapsed() {
+        return Duration.ofNanos(clock.getAsLong() - startedAt);
+    }
+
+    public Duration remaining() {
+        if (budget == null) {
+            return FOREVER;
+        }
+        Duration remaining = budget.minus(elapsed());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * What is left of the budget for calls that take an optional time limit, or {@code null} without a budget.
+     */
+    public Duration timeLimit() {
+        return budget == null ? null : remaining();
+    }
+
+    /**
+     * Whether at least {@code needed} is left; an unlimited deadline always has room.
+     */
+    public boolean allows(Duration needed) {
+        return budget == null || remaining().compareTo(needed) >= 0;
+    }
+
+    /**
+     * Caps a per-call timeout at what is left of the budget.
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return timeout.compareTo(remaining) > 0 ? remaining : timeout;
+    }
+
+    /**
+     * Records the time since the previous mark (or the start) as spent in {@code stage}.
+     */
+    public void finishStage(String stage) {
+        if (budget == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        stages.merge(stage, Duration.ofNanos(now - stageStartedAt), Duration::plus);
+        stageStartedAt = now;
+    }
+
+    public void downgrade(String step) {
+        if (budget != null) {
+            downgrades.add(step);
+        }
+    }
+
+    public Map<String, Duration> stages() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(stages));
+    }
+
+    public List<String> downgrades() {
+        return List.copyOf(downgrades);
+    }
+}
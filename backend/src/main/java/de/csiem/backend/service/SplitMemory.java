@@ -2,9 +2,18 @@ package de.csiem.backend.service;
 
 import java.time.Instant;
 
+/**
+ * One memory cut from a recording. {@code insights} is set when the splitter already produced a validated title and
+ * summary for the excerpt; otherwise they are generated per memory.
+ */
 public record SplitMemory(
     String excerpt,
     Instant recordedAt,
-    double confidence
+    double confidence,
+    MemoryInsightsService.MemoryInsights insights
 ) {
+
+    public SplitMemory(String excerpt, Instant recordedAt, double confidence) {
+        this(excerpt, recordedAt, confidence, null);
+    }
 }
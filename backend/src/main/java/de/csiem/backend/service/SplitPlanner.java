@@ -0,0 +1,193 @@
+package de.csiem.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The model-independent half of splitting, shared by the splitter implementations: deciding whether a transcript
+ * is worth a model call, and turning the segments a model returned into memories. Short segments are merged, dates
+ * resolved, and the recording stays one memory unless the segments land on different days.
+ */
+final class SplitPlanner {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+    private static final double MIN_CONFIDENCE_FOR_MULTI_MEMORY = 0.78;
+
+    private final MemoryDateResolver dateResolver;
+    private final Counter singleDayTranscripts;
+    private final Counter multiDayTranscripts;
+
+    SplitPlanner(MemoryDateResolver dateResolver, MeterRegistry meterRegistry) {
+        this.dateResolver = dateResolver;
+        this.singleDayTranscripts = dateCheckCounter(meterRegistry, "single_day");
+        this.multiDayTranscripts = dateCheckCounter(meterRegistry, "multi_day");
+    }
+
+    /**
+     * A split is only kept when its parts land on two or more days (see {@link #shouldKeepMultipleMemories}), and
+     * parts get their day from the resolver. Without two candidate days in the transcript a model call cannot
+     * change the outcome.
+     */
+    boolean mentionsSeveralDays(String transcript, Instant uploadTimestamp) {
+        boolean severalDays = dateResolver.candidateDates(transcript, uploadTimestamp).size() >= 2;
+        (severalDays ? multiDayTranscripts : singleDayTranscripts).increment();
+        return severalDays;
+    }
+
+    List<SplitMemory> plan(
+        List<Segment> segments,
+        String transcript,
+        Instant uploadTimestamp,
+        int maxMemories,
+        int minExcerptChars
+    ) {
+        if (segments.isEmpty()) {
+            return List.of(new SplitMemory(transcript, uploadTimestamp, 1.0));
+        }
+
+        List<Segment> sanitized = sanitize(segments, maxMemories, minExcerptChars, transcript);
+        if (sanitized.isEmpty()) {
+            return List.of(new SplitMemory(transcript, uploadTimestamp, 1.0));
+        }
+
+        if (sanitized.size() == 1 && !sameText(sanitized.getFirst().excerpt(), transcript)) {
+            // If only one segment remains after cleanup, keep full transcript to avoid accidental truncation.
+            return List.of(new SplitMemory(transcript, uploadTimestamp, clampConfidence(sanitized.getFirst().confidence())));
+        }
+
+        List<Instant> recordedAt = dateResolver.resolveAll(sanitized.stream().map(Segment::dateText).toList(), uploadTimestamp);
+        List<SplitMemory> resolved = new ArrayList<>(sanitized.size());
+        for (int i = 0; i < sanitized.size(); i++) {
+            Segment segment = sanitized.get(i);
+            resolved.add(new SplitMemory(
+                segment.excerpt(),
+                recordedAt.get(i),
+                clampConfidence(segment.confidence()),
+                segment.insights()
+            ));
+        }
+
+        if (resolved.size() > 1 && !shouldKeepMultipleMemories(resolved)) {
+            return List.of(new SplitMemory(
+                transcript,
+                uploadTimestamp,
+                strongestConfidence(resolved)
+            ));
+        }
+
+        return resolved;
+    }
+
+    static boolean shouldKeepMultipleMemories(List<SplitMemory> splitMemories) {
+        if (splitMemories == null || splitMemories.size() <= 1) {
+            return true;
+        }
+
+        Set<LocalDate> distinctDates = new HashSet<>();
+        for (SplitMemory splitMemory : splitMemories) {
+            if (splitMemory == null) {
+                return false;
+            }
+            if (normalize(splitMemory.excerpt()).isBlank()) {
+                return false;
+            }
+            if (splitMemory.confidence() < MIN_CONFIDENCE_FOR_MULTI_MEMORY) {
+                return false;
+            }
+            distinctDates.add(splitMemory.recordedAt().atZone(BERLIN).toLocalDate());
+        }
+
+        // Conservative Reduced-MVP rule: keep multiple memories only when distinct days are detected.
+        return distinctDates.size() >= 2;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ");
+    }
+
+    private List<Segment> sanitize(
+        List<Segment> segments,
+        int maxMemories,
+        int minExcerptChars,
+        String fallbackTranscript
+    ) {
+        List<Segment> merged = new ArrayList<>();
+
+        for (Segment segment : segments) {
+            String excerpt = normalize(segment.excerpt());
+            if (excerpt.isBlank()) {
+                continue;
+            }
+
+            if (excerpt.length() < minExcerptChars && !merged.isEmpty()) {
+                // Titles written for the separate parts no longer fit the merged excerpt.
+                Segment previous = merged.removeLast();
+                String mergedExcerpt = normalize(previous.excerpt() + " " + excerpt);
+                double mergedConfidence = clampConfidence(Math.max(previous.confidence(), segment.confidence()));
+                merged.add(new Segment(mergedExcerpt, previous.dateText(), mergedConfidence, null));
+            } else {
+                merged.add(new Segment(excerpt, segment.dateText(), clampConfidence(segment.confidence()), segment.insights()));
+            }
+
+            if (merged.size() == maxMemories) {
+                break;
+            }
+        }
+
+        if (merged.isEmpty()) {
+            return List.of();
+        }
+
+        if (merged.size() == 1 && merged.getFirst().excerpt().length() < minExcerptChars) {
+            return List.of(new Segment(fallbackTranscript, merged.getFirst().dateText(), merged.getFirst().confidence(), null));
+        }
+
+        return merged;
+    }
+
+    private static double clampConfidence(double value) {
+        if (Double.isNaN(value)) {
+            return 0.5;
+        }
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+
+    private static double strongestConfidence(List<SplitMemory> splitMemories) {
+        double highest = 0.5;
+        for (SplitMemory splitMemory : splitMemories) {
+            if (splitMemory == null) {
+                continue;
+            }
+            highest = Math.max(highest, clampConfidence(splitMemory.confidence()));
+        }
+        return highest;
+    }
+
+    private static boolean sameText(String left, String right) {
+        String normalizedLeft = left.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+        String normalizedRight = right.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+        return normalizedLeft.equals(normalizedRight);
+    }
+
+    private static Counter dateCheckCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("memory.splitter.date.check")
+            .description("Transcripts checked for date cues before the splitter call; single_day ones skip the model")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * One part of the transcript as the model returned it; {@code insights} are already validated or {@code null}.
+     */
+    record Segment(String excerpt, String dateText, double confidence, MemoryInsightsService.MemoryInsights insights) {
+    }
+}
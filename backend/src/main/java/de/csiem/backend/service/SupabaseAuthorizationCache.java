@@ -0,0 +1,71 @@
+package de.csiem.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache for the lookups behind owner checks. Entries are keyed per user, so one user's
+ * cached decision never answers for another; role changes made through the gateway evict them early.
+ */
+@Component
+public class SupabaseAuthorizationCache {
+
+    private final Cache<ChildAccessKey, ChildAccess> childAccess;
+    private final Cache<MemoryChildKey, String> memoryChildren;
+
+    public SupabaseAuthorizationCache(AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.Supabase supabase = appProperties.getSupabase();
+        this.childAccess = Caffeine.newBuilder()
+            .expireAfterWrite(supabase.getAuthorizationCacheTtl())
+            .maximumSize(supabase.getAuthorizationCacheMaxSize())
+            .recordStats()
+            .build();
+        this.memoryChildren = Caffeine.newBuilder()
+            .expireAfterWrite(supabase.getAuthorizationCacheTtl())
+            .maximumSize(supabase.getAuthorizationCacheMaxSize())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, childAccess, "supabase.authz.child-access");
+        CaffeineCacheMetrics.monitor(meterRegistry, memoryChildren, "supabase.authz.memory-child");
+    }
+
+    public ChildAccess childAccess(String userId, String childId, Supplier<ChildAccess> loader) {
+        return childAccess.get(new ChildAccessKey(userId, childId), key -> loader.get());
+    }
+
+    public String memoryChildId(String userId, String memoryId, Supplier<String> loader) {
+        return memoryChildren.get(new MemoryChildKey(userId, memoryId), key -> loader.get());
+    }
+
+    public void invalidateMember(String familyId, String userId) {
+        childAccess.asMap().entrySet().removeIf(entry ->
+            entry.getKey().userId().equals(userId) && entry.getValue().familyId().equals(familyId));
+    }
+
+    public void invalidateUser(String userId) {
+        childAccess.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+        memoryChildren.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+    public void invalidateMemory(String memoryId) {
+        memoryChildren.asMap().keySet().removeIf(key -> key.memoryId().equals(memoryId));
+    }
+
+    public record ChildAccess(String familyId, String role) {
+        public boolean isOwner() {
+            return "OWNER".equalsIgnoreCase(role);
+        }
+    }
+
+    private record ChildAccessKey(String userId, String childId) {
+    }
+
+    private record MemoryChildKey(String userId, String memoryId) {
+    }
+}
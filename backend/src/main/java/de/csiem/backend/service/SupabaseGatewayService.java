@@ -7,6 +7,7 @@ import de.csiem.backend.dto.FamilyMemberResponse;
 import de.csiem.backend.dto.FamilySummaryResponse;
 import de.csiem.backend.dto.ProfileResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -15,9 +16,12 @@ import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -27,16 +31,28 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 @Service
 public class SupabaseGatewayService {
 
     private final AppProperties appProperties;
+    private final SupabaseHttpTransport transport;
+    private final SupabaseJwtVerifier jwtVerifier;
+    private final SupabaseAuthorizationCache authorizationCache;
     private final ObjectMapper objectMapper;
 
-    public SupabaseGatewayService(AppProperties appProperties) {
+    public SupabaseGatewayService(
+        AppProperties appProperties,
+        SupabaseHttpTransport transport,
+        SupabaseJwtVerifier jwtVerifier,
+        SupabaseAuthorizationCache authorizationCache
+    ) {
         this.appProperties = appProperties;
+        this.transport = transport;
+        this.jwtVerifier = jwtVerifier;
+        this.authorizationCache = authorizationCache;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -45,6 +61,24 @@ public class SupabaseGatewayService {
             && StringUtils.hasText(appProperties.getSupabase().getAnonKey());
     }
 
+    /**
+     * Whether a service role key is configured for work that outlives the caller's request.
+     */
+    public boolean hasServiceRole() {
+        return StringUtils.hasText(appProperties.getSupabase().getServiceRoleKey());
+    }
+
+    /**
+     * Authorization header for the service role. Only use it after the caller's permissions were checked: it
+     * bypasses row level security.
+     */
+    public String serviceRoleAuthorization() {
+        if (!hasServiceRole()) {
+            throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "SUPABASE_SERVICE_ROLE_KEY is not configured");
+        }
+        return "Bearer " + appProperties.getSupabase().getServiceRoleKey();
+    }
+
     public String createFamilyWithOwner(String authorizationHeader, String name) {
         JsonNode result = callRpc("rpc_create_family_with_owner", Map.of("name", name), authorizationHeader);
         return asText(result);
@@ -88,29 +122,26 @@ public class SupabaseGatewayService {
             .build(true)
             .toUriString();
 
-        JsonNode members = callGet(membersUri, authorizationHeader);
-        if (!members.isArray()) {
-            return List.of();
-        }
+        List<FamilyMemberRow> members = exchange(
+            transport.client().get()
+                .uri(membersUri)
+                .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, null)),
+            (body, headers) -> SupabaseRowDecoder.readFamilyMemberRows(body)
+        );
 
         List<String> userIds = new ArrayList<>();
-        for (JsonNode row : members) {
-            String userId = asText(row.get("user_id"));
-            if (!userId.isBlank()) {
-                userIds.add(userId);
+        for (FamilyMemberRow row : members) {
+            if (!row.userId().isBlank()) {
+                userIds.add(row.userId());
             }
         }
 
         Map<String, String> displayNamesByUserId = fetchDisplayNames(authorizationHeader, userIds);
         List<FamilyMemberResponse> response = new ArrayList<>();
 
-        for (JsonNode row : members) {
-            String userId = asText(row.get("user_id"));
-            String role = asText(row.get("role"));
-            String joinedAt = asText(row.get("joined_at"));
-            String displayName = displayNamesByUserId.getOrDefault(userId, "Member");
-
-            response.add(new FamilyMemberResponse(userId, displayName, role, joinedAt));
+        for (FamilyMemberRow row : members) {
+            String displayName = displayNamesByUserId.getOrDefault(row.userId(), "Member");
+            response.add(new FamilyMemberResponse(row.userId(), displayName, row.role(), row.joinedAt()));
         }
 
         return response;
@@ -198,6 +229,7 @@ public class SupabaseGatewayService {
             Map.of("p_token", token),
             authorizationHeader
         );
+        authorizationCache.invalidateUser(getCurrentUser(authorizationHeader).id());
         return asText(result);
     }
 
@@ -211,6 +243,7 @@ public class SupabaseGatewayService {
             ),
             authorizationHeader
         );
+        authorizationCache.invalidateMember(familyId, userId);
     }
 
     public void removeMember(String authorizationHeader, String familyId, String userId) {
@@ -222,6 +255,7 @@ public class SupabaseGatewayService {
             ),
             authorizationHeader
         );
+        authorizationCache.invalidateMember(familyId, userId);
     }
 
     public void ensureOwnProfile(String authorizationHeader, String displayName) {
@@ -268,6 +302,15 @@ public class SupabaseGatewayService {
 
     public void assertOwnerCanManageMemory(String authorizationHeader, String memoryId) {
         SupabaseUser user = getCurrentUser(authorizationHeader);
+        String childId = authorizationCache.memoryChildId(
+            user.id(),
+            memoryId,
+            () -> lookupMemoryChildId(authorizationHeader, memoryId)
+        );
+        assertOwnerForChild(authorizationHeader, user.id(), childId, "Only owners can edit or delete memories.");
+    }
+
+    private String lookupMemoryChildId(String authorizationHeader, String memoryId) {
         String memoryUri = UriComponentsBuilder
             .fromPath("/rest/v1/memories")
             .queryParam("select", "child_id")
@@ -285,11 +328,26 @@ public class SupabaseGatewayService {
         if (!StringUtils.hasText(childId)) {
             throw new ResponseStatusException(FORBIDDEN, "Only owners can edit or delete memories.");
         }
-
-        assertOwnerForChild(authorizationHeader, user.id(), childId, "Only owners can edit or delete memories.");
+        return childId;
     }
 
     private void assertOwnerForChild(String authorizationHeader, String userId, String childId, String errorMessage) {
+        SupabaseAuthorizationCache.ChildAccess access = authorizationCache.childAccess(
+            userId,
+            childId,
+            () -> lookupChildAccess(authorizationHeader, userId, childId, errorMessage)
+        );
+        if (!access.isOwner()) {
+            throw new ResponseStatusException(FORBIDDEN, errorMessage);
+        }
+    }
+
+    private SupabaseAuthorizationCache.ChildAccess lookupChildAccess(
+        String authorizationHeader,
+        String userId,
+        String childId,
+        String errorMessage
+    ) {
         String childUri = UriComponentsBuilder
             .fromPath("/rest/v1/children")
             .queryParam("select", "family_id")
@@ -319,13 +377,9 @@ public class SupabaseGatewayService {
 
         JsonNode membershipRows = callGet(membershipUri, authorizationHeader);
         if (!membershipRows.isArray() || membershipRows.isEmpty()) {
-            throw new ResponseStatusException(FORBIDDEN, errorMessage);
-        }
-
-        String role = asText(membershipRows.get(0).get("role"));
-        if (!"OWNER".equalsIgnoreCase(role)) {
-            throw new ResponseStatusException(FORBIDDEN, errorMessage);
+            return new SupabaseAuthorizationCache.ChildAccess(familyId, "");
         }
+        return new SupabaseAuthorizationCache.ChildAccess(familyId, asText(membershipRows.get(0).get("role")));
     }
 
     public void updateOwnProfile(String authorizationHeader, String displayName) {
@@ -344,11 +398,14 @@ public class SupabaseGatewayService {
         );
     }
 
+    /**
+     * Creates the placeholder row an upload is processed into; unlike other memory reads it includes {@code created_by}.
+     */
     public JsonNode createProcessingMemory(String authorizationHeader, String childId, Instant recordedAt) {
         SupabaseUser user = getCurrentUser(authorizationHeader);
         String uri = UriComponentsBuilder
             .fromPath("/rest/v1/memories")
-            .queryParam("select", memorySelect())
+            .queryParam("select", memorySelect() + ",created_by")
             .build(true)
             .toUriString();
 
@@ -369,41 +426,44 @@ public class SupabaseGatewayService {
         );
     }
 
-    public JsonNode insertReadyMemory(
+    /**
+     * Inserts all rows in one request; PostgREST returns them in input order.
+     */
+    public List<JsonNode> insertReadyMemories(
         String authorizationHeader,
         String childId,
-        Instant recordedAt,
-        String transcript,
-        String title,
-        String summary,
-        List<String> tags
+        String createdBy,
+        List<NewMemoryRow> rows
     ) {
-        SupabaseUser user = getCurrentUser(authorizationHeader);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
         String uri = UriComponentsBuilder
             .fromPath("/rest/v1/memories")
             .queryParam("select", memorySelect())
             .build(true)
             .toUriString();
 
-        return firstRow(
-            callPost(
-                uri,
-                Map.of(
-                    "child_id", childId,
-                    "created_by", user.id(),
-                    "recorded_at", recordedAt.toString(),
-                    "status", "READY",
-                    "transcript", transcript,
-                    "title", title,
-                    "summary", summary,
-                    "tags", tags
-                ),
-                authorizationHeader,
-                "return=representation"
-            ),
-            NOT_FOUND,
-            "Could not create split memory"
-        );
+        List<Map<String, Object>> payload = rows.stream()
+            .map(row -> Map.<String, Object>of(
+                "child_id", childId,
+                "created_by", createdBy,
+                "recorded_at", row.recordedAt().toString(),
+                "status", "READY",
+                "transcript", row.transcript(),
+                "title", row.title(),
+                "summary", row.summary(),
+                "tags", row.tags()
+            ))
+            .toList();
+
+        JsonNode inserted = callPost(uri, payload, authorizationHeader, "return=representation");
+        if (inserted == null || !inserted.isArray() || inserted.size() != rows.size()) {
+            throw new ResponseStatusException(NOT_FOUND, "Could not create split memories");
+        }
+        List<JsonNode> result = new ArrayList<>(inserted.size());
+        inserted.forEach(result::add);
+        return result;
     }
 
     public JsonNode updateMemoryById(String authorizationHeader, String memoryId, Map<String, ?> updates) {
@@ -437,7 +497,7 @@ public class SupabaseGatewayService {
         );
     }
 
-    public JsonNode listMemories(
+    public SupabaseMemoryPage listMemories(
         String authorizationHeader,
         int offset,
         int limit,
@@ -445,14 +505,21 @@ public class SupabaseGatewayService {
         String fromRecordedAtIso,
         String toRecordedAtIso,
         List<String> tags,
-        boolean highlightsOnly
+        boolean highlightsOnly,
+        MemoryCursor cursor,
+        AppProperties.CountStrategy countStrategy
     ) {
+        boolean backwards = cursor != null && cursor.before();
         UriComponentsBuilder builder = UriComponentsBuilder
             .fromPath("/rest/v1/memories")
             .queryParam("select", memorySelect())
-            .queryParam("order", "recorded_at.desc,created_at.desc")
-            .queryParam("offset", offset)
+            .queryParam("order", backwards ? "recorded_at.asc,created_at.asc,id.asc" : "recorded_at.desc,created_at.desc,id.desc")
             .queryParam("limit", limit);
+        if (cursor != null) {
+            builder.queryParam("or", buildSeekFilter(cursor));
+        } else {
+            builder.queryParam("offset", offset);
+        }
 
         applyMemoryFilters(
             builder,
@@ -463,49 +530,85 @@ public class SupabaseGatewayService {
             tags,
             highlightsOnly
         );
-        return callGet(builder.build().encode().toUri(), authorizationHeader);
+
+        // The total comes back in Content-Range, so the page and its count share one round trip.
+        // Without a count strategy (cursor paging) no total is requested at all.
+        String preferHeader = countStrategy != null ? countStrategy.preferHeader() : null;
+        return exchange(
+            transport.client().get()
+                .uri(builder.build().encode().toUri())
+                .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, preferHeader)),
+            (body, headers) -> {
+                List<MemoryRow> rows = SupabaseRowDecoder.readMemoryRows(body);
+                if (backwards) {
+                    Collections.reverse(rows);
+                }
+                long totalElements = parseContentRangeTotal(headers.getFirst(HttpHeaders.CONTENT_RANGE));
+                if (countStrategy != null && totalElements < 0) {
+                    totalElements = offset + rows.size();
+                }
+                return new SupabaseMemoryPage(rows, totalElements);
+            }
+        );
     }
 
-    public long countMemories(
+    public SupabaseMemoryPage listMemoriesViaRpc(
         String authorizationHeader,
+        int offset,
+        int limit,
         String familyId,
         String fromRecordedAtIso,
         String toRecordedAtIso,
         List<String> tags,
-        boolean highlightsOnly
+        boolean highlightsOnly,
+        MemoryCursor cursor,
+        boolean withTotal
     ) {
-        UriComponentsBuilder builder = UriComponentsBuilder
-            .fromPath("/rest/v1/memories")
-            .queryParam("select", "id");
-
-        applyMemoryFilters(
-            builder,
-            authorizationHeader,
-            familyId,
-            fromRecordedAtIso,
-            toRecordedAtIso,
-            tags,
-            highlightsOnly
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("p_family_id", StringUtils.hasText(familyId) ? familyId : null);
+        payload.put("p_from", fromRecordedAtIso);
+        payload.put("p_to", toRecordedAtIso);
+        payload.put("p_tags", tags == null || tags.isEmpty() ? null : tags);
+        payload.put("p_highlights_only", highlightsOnly);
+        payload.put("p_limit", limit);
+        payload.put("p_offset", offset);
+        payload.put("p_cursor_recorded_at", cursor != null ? cursor.recordedAt().toString() : null);
+        payload.put("p_cursor_created_at", cursor != null ? cursor.createdAt().toString() : null);
+        payload.put("p_cursor_id", cursor != null ? cursor.id().toString() : null);
+        payload.put("p_cursor_before", cursor != null && cursor.before());
+        payload.put("p_with_total", withTotal);
+
+        SupabaseMemoryPage page = exchange(
+            transport.client().post()
+                .uri("/rest/v1/rpc/rpc_list_memories")
+                .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, null))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(payload),
+            (body, headers) -> SupabaseRowDecoder.readMemoryPage(body)
         );
-        JsonNode rows = callGet(builder.build().encode().toUri(), authorizationHeader);
-        if (!rows.isArray()) {
-            return 0L;
+        if (withTotal && page.totalElements() < 0) {
+            return new SupabaseMemoryPage(page.rows(), offset + page.rows().size());
         }
-        return rows.size();
+        return page;
     }
 
-    public void deleteMemoryById(String authorizationHeader, String memoryId) {
+    /**
+     * Deletes the memory and returns the deleted row with its {@code transcript}.
+     */
+    public JsonNode deleteMemoryById(String authorizationHeader, String memoryId) {
         String uri = UriComponentsBuilder
             .fromPath("/rest/v1/memories")
             .queryParam("id", "eq." + memoryId)
-            .queryParam("select", "id")
+            .queryParam("select", "id,transcript")
             .build(true)
             .toUriString();
 
         JsonNode deleted = callDelete(uri, authorizationHeader, "return=representation");
+        authorizationCache.invalidateMemory(memoryId);
         if (!deleted.isArray() || deleted.isEmpty()) {
             throw new ResponseStatusException(NOT_FOUND, "Memory not found");
         }
+        return deleted.get(0);
     }
 
     private Map<String, String> fetchDisplayNames(String authorizationHeader, List<String> userIds) {
@@ -544,7 +647,7 @@ public class SupabaseGatewayService {
 
     private JsonNode callGet(String uri, String authorizationHeader) {
         try {
-            String body = restClient().get()
+            String body = transport.client().get()
                 .uri(uri)
                 .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, null))
                 .retrieve()
@@ -561,20 +664,31 @@ public class SupabaseGatewayService {
         }
     }
 
-    private JsonNode callGet(URI uri, String authorizationHeader) {
+    private <T> T exchange(RestClient.RequestHeadersSpec<?> request, BodyReader<T> reader) {
         try {
-            String body = restClient().get()
-                .uri(uri)
-                .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, null))
-                .retrieve()
-                .body(String.class);
-
-            if (!StringUtils.hasText(body)) {
-                return objectMapper.nullNode();
-            }
-            return objectMapper.readTree(body);
-        } catch (RestClientResponseException ex) {
-            throw mapException(ex, "Supabase request failed");
+            return request.exchange((clientRequest, response) -> {
+                HttpStatusCode status = response.getStatusCode();
+                if (status.value() == REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                    // PostgREST answers 416 for an offset past the last row; Content-Range still carries the total.
+                    return reader.read(InputStream.nullInputStream(), response.getHeaders());
+                }
+                if (status.isError()) {
+                    throw mapException(
+                        new RestClientResponseException(
+                            "Supabase request failed",
+                            status,
+                            response.getStatusText(),
+                            response.getHeaders(),
+                            response.getBody().readAllBytes(),
+                            StandardCharsets.UTF_8
+                        ),
+                        "Supabase request failed"
+                    );
+                }
+                return reader.read(response.getBody(), response.getHeaders());
+            });
+        } catch (ResponseStatusException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Supabase request failed");
         }
@@ -582,7 +696,7 @@ public class SupabaseGatewayService {
 
     private JsonNode callPost(String uri, Object payload, String authorizationHeader, String preferHeader) {
         try {
-            String body = restClient().post()
+            String body = transport.client().post()
                 .uri(uri)
                 .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, preferHeader))
                 .contentType(MediaType.APPLICATION_JSON)
@@ -603,7 +717,7 @@ public class SupabaseGatewayService {
 
     private JsonNode callPatchForJson(String uri, Object payload, String authorizationHeader, String preferHeader) {
         try {
-            String body = restClient().patch()
+            String body = transport.client().patch()
                 .uri(uri)
                 .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, preferHeader))
                 .contentType(MediaType.APPLICATION_JSON)
@@ -624,7 +738,7 @@ public class SupabaseGatewayService {
 
     private void callPatch(String uri, Object payload, String authorizationHeader, String preferHeader) {
         try {
-            restClient().patch()
+            transport.client().patch()
                 .uri(uri)
                 .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, preferHeader))
                 .contentType(MediaType.APPLICATION_JSON)
@@ -640,7 +754,7 @@ public class SupabaseGatewayService {
 
     private JsonNode callDelete(String uri, String authorizationHeader, String preferHeader) {
         try {
-            String body = restClient().delete()
+            String body = transport.client().delete()
                 .uri(uri)
                 .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, preferHeader))
                 .retrieve()
@@ -666,7 +780,8 @@ public class SupabaseGatewayService {
             throw new ResponseStatusException(UNAUTHORIZED, "Missing or invalid Authorization header");
         }
 
-        headers.set("apikey", supabase.getAnonKey());
+        boolean serviceRole = hasServiceRole() && authorizationHeader.equals("Bearer " + supabase.getServiceRoleKey());
+        headers.set("apikey", serviceRole ? supabase.getServiceRoleKey() : supabase.getAnonKey());
         headers.set(HttpHeaders.AUTHORIZATION, authorizationHeader);
         if (StringUtils.hasText(preferHeader)) {
             headers.set("Prefer", preferHeader);
@@ -674,8 +789,13 @@ public class SupabaseGatewayService {
     }
 
     private SupabaseUser getCurrentUser(String authorizationHeader) {
+        return jwtVerifier.verify(authorizationHeader)
+            .orElseGet(() -> fetchCurrentUser(authorizationHeader));
+    }
+
+    private SupabaseUser fetchCurrentUser(String authorizationHeader) {
         try {
-            String body = restClient().get()
+            String body = transport.client().get()
                 .uri("/auth/v1/user")
                 .headers(headers -> applySupabaseHeaders(headers, authorizationHeader, null))
                 .retrieve()
@@ -713,14 +833,6 @@ public class SupabaseGatewayService {
         return new ResponseStatusException(exception.getStatusCode(), message);
     }
 
-    private RestClient restClient() {
-        String baseUrl = appProperties.getSupabase().getUrl();
-        if (!StringUtils.hasText(baseUrl)) {
-            throw new ResponseStatusException(BAD_REQUEST, "SUPABASE_URL is not configured");
-        }
-        return RestClient.builder().baseUrl(baseUrl).build();
-    }
-
     private String asText(JsonNode node) {
         if (node == null || node.isNull()) {
             return "";
@@ -792,6 +904,30 @@ public class SupabaseGatewayService {
         return childIds;
     }
 
+    long parseContentRangeTotal(String contentRange) {
+        if (!StringUtils.hasText(contentRange)) {
+            return -1L;
+        }
+        String total = contentRange.substring(contentRange.lastIndexOf('/') + 1).trim();
+        if (total.isEmpty() || "*".equals(total)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(total);
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    String buildSeekFilter(MemoryCursor cursor) {
+        String operator = cursor.before() ? "gt" : "lt";
+        String recordedAt = "\"" + cursor.recordedAt() + "\"";
+        String createdAt = "\"" + cursor.createdAt() + "\"";
+        return "(recorded_at." + operator + "." + recordedAt
+            + ",and(recorded_at.eq." + recordedAt + ",created_at." + operator + "." + createdAt + ")"
+            + ",and(recorded_at.eq." + recordedAt + ",created_at.eq." + createdAt + ",id." + operator + "." + cursor.id() + "))";
+    }
+
     String buildTagOverlapFilter(List<String> values) {
         String tagArrayLiteral = toPostgresTextArrayLiteral(values);
         if (!StringUtils.hasText(tagArrayLiteral)) {
@@ -824,10 +960,12 @@ public class SupabaseGatewayService {
         return rows.get(0);
     }
 
-    private String memorySelect() {
-        return "id,created_at,recorded_at,status,is_highlight,title,summary,transcript,error_message,tags";
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body, HttpHeaders headers) throws IOException;
     }
 
-    private record SupabaseUser(String id, String email) {
+    private String memorySelect() {
+        return "id,created_at,recorded_at,status,is_highlight,title,summary,transcript,error_message,tags";
     }
 }
@@ -0,0 +1,89 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.http.PooledHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@Component
+public class SupabaseHttpTransport implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SupabaseHttpTransport.class);
+
+    private final AppProperties appProperties;
+    private final PooledHttpClient pooledHttpClient;
+    private final RestClient restClient;
+
+    public SupabaseHttpTransport(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        AppProperties.Supabase supabase = appProperties.getSupabase();
+        this.pooledHttpClient = PooledHttpClient.create(new PooledHttpClient.Settings(
+            supabase.getConnectTimeout(),
+            supabase.getReadTimeout(),
+            supabase.getMaxConnections(),
+            supabase.getKeepAlive()
+        ));
+        this.pooledHttpClient.bindMetrics(meterRegistry, "supabase");
+
+        RestClient.Builder builder = pooledHttpClient.restClientBuilder();
+        if (StringUtils.hasText(supabase.getUrl())) {
+            builder.baseUrl(supabase.getUrl());
+        }
+        this.restClient = builder.build();
+    }
+
+    public RestClient client() {
+        if (!StringUtils.hasText(appProperties.getSupabase().getUrl())) {
+            throw new ResponseStatusException(BAD_REQUEST, "SUPABASE_URL is not configured");
+        }
+        return restClient;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        AppProperties.Supabase supabase = appProperties.getSupabase();
+        int connections = supabase.getWarmUpConnections();
+        if (connections <= 0 || !StringUtils.hasText(supabase.getUrl()) || !StringUtils.hasText(supabase.getAnonKey())) {
+            return;
+        }
+
+        // Open a few connections in parallel so the first user requests skip DNS, TCP and TLS setup.
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                requests.add(CompletableFuture.runAsync(() -> restClient.get()
+                    .uri("/auth/v1/health")
+                    .header("apikey", supabase.getAnonKey())
+                    .retrieve()
+                    .toBodilessEntity(), executor));
+            }
+            CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .get(supabase.getConnectTimeout().plus(supabase.getReadTimeout()).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception ex) {
+            log.warn("Supabase connection warm-up failed: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        pooledHttpClient.close();
+    }
+}
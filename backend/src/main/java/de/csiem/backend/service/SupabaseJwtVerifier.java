@@ -0,0 +1,307 @@
+package de.csiem.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+@Component
+public class SupabaseJwtVerifier {
+
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(30);
+    private static final Duration MIN_JWKS_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    private static final String JWKS_PATH = "/auth/v1/.well-known/jwks.json";
+    private static final String AUDIENCE = "authenticated";
+
+    private final AppProperties appProperties;
+    private final SupabaseHttpTransport transport;
+    private final ObjectMapper objectMapper;
+    private final Counter verifiedCounter;
+    private final Counter fallbackCounter;
+    private final Counter rejectedCounter;
+    private final Object refreshLock = new Object();
+    private volatile KeySet keySet = KeySet.EMPTY;
+
+    public SupabaseJwtVerifier(AppProperties appProperties, SupabaseHttpTransport transport, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        this.transport = transport;
+        this.objectMapper = new ObjectMapper();
+        this.verifiedCounter = meterRegistry.counter("supabase.auth.jwt.verifications", "outcome", "verified");
+        this.fallbackCounter = meterRegistry.counter("supabase.auth.jwt.verifications", "outcome", "fallback");
+        this.rejectedCounter = meterRegistry.counter("supabase.auth.jwt.verifications", "outcome", "rejected");
+    }
+
+    /**
+     * Resolves the user from a Supabase access token without a network round trip.
+     * Returns empty when the token cannot be judged locally (opaque token, unknown key or algorithm),
+     * so the caller can fall back to {@code /auth/v1/user}. Signed tokens must carry this project's
+     * {@code iss} and the {@code authenticated} audience, which keeps out the anon and service role keys.
+     */
+    public Optional<SupabaseUser> verify(String authorizationHeader) {
+        if (!appProperties.getSupabase().isLocalJwtVerification()
+            || !StringUtils.hasText(appProperties.getSupabase().getUrl())
+            || !StringUtils.hasText(authorizationHeader)
+            || !authorizationHeader.startsWith("Bearer ")) {
+            return Optional.empty();
+        }
+
+        String[] parts = authorizationHeader.substring("Bearer ".length()).trim().split("\\.", -1);
+        if (parts.length != 3) {
+            return fallback();
+        }
+
+        JsonNode header = decodeJson(parts[0]);
+        JsonNode claims = decodeJson(parts[1]);
+        byte[] signature = decodeBase64(parts[2]);
+        if (header == null || claims == null || signature == null) {
+            return fallback();
+        }
+
+        byte[] signingInput = (parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII);
+        String algorithm = text(header.get("alg"));
+        Boolean signatureValid = switch (algorithm) {
+            case "HS256" -> verifyHmac(signingInput, signature);
+            case "RS256" -> verifyWithPublicKey("SHA256withRSA", text(header.get("kid")), signingInput, signature);
+            case "ES256" -> verifyWithPublicKey("SHA256withECDSAinP1363Format", text(header.get("kid")), signingInput, signature);
+            default -> null;
+        };
+        if (signatureValid == null) {
+            return fallback();
+        }
+        if (!signatureValid) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(UNAUTHORIZED, "Invalid access token");
+        }
+
+        Instant now = Instant.now();
+        if (!claims.hasNonNull("exp") || now.isAfter(Instant.ofEpochSecond(claims.get("exp").asLong()).plus(CLOCK_SKEW))) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(UNAUTHORIZED, "Access token expired");
+        }
+        if (claims.hasNonNull("nbf") && now.plus(CLOCK_SKEW).isBefore(Instant.ofEpochSecond(claims.get("nbf").asLong()))) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(UNAUTHORIZED, "Access token not yet valid");
+        }
+
+        if (!issuedByThisProject(text(claims.get("iss"))) || !hasAudience(claims.get("aud"))) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(UNAUTHORIZED, "Invalid access token");
+        }
+
+        String subject = text(claims.get("sub"));
+        if (subject.isBlank()) {
+            return fallback();
+        }
+
+        verifiedCounter.increment();
+        return Optional.of(new SupabaseUser(subject, text(claims.get("email"))));
+    }
+
+    void loadJwks(String jwksJson) {
+        keySet = parseKeySet(jwksJson);
+    }
+
+    private Boolean verifyHmac(byte[] signingInput, byte[] signature) {
+        String secret = appProperties.getSupabase().getJwtSecret();
+        if (!StringUtils.hasText(secret)) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return MessageDigest.isEqual(mac.doFinal(signingInput), signature);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private Boolean verifyWithPublicKey(String signatureAlgorithm, String keyId, byte[] signingInput, byte[] signature) {
+        PublicKey key = findKey(keyId);
+        if (key == null) {
+            return null;
+        }
+        try {
+            Signature verifier = Signature.getInstance(signatureAlgorithm);
+            verifier.initVerify(key);
+            verifier.update(signingInput);
+            return verifier.verify(signature);
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private PublicKey findKey(String keyId) {
+        KeySet current = keySet;
+        Duration ttl = appProperties.getSupabase().getJwksCacheTtl();
+        if (!current.isExpired(ttl) && current.keys().containsKey(keyId)) {
+            return current.keys().get(keyId);
+        }
+
+        // Unknown kid usually means the signing key was rotated, so refresh once (rate limited) before giving up.
+        synchronized (refreshLock) {
+            current = keySet;
+            boolean refreshAllowed = current.isExpired(ttl)
+                || current.fetchedAt().plus(MIN_JWKS_REFRESH_INTERVAL).isBefore(Instant.now());
+            if (refreshAllowed) {
+                current = fetchKeySet(current);
+                keySet = current;
+            }
+        }
+        return current.keys().get(keyId);
+    }
+
+    private KeySet fetchKeySet(KeySet previous) {
+        if (!StringUtils.hasText(appProperties.getSupabase().getUrl())) {
+            return previous;
+        }
+        try {
+            String body = transport.client().get()
+                .uri(JWKS_PATH)
+                .headers(headers -> {
+                    if (StringUtils.hasText(appProperties.getSupabase().getAnonKey())) {
+                        headers.set("apikey", appProperties.getSupabase().getAnonKey());
+                    }
+                })
+                .retrieve()
+                .body(String.class);
+            return parseKeySet(body);
+        } catch (Exception ex) {
+            // Keep serving the last known keys; tokens signed by unknown keys fall back to the remote check.
+            return new KeySet(previous.keys(), Instant.now());
+        }
+    }
+
+    private KeySet parseKeySet(String jwksJson) {
+        Map<String, PublicKey> keys = new HashMap<>();
+        try {
+            JsonNode root = objectMapper.readTree(jwksJson);
+            JsonNode entries = root == null ? null : root.get("keys");
+            if (entries != null && entries.isArray()) {
+                for (JsonNode jwk : entries) {
+                    PublicKey key = toPublicKey(jwk);
+                    if (key != null) {
+                        keys.put(text(jwk.get("kid")), key);
+                    }
+                }
+            }
+        } catch (Exception ignored) {
+            // An unreadable key set behaves like an empty one.
+        }
+        return new KeySet(Map.copyOf(keys), Instant.now());
+    }
+
+    private PublicKey toPublicKey(JsonNode jwk) {
+        try {
+            String keyType = text(jwk.get("kty"));
+            if ("RSA".equals(keyType)) {
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(
+                    new BigInteger(1, decodeBase64(text(jwk.get("n")))),
+                    new BigInteger(1, decodeBase64(text(jwk.get("e"))))
+                );
+                return KeyFactory.getInstance("RSA").generatePublic(spec);
+            }
+            if ("EC".equals(keyType) && "P-256".equals(text(jwk.get("crv")))) {
+                AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                parameters.init(new ECGenParameterSpec("secp256r1"));
+                ECPoint point = new ECPoint(
+                    new BigInteger(1, decodeBase64(text(jwk.get("x")))),
+                    new BigInteger(1, decodeBase64(text(jwk.get("y"))))
+                );
+                ECPublicKeySpec spec = new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class));
+                return KeyFactory.getInstance("EC").generatePublic(spec);
+            }
+        } catch (Exception ignored) {
+            // Skip keys we cannot use.
+        }
+        return null;
+    }
+
+    private boolean issuedByThisProject(String issuer) {
+        return StringUtils.hasText(issuer)
+            && stripTrailingSlash(issuer).equals(stripTrailingSlash(appProperties.getSupabase().getUrl()) + "/auth/v1");
+    }
+
+    private boolean hasAudience(JsonNode audience) {
+        if (audience != null && audience.isArray()) {
+            for (JsonNode entry : audience) {
+                if (AUDIENCE.equals(text(entry))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return AUDIENCE.equals(text(audience));
+    }
+
+    private Optional<SupabaseUser> fallback() {
+        fallbackCounter.increment();
+        return Optional.empty();
+    }
+
+    private JsonNode decodeJson(String segment) {
+        byte[] decoded = decodeBase64(segment);
+        if (decoded == null) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(decoded);
+            return node != null && node.isObject() ? node : null;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private byte[] decodeBase64(String value) {
+        try {
+            return Base64.getUrlDecoder().decode(value);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private String stripTrailingSlash(String value) {
+        return value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+    }
+
+    private String text(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return "";
+        }
+        return node.asText("");
+    }
+
+    private record KeySet(Map<String, PublicKey> keys, Instant fetchedAt) {
+        static final KeySet EMPTY = new KeySet(Map.of(), Instant.EPOCH);
+
+        boolean isExpired(Duration ttl) {
+            return fetchedAt.plus(ttl).isBefore(Instant.now());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package de.csiem.backend.service;
+
+import java.util.List;
+
+public record SupabaseMemoryPage(List<MemoryRow> rows, long totalElements) {
+}
@@ -1,16 +1,17 @@
 package de.csiem.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import de.csiem.backend.config.AppProperties;
 import de.csiem.backend.dto.CreateMemoryRequest;
 import de.csiem.backend.dto.CreateMemoryResponse;
 import de.csiem.backend.dto.MemoryListItemResponse;
 import de.csiem.backend.dto.MemoryListResponse;
 import de.csiem.backend.dto.MemoryResponse;
 import de.csiem.backend.dto.UpdateMemoryRequest;
+import de.csiem.backend.model.MemoryProcessingStage;
 import de.csiem.backend.model.MemoryStatus;
 import de.csiem.backend.model.MemoryTag;
 import de.csiem.backend.service.transcription.TranscriptionService;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
@@ -23,12 +24,10 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
-import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 
 @Service
 public class SupabaseMemoryService {
@@ -41,19 +40,38 @@ public class SupabaseMemoryService {
     private final MemorySplittingService memorySplittingService;
     private final MemoryTaggingService memoryTaggingService;
     private final MemoryInsightsService memoryInsightsService;
+    private final MemoryEnrichmentService memoryEnrichmentService;
+    private final AppProperties appProperties;
+    private final MemoryProcessingExecutor processingExecutor;
+    private final MemoryProgressBus progressBus;
+    private final PipelineBudget pipelineBudget;
+    private final AiStageCache stageCache;
+    private volatile Instant timelineRpcUnavailableUntil = Instant.MIN;
 
     public SupabaseMemoryService(
         SupabaseGatewayService supabaseGatewayService,
         TranscriptionService transcriptionService,
         MemorySplittingService memorySplittingService,
         MemoryTaggingService memoryTaggingService,
-        MemoryInsightsService memoryInsightsService
+        MemoryInsightsService memoryInsightsService,
+        MemoryEnrichmentService memoryEnrichmentService,
+        AppProperties appProperties,
+        MemoryProcessingExecutor processingExecutor,
+        MemoryProgressBus progressBus,
+        PipelineBudget pipelineBudget,
+        AiStageCache stageCache
     ) {
         this.supabaseGatewayService = supabaseGatewayService;
         this.transcriptionService = transcriptionService;
         this.memorySplittingService = memorySplittingService;
         this.memoryTaggingService = memoryTaggingService;
         this.memoryInsightsService = memoryInsightsService;
+        this.memoryEnrichmentService = memoryEnrichmentService;
+        this.appProperties = appProperties;
+        this.processingExecutor = processingExecutor;
+        this.progressBus = progressBus;
+        this.pipelineBudget = pipelineBudget;
+        this.stageCache = stageCache;
     }
 
     public boolean isEnabled() {
@@ -61,6 +79,7 @@ public class SupabaseMemoryService {
     }
 
     public CreateMemoryResponse createMemory(String authorizationHeader, CreateMemoryRequest request) {
+        PipelineDeadline deadline = pipelineBudget.start();
         if (request.audio() == null || request.audio().isEmpty()) {
             throw new ResponseStatusException(BAD_REQUEST, "Audio file is required");
         }
@@ -76,51 +95,129 @@ public class SupabaseMemoryService {
             uploadTimestamp
         );
         String memoryId = text(processingRow.get("id"));
+        String childId = request.childId().trim();
+        String createdBy = text(processingRow.get("created_by"));
+        // The caller's token may expire once the response is sent, so only a service role can finish in the background.
+        MemoryProcessingExecutor.Reservation reservation = supabaseGatewayService.hasServiceRole()
+            ? processingExecutor.tryReserve()
+            : null;
+        AudioUpload upload;
+        try {
+            // A background job outlives the multipart upload, so it gets its own copy on disk.
+            upload = reservation == null ? AudioUpload.of(request.audio()) : AudioUpload.detach(request.audio());
+        } catch (Exception ex) {
+            if (reservation != null) {
+                reservation.cancel();
+            }
+            return failMemory(authorizationHeader, memoryId, ex);
+        }
+
+        if (reservation == null) {
+            return processMemory(authorizationHeader, memoryId, childId, createdBy, upload, uploadTimestamp, deadline);
+        }
 
+        String serviceAuthorization = supabaseGatewayService.serviceRoleAuthorization();
+        reservation.submit(() -> {
+            try (upload) {
+                processMemory(serviceAuthorization, memoryId, childId, createdBy, upload, uploadTimestamp, deadline);
+            }
+        });
+        UUID id = uuid(memoryId);
+        return new CreateMemoryResponse(
+            id,
+            List.of(id),
+            1,
+            toStatus(text(processingRow.get("status"))),
+            null,
+            null,
+            null,
+            null,
+            List.of()
+        );
+    }
+
+    private CreateMemoryResponse processMemory(
+        String authorizationHeader,
+        String memoryId,
+        String childId,
+        String createdBy,
+        AudioUpload upload,
+        Instant uploadTimestamp,
+        PipelineDeadline deadline
+    ) {
+        UUID id = uuid(memoryId);
+        String outcome = "failed";
         try {
+            progressBus.publish(id, MemoryProcessingStage.TRANSCRIBING);
             String transcript = transcriptionService.transcribe(
-                request.audio().getBytes(),
-                Optional.ofNullable(request.audio().getOriginalFilename()).orElse("recording.webm"),
-                Optional.ofNullable(request.audio().getContentType()).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                upload.resource(),
+                upload.contentLength(),
+                upload.filename(),
+                upload.contentType(),
+                deadline
             );
+            deadline.finishStage("transcription");
+
+            progressBus.publish(id, MemoryProcessingStage.SPLITTING);
+            List<SplitMemory> splitMemories;
+            if (pipelineBudget.allowsSplit(deadline)) {
+                splitMemories = memorySplittingService.split(transcript, uploadTimestamp, deadline);
+            } else {
+                // Too little budget left for the splitter: keep the recording as one memory.
+                deadline.downgrade("split");
+                splitMemories = List.of();
+            }
+            deadline.finishStage("split");
 
-            List<SplitMemory> splitMemories = memorySplittingService.split(transcript, uploadTimestamp);
+            progressBus.publish(id, MemoryProcessingStage.ENRICHING);
+            CreateMemoryResponse response;
             if (splitMemories.size() <= 1) {
                 SplitMemory splitMemory = splitMemories.isEmpty()
                     ? new SplitMemory(transcript, uploadTimestamp, 1.0)
                     : splitMemories.getFirst();
-                return persistSingleMemory(authorizationHeader, memoryId, splitMemory);
+                response = persistSingleMemory(authorizationHeader, memoryId, splitMemory, deadline);
+            } else {
+                response = persistSplitMemories(authorizationHeader, memoryId, childId, createdBy, splitMemories, deadline);
             }
-
-            return persistSplitMemories(authorizationHeader, memoryId, request.childId().trim(), splitMemories);
+            deadline.finishStage("persist");
+            progressBus.publish(id, MemoryProcessingStage.READY, response.ids(), null);
+            outcome = "ready";
+            return response;
         } catch (Exception ex) {
-            Map<String, Object> failedPatch = new java.util.LinkedHashMap<>();
-            failedPatch.put("status", "FAILED");
-            failedPatch.put("error_message", buildErrorMessage(ex));
-            failedPatch.put("transcript", null);
-            failedPatch.put("title", null);
-            failedPatch.put("summary", null);
-            failedPatch.put("tags", List.of());
-            JsonNode failed = supabaseGatewayService.updateMemoryById(
-                authorizationHeader,
-                memoryId,
-                failedPatch
-            );
-
-            return new CreateMemoryResponse(
-                UUID.fromString(text(failed.get("id"))),
-                List.of(),
-                0,
-                toStatus(text(failed.get("status"))),
-                nullableText(failed.get("error_message")),
-                null,
-                null,
-                null,
-                List.of()
-            );
+            return failMemory(authorizationHeader, memoryId, ex);
+        } finally {
+            pipelineBudget.report(deadline, outcome);
         }
     }
 
+    private CreateMemoryResponse failMemory(String authorizationHeader, String memoryId, Exception ex) {
+        Map<String, Object> failedPatch = new java.util.LinkedHashMap<>();
+        failedPatch.put("status", "FAILED");
+        failedPatch.put("error_message", buildErrorMessage(ex));
+        failedPatch.put("transcript", null);
+        failedPatch.put("title", null);
+        failedPatch.put("summary", null);
+        failedPatch.put("tags", List.of());
+        JsonNode failed = supabaseGatewayService.updateMemoryById(
+            authorizationHeader,
+            memoryId,
+            failedPatch
+        );
+        progressBus.publish(uuid(memoryId), MemoryProcessingStage.FAILED, List.of(), nullableText(failed.get("error_message")));
+
+        return new CreateMemoryResponse(
+            UUID.fromString(text(failed.get("id"))),
+            List.of(),
+            0,
+            toStatus(text(failed.get("status"))),
+            nullableText(failed.get("error_message")),
+            null,
+            null,
+            null,
+            List.of()
+        );
+    }
+
     public MemoryListResponse getMemories(
         String authorizationHeader,
         int page,
@@ -128,11 +225,15 @@ public class SupabaseMemoryService {
         String familyId,
         String month,
         List<String> tags,
-        boolean highlightsOnly
+        boolean highlightsOnly,
+        String cursor
     ) {
         int safePage = Math.max(page, 0);
         int safeSize = Math.min(Math.max(size, 1), 100);
         int offset = safePage * safeSize;
+        boolean cursorMode = cursor != null;
+        MemoryCursor position = MemoryCursor.decode(cursor);
+        boolean backwards = position != null && position.before();
 
         Instant fromInstant = null;
         Instant toInstant = null;
@@ -150,45 +251,108 @@ public class SupabaseMemoryService {
         String fromIso = fromInstant != null ? fromInstant.toString() : null;
         String toIso = toInstant != null ? toInstant.toString() : null;
 
-        JsonNode rows = supabaseGatewayService.listMemories(
-            authorizationHeader,
-            offset,
-            safeSize,
-            normalizeFamilyId(familyId),
-            fromIso,
-            toIso,
-            resolvedTags,
-            highlightsOnly
-        );
-        long totalElements = supabaseGatewayService.countMemories(
+        // Cursor pages fetch one extra row to learn whether another page exists, and skip the count.
+        SupabaseMemoryPage memoryPage = listMemoryPage(
             authorizationHeader,
+            cursorMode ? 0 : offset,
+            cursorMode ? safeSize + 1 : safeSize,
             normalizeFamilyId(familyId),
             fromIso,
             toIso,
             resolvedTags,
-            highlightsOnly
+            highlightsOnly,
+            position,
+            !cursorMode
         );
+        List<MemoryRow> rows = memoryPage.rows();
+        boolean hasMore = rows.size() > safeSize;
+        if (hasMore) {
+            // Rows come newest first; the extra row sits on the far side from the cursor.
+            rows = backwards ? rows.subList(rows.size() - safeSize, rows.size()) : rows.subList(0, safeSize);
+        }
+
+        List<MemoryListItemResponse> items = new ArrayList<>(rows.size());
+        for (MemoryRow row : rows) {
+            items.add(
+                new MemoryListItemResponse(
+                    row.id(),
+                    row.createdAt(),
+                    row.recordedAt(),
+                    toStatus(row.status()),
+                    row.highlight(),
+                    row.title(),
+                    snippet(row.transcript()),
+                    row.tags()
+                )
+            );
+        }
+
+        if (cursorMode) {
+            boolean hasOlder = backwards || hasMore;
+            boolean hasNewer = backwards ? hasMore : position != null;
+            return new MemoryListResponse(
+                items,
+                0,
+                safeSize,
+                -1,
+                -1,
+                hasOlder && !items.isEmpty() ? MemoryCursor.after(items.getLast()).encode() : null,
+                hasNewer && !items.isEmpty() ? MemoryCursor.before(items.getFirst()).encode() : null
+            );
+        }
+
+        long totalElements = memoryPage.totalElements();
         int totalPages = totalElements == 0 ? 0 : (int) Math.ceil((double) totalElements / safeSize);
+        boolean hasNext = offset + items.size() < totalElements;
+        return new MemoryListResponse(
+            items,
+            safePage,
+            safeSize,
+            totalElements,
+            totalPages,
+            hasNext && !items.isEmpty() ? MemoryCursor.after(items.getLast()).encode() : null,
+            safePage > 0 && !items.isEmpty() ? MemoryCursor.before(items.getFirst()).encode() : null
+        );
+    }
 
-        List<MemoryListItemResponse> items = new ArrayList<>();
-        if (rows.isArray()) {
-            for (JsonNode row : rows) {
-                items.add(
-                    new MemoryListItemResponse(
-                        uuid(text(row.get("id"))),
-                        instant(row.get("created_at")),
-                        instantOrFallback(row.get("recorded_at"), row.get("created_at")),
-                        toStatus(text(row.get("status"))),
-                        asBoolean(row.get("is_highlight")),
-                        nullableText(row.get("title")),
-                        snippet(nullableText(row.get("transcript"))),
-                        readTags(row.get("tags"))
-                    )
+    private SupabaseMemoryPage listMemoryPage(
+        String authorizationHeader,
+        int offset,
+        int limit,
+        String familyId,
+        String fromIso,
+        String toIso,
+        List<String> tags,
+        boolean highlightsOnly,
+        MemoryCursor cursor,
+        boolean withTotal
+    ) {
+        if (appProperties.getSupabase().isTimelineRpc() && Instant.now().isAfter(timelineRpcUnavailableUntil)) {
+            try {
+                return supabaseGatewayService.listMemoriesViaRpc(
+                    authorizationHeader, offset, limit, familyId, fromIso, toIso, tags, highlightsOnly, cursor, withTotal
                 );
+            } catch (ResponseStatusException ex) {
+                // PostgREST answers 404 while step13 has not been applied yet (or its schema cache is stale);
+                // serve via the table API for a while, then try the function again.
+                if (ex.getStatusCode().value() != 404) {
+                    throw ex;
+                }
+                timelineRpcUnavailableUntil = Instant.now().plus(appProperties.getSupabase().getTimelineRpcRetryAfter());
             }
         }
-
-        return new MemoryListResponse(items, safePage, safeSize, totalElements, totalPages);
+        return supabaseGatewayService.listMemories(
+            authorizationHeader,
+            offset,
+            limit,
+            familyId,
+            fromIso,
+            toIso,
+            tags,
+            highlightsOnly,
+            cursor,
+            withTotal ? appProperties.getSupabase().getCountStrategy() : null
+        );
     }
 
     public MemoryResponse getMemory(String authorizationHeader, UUID id) {
@@ -217,8 +381,9 @@ public class SupabaseMemoryService {
             patch.put("is_highlight", request.isHighlight());
         }
 
-        if (request.transcript() != null) {
-            String nextTranscript = normalizeTranscript(request.transcript());
+        String nextTranscript = request.transcript() == null ? null : normalizeTranscript(request.transcript());
+        // An unchanged transcript keeps its summary and tags instead of paying for another model call.
+        if (nextTranscript != null && !nextTranscript.equals(nullableText(current.get("transcript")))) {
             MemoryInsightsService.MemoryInsights insights = memoryInsightsService.generate(nextTranscript);
             patch.put("transcript", nextTranscript);
             patch.put("summary", insights.summary());
@@ -245,12 +410,24 @@ public class SupabaseMemoryService {
 
     public void deleteMemory(String authorizationHeader, UUID id) {
         supabaseGatewayService.assertOwnerCanManageMemory(authorizationHeader, id.toString());
-        supabaseGatewayService.deleteMemoryById(authorizationHeader, id.toString());
+        JsonNode deleted = supabaseGatewayService.deleteMemoryById(authorizationHeader, id.toString());
+        String transcript = nullableText(deleted.get("transcript"));
+        if (transcript != null) {
+            stageCache.evictSubjects(List.of(transcript));
+        }
     }
 
-    private CreateMemoryResponse persistSingleMemory(String authorizationHeader, String memoryId, SplitMemory splitMemory) {
+    private CreateMemoryResponse persistSingleMemory(
+        String authorizationHeader,
+        String memoryId,
+        SplitMemory splitMemory,
+        PipelineDeadline deadline
+    ) {
         String excerpt = normalizeTranscript(splitMemory.excerpt());
-        MemoryInsightsService.MemoryInsights insights = memoryInsightsService.generate(excerpt);
+        MemoryInsightsService.MemoryInsights insights = splitMemory.insights() != null
+            ? splitMemory.insights()
+            : memoryInsightsService.generate(excerpt, deadline);
+        deadline.finishStage("insights");
         Map<String, Object> patch = new java.util.LinkedHashMap<>();
         patch.put("status", "READY");
         patch.put("recorded_at", splitMemory.recordedAt().toString());
@@ -284,50 +461,48 @@ public class SupabaseMemoryService {
         String authorizationHeader,
         String firstMemoryId,
         String childId,
-        List<SplitMemory> splitMemories
+        String createdBy,
+        List<SplitMemory> splitMemories,
+        PipelineDeadline deadline
     ) {
-        List<UUID> ids = new ArrayList<>();
-        JsonNode firstSaved = null;
-
-        for (int i = 0; i < splitMemories.size(); i++) {
-            SplitMemory splitMemory = splitMemories.get(i);
-            String excerpt = normalizeTranscript(splitMemory.excerpt());
-            MemoryInsightsService.MemoryInsights insights = memoryInsightsService.generate(excerpt);
-            List<String> tags = toTagLabels(memoryTaggingService.detectTags(excerpt));
-
-            JsonNode saved;
-            if (i == 0) {
-                Map<String, Object> patch = new java.util.LinkedHashMap<>();
-                patch.put("status", "READY");
-                patch.put("recorded_at", splitMemory.recordedAt().toString());
-                patch.put("transcript", excerpt);
-                patch.put("title", insights.title());
-                patch.put("summary", insights.summary());
-                patch.put("tags", tags);
-                patch.put("error_message", null);
-                saved = supabaseGatewayService.updateMemoryById(
-                    authorizationHeader,
-                    firstMemoryId,
-                    patch
-                );
-                firstSaved = saved;
-            } else {
-                saved = supabaseGatewayService.insertReadyMemory(
-                    authorizationHeader,
-                    childId,
-                    splitMemory.recordedAt(),
-                    excerpt,
-                    insights.title(),
-                    insights.summary(),
-                    tags
-                );
-            }
+        List<MemoryEnrichmentService.Enrichment> enrichments = memoryEnrichmentService.enrichAll(
+            splitMemories.stream().map(splitMemory -> normalizeTranscript(splitMemory.excerpt())).toList(),
+            splitMemories.stream().map(SplitMemory::insights).toList(),
+            deadline
+        );
+        deadline.finishStage("insights");
 
-            ids.add(uuid(text(saved.get("id"))));
+        MemoryEnrichmentService.Enrichment first = enrichments.getFirst();
+        Map<String, Object> patch = new java.util.LinkedHashMap<>();
+        patch.put("status", "READY");
+        patch.put("recorded_at", splitMemories.getFirst().recordedAt().toString());
+        patch.put("transcript", first.excerpt());
+        patch.put("title", first.insights().title());
+        patch.put("summary", first.insights().summary());
+        patch.put("tags", toTagLabels(first.tags()));
+        patch.put("error_message", null);
+        JsonNode firstSaved = supabaseGatewayService.updateMemoryById(
+            authorizationHeader,
+            firstMemoryId,
+            patch
+        );
+
+        List<NewMemoryRow> rows = new ArrayList<>();
+        for (int i = 1; i < splitMemories.size(); i++) {
+            MemoryEnrichmentService.Enrichment enrichment = enrichments.get(i);
+            rows.add(new NewMemoryRow(
+                splitMemories.get(i).recordedAt(),
+                enrichment.excerpt(),
+                enrichment.insights().title(),
+                enrichment.insights().summary(),
+                toTagLabels(enrichment.tags())
+            ));
         }
 
-        if (firstSaved == null) {
-            throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Could not persist split memories");
+        List<UUID> ids = new ArrayList<>();
+        ids.add(uuid(text(firstSaved.get("id"))));
+        for (JsonNode saved : supabaseGatewayService.insertReadyMemories(authorizationHeader, childId, createdBy, rows)) {
+            ids.add(uuid(text(saved.get("id"))));
         }
 
         return new CreateMemoryResponse(
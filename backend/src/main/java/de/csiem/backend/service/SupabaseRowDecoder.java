@@ -0,0 +1,171 @@
+package de.csiem.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Decodes PostgREST responses token by token straight into row records, without building a
+ * {@code JsonNode} tree or holding the body as a {@code String}. Unknown fields are skipped.
+ */
+public final class SupabaseRowDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private SupabaseRowDecoder() {
+    }
+
+    public static List<MemoryRow> readMemoryRows(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_ARRAY ? readMemoryArray(parser) : List.of();
+        }
+    }
+
+    /**
+     * Reads the {@code {"items": [...], "total": n}} payload returned by {@code rpc_list_memories}.
+     * A missing or null total is reported as {@code -1}.
+     */
+    public static SupabaseMemoryPage readMemoryPage(InputStream body) throws IOException {
+        List<MemoryRow> rows = List.of();
+        long total = -1L;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new SupabaseMemoryPage(rows, total);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                    rows = readMemoryArray(parser);
+                } else if ("total".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    total = parser.getLongValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new SupabaseMemoryPage(rows, total);
+    }
+
+    public static List<FamilyMemberRow> readFamilyMemberRows(InputStream body) throws IOException {
+        List<FamilyMemberRow> rows = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return rows;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String userId = "";
+                String role = "";
+                String joinedAt = "";
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "user_id" -> userId = text(parser);
+                        case "role" -> role = text(parser);
+                        case "joined_at" -> joinedAt = text(parser);
+                        default -> parser.skipChildren();
+                    }
+                }
+                rows.add(new FamilyMemberRow(userId, role, joinedAt));
+            }
+        }
+        return rows;
+    }
+
+    private static List<MemoryRow> readMemoryArray(JsonParser parser) throws IOException {
+        List<MemoryRow> rows = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            rows.add(readMemory(parser));
+        }
+        return rows;
+    }
+
+    private static MemoryRow readMemory(JsonParser parser) throws IOException {
+        UUID id = null;
+        Instant createdAt = null;
+        Instant recordedAt = null;
+        String status = "";
+        boolean highlight = false;
+        String title = null;
+        String summary = null;
+        String transcript = null;
+        String errorMessage = null;
+        List<String> tags = List.of();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = UUID.fromString(text(parser));
+                case "created_at" -> createdAt = instant(parser);
+                case "recorded_at" -> recordedAt = instant(parser);
+                case "status" -> status = text(parser);
+                case "is_highlight" -> highlight = value == JsonToken.VALUE_TRUE;
+                case "title" -> title = nullableText(parser);
+                case "summary" -> summary = nullableText(parser);
+                case "transcript" -> transcript = nullableText(parser);
+                case "error_message" -> errorMessage = nullableText(parser);
+                case "tags" -> tags = readTags(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new MemoryRow(
+            id,
+            createdAt,
+            recordedAt != null ? recordedAt : createdAt,
+            status,
+            highlight,
+            title,
+            summary,
+            transcript,
+            errorMessage,
+            tags
+        );
+    }
+
+    private static List<String> readTags(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return List.of();
+        }
+        List<String> tags = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String value = text(parser);
+            if (!value.isBlank()) {
+                tags.add(value);
+            }
+        }
+        return tags;
+    }
+
+    private static Instant instant(JsonParser parser) throws IOException {
+        String value = text(parser);
+        return value.isBlank() ? null : Instant.parse(value);
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null || token == JsonToken.VALUE_NULL) {
+            return "";
+        }
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    private static String nullableText(JsonParser parser) throws IOException {
+        String value = text(parser);
+        return value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,4 @@
+package de.csiem.backend.service;
+
+record SupabaseUser(String id, String email) {
+}
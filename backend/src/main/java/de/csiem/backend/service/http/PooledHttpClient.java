@@ -0,0 +1,146 @@
+package de.csiem.backend.service.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+public final class PooledHttpClient implements AutoCloseable {
+
+    // Set around calls that must finish sooner than the configured read timeout; requests run on the caller's thread.
+    private static final ThreadLocal<Timeout> RESPONSE_TIMEOUT = new ThreadLocal<>();
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RequestConfig defaultRequestConfig;
+    private final ClientHttpRequestFactory requestFactory;
+
+    private PooledHttpClient(
+        PoolingHttpClientConnectionManager connectionManager,
+        CloseableHttpClient httpClient,
+        RequestConfig defaultRequestConfig
+    ) {
+        this.connectionManager = connectionManager;
+        this.httpClient = httpClient;
+        this.defaultRequestConfig = defaultRequestConfig;
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setHttpContextFactory((method, uri) -> responseTimeoutContext());
+        this.requestFactory = factory;
+    }
+
+    public static PooledHttpClient create(Settings settings) {
+        int maxConnections = Math.max(1, settings.maxConnections());
+        TimeValue keepAlive = TimeValue.ofMilliseconds(settings.keepAlive().toMillis());
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(timeout(settings.connectTimeout()))
+                .setSocketTimeout(timeout(settings.readTimeout()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(timeout(settings.connectTimeout()))
+            .setResponseTimeout(timeout(settings.readTimeout()))
+            .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            // Upstreams rarely send a Keep-Alive header, so idle sockets are kept for a fixed time instead.
+            .setKeepAliveStrategy((response, context) -> keepAlive)
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAlive)
+            .build();
+
+        return new PooledHttpClient(connectionManager, httpClient, requestConfig);
+    }
+
+    public RestClient.Builder restClientBuilder() {
+        return RestClient.builder().requestFactory(requestFactory);
+    }
+
+    /**
+     * Runs {@code call}, whose requests wait at most {@code timeout} for a response instead of the configured read
+     * timeout when that is shorter.
+     */
+    public <T> T withResponseTimeout(Duration timeout, Supplier<T> call) {
+        Timeout previous = RESPONSE_TIMEOUT.get();
+        // A zero timeout would mean no timeout at all to the HTTP client.
+        RESPONSE_TIMEOUT.set(Timeout.ofMilliseconds(Math.max(timeout.toMillis(), 1)));
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                RESPONSE_TIMEOUT.remove();
+            } else {
+                RESPONSE_TIMEOUT.set(previous);
+            }
+        }
+    }
+
+    public void bindMetrics(MeterRegistry meterRegistry, String name) {
+        Gauge.builder("httpcomponents.httpclient.pool.total.max", connectionManager, pool -> pool.getTotalStats().getMax())
+            .description("Maximum number of pooled connections")
+            .tag("httpclient", name)
+            .register(meterRegistry);
+        Gauge.builder("httpcomponents.httpclient.pool.total.connections", connectionManager, pool -> pool.getTotalStats().getLeased())
+            .description("Pooled connections currently in use")
+            .tag("httpclient", name)
+            .tag("state", "leased")
+            .register(meterRegistry);
+        Gauge.builder("httpcomponents.httpclient.pool.total.connections", connectionManager, pool -> pool.getTotalStats().getAvailable())
+            .description("Idle pooled connections ready for reuse")
+            .tag("httpclient", name)
+            .tag("state", "available")
+            .register(meterRegistry);
+        Gauge.builder("httpcomponents.httpclient.pool.total.pending", connectionManager, pool -> pool.getTotalStats().getPending())
+            .description("Requests waiting for a pooled connection")
+            .tag("httpclient", name)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private HttpClientContext responseTimeoutContext() {
+        Timeout timeout = RESPONSE_TIMEOUT.get();
+        Timeout configured = defaultRequestConfig.getResponseTimeout();
+        if (timeout == null || (!configured.isDisabled() && timeout.compareTo(configured) >= 0)) {
+            return null;
+        }
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.copy(defaultRequestConfig).setResponseTimeout(timeout).build());
+        return context;
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    public record Settings(
+        Duration connectTimeout,
+        Duration readTimeout,
+        int maxConnections,
+        Duration keepAlive
+    ) {
+    }
+}
@@ -0,0 +1,77 @@
+package de.csiem.backend.service.openai;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that grows by one slot per window of successful calls and halves on a 429 or a slow response
+ * (additive increase, multiplicative decrease).
+ */
+final class AimdLimit {
+
+    enum Outcome { SUCCESS, OVERLOADED, IGNORED }
+
+    private final int min;
+    private final int max;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+
+    AimdLimit(int initial, int min, int max) {
+        this.min = Math.max(min, 1);
+        this.max = Math.max(max, this.min);
+        this.limit = Math.clamp(initial, this.min, this.max);
+    }
+
+    boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+        long remaining = timeoutNanos;
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> limit = Math.min(max, limit + 1.0 / limit);
+                case OVERLOADED -> limit = Math.max(min, limit / 2);
+                case IGNORED -> {
+                }
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package de.csiem.backend.service.openai;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.http.PooledHttpClient;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * The one place the backend talks to OpenAI. All stages share a pooled HTTP client, the per-model
+ * {@link OpenAiRateLimiter} and the {@code openai.requests} timer; model, base URL and API key are resolved per stage.
+ */
+@Component
+public class OpenAiClient implements DisposableBean {
+
+    private final AppProperties appProperties;
+    private final OpenAiRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final PooledHttpClient pooledHttpClient;
+    private final Map<String, RestClient> clientsByBaseUrl = new ConcurrentHashMap<>();
+
+    public OpenAiClient(AppProperties appProperties, OpenAiRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        AppProperties.OpenAi openai = appProperties.getOpenai();
+        this.pooledHttpClient = PooledHttpClient.create(new PooledHttpClient.Settings(
+            openai.getConnectTimeout(),
+            openai.getReadTimeout(),
+            openai.getMaxConnections(),
+            openai.getKeepAlive()
+        ));
+        this.pooledHttpClient.bindMetrics(meterRegistry, "openai");
+    }
+
+    public StageSettings settings(Stage stage) {
+        AppProperties.Transcription transcription = appProperties.getTranscription();
+        return switch (stage) {
+            case TRANSCRIPTION -> new StageSettings(
+                transcription.getOpenaiBaseUrl(),
+                transcription.getOpenaiModel(),
+                transcription.getOpenaiApiKey()
+            );
+            case SPLIT -> {
+                AppProperties.Splitter splitter = appProperties.getSplitter();
+                yield new StageSettings(
+                    firstNonBlank(splitter.getOpenaiBaseUrl(), transcription.getOpenaiBaseUrl()),
+                    firstNonBlank(splitter.getOpenaiModel(), "gpt-4o-mini"),
+                    firstNonBlank(splitter.getOpenaiApiKey(), transcription.getOpenaiApiKey())
+                );
+            }
+            case INSIGHTS -> {
+                AppProperties.Insights insights = appProperties.getInsights();
+                yield new StageSettings(
+                    firstNonBlank(insights.getOpenaiBaseUrl(), transcription.getOpenaiBaseUrl()),
+                    firstNonBlank(insights.getOpenaiModel(), "gpt-4o-mini"),
+                    firstNonBlank(insights.getOpenaiApiKey(), transcription.getOpenaiApiKey())
+                );
+            }
+        };
+    }
+
+    /**
+     * Sends a JSON chat completion and returns the message content, or {@code null} when the model returned nothing.
+     * With a schema the answer is constrained by strict structured output; without one, or when
+     * {@code app.openai.structured-output} is off, the request uses plain JSON mode.
+     */
+    public String chatJson(ChatRequest request) {
+        Stage stage = request.stage();
+        String systemPrompt = request.systemPrompt();
+        String userPrompt = request.userPrompt();
+        JsonSchema schema = request.schema();
+        StageSettings settings = requireConfigured(stage);
+        ResponseFormat responseFormat = schema != null && usesStructuredOutput()
+            ? new ResponseFormat("json_schema", schema)
+            : new ResponseFormat("json_object", null);
+        long estimatedTokens = OpenAiRateLimiter.estimateTokens(request.maxCompletionTokens(), systemPrompt, userPrompt);
+        ChatCompletionsResponse response = send(stage, settings.model(), estimatedTokens, request.timeLimit(), () ->
+            client(settings.baseUrl()).post()
+                .uri("/v1/chat/completions")
+                .headers(headers -> headers.setBearerAuth(settings.apiKey()))
+                .body(new ChatCompletionsRequest(
+                    settings.model(),
+                    request.temperature(),
+                    responseFormat,
+                    List.of(new ChatMessage("system", systemPrompt), new ChatMessage("user", userPrompt))
+                ))
+                .retrieve()
+                .body(ChatCompletionsResponse.class)
+        );
+
+        recordUsage(stage, settings.model(), response == null ? null : response.usage());
+        if (response == null || response.choices() == null || response.choices().isEmpty()) {
+            return null;
+        }
+        ChatMessageContent message = response.choices().getFirst().message();
+        if (message == null || message.content() == null || message.content().isBlank()) {
+            return null;
+        }
+        return message.content();
+    }
+
+    /**
+     * Uploads one recording to the transcription endpoint. The multipart body is written from the resource's stream,
+     * so recordings on disk never get copied into the heap. {@code timeLimit} is optional and works as in
+     * {@link ChatRequest}.
+     */
+    public String transcribe(Resource audio, long contentLength, String filename, String contentType, Duration timeLimit) {
+        StageSettings settings = requireConfigured(Stage.TRANSCRIPTION);
+        HttpHeaders fileHeaders = new HttpHeaders();
+        fileHeaders.setContentType(MediaType.parseMediaType(contentType));
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new HttpEntity<>(new NamedAudioResource(audio, contentLength, filename), fileHeaders));
+        body.add("model", settings.model());
+
+        // Audio is billed by duration, not tokens, so only the request and concurrency limits apply.
+        TranscriptionResponse response = send(Stage.TRANSCRIPTION, settings.model(), 0, timeLimit, () ->
+            client(settings.baseUrl()).post()
+                .uri("/v1/audio/transcriptions")
+                .headers(headers -> headers.setBearerAuth(settings.apiKey()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(body)
+                .retrieve()
+                .body(TranscriptionResponse.class)
+        );
+
+        if (response == null || response.text() == null || response.text().isBlank()) {
+            throw new IllegalStateException("Transcription response was empty");
+        }
+        return response.text().trim();
+    }
+
+    public boolean usesStructuredOutput() {
+        return appProperties.getOpenai().isStructuredOutput();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        pooledHttpClient.close();
+    }
+
+    private <T> T send(Stage stage, String model, long estimatedTokens, Duration timeLimit, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long startedAt = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = rateLimiter.execute(model, estimatedTokens, timeLimit, latencyThreshold(stage), () -> {
+                if (timeLimit == null) {
+                    return call.get();
+                }
+                // Whatever the rate limiter queue left of the time limit bounds the wait for the response.
+                Duration left = timeLimit.minusNanos(System.nanoTime() - startedAt);
+                if (left.isNegative() || left.isZero()) {
+                    throw new ResponseStatusException(SERVICE_UNAVAILABLE, "No time left for the OpenAI call");
+                }
+                return pooledHttpClient.withResponseTimeout(left, call);
+            });
+            outcome = "success";
+            return result;
+        } catch (HttpClientErrorException.TooManyRequests ex) {
+            outcome = "throttled";
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("openai.requests")
+                .description("OpenAI calls including time spent waiting in the rate limiter")
+                .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Transcriptions take about as long as a fraction of the recording, so a long one is not a sign of overload.
+     */
+    private Duration latencyThreshold(Stage stage) {
+        AppProperties.OpenAiLimits limits = appProperties.getOpenaiLimits();
+        return stage == Stage.TRANSCRIPTION ? limits.getTranscriptionLatencyThreshold() : limits.getLatencyThreshold();
+    }
+
+    /**
+     * {@code openai.tokens} per call, by type: {@code prompt} is the whole input, {@code cached} the part of it served
+     * from the provider's prefix cache, {@code completion} the answer.
+     */
+    private void recordUsage(Stage stage, String model, Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        long cached = usage.prompt_tokens_details() == null ? 0 : usage.prompt_tokens_details().cached_tokens();
+        recordTokens(stage, model, "prompt", usage.prompt_tokens());
+        recordTokens(stage, model, "cached", cached);
+        recordTokens(stage, model, "completion", usage.completion_tokens());
+    }
+
+    private void recordTokens(Stage stage, String model, String type, long tokens) {
+        DistributionSummary.builder("openai.tokens")
+            .description("Tokens per OpenAI chat completion")
+            .baseUnit("tokens")
+            .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+            .tag("model", model)
+            .tag("type", type)
+            .register(meterRegistry)
+            .record(tokens);
+    }
+
+    private StageSettings requireConfigured(Stage stage) {
+        StageSettings settings = settings(stage);
+        if (!settings.isConfigured()) {
+            throw new IllegalStateException("OPENAI_API_KEY is not configured");
+        }
+        return settings;
+    }
+
+    private RestClient client(String baseUrl) {
+        return clientsByBaseUrl.computeIfAbsent(baseUrl, url -> pooledHttpClient.restClientBuilder().baseUrl(url).build());
+    }
+
+    private static String firstNonBlank(String first, String second) {
+        if (first != null && !first.isBlank()) {
+            return first;
+        }
+        return second;
+    }
+
+    public enum Stage {
+        TRANSCRIPTION,
+        SPLIT,
+        INSIGHTS
+    }
+
+    public record StageSettings(String baseUrl, String model, String apiKey) {
+
+        public boolean isConfigured() {
+            return apiKey != null && !apiKey.isBlank();
+        }
+    }
+
+    /**
+     * One JSON chat completion. {@code schema} and {@code timeLimit} are optional; a time limit caps both the wait
+     * for a rate-limit slot and the wait for the response, for callers with a deadline.
+     */
+    public record ChatRequest(
+        Stage stage,
+        double temperature,
+        String systemPrompt,
+        String userPrompt,
+        long maxCompletionTokens,
+        JsonSchema schema,
+        Duration timeLimit
+    ) {
+
+        public ChatRequest(Stage stage, double temperature, String systemPrompt, String userPrompt, long maxCompletionTokens) {
+            this(stage, temperature, systemPrompt, userPrompt, maxCompletionTokens, null, null);
+        }
+
+        public ChatRequest withSchema(JsonSchema schema) {
+            return new ChatRequest(stage, temperature, systemPrompt, userPrompt, maxCompletionTokens, schema, timeLimit);
+        }
+
+        public ChatRequest withTimeLimit(Duration timeLimit) {
+            return new ChatRequest(stage, temperature, systemPrompt, userPrompt, maxCompletionTokens, schema, timeLimit);
+        }
+    }
+
+    private record ChatCompletionsRequest(
+        String model,
+        double temperature,
+        ResponseFormat response_format,
+        List<ChatMessage> messages
+    ) {
+    }
+
+    /**
+     * A named JSON schema for strict structured output. {@code schema} is the schema document itself and is sent as
+     * is; strict mode needs every property listed in {@code required} and {@code additionalProperties: false}.
+     */
+    public record JsonSchema(String name, boolean strict, @JsonRawValue String schema) {
+
+        public JsonSchema(String name, String schema) {
+            this(name, true, schema);
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record ResponseFormat(String type, JsonSchema json_schema) {
+    }
+
+    private record ChatMessage(String role, String content) {
+    }
+
+    private record ChatCompletionsResponse(List<Choice> choices, Usage usage) {
+    }
+
+    private record Usage(long prompt_tokens, long completion_tokens, PromptTokensDetails prompt_tokens_details) {
+    }
+
+    private record PromptTokensDetails(long cached_tokens) {
+    }
+
+    private record Choice(ChatMessageContent message) {
+    }
+
+    private record ChatMessageContent(String content) {
+    }
+
+    private record TranscriptionResponse(String text) {
+    }
+
+    /**
+     * Gives the multipart part the original filename and a known length without reading the audio.
+     */
+    private static final class NamedAudioResource extends AbstractResource {
+
+        private final Resource audio;
+        private final long contentLength;
+        private final String filename;
+
+        private NamedAudioResource(Resource audio, long contentLength, String filename) {
+            this.audio = audio;
+            this.contentLength = contentLength;
+            this.filename = filename;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return audio.getInputStream();
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getDescription() {
+            return "audio upload [" + filename + "]";
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package de.csiem.backend.service.openai;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Client-side limits for OpenAI calls, kept per model: token buckets for requests and tokens per minute, and an
+ * AIMD concurrency limit that backs off on 429s and slow responses. Callers wait up to {@code max-queue-wait} for
+ * a slot and get a 429 {@link ResponseStatusException} when none frees up.
+ */
+@Component
+public class OpenAiRateLimiter {
+
+    /**
+     * The rough characters-per-token ratio behind every token estimate in the backend.
+     */
+    public static final int CHARS_PER_TOKEN = 4;
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final AppProperties.OpenAiLimits settings;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final Map<String, ModelLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OpenAiRateLimiter(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this(appProperties, meterRegistry, System::nanoTime);
+    }
+
+    OpenAiRateLimiter(AppProperties appProperties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.settings = appProperties.getOpenaiLimits();
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Rough prompt size for the tokens-per-minute budget: about four characters per token, plus the completion.
+     */
+    public static long estimateTokens(long completionTokens, String... prompts) {
+        long characters = 0;
+        for (String prompt : prompts) {
+            characters += prompt == null ? 0 : prompt.length();
+        }
+        return characters / CHARS_PER_TOKEN + completionTokens;
+    }
+
+    public <T> T execute(String model, long estimatedTokens, Supplier<T> call) {
+        return execute(model, estimatedTokens, null, call);
+    }
+
+    /**
+     * Waits at most {@code maxQueueWait}, or the configured {@code max-queue-wait} when that is shorter or the
+     * argument is {@code null}.
+     */
+    public <T> T execute(String model, long estimatedTokens, Duration maxQueueWait, Supplier<T> call) {
+        return execute(model, estimatedTokens, maxQueueWait, settings.getLatencyThreshold(), call);
+    }
+
+    /**
+     * Like {@link #execute(String, long, Duration, Supplier)}, but only calls slower than {@code latencyThreshold}
+     * count as overload, for calls whose normal duration is far from the configured {@code latency-threshold}.
+     */
+    public <T> T execute(
+        String model,
+        long estimatedTokens,
+        Duration maxQueueWait,
+        Duration latencyThreshold,
+        Supplier<T> call
+    ) {
+        if (!settings.isEnabled()) {
+            return call.get();
+        }
+
+        Duration queueWait = settings.getMaxQueueWait();
+        if (maxQueueWait != null && maxQueueWait.compareTo(queueWait) < 0) {
+            queueWait = maxQueueWait;
+        }
+        ModelLimiter limiter = limiters.computeIfAbsent(model, ModelLimiter::new);
+        long queuedAt = clock.getAsLong();
+        long deadline = queuedAt + queueWait.toNanos();
+        try {
+            if (!limiter.awaitBudget(estimatedTokens, deadline)) {
+                throw limiter.reject("rate");
+            }
+            if (!limiter.concurrency.tryAcquire(deadline - clock.getAsLong())) {
+                throw limiter.reject("concurrency");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Interrupted while waiting for an OpenAI slot", ex);
+        }
+
+        long startedAt = clock.getAsLong();
+        limiter.queueWait.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+        AimdLimit.Outcome outcome = AimdLimit.Outcome.IGNORED;
+        try {
+            T result = call.get();
+            boolean slow = clock.getAsLong() - startedAt > latencyThreshold.toNanos();
+            outcome = slow ? AimdLimit.Outcome.OVERLOADED : AimdLimit.Outcome.SUCCESS;
+            return result;
+        } catch (HttpClientErrorException.TooManyRequests ex) {
+            outcome = AimdLimit.Outcome.OVERLOADED;
+            limiter.throttled(retryAfter(ex.getResponseHeaders()));
+            throw ex;
+        } finally {
+            limiter.concurrency.release(outcome);
+        }
+    }
+
+    int concurrencyLimit(String model) {
+        ModelLimiter limiter = limiters.get(model);
+        return limiter == null ? -1 : limiter.concurrency.limit();
+    }
+
+    private Duration retryAfter(HttpHeaders headers) {
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        try {
+            Duration retryAfter = Duration.ofMillis((long) (Double.parseDouble(value.trim()) * 1000));
+            return retryAfter.compareTo(settings.getMaxQueueWait()) > 0 ? settings.getMaxQueueWait() : retryAfter;
+        } catch (NumberFormatException ex) {
+            // HTTP-date form; OpenAI sends seconds, so a short default is good enough.
+            return DEFAULT_RETRY_AFTER;
+        }
+    }
+
+    private final class ModelLimiter {
+
+        private final String model;
+        private final TokenBucket requests;
+        private final TokenBucket tokens;
+        private final AimdLimit concurrency;
+        private final Timer queueWait;
+        private final Counter throttled;
+        private long pausedUntil;
+
+        private ModelLimiter(String model) {
+            this.model = model;
+            this.requests = new TokenBucket(settings.requestsPerMinuteFor(model), clock);
+            this.tokens = new TokenBucket(settings.tokensPerMinuteFor(model), clock);
+            this.concurrency = new AimdLimit(
+                settings.getInitialConcurrency(),
+                settings.getMinConcurrency(),
+                settings.getMaxConcurrency()
+            );
+            this.pausedUntil = clock.getAsLong();
+            this.queueWait = Timer.builder("openai.limiter.queue.wait")
+                .description("Time OpenAI calls waited for rate budget and a concurrency slot")
+                .tag("model", model)
+                .register(meterRegistry);
+            this.throttled = Counter.builder("openai.limiter.throttled")
+                .description("OpenAI responses with status 429")
+                .tag("model", model)
+                .register(meterRegistry);
+            Gauge.builder("openai.limiter.concurrency.limit", concurrency, AimdLimit::limit)
+                .tag("model", model)
+                .register(meterRegistry);
+            Gauge.builder("openai.limiter.in.flight", concurrency, AimdLimit::inFlight)
+                .tag("model", model)
+                .register(meterRegistry);
+        }
+
+        private boolean awaitBudget(long estimatedTokens, long deadline) throws InterruptedException {
+            while (true) {
+                long wait;
+                synchronized (this) {
+                    long now = clock.getAsLong();
+                    wait = Math.max(
+                        pausedUntil - now,
+                        Math.max(requests.nanosUntilAvailable(1), tokens.nanosUntilAvailable(estimatedTokens))
+                    );
+                    if (wait <= 0) {
+                        requests.take(1);
+                        tokens.take(estimatedTokens);
+                        return true;
+                    }
+                    if (now + wait > deadline) {
+                        return false;
+                    }
+                }
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+
+        private synchronized void throttled(Duration retryAfter) {
+            throttled.increment();
+            requests.drain();
+            pausedUntil = Math.max(pausedUntil, clock.getAsLong() + retryAfter.toNanos());
+        }
+
+        private ResponseStatusException reject(String reason) {
+            Counter.builder("openai.limiter.rejections")
+                .description("OpenAI calls rejected because no slot freed up within the queue wait")
+                .tag("model", model)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+            return new ResponseStatusException(TOO_MANY_REQUESTS, "OpenAI request limit reached for " + model);
+        }
+    }
+}
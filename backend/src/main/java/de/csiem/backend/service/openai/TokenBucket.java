@@ -0,0 +1,57 @@
+package de.csiem.backend.service.openai;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Per-minute budget that refills continuously. Not thread-safe; {@link OpenAiRateLimiter} guards each bucket.
+ */
+final class TokenBucket {
+
+    private static final double NANOS_PER_MINUTE = 60_000_000_000.0;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier clock;
+    private double available;
+    private long refilledAt;
+
+    TokenBucket(long perMinute, LongSupplier clock) {
+        this.capacity = Math.max(perMinute, 1);
+        this.refillPerNano = capacity / NANOS_PER_MINUTE;
+        this.clock = clock;
+        this.available = capacity;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    /**
+     * Nanos until {@code permits} are available; 0 when they are available now. Requests larger than the whole
+     * budget only wait for a full bucket, so they cannot block forever.
+     */
+    long nanosUntilAvailable(long permits) {
+        refill();
+        double wanted = Math.min(permits, capacity);
+        if (available >= wanted) {
+            return 0;
+        }
+        return (long) Math.ceil((wanted - available) / refillPerNano);
+    }
+
+    void take(long permits) {
+        refill();
+        available -= Math.min(permits, capacity);
+    }
+
+    /**
+     * Empties the bucket, e.g. after the upstream answered 429 and its own budget is evidently used up.
+     */
+    void drain() {
+        refill();
+        available = Math.min(available, 0);
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        available = Math.min(capacity, available + (now - refilledAt) * refillPerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,70 @@
+package de.csiem.backend.service.prompts;
+
+import de.csiem.backend.service.openai.OpenAiClient;
+
+/**
+ * Title and summary prompt for one memory. The retry notes are appended after the transcript so a retry still shares
+ * the cached prefix of the first call.
+ */
+public final class InsightsPrompt {
+
+    // Title/Summary generation rules for Reduced MVP:
+    // - title: specific, timeline-friendly, max 10 words, avoid generic filler terms
+    // - summary: exactly one warm sentence, max 22 words, adds meaning beyond title
+    // - both: strict JSON contract with deterministic post-processing and retry guards
+    static final String SYSTEM_PROMPT =
+        "You write concise, warm, timeline-friendly titles and summaries for parents' short memories. Output JSON only.";
+    static final String INSTRUCTIONS = """
+        TASK:
+        Return valid JSON ONLY with keys "title" and "summary" for the transcript at the end.
+
+        RULES:
+        - Title: 3-7 words preferred, max 10 words. Make it specific and scannable.
+          - Describe the concrete moment (what happened).
+          - Never use generic words like "moment", "memory", "today", "nice", "sweet" or "a day";
+            name the concrete thing that happened instead.
+          - Avoid clinical language.
+        - Summary: exactly 1 sentence, max 22 words, warm and reflective.
+          - Include what happened + why it mattered emotionally/developmentally, based strictly on the transcript.
+          - Avoid repeating the transcript verbatim.
+          - No advice, diagnosis, or speculation.
+
+        EXAMPLES:
+        Input transcript:
+        "At breakfast, he asked for more apples and said the full sentence without prompting... he clapped for himself."
+        Output:
+        {"title":"First full sentence at breakfast","summary":"He asked for more apples in a full sentence and clapped proudly - an exciting little step in his language."}
+
+        Input transcript:
+        "She put on her shoes by herself for the first time and smiled."
+        Output:
+        {"title":"Put on shoes by herself","summary":"She managed her shoes on her own for the first time, and her proud smile made the whole moment feel big."}
+
+        Now produce the JSON for the transcript below.""";
+    // Strict structured output cannot express word counts, so the limits are spelled out in the descriptions and the
+    // title pattern; MemoryInsightsService still enforces them after parsing.
+    static final OpenAiClient.JsonSchema SCHEMA = new OpenAiClient.JsonSchema("memory_insights", """
+        {
+          "type": "object",
+          "properties": {
+            "title": {
+              "type": "string",
+              "description": "3-7 words, at most 10. The concrete moment, without generic words like moment, memory, today, nice, sweet or a day.",
+              "pattern": "^\\\\S+(?: \\\\S+){0,9}$"
+            },
+            "summary": {
+              "type": "string",
+              "description": "Exactly one warm sentence of at most 22 words: what happened and why it mattered."
+            }
+          },
+          "required": ["title", "summary"],
+          "additionalProperties": false
+        }
+        """);
+    public static final String JSON_RETRY_NOTE = "Return ONLY valid JSON with exactly the keys \"title\" and \"summary\".";
+    public static final String SPECIFIC_TITLE_RETRY_NOTE =
+        "Your title is too generic. Make it concrete and timeline-friendly. Avoid words like moment, memory, today, nice, sweet, or a day.";
+
+    private InsightsPrompt() {
+    }
+}
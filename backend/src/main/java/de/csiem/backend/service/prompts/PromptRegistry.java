@@ -0,0 +1,50 @@
+package de.csiem.backend.service.prompts;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every prompt the backend sends, with its version. Splitter prompts depend on the configured limits and are built
+ * once per limit pair instead of on every request.
+ */
+public final class PromptRegistry {
+
+    public static final PromptTemplate INSIGHTS = new PromptTemplate(
+        "insights",
+        "3",
+        InsightsPrompt.SYSTEM_PROMPT,
+        InsightsPrompt.INSTRUCTIONS,
+        InsightsPrompt.SCHEMA
+    );
+
+    private static final String SPLIT_VERSION = "2";
+    private static final String SPLIT_WITH_INSIGHTS_VERSION = "combined-2";
+    private static final Map<SplitLimits, PromptTemplate> SPLIT = new ConcurrentHashMap<>();
+    private static final Map<SplitLimits, PromptTemplate> SPLIT_WITH_INSIGHTS = new ConcurrentHashMap<>();
+
+    private PromptRegistry() {
+    }
+
+    public static PromptTemplate split(int maxMemories, int minExcerptChars) {
+        return SPLIT.computeIfAbsent(new SplitLimits(maxMemories, minExcerptChars), limits -> new PromptTemplate(
+            "split",
+            SPLIT_VERSION,
+            SplitMemoriesPrompt.systemPrompt(maxMemories, minExcerptChars),
+            SplitMemoriesPrompt.INSTRUCTIONS,
+            null
+        ));
+    }
+
+    public static PromptTemplate splitWithInsights(int maxMemories, int minExcerptChars) {
+        return SPLIT_WITH_INSIGHTS.computeIfAbsent(new SplitLimits(maxMemories, minExcerptChars), limits -> new PromptTemplate(
+            "split_with_insights",
+            SPLIT_WITH_INSIGHTS_VERSION,
+            SplitWithInsightsPrompt.systemPrompt(maxMemories, minExcerptChars),
+            SplitWithInsightsPrompt.INSTRUCTIONS,
+            SplitWithInsightsPrompt.schema(maxMemories)
+        ));
+    }
+
+    private record SplitLimits(int maxMemories, int minExcerptChars) {
+    }
+}
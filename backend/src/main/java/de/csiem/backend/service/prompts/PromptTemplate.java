@@ -0,0 +1,96 @@
+package de.csiem.backend.service.prompts;
+
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.openai.OpenAiRateLimiter;
+
+/**
+ * One versioned prompt, laid out for provider-side prefix caching: the system message and the instructions are the
+ * same on every call and the transcript comes last, so repeated calls share the longest possible prefix. The token
+ * count of the fixed part is estimated once, when the template is built.
+ */
+public final class PromptTemplate {
+
+    private static final String TRANSCRIPT_OPEN = "\n\nTRANSCRIPT:\n<<<\n";
+    private static final String TRANSCRIPT_CLOSE = "\n>>>";
+
+    private final String name;
+    private final String version;
+    private final String systemPrompt;
+    private final String instructions;
+    private final OpenAiClient.JsonSchema schema;
+    private final long fixedTokens;
+
+    PromptTemplate(String name, String version, String systemPrompt, String instructions, OpenAiClient.JsonSchema schema) {
+        this.name = name;
+        this.version = version;
+        this.systemPrompt = systemPrompt;
+        this.instructions = instructions;
+        this.schema = schema;
+        this.fixedTokens = OpenAiRateLimiter.estimateTokens(0, systemPrompt, instructions, TRANSCRIPT_OPEN, TRANSCRIPT_CLOSE);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Part of the AI cache key; bumped in {@link PromptRegistry} whenever the wording or the output format changes.
+     */
+    public String version() {
+        return version;
+    }
+
+    public String systemPrompt() {
+        return systemPrompt;
+    }
+
+    public String userPrompt(String transcript) {
+        return instructions + TRANSCRIPT_OPEN + transcript + TRANSCRIPT_CLOSE;
+    }
+
+    /**
+     * The structured-output schema for the answer, or {@code null} for plain JSON mode.
+     */
+    public OpenAiClient.JsonSchema schema() {
+        return schema;
+    }
+
+    /**
+     * Estimated prompt tokens of everything but the transcript.
+     */
+    public long fixedTokens() {
+        return fixedTokens;
+    }
+
+    /**
+     * Shortens {@code transcript} so the whole prompt stays within {@code maxInputTokens}. The cut goes after the
+     * last complete sentence that fits, or the last whole word when no sentence ends in the second half of the
+     * allowance, so the model never sees half a word or half a thought.
+     */
+    public String fit(String transcript, long maxInputTokens) {
+        long maxChars = Math.max(0, maxInputTokens - fixedTokens) * OpenAiRateLimiter.CHARS_PER_TOKEN;
+        if (transcript.length() <= maxChars) {
+            return transcript;
+        }
+
+        int limit = (int) maxChars;
+        int cut = lastSentenceEnd(transcript, limit);
+        if (cut < limit / 2) {
+            cut = transcript.lastIndexOf(' ', limit);
+        }
+        if (cut <= 0) {
+            cut = limit;
+        }
+        return transcript.substring(0, cut).trim();
+    }
+
+    private static int lastSentenceEnd(String text, int limit) {
+        for (int i = Math.min(limit, text.length()) - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == '!' || c == '?') && (i + 1 == text.length() || Character.isWhitespace(text.charAt(i + 1)))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+}
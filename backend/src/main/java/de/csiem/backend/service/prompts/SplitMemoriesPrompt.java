@@ -2,10 +2,12 @@ package de.csiem.backend.service.prompts;
 
 public final class SplitMemoriesPrompt {
 
+    static final String INSTRUCTIONS = "Split the transcript at the end into memories. Return JSON only.";
+
     private SplitMemoriesPrompt() {
     }
 
-    public static String systemPrompt(int maxMemories, int minExcerptChars) {
+    static String systemPrompt(int maxMemories, int minExcerptChars) {
         return """
             You split a parenting transcript into distinct memories.
             Return JSON ONLY with this exact shape:
@@ -32,15 +34,4 @@ public final class SplitMemoriesPrompt {
             - date_text should capture only what user said, e.g. "heute", "gestern", "vorgestern", "letzte Woche", "am 12.01.", "am 3. März", "an Weihnachten", or null.
             """.formatted(maxMemories, minExcerptChars);
     }
-
-    public static String userPrompt(String transcript) {
-        return """
-            Transcript:
-            ---
-            %s
-            ---
-
-            Return JSON only.
-            """.formatted(transcript);
-    }
 }
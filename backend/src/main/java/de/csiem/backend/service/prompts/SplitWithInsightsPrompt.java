@@ -0,0 +1,84 @@
+package de.csiem.backend.service.prompts;
+
+import de.csiem.backend.service.openai.OpenAiClient;
+
+/**
+ * Splitter prompt for the combined mode: the same segmentation rules as {@link SplitMemoriesPrompt}, plus a title
+ * and summary per segment following the insights rules.
+ */
+public final class SplitWithInsightsPrompt {
+
+    static final String INSTRUCTIONS =
+        "Split the transcript at the end into memories and write a title and summary for each. Return JSON only.";
+
+    private SplitWithInsightsPrompt() {
+    }
+
+    static String systemPrompt(int maxMemories, int minExcerptChars) {
+        return """
+            You split a parenting transcript into distinct memories and write a title and summary for each one.
+            Return JSON ONLY with this exact shape:
+            {
+              "memories": [
+                {
+                  "excerpt": "string",
+                  "date_text": "string | null",
+                  "confidence": 0.0,
+                  "title": "string",
+                  "summary": "string"
+                }
+              ]
+            }
+
+            Splitting rules:
+            - Be conservative. Split only when moments are clearly and unambiguously distinct.
+            - A sequence of steps from one outing/day stays ONE memory (for example: swimming, showering, eating, driving home).
+            - Use multiple memories only when there is strong evidence of separate moments, especially different days/times explicitly stated.
+            - Do not invent details.
+            - Each excerpt must be a contiguous span from the transcript.
+            - If unsure, return exactly one memory with excerpt equal to the full transcript.
+            - Limit to at most %d memories.
+            - Keep excerpt length >= %d chars when possible.
+            - Keep each excerpt concise but complete (roughly 1-6 sentences).
+            - date_text should capture only what user said, e.g. "heute", "gestern", "vorgestern", "letzte Woche", "am 12.01.", "am 3. März", "an Weihnachten", or null.
+
+            Title and summary rules (per memory, in the language of its excerpt):
+            - Title: 3-7 words preferred, max 10 words. Specific and scannable: describe the concrete moment.
+              Avoid generic words like "moment", "memory", "today", and avoid clinical language.
+            - Summary: exactly 1 sentence, max 22 words, warm and reflective.
+              Say what happened and why it mattered, based strictly on the excerpt. Do not repeat the excerpt verbatim.
+              No advice, diagnosis, or speculation.
+            """.formatted(maxMemories, minExcerptChars);
+    }
+
+    /**
+     * The output shape above as a strict schema, for models with structured output.
+     */
+    static OpenAiClient.JsonSchema schema(int maxMemories) {
+        return new OpenAiClient.JsonSchema("split_memories_with_insights", """
+            {
+              "type": "object",
+              "properties": {
+                "memories": {
+                  "type": "array",
+                  "maxItems": %d,
+                  "items": {
+                    "type": "object",
+                    "properties": {
+                      "excerpt": {"type": "string"},
+                      "date_text": {"type": ["string", "null"]},
+                      "confidence": {"type": "number"},
+                      "title": {"type": "string", "description": "3-7 words, at most 10, no generic words."},
+                      "summary": {"type": "string", "description": "Exactly one sentence of at most 22 words."}
+                    },
+                    "required": ["excerpt", "date_text", "confidence", "title", "summary"],
+                    "additionalProperties": false
+                  }
+                }
+              },
+              "required": ["memories"],
+              "additionalProperties": false
+            }
+            """.formatted(maxMemories));
+    }
+}
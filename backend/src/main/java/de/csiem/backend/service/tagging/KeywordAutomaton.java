@@ -0,0 +1,159 @@
+package de.csiem.backend.service.tagging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Aho-Corasick automaton over lower-case keywords: one pass over the text reports every keyword occurrence. A
+ * keyword has to start and end on a word boundary unless it is written with a leading or trailing {@code *}, so
+ * {@code stack*} matches "stacked" and {@code *spielzeug*} matches "Lieblingsspielzeugs", while {@code mom} does not
+ * match "moment". Built once and safe to share between threads.
+ */
+public final class KeywordAutomaton<T> {
+
+    private static final int ROOT = 0;
+
+    // Transitions of node n are keys[n] (sorted) with targets[n] at the same index.
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] failure;
+    // Keywords ending at each node, including those reached through failure links.
+    private final Keyword<T>[][] outputs;
+
+    private KeywordAutomaton(char[][] keys, int[][] targets, int[] failure, Keyword<T>[][] outputs) {
+        this.keys = keys;
+        this.targets = targets;
+        this.failure = failure;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Compiles the keywords listed under each value; a match reports that value. Keywords are trimmed and lower-cased,
+     * blank ones are skipped, and the same keyword may be listed under several values.
+     */
+    public static <T> KeywordAutomaton<T> compile(Map<T, ? extends Collection<String>> keywordsByValue) {
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<List<Keyword<T>>> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+
+        for (Map.Entry<T, ? extends Collection<String>> entry : keywordsByValue.entrySet()) {
+            for (String raw : entry.getValue()) {
+                Keyword<T> keyword = Keyword.parse(raw, entry.getKey());
+                if (keyword == null) {
+                    continue;
+                }
+                int node = ROOT;
+                for (int i = 0; i < keyword.text().length(); i++) {
+                    char c = keyword.text().charAt(i);
+                    Integer next = trie.get(node).get(c);
+                    if (next == null) {
+                        next = trie.size();
+                        trie.add(new TreeMap<>());
+                        ends.add(new ArrayList<>());
+                        trie.get(node).put(c, next);
+                    }
+                    node = next;
+                }
+                ends.get(node).add(keyword);
+            }
+        }
+
+        int size = trie.size();
+        char[][] keys = new char[size][];
+        int[][] targets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> children = trie.get(node);
+            keys[node] = new char[children.size()];
+            targets[node] = new int[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : children.entrySet()) {
+                keys[node][i] = child.getKey();
+                targets[node][i] = child.getValue();
+                i++;
+            }
+        }
+
+        // Breadth-first, so a node's failure target is final before its children need it.
+        int[] failure = new int[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < keys[node].length; i++) {
+                char c = keys[node][i];
+                int child = targets[node][i];
+                int fallback = failure[node];
+                while (fallback != ROOT && step(keys, targets, fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = step(keys, targets, fallback, c);
+                failure[child] = target >= 0 && target != child ? target : ROOT;
+                ends.get(child).addAll(ends.get(failure[child]));
+                queue.add(child);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Keyword<T>[][] outputs = new Keyword[size][];
+        for (int node = 0; node < size; node++) {
+            @SuppressWarnings("unchecked")
+            Keyword<T>[] atNode = ends.get(node).toArray(new Keyword[0]);
+            outputs[node] = atNode;
+        }
+        return new KeywordAutomaton<>(keys, targets, failure, outputs);
+    }
+
+    /**
+     * Reports the value of every keyword occurrence in {@code text}, which must already be lower-cased.
+     */
+    public void scan(String text, Consumer<T> matches) {
+        int node = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = step(keys, targets, node, c);
+            while (next < 0 && node != ROOT) {
+                node = failure[node];
+                next = step(keys, targets, node, c);
+            }
+            node = Math.max(next, ROOT);
+            for (Keyword<T> keyword : outputs[node]) {
+                if (keyword.matchesAt(text, i + 1)) {
+                    matches.accept(keyword.value());
+                }
+            }
+        }
+    }
+
+    private static int step(char[][] keys, int[][] targets, int node, char c) {
+        int index = Arrays.binarySearch(keys[node], c);
+        return index >= 0 ? targets[node][index] : -1;
+    }
+
+    private record Keyword<T>(String text, boolean openStart, boolean openEnd, T value) {
+
+        static <T> Keyword<T> parse(String raw, T value) {
+            String text = raw == null ? "" : raw.trim().toLowerCase(Locale.ROOT);
+            boolean openStart = text.startsWith("*");
+            boolean openEnd = text.length() > 1 && text.endsWith("*");
+            text = text.substring(openStart ? 1 : 0, text.length() - (openEnd ? 1 : 0)).trim();
+            return text.isEmpty() ? null : new Keyword<>(text, openStart, openEnd, value);
+        }
+
+        boolean matchesAt(String haystack, int end) {
+            int start = end - text.length();
+            return (openStart || start == 0 || !Character.isLetterOrDigit(haystack.charAt(start - 1)))
+                && (openEnd || end == haystack.length() || !Character.isLetterOrDigit(haystack.charAt(end)));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package de.csiem.backend.service.transcription;
+
+import de.csiem.backend.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Transcribes long recordings as ffmpeg chunks on virtual threads, at most {@code chunkParallelism} at a time, and
+ * stitches the results back together in recording order.
+ */
+final class ChunkedTranscription {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedTranscription.class);
+
+    private final AppProperties.Transcription settings;
+    private final FfmpegChunker chunker;
+
+    ChunkedTranscription(AppProperties.Transcription settings) {
+        this.settings = settings;
+        this.chunker = new FfmpegChunker(
+            settings.getFfmpegPath(),
+            settings.getChunkDuration(),
+            settings.getChunkOverlap(),
+            settings.getChunkSilenceWindow()
+        );
+    }
+
+    boolean isEnabled() {
+        return settings.isChunkingEnabled();
+    }
+
+    /**
+     * Returns {@code null} when the recording fits into one chunk or ffmpeg cannot read it; the caller then sends it
+     * whole.
+     */
+    String transcribe(Resource audio, String filename, ChunkTranscriber transcriber) {
+        Path spoolDir = null;
+        try {
+            spoolDir = Files.createTempDirectory("transcription-chunks-");
+            Path source = localCopy(audio, spoolDir);
+            List<FfmpegChunker.Segment> segments;
+            try {
+                segments = chunker.plan(source, spoolDir);
+            } catch (IOException ex) {
+                log.warn("Could not analyse the recording with ffmpeg, transcribing it whole: {}", ex.getMessage());
+                return null;
+            }
+            if (segments.size() < 2) {
+                return null;
+            }
+            return transcribeAll(source, segments, spoolDir, baseName(filename), transcriber);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not chunk audio upload", ex);
+        } finally {
+            deleteQuietly(spoolDir);
+        }
+    }
+
+    private String transcribeAll(
+        Path source,
+        List<FfmpegChunker.Segment> segments,
+        Path spoolDir,
+        String baseName,
+        ChunkTranscriber transcriber
+    ) {
+        Semaphore permits = new Semaphore(Math.max(settings.getChunkParallelism(), 1));
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("transcription-chunk-", 0).factory());
+        try {
+            List<Future<String>> futures = new ArrayList<>(segments.size());
+            for (FfmpegChunker.Segment segment : segments) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        FfmpegChunker.AudioChunk chunk = chunker.extract(source, segment, spoolDir);
+                        return transcriber.transcribe(
+                            new FileSystemResource(chunk.file()),
+                            chunk.contentLength(),
+                            "%s-part%d.flac".formatted(baseName, segment.index() + 1),
+                            FfmpegChunker.CHUNK_CONTENT_TYPE
+                        );
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<String> transcripts = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                transcripts.add(future.get());
+            }
+            return TranscriptStitcher.stitch(transcripts, segments.stream().map(FfmpegChunker.Segment::overlapsPrevious).toList());
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof IOException ioException) {
+                throw new UncheckedIOException("Could not cut audio chunk", ioException);
+            }
+            throw new IllegalStateException("Chunk transcription failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Chunk transcription interrupted", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Path localCopy(Resource audio, Path spoolDir) throws IOException {
+        if (audio.isFile()) {
+            return audio.getFile().toPath();
+        }
+        Path copy = spoolDir.resolve("source");
+        try (InputStream input = audio.getInputStream()) {
+            Files.copy(input, copy);
+        }
+        return copy;
+    }
+
+    private String baseName(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "recording";
+        }
+        int dot = filename.lastIndexOf('.');
+        return dot > 0 ? filename.substring(0, dot) : filename;
+    }
+
+    private void deleteQuietly(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            FileSystemUtils.deleteRecursively(directory);
+        } catch (IOException ignored) {
+            // Temp files; the OS cleans them up eventually.
+        }
+    }
+
+    @FunctionalInterface
+    interface ChunkTranscriber {
+        String transcribe(Resource chunk, long contentLength, String filename, String contentType);
+    }
+}
@@ -0,0 +1,187 @@
+package de.csiem.backend.service.transcription;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cuts recordings with ffmpeg, so whatever the browser records (webm/opus, mp4/aac, ...) can be chunked. One decode
+ * pass measures the recording and finds its pauses; each chunk is then re-encoded to 16 kHz mono FLAC in the spool
+ * directory.
+ */
+final class FfmpegChunker {
+
+    static final String CHUNK_CONTENT_TYPE = "audio/flac";
+
+    private static final String SILENCE_FILTER = "silencedetect=noise=-35dB:d=0.3";
+    private static final Duration PROCESS_TIMEOUT = Duration.ofMinutes(5);
+    private static final Pattern SILENCE_START = Pattern.compile("silence_start: (-?\\d+(?:\\.\\d+)?)");
+    private static final Pattern SILENCE_END = Pattern.compile("silence_end: (\\d+(?:\\.\\d+)?)");
+    // MediaRecorder webm has no duration in its header, so the length comes from the decoder's last progress line.
+    private static final Pattern TIME = Pattern.compile("time=(\\d+):(\\d{2}):(\\d{2}(?:\\.\\d+)?)");
+
+    private final String ffmpegPath;
+    private final double chunkSeconds;
+    private final double overlapSeconds;
+    private final double silenceWindowSeconds;
+
+    FfmpegChunker(String ffmpegPath, Duration chunkDuration, Duration overlap, Duration silenceWindow) {
+        this.ffmpegPath = ffmpegPath;
+        this.chunkSeconds = Math.max(seconds(chunkDuration), 1.0);
+        this.overlapSeconds = Math.clamp(seconds(overlap), 0.0, chunkSeconds / 2);
+        this.silenceWindowSeconds = Math.clamp(seconds(silenceWindow), 0.0, chunkSeconds / 2);
+    }
+
+    /**
+     * Plans the chunks of {@code source}; a single segment means the recording fits into one chunk.
+     */
+    List<Segment> plan(Path source, Path spoolDir) throws IOException {
+        String output = run(spoolDir, "analysis", List.of(
+            ffmpegPath, "-nostdin", "-hide_banner",
+            "-i", source.toString(),
+            "-vn", "-af", SILENCE_FILTER,
+            "-f", "null", "-"
+        ));
+        Analysis analysis = Analysis.parse(output);
+        if (analysis.durationSeconds() <= 0) {
+            throw new IOException("ffmpeg reported no audio");
+        }
+        return segments(analysis, chunkSeconds, overlapSeconds, silenceWindowSeconds);
+    }
+
+    AudioChunk extract(Path source, Segment segment, Path spoolDir) throws IOException {
+        Path file = spoolDir.resolve("chunk-%03d.flac".formatted(segment.index()));
+        run(spoolDir, "chunk-%03d".formatted(segment.index()), List.of(
+            ffmpegPath, "-nostdin", "-v", "error",
+            "-ss", format(segment.startSeconds()),
+            "-i", source.toString(),
+            "-t", format(segment.endSeconds() - segment.startSeconds()),
+            "-vn", "-ac", "1", "-ar", "16000", "-c:a", "flac",
+            file.toString()
+        ));
+        return new AudioChunk(segment, file, Files.size(file));
+    }
+
+    /**
+     * Each cut goes into the pause closest to the chunk boundary within the silence window. Without a pause the cut
+     * falls on the boundary and the next chunk starts {@code overlap} earlier, so no word is lost at the cut.
+     */
+    static List<Segment> segments(Analysis analysis, double chunk, double overlap, double silenceWindow) {
+        List<Segment> segments = new ArrayList<>();
+        double duration = analysis.durationSeconds();
+        double start = 0;
+        boolean overlapsPrevious = false;
+        while (duration - start > chunk) {
+            double boundary = start + chunk;
+            double pause = pauseBefore(analysis.silences(), Math.max(boundary - silenceWindow, start), boundary);
+            if (pause > start) {
+                segments.add(new Segment(segments.size(), start, pause, overlapsPrevious));
+                start = pause;
+                overlapsPrevious = false;
+            } else {
+                segments.add(new Segment(segments.size(), start, boundary, overlapsPrevious));
+                start = boundary - overlap;
+                overlapsPrevious = overlap > 0;
+            }
+        }
+        segments.add(new Segment(segments.size(), start, duration, overlapsPrevious));
+        return segments;
+    }
+
+    private static double pauseBefore(List<Silence> silences, double from, double to) {
+        double best = -1;
+        for (Silence silence : silences) {
+            double low = Math.max(silence.startSeconds(), from);
+            double high = Math.min(silence.endSeconds(), to);
+            if (low > high) {
+                continue;
+            }
+            double middle = (silence.startSeconds() + silence.endSeconds()) / 2;
+            best = Math.max(best, Math.clamp(middle, low, high));
+        }
+        return best;
+    }
+
+    private String run(Path spoolDir, String name, List<String> command) throws IOException {
+        Path log = spoolDir.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        try {
+            if (!process.waitFor(PROCESS_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("ffmpeg did not finish within " + PROCESS_TIMEOUT);
+            }
+        } catch (InterruptedException ex) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for ffmpeg", ex);
+        }
+        String output = Files.readString(log, StandardCharsets.UTF_8);
+        if (process.exitValue() != 0) {
+            throw new IOException("ffmpeg exited with " + process.exitValue() + ": " + lastLine(output));
+        }
+        return output;
+    }
+
+    private static String lastLine(String output) {
+        String[] lines = output.strip().split("[\r\n]+");
+        return lines[lines.length - 1];
+    }
+
+    private static double seconds(Duration duration) {
+        return duration == null ? 0 : duration.toMillis() / 1000.0;
+    }
+
+    private static String format(double seconds) {
+        return String.format(Locale.ROOT, "%.3f", seconds);
+    }
+
+    record Segment(int index, double startSeconds, double endSeconds, boolean overlapsPrevious) {
+    }
+
+    record AudioChunk(Segment segment, Path file, long contentLength) {
+    }
+
+    record Silence(double startSeconds, double endSeconds) {
+    }
+
+    record Analysis(double durationSeconds, List<Silence> silences) {
+
+        static Analysis parse(String output) {
+            double duration = 0;
+            Matcher time = TIME.matcher(output);
+            while (time.find()) {
+                duration = Integer.parseInt(time.group(1)) * 3600
+                    + Integer.parseInt(time.group(2)) * 60
+                    + Double.parseDouble(time.group(3));
+            }
+
+            List<Silence> silences = new ArrayList<>();
+            Matcher start = SILENCE_START.matcher(output);
+            Matcher end = SILENCE_END.matcher(output);
+            int from = 0;
+            while (start.find(from)) {
+                double silenceStart = Math.max(Double.parseDouble(start.group(1)), 0);
+                if (end.find(start.end())) {
+                    silences.add(new Silence(silenceStart, Double.parseDouble(end.group(1))));
+                    from = end.end();
+                } else {
+                    // Still silent when the recording ends.
+                    silences.add(new Silence(silenceStart, duration));
+                    break;
+                }
+            }
+            return new Analysis(duration, silences);
+        }
+    }
+}
@@ -1,64 +1,93 @@
 package de.csiem.backend.service.transcription;
 
 import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.AiStageCache;
+import de.csiem.backend.service.PipelineDeadline;
+import de.csiem.backend.service.openai.OpenAiClient;
 import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 @Service
 public class OpenAiTranscriptionService implements TranscriptionService {
 
-    private final AppProperties appProperties;
-    private final RestClient restClient;
+    // Bump when the request sent for a recording changes in a way that affects the transcript.
+    private static final String CACHE_VERSION = "1";
+
+    private final AiStageCache stageCache;
+    private final OpenAiClient openAiClient;
+    private final ChunkedTranscription chunkedTranscription;
 
-    public OpenAiTranscriptionService(AppProperties appProperties) {
-        this.appProperties = appProperties;
-        this.restClient = RestClient.builder()
-            .baseUrl(appProperties.getTranscription().getOpenaiBaseUrl())
-            .build();
+    public OpenAiTranscriptionService(AppProperties appProperties, AiStageCache stageCache, OpenAiClient openAiClient) {
+        this.stageCache = stageCache;
+        this.openAiClient = openAiClient;
+        this.chunkedTranscription = new ChunkedTranscription(appProperties.getTranscription());
     }
 
     @Override
     public String transcribe(byte[] audioBytes, String filename, String contentType) {
-        String apiKey = appProperties.getTranscription().getOpenaiApiKey();
-        if (apiKey == null || apiKey.isBlank()) {
-            throw new IllegalStateException("OPENAI_API_KEY is not configured");
-        }
-
-        ByteArrayResource audioResource = new ByteArrayResource(audioBytes) {
-            @Override
-            public String getFilename() {
-                return filename;
-            }
-        };
-
-        HttpHeaders fileHeaders = new HttpHeaders();
-        fileHeaders.setContentType(MediaType.parseMediaType(contentType));
+        return transcribe(new ByteArrayResource(audioBytes), audioBytes.length, filename, contentType);
+    }
 
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("file", new HttpEntity<>(audioResource, fileHeaders));
-        body.add("model", appProperties.getTranscription().getOpenaiModel());
+    @Override
+    public String transcribe(Resource audio, long contentLength, String filename, String contentType) {
+        return transcribe(audio, contentLength, filename, contentType, PipelineDeadline.unlimited());
+    }
 
-        OpenAiTranscriptionResponse response = restClient.post()
-            .uri("/v1/audio/transcriptions")
-            .headers(headers -> headers.setBearerAuth(apiKey))
-            .contentType(MediaType.MULTIPART_FORM_DATA)
-            .body(body)
-            .retrieve()
-            .body(OpenAiTranscriptionResponse.class);
+    @Override
+    public String transcribe(
+        Resource audio,
+        long contentLength,
+        String filename,
+        String contentType,
+        PipelineDeadline deadline
+    ) {
+        OpenAiClient.StageSettings settings = openAiClient.settings(OpenAiClient.Stage.TRANSCRIPTION);
+        if (!settings.isConfigured()) {
+            throw new IllegalStateException("OPENAI_API_KEY is not configured");
+        }
 
-        if (response == null || response.text() == null || response.text().isBlank()) {
-            throw new IllegalStateException("Transcription response was empty");
+        if (!stageCache.isEnabled()) {
+            return transcribeUncached(audio, contentLength, filename, contentType, deadline);
         }
+        return stageCache.getByHash(
+            AiStageCache.Stage.TRANSCRIPTION,
+            settings.model(),
+            CACHE_VERSION,
+            hash(audio),
+            String.class,
+            () -> transcribeUncached(audio, contentLength, filename, contentType, deadline),
+            transcript -> transcript
+        );
+    }
 
-        return response.text().trim();
+    private String transcribeUncached(
+        Resource audio,
+        long contentLength,
+        String filename,
+        String contentType,
+        PipelineDeadline deadline
+    ) {
+        if (chunkedTranscription.isEnabled()) {
+            String stitched = chunkedTranscription.transcribe(audio, filename, (chunk, chunkLength, chunkName, chunkType) ->
+                openAiClient.transcribe(chunk, chunkLength, chunkName, chunkType, deadline.timeLimit())
+            );
+            if (stitched != null) {
+                return stitched;
+            }
+        }
+        return openAiClient.transcribe(audio, contentLength, filename, contentType, deadline.timeLimit());
     }
 
-    private record OpenAiTranscriptionResponse(String text) {
+    private String hash(Resource audio) {
+        try (InputStream input = audio.getInputStream()) {
+            return AiStageCache.sha256(input);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read audio upload", ex);
+        }
     }
 }
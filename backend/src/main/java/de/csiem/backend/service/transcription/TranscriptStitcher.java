@@ -0,0 +1,60 @@
+package de.csiem.backend.service.transcription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Joins chunk transcripts in order. Where two chunks overlap in time, the words heard twice are dropped from the
+ * start of the later chunk.
+ */
+final class TranscriptStitcher {
+
+    private static final int MAX_OVERLAP_WORDS = 20;
+    // A single repeated word is too likely to be genuine speech to drop.
+    private static final int MIN_OVERLAP_WORDS = 2;
+
+    private TranscriptStitcher() {
+    }
+
+    static String stitch(List<String> transcripts, List<Boolean> overlapsPrevious) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < transcripts.size(); i++) {
+            List<String> next = words(transcripts.get(i));
+            int skip = i > 0 && overlapsPrevious.get(i) ? overlap(words, next) : 0;
+            words.addAll(next.subList(skip, next.size()));
+        }
+        return String.join(" ", words);
+    }
+
+    static int overlap(List<String> previous, List<String> next) {
+        int max = Math.min(MAX_OVERLAP_WORDS, Math.min(previous.size(), next.size()));
+        for (int length = max; length >= MIN_OVERLAP_WORDS; length--) {
+            if (matches(previous, previous.size() - length, next, length)) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean matches(List<String> previous, int from, List<String> next, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!comparable(previous.get(from + i)).equals(comparable(next.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String comparable(String word) {
+        return word.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+    }
+
+    private static List<String> words(String transcript) {
+        if (transcript == null || transcript.isBlank()) {
+            return List.of();
+        }
+        return Arrays.asList(transcript.trim().split("\\s+"));
+    }
+}
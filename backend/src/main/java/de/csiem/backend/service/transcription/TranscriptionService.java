@@ -1,6 +1,39 @@
 package de.csiem.backend.service.transcription;
 
+import de.csiem.backend.service.PipelineDeadline;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
 public interface TranscriptionService {
 
     String transcribe(byte[] audioBytes, String filename, String contentType);
+
+    /**
+     * Streaming variant for uploads that live on disk. The default reads the audio into memory; implementations
+     * that can send it as a stream should override this.
+     */
+    default String transcribe(Resource audio, long contentLength, String filename, String contentType) {
+        try (InputStream input = audio.getInputStream()) {
+            return transcribe(input.readAllBytes(), filename, contentType);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read audio upload", ex);
+        }
+    }
+
+    /**
+     * Same as above within what is left of {@code deadline}. The default ignores the deadline; implementations that
+     * call out over the network should cap their timeouts with it.
+     */
+    default String transcribe(
+        Resource audio,
+        long contentLength,
+        String filename,
+        String contentType,
+        PipelineDeadline deadline
+    ) {
+        return transcribe(audio, contentLength, filename, contentType);
+    }
 }
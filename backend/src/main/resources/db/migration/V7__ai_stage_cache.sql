@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS ai_stage_cache (
+    cache_key VARCHAR(255) PRIMARY KEY,
+    stage VARCHAR(32) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    prompt_version VARCHAR(32) NOT NULL,
+    input_hash VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_stage_cache_expires_at
+    ON ai_stage_cache(expires_at);
+
+CREATE INDEX IF NOT EXISTS idx_ai_stage_cache_created_at
+    ON ai_stage_cache(created_at);
@@ -0,0 +1,33 @@
+CREATE TABLE IF NOT EXISTS memory_jobs (
+    id UUID PRIMARY KEY,
+    memory_id UUID NOT NULL REFERENCES memories(id) ON DELETE CASCADE,
+    status VARCHAR(16) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL,
+    available_at TIMESTAMPTZ NOT NULL,
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMPTZ,
+    heartbeat_at TIMESTAMPTZ,
+    upload_timestamp TIMESTAMPTZ NOT NULL,
+    audio_filename VARCHAR(255) NOT NULL,
+    audio_content_type VARCHAR(100) NOT NULL,
+    audio_length BIGINT NOT NULL,
+    audio BYTEA,
+    last_error TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_memory_jobs_memory_id ON memory_jobs(memory_id);
+
+CREATE INDEX IF NOT EXISTS idx_memory_jobs_pending
+    ON memory_jobs(available_at)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_memory_jobs_running_lease
+    ON memory_jobs(lease_expires_at)
+    WHERE status = 'RUNNING';
+
+CREATE INDEX IF NOT EXISTS idx_memories_processing_updated
+    ON memories(updated_at)
+    WHERE status = 'PROCESSING';
@@ -0,0 +1,10 @@
+-- Older rows carry readable keys and plaintext payloads; drop them instead of migrating.
+DELETE FROM ai_stage_cache;
+
+ALTER TABLE ai_stage_cache DROP COLUMN IF EXISTS model;
+ALTER TABLE ai_stage_cache DROP COLUMN IF EXISTS prompt_version;
+ALTER TABLE ai_stage_cache DROP COLUMN IF EXISTS input_hash;
+ALTER TABLE ai_stage_cache ADD COLUMN IF NOT EXISTS subject_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_ai_stage_cache_subject_hash
+    ON ai_stage_cache(subject_hash);
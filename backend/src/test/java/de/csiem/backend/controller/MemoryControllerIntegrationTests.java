@@ -1,5 +1,6 @@
 package de.csiem.backend.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import de.csiem.backend.repository.MemoryRepository;
 import de.csiem.backend.service.MemorySplittingService;
 import de.csiem.backend.service.SplitMemory;
@@ -36,7 +37,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -284,6 +287,75 @@ class MemoryControllerIntegrationTests {
             .andExpect(jsonPath("$.items[0].id").value(oldestId));
     }
 
+    @Test
+    void paginatesWithCursorsInBothDirections() throws Exception {
+        stubTranscriptionService.setFailure(null);
+
+        MockMultipartFile audioFile = new MockMultipartFile(
+            "audio",
+            "moment.webm",
+            "audio/webm",
+            "fake-audio".getBytes()
+        );
+
+        List<String> idsNewestFirst = new ArrayList<>();
+        for (String recordedAt : List.of("2023-05-01T08:00:00Z", "2023-05-10T08:00:00Z", "2023-05-20T08:00:00Z")) {
+            stubTranscriptionService.setTranscript("Cursor memory recorded " + recordedAt + ".");
+            MvcResult createResult = mockMvc.perform(
+                    multipart("/api/memories")
+                        .file(audioFile)
+                        .param("recordedAt", recordedAt)
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+            idsNewestFirst.addFirst(extractId(createResult.getResponse().getContentAsString()));
+        }
+
+        MvcResult firstPage = mockMvc.perform(
+                get("/api/memories")
+                    .param("month", "2023-05")
+                    .param("size", "2")
+                    .param("cursor", "")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(-1))
+            .andExpect(jsonPath("$.items.length()").value(2))
+            .andExpect(jsonPath("$.items[0].id").value(idsNewestFirst.get(0)))
+            .andExpect(jsonPath("$.items[1].id").value(idsNewestFirst.get(1)))
+            .andExpect(jsonPath("$.prevCursor").value(nullValue()))
+            .andReturn();
+        String nextCursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        MvcResult secondPage = mockMvc.perform(
+                get("/api/memories")
+                    .param("month", "2023-05")
+                    .param("size", "2")
+                    .param("cursor", nextCursor)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].id").value(idsNewestFirst.get(2)))
+            .andExpect(jsonPath("$.nextCursor").value(nullValue()))
+            .andReturn();
+        String prevCursor = JsonPath.read(secondPage.getResponse().getContentAsString(), "$.prevCursor");
+
+        mockMvc.perform(
+                get("/api/memories")
+                    .param("month", "2023-05")
+                    .param("size", "2")
+                    .param("cursor", prevCursor)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            .andExpect(jsonPath("$.items[0].id").value(idsNewestFirst.get(0)))
+            .andExpect(jsonPath("$.items[1].id").value(idsNewestFirst.get(1)))
+            .andExpect(jsonPath("$.prevCursor").value(nullValue()));
+
+        mockMvc.perform(get("/api/memories").param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createsParentAndTwoVisibleChildrenWhenSplitterReturnsTwoMemories() throws Exception {
         stubTranscriptionService.setTranscript("Gestern im Park ist Lea gerutscht. Heute hat sie wieder geuebt.");
@@ -516,6 +588,53 @@ class MemoryControllerIntegrationTests {
             .andExpect(jsonPath("$.items[?(@.id=='" + id + "')]").isEmpty());
     }
 
+    @Test
+    void streamsProgressWithASingleUseTicket() throws Exception {
+        stubTranscriptionService.setTranscript("Today we fed the ducks at the pond.");
+
+        MockMultipartFile audioFile = new MockMultipartFile(
+            "audio",
+            "moment.webm",
+            "audio/webm",
+            "fake-audio".getBytes()
+        );
+
+        MvcResult createResult = mockMvc.perform(
+                multipart("/api/memories")
+                    .file(audioFile)
+                    .param("recordedAt", "2026-02-27T09:00:00Z")
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+            )
+            .andExpect(status().isCreated())
+            .andReturn();
+        String id = extractId(createResult.getResponse().getContentAsString());
+
+        String ticket = JsonPath.read(
+            mockMvc.perform(post("/api/memories/{id}/events/ticket", id))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            "$.token"
+        );
+
+        mockMvc.perform(get("/api/memories/{id}/events", UUID.randomUUID()).param("ticket", ticket))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/memories/{id}/events", id).param("ticket", ticket))
+            .andExpect(status().isUnauthorized());
+
+        String fresh = JsonPath.read(
+            mockMvc.perform(post("/api/memories/{id}/events/ticket", id))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            "$.token"
+        );
+        mockMvc.perform(get("/api/memories/{id}/events", id).param("ticket", fresh))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted());
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Bean
@@ -0,0 +1,185 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.AiStageCacheEntry;
+import de.csiem.backend.repository.AiStageCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AiStageCacheTests {
+
+    @Autowired
+    private AiStageCacheRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void clear() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void servesRepeatedInputsFromMemory() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AiStageCache cache = cache(new AppProperties(), meterRegistry);
+
+        String first = transcribe(cache, "gpt-4o-mini-transcribe", "audio");
+        String second = transcribe(cache, "gpt-4o-mini-transcribe", "audio");
+
+        assertEquals("transcript 1", first);
+        assertEquals("transcript 1", second);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, lookups(meterRegistry, "memory_hit"));
+        assertEquals(1.0, lookups(meterRegistry, "miss"));
+    }
+
+    @Test
+    void survivesRestartThroughTheTable() {
+        transcribe(cache(new AppProperties(), new SimpleMeterRegistry()), "gpt-4o-mini-transcribe", "audio");
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        String afterRestart = transcribe(cache(new AppProperties(), meterRegistry), "gpt-4o-mini-transcribe", "audio");
+
+        assertEquals("transcript 1", afterRestart);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, lookups(meterRegistry, "persistent_hit"));
+    }
+
+    @Test
+    void keysIncludeModelAndInput() {
+        AiStageCache cache = cache(new AppProperties(), new SimpleMeterRegistry());
+
+        transcribe(cache, "gpt-4o-mini-transcribe", "audio");
+        transcribe(cache, "whisper-1", "audio");
+        transcribe(cache, "gpt-4o-mini-transcribe", "other audio");
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void decodesStructuredResultsAndSkipsNulls() {
+        AiStageCache cache = cache(new AppProperties(), new SimpleMeterRegistry());
+        MemoryInsightsService.MemoryInsights insights = new MemoryInsightsService.MemoryInsights("First steps", "She walked to the sofa.");
+
+        get(cache, AiStageCache.Stage.INSIGHTS, "text", MemoryInsightsService.MemoryInsights.class, () -> insights);
+        MemoryInsightsService.MemoryInsights restored = cache(new AppProperties(), new SimpleMeterRegistry())
+            .get(AiStageCache.Stage.INSIGHTS, "gpt-4o-mini", "1", "text", "text", MemoryInsightsService.MemoryInsights.class, () -> null, value -> true);
+        String missing = get(cache, AiStageCache.Stage.SPLIT, "text", String.class, () -> null);
+
+        assertEquals(insights, restored);
+        assertNull(missing);
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void storesNoRawTextInTheTable() {
+        AiStageCache cache = cache(new AppProperties(), new SimpleMeterRegistry());
+
+        get(cache, AiStageCache.Stage.INSIGHTS, "Tim sagt Banane", String.class, () -> "Tims erstes Wort");
+
+        AiStageCacheEntry entry = repository.findAll().getFirst();
+        assertTrue(entry.getCacheKey().matches("[0-9a-f]{64}"));
+        assertFalse(entry.getPayload().contains("erstes Wort"));
+        assertFalse(entry.getCacheKey().contains("gpt-4o-mini"));
+    }
+
+    @Test
+    void evictsEntriesAboutADeletedTranscript() {
+        AiStageCache cache = cache(new AppProperties(), new SimpleMeterRegistry());
+        get(cache, AiStageCache.Stage.INSIGHTS, "Tim sagt Banane", String.class, () -> "insights");
+        cache.get(AiStageCache.Stage.SPLIT, "gpt-4o-mini", "1", "prompt", "Tim  sagt Banane ", String.class, () -> "split", value -> true);
+        get(cache, AiStageCache.Stage.INSIGHTS, "Anderer Tag", String.class, () -> "other");
+
+        cache.evictSubjects(List.of("Tim sagt Banane"));
+
+        assertEquals(1, repository.count());
+        String reloaded = get(cache, AiStageCache.Stage.INSIGHTS, "Tim sagt Banane", String.class, () -> "fresh");
+        assertEquals("fresh", reloaded);
+    }
+
+    @Test
+    void evictsExpiredAndSurplusRows() {
+        Instant now = Instant.now();
+        repository.save(entry("expired", now.minusSeconds(60), now.minusSeconds(1)));
+        repository.save(entry("oldest", now.minusSeconds(30), now.plusSeconds(60)));
+        repository.save(entry("newest", now.minusSeconds(10), now.plusSeconds(60)));
+        AppProperties properties = new AppProperties();
+        properties.getAiCache().setMaxPersistentEntries(1);
+
+        cache(properties, new SimpleMeterRegistry()).evictPersistentEntries();
+
+        assertEquals(1, repository.count());
+        assertEquals("newest", repository.findAll().getFirst().getCacheKey());
+    }
+
+    @Test
+    void ignoresExpiredRows() {
+        AppProperties properties = new AppProperties();
+        properties.getAiCache().setTtl(Duration.ofMillis(1));
+
+        transcribe(cache(properties, new SimpleMeterRegistry()), "gpt-4o-mini-transcribe", "audio");
+        sleep(20);
+        transcribe(cache(properties, new SimpleMeterRegistry()), "gpt-4o-mini-transcribe", "audio");
+
+        assertEquals(2, calls.get());
+    }
+
+    private String transcribe(AiStageCache cache, String model, String audio) {
+        return cache.getByHash(
+            AiStageCache.Stage.TRANSCRIPTION,
+            model,
+            "1",
+            AiStageCache.sha256(audio.getBytes()),
+            String.class,
+            () -> "transcript " + calls.incrementAndGet(),
+            transcript -> transcript
+        );
+    }
+
+    private <T> T get(AiStageCache cache, AiStageCache.Stage stage, String input, Class<T> type, Supplier<T> loader) {
+        return cache.get(stage, "gpt-4o-mini", "1", input, input, type, loader, value -> true);
+    }
+
+    private AiStageCache cache(AppProperties properties, SimpleMeterRegistry meterRegistry) {
+        return new AiStageCache(properties, repository, transactionManager, meterRegistry);
+    }
+
+    private double lookups(SimpleMeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("ai.stage.cache.lookups")
+            .tag("stage", "transcription")
+            .tag("result", result)
+            .counter()
+            .count();
+    }
+
+    private AiStageCacheEntry entry(String key, Instant createdAt, Instant expiresAt) {
+        return new AiStageCacheEntry(key, "split", null, "sealed", createdAt, expiresAt);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
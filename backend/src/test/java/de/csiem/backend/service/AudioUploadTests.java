@@ -0,0 +1,42 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.service.transcription.TranscriptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AudioUploadTests {
+
+    private final TranscriptionService echo = (audioBytes, filename, contentType) ->
+        filename + ":" + contentType + ":" + new String(audioBytes, StandardCharsets.UTF_8);
+
+    @Test
+    void streamsFromTheMultipartUpload() {
+        AudioUpload upload = AudioUpload.of(new MockMultipartFile("audio", "moment.webm", "audio/webm", "fake-audio".getBytes()));
+
+        String transcript = echo.transcribe(upload.resource(), upload.contentLength(), upload.filename(), upload.contentType());
+
+        assertEquals("moment.webm:audio/webm:fake-audio", transcript);
+        assertEquals(10, upload.contentLength());
+    }
+
+    @Test
+    void detachedCopyOutlivesTheRequestUntilClosed() throws Exception {
+        AudioUpload upload = AudioUpload.detach(new MockMultipartFile("audio", "moment.m4a", null, "fake-audio".getBytes()));
+        Path copy = upload.resource().getFile().toPath();
+
+        assertTrue(Files.exists(copy));
+        assertEquals("moment.m4a:application/octet-stream:fake-audio",
+            echo.transcribe(upload.resource(), upload.contentLength(), upload.filename(), upload.contentType()));
+
+        upload.close();
+        assertFalse(Files.exists(copy));
+    }
+}
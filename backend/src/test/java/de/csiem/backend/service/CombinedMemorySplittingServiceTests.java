@@ -0,0 +1,129 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.openai.OpenAiRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CombinedMemorySplittingServiceTests {
+
+    private static final Instant UPLOAD = Instant.parse("2026-03-11T10:00:00Z");
+    private static final String TRANSCRIPT = "Gestern waren wir im Zoo und Tim hat lange die Giraffen beobachtet. "
+        + "Heute hat er beim Frühstück zum ersten Mal Banane gesagt.";
+
+    @Test
+    void attachesValidatedInsightsToEachMemory() throws Exception {
+        String output = """
+            {"memories":[
+              {"excerpt":"Gestern waren wir im Zoo und Tim hat lange die Giraffen beobachtet.","date_text":"gestern","confidence":0.9,
+               "title":"Tim bei den Giraffen im Zoo","summary":"Tim hat die Giraffen lange und ganz gebannt beobachtet."},
+              {"excerpt":"Heute hat er beim Frühstück zum ersten Mal Banane gesagt.","date_text":"heute","confidence":0.9,
+               "title":"Ein schöner Moment","summary":"Beim Frühstück hat Tim zum ersten Mal ein neues Wort gesagt."}
+            ]}
+            """;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicInteger calls = new AtomicInteger();
+        RecordedOpenAiClient client = new RecordedOpenAiClient(properties(), registry, output, calls);
+        try {
+            List<SplitMemory> memories = service(client, registry).split(TRANSCRIPT, UPLOAD);
+
+            assertEquals(1, calls.get());
+            assertEquals(2, memories.size());
+            assertNotNull(memories.get(0).insights());
+            assertEquals("Tim bei den Giraffen im Zoo", memories.get(0).insights().title());
+            // A generic title is rejected, so that memory gets the separate insights call instead.
+            assertNull(memories.get(1).insights());
+            assertEquals(1.0, registry.get("memory.splitter.combined.insights").tag("result", "valid").counter().count());
+            assertEquals(1.0, registry.get("memory.splitter.combined.insights").tag("result", "rejected").counter().count());
+        } finally {
+            client.destroy();
+        }
+    }
+
+    @Test
+    void dropsInsightsWhenSegmentsCollapseIntoOneMemory() throws Exception {
+        String output = """
+            {"memories":[
+              {"excerpt":"Gestern waren wir im Zoo und Tim hat lange die Giraffen beobachtet.","date_text":"heute","confidence":0.9,
+               "title":"Tim bei den Giraffen im Zoo","summary":"Tim hat die Giraffen lange und ganz gebannt beobachtet."},
+              {"excerpt":"Heute hat er beim Frühstück zum ersten Mal Banane gesagt.","date_text":"heute","confidence":0.9,
+               "title":"Tims erstes Wort Banane","summary":"Beim Frühstück hat Tim zum ersten Mal ein neues Wort gesagt."}
+            ]}
+            """;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RecordedOpenAiClient client = new RecordedOpenAiClient(properties(), registry, output, new AtomicInteger());
+        try {
+            List<SplitMemory> memories = service(client, registry).split(TRANSCRIPT, UPLOAD);
+
+            assertEquals(1, memories.size());
+            assertEquals(TRANSCRIPT, memories.getFirst().excerpt());
+            assertNull(memories.getFirst().insights());
+        } finally {
+            client.destroy();
+        }
+    }
+
+    @Test
+    void skipsTheCombinedCallForSingleDayTranscripts() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicInteger calls = new AtomicInteger();
+        RecordedOpenAiClient client = new RecordedOpenAiClient(properties(), registry, "{\"memories\":[]}", calls);
+        try {
+            List<SplitMemory> memories = service(client, registry)
+                .split("Wir waren im Hallenbad und hatten richtig viel Spaß.", UPLOAD);
+
+            assertEquals(0, calls.get());
+            assertEquals(1, memories.size());
+            assertNull(memories.getFirst().insights());
+        } finally {
+            client.destroy();
+        }
+    }
+
+    private CombinedMemorySplittingService service(OpenAiClient client, SimpleMeterRegistry registry) {
+        AppProperties properties = properties();
+        return new CombinedMemorySplittingService(
+            properties,
+            new MemoryDateResolver(),
+            new AiStageCache(properties, null, null, registry),
+            client,
+            new MemoryInsightsService(properties),
+            registry
+        );
+    }
+
+    private AppProperties properties() {
+        AppProperties properties = new AppProperties();
+        properties.getAiCache().setEnabled(false);
+        properties.getSplitter().setOpenaiApiKey("sk-test");
+        properties.getSplitter().setMode(AppProperties.SplitterMode.COMBINED);
+        return properties;
+    }
+
+    private static final class RecordedOpenAiClient extends OpenAiClient {
+
+        private final String output;
+        private final AtomicInteger calls;
+
+        private RecordedOpenAiClient(AppProperties properties, SimpleMeterRegistry registry, String output, AtomicInteger calls) {
+            super(properties, new OpenAiRateLimiter(properties, registry), registry);
+            this.output = output;
+            this.calls = calls;
+        }
+
+        @Override
+        public String chatJson(ChatRequest request) {
+            calls.incrementAndGet();
+            return output;
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package de.csiem.backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+/**
+ * Besides the cases below, {@code src/test/resources/date-resolver/corpus.json} lists date texts with the day they
+ * resolve to and transcripts with their candidate days, all relative to one upload time.
+ */
 class MemoryDateResolverTests {
 
     private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
@@ -40,6 +52,61 @@ class MemoryDateResolverTests {
         assertEquals(LocalDate.of(2025, 12, 25), toBerlinDate(resolver.resolveRecordedAt("an Weihnachten", upload)));
     }
 
+    @Test
+    void resolvesTheCorpus() throws IOException {
+        JsonNode corpus = corpus();
+        Instant upload = Instant.parse(corpus.get("upload").asText());
+
+        for (JsonNode testCase : corpus.get("resolve")) {
+            String dateText = testCase.get("dateText").asText();
+            LocalDate expected = LocalDate.parse(testCase.get("expected").asText());
+
+            assertEquals(expected, toBerlinDate(resolver.resolveRecordedAt(dateText, upload)), dateText);
+            // The second lookup is served from the memo and has to agree.
+            assertEquals(expected, toBerlinDate(resolver.resolveRecordedAt(dateText, upload)), dateText);
+        }
+    }
+
+    @Test
+    void collectsCandidateDatesOfTheCorpus() throws IOException {
+        JsonNode corpus = corpus();
+        Instant upload = Instant.parse(corpus.get("upload").asText());
+
+        for (JsonNode testCase : corpus.get("candidates")) {
+            String transcript = testCase.get("transcript").asText();
+            Set<LocalDate> expected = new TreeSet<>();
+            testCase.get("expected").forEach(date -> expected.add(LocalDate.parse(date.asText())));
+
+            assertEquals(expected, new TreeSet<>(resolver.candidateDates(transcript, upload)), transcript);
+        }
+    }
+
+    @Test
+    void resolvesAllDateTextsOfASplitInOrder() {
+        Instant upload = Instant.parse("2026-02-26T20:00:00Z");
+        List<String> dateTexts = Arrays.asList("gestern", null, "am Montag", "gestern", "  ");
+
+        List<LocalDate> resolved = resolver.resolveAll(dateTexts, upload).stream().map(this::toBerlinDate).toList();
+
+        assertEquals(
+            List.of(
+                LocalDate.of(2026, 2, 25),
+                LocalDate.of(2026, 2, 26),
+                LocalDate.of(2026, 2, 23),
+                LocalDate.of(2026, 2, 25),
+                LocalDate.of(2026, 2, 26)
+            ),
+            resolved
+        );
+        assertEquals(upload, resolver.resolveAll(dateTexts, upload).get(1));
+    }
+
+    private JsonNode corpus() throws IOException {
+        try (InputStream input = getClass().getResourceAsStream("/date-resolver/corpus.json")) {
+            return new ObjectMapper().readTree(input);
+        }
+    }
+
     private LocalDate toBerlinDate(Instant value) {
         return value.atZone(BERLIN).toLocalDate();
     }
@@ -0,0 +1,84 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryEnrichmentServiceTests {
+
+    @Test
+    void keepsInputOrderAndBoundsParallelism() {
+        SlowInsightsService insights = new SlowInsightsService(properties(2, Duration.ofSeconds(5)), 50);
+        MemoryEnrichmentService service = new MemoryEnrichmentService(insights, new MemoryTaggingService(), properties(2, Duration.ofSeconds(5)));
+
+        List<MemoryEnrichmentService.Enrichment> result = service.enrichAll(List.of("one", "two", "three", "four", "five"));
+
+        assertEquals(List.of("one", "two", "three", "four", "five"), result.stream().map(MemoryEnrichmentService.Enrichment::excerpt).toList());
+        assertEquals("Title one", result.getFirst().insights().title());
+        assertTrue(insights.maxConcurrent.get() <= 2);
+        assertTrue(insights.maxConcurrent.get() > 1);
+    }
+
+    @Test
+    void keepsFinishedExcerptsAndFallsBackForTheRestWhenTheSharedDeadlinePasses() {
+        AppProperties properties = properties(4, Duration.ofMillis(300));
+        SlowInsightsService insights = new SlowInsightsService(properties, 10);
+        insights.slowExcerpt = "the slow one";
+        MemoryEnrichmentService service = new MemoryEnrichmentService(insights, new MemoryTaggingService(), properties);
+        PipelineDeadline deadline = PipelineDeadline.start(Duration.ofMinutes(1));
+
+        long startedAt = System.nanoTime();
+        List<MemoryEnrichmentService.Enrichment> result = service.enrichAll(
+            List.of("quick", "the slow one"),
+            Collections.nCopies(2, null),
+            deadline
+        );
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - startedAt).compareTo(Duration.ofSeconds(3)) < 0);
+        assertEquals("Title quick", result.getFirst().insights().title());
+        assertEquals(new MemoryTaggingService().detectTags("the slow one"), result.get(1).tags());
+        assertEquals(insights.fallback("the slow one"), result.get(1).insights());
+        assertEquals(List.of("insights"), deadline.downgrades());
+    }
+
+    private AppProperties properties(int parallelism, Duration timeout) {
+        AppProperties properties = new AppProperties();
+        properties.getInsights().setEnabled(false);
+        properties.getProcessing().setEnrichmentParallelism(parallelism);
+        properties.getProcessing().setEnrichmentTimeout(timeout);
+        return properties;
+    }
+
+    private static final class SlowInsightsService extends MemoryInsightsService {
+
+        private final long delayMillis;
+        private String slowExcerpt;
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private SlowInsightsService(AppProperties properties, long delayMillis) {
+            super(properties);
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public MemoryInsights generate(String transcript, PipelineDeadline deadline) {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(transcript.equals(slowExcerpt) ? 10_000 : delayMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            return new MemoryInsights("Title " + transcript, "Summary " + transcript);
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package de.csiem.backend.service;
 
 import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.openai.OpenAiRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MemoryInsightsServiceTests {
@@ -82,6 +93,24 @@ class MemoryInsightsServiceTests {
         assertTrue(summary.split("\\s+").length <= 22);
     }
 
+    @Test
+    void cutsLongSummaryAtTheLastClauseBreakThatFits() {
+        MemoryInsightsService service = new MemoryInsightsService(new AppProperties());
+
+        MemoryInsightsService.MemoryInsights insights = service.validate(
+            "Five blocks counted out loud",
+            "  She stacked five blocks into a tower,\n  then she counted them out loud in German and English; "
+                + "after that she knocked the tower over and laughed and laughed and laughed for a long time.",
+            "Today she stacked five blocks into a tower and counted them, then knocked it over."
+        );
+
+        assertNotNull(insights);
+        assertEquals(
+            "She stacked five blocks into a tower, then she counted them out loud in German and English.",
+            insights.summary()
+        );
+    }
+
     @Test
     void trimsTitleToMaximumWordCount() {
         AppProperties properties = new AppProperties();
@@ -102,4 +131,107 @@ class MemoryInsightsServiceTests {
         assertFalse(processed.insights().title().toLowerCase().contains("memory"));
         assertFalse(processed.insights().title().toLowerCase().contains("today"));
     }
+
+    @Test
+    void sendsTheInsightsSchemaAndCountsRetriesPerModel() throws Exception {
+        AppProperties properties = new AppProperties();
+        properties.getAiCache().setEnabled(false);
+        properties.getInsights().setOpenaiApiKey("sk-test");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<OpenAiClient.JsonSchema> schemas = new ArrayList<>();
+        ScriptedOpenAiClient client = new ScriptedOpenAiClient(
+            properties,
+            registry,
+            schemas,
+            "{\"title\":\"Sweet memory today\",\"summary\":\"She asked for apples in a full sentence at breakfast.\"}",
+            "{\"title\":\"Asked for apples in a full sentence\",\"summary\":\"She asked for apples on her own, a proud step in her language.\"}"
+        );
+        try {
+            MemoryInsightsService service = new MemoryInsightsService(properties, null, client, registry);
+            MemoryInsightsService.MemoryInsights insights = service.generate(
+                "At breakfast she asked for more apples in a full sentence and smiled."
+            );
+
+            assertEquals("Asked for apples in a full sentence", insights.title());
+            assertEquals(2, schemas.size());
+            assertEquals("memory_insights", schemas.getFirst().name());
+            assertTrue(schemas.getFirst().strict());
+            assertEquals(1.0, calls(registry, "first"));
+            assertEquals(1.0, calls(registry, "title_retry"));
+            assertNull(registry.find("memory.insights.calls").tag("call", "json_retry").counter());
+        } finally {
+            client.destroy();
+        }
+    }
+
+    @Test
+    void doesNotCacheInsightsWhenTheDeadlineSkippedTheTitleRetry() throws Exception {
+        AppProperties properties = new AppProperties();
+        properties.getAiCache().setPersistent(false);
+        properties.getInsights().setOpenaiApiKey("sk-test");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<OpenAiClient.JsonSchema> schemas = new ArrayList<>();
+        String generic = "{\"title\":\"Sweet memory today\",\"summary\":\"She asked for apples in a full sentence at breakfast.\"}";
+        ScriptedOpenAiClient client = new ScriptedOpenAiClient(
+            properties,
+            registry,
+            schemas,
+            generic,
+            generic,
+            "{\"title\":\"Asked for apples in a full sentence\",\"summary\":\"She asked for apples on her own, a proud step in her language.\"}"
+        );
+        try {
+            MemoryInsightsService service = new MemoryInsightsService(
+                properties,
+                new AiStageCache(properties, null, null, registry),
+                client,
+                registry
+            );
+            String transcript = "At breakfast she asked for more apples in a full sentence and smiled.";
+            // Enough for the first call, not for the title retry.
+            PipelineDeadline shortDeadline = PipelineDeadline.start(Duration.ofSeconds(12), () -> 0L);
+
+            MemoryInsightsService.MemoryInsights rushed = service.generate(transcript, shortDeadline);
+            MemoryInsightsService.MemoryInsights full = service.generate(transcript);
+
+            assertEquals(List.of("insights-title-retry"), shortDeadline.downgrades());
+            assertFalse(rushed.title().equals(full.title()));
+            assertEquals("Asked for apples in a full sentence", full.title());
+            assertEquals(3, schemas.size());
+        } finally {
+            client.destroy();
+        }
+    }
+
+    private static double calls(SimpleMeterRegistry registry, String call) {
+        return registry.get("memory.insights.calls")
+            .tag("model", "gpt-4o-mini")
+            .tag("call", call)
+            .tag("format", "json_schema")
+            .counter()
+            .count();
+    }
+
+    private static final class ScriptedOpenAiClient extends OpenAiClient {
+
+        private final List<JsonSchema> schemas;
+        private final Deque<String> answers;
+
+        private ScriptedOpenAiClient(
+            AppProperties properties,
+            SimpleMeterRegistry registry,
+            List<JsonSchema> schemas,
+            String... answers
+        ) {
+            super(properties, new OpenAiRateLimiter(properties, registry), registry);
+            this.schemas = schemas;
+            this.answers = new ArrayDeque<>(List.of(answers));
+        }
+
+        @Override
+        public String chatJson(ChatRequest request) {
+            schemas.add(request.schema());
+            return answers.poll();
+        }
+    }
 }
@@ -0,0 +1,239 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.MemoryEntity;
+import de.csiem.backend.model.MemoryJobEntity;
+import de.csiem.backend.model.MemoryJobStatus;
+import de.csiem.backend.model.MemoryStatus;
+import de.csiem.backend.model.UserEntity;
+import de.csiem.backend.repository.MemoryJobRepository;
+import de.csiem.backend.repository.MemoryRepository;
+import de.csiem.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class MemoryJobQueueTests {
+
+    private static final byte[] AUDIO = "recording".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MemoryJobRepository repository;
+
+    @Autowired
+    private MemoryRepository memoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clear() {
+        // Hibernate leaves out the unmapped audio column that the Flyway migration creates.
+        jdbcTemplate.execute("alter table memory_jobs add column if not exists audio varbinary");
+        repository.deleteAll();
+    }
+
+    @Test
+    void enqueueStoresTheJobWithItsRecording() throws Exception {
+        MemoryJobQueue queue = queue(settings -> settings.setJobMaxAttempts(4));
+        UUID memoryId = processingMemory();
+        Instant uploadTimestamp = Instant.parse("2026-03-11T10:00:00Z");
+
+        queue.enqueue(memoryId, audio(), uploadTimestamp);
+
+        MemoryJobEntity job = repository.findAll().getFirst();
+        assertEquals(memoryId, job.getMemoryId());
+        assertEquals(MemoryJobStatus.PENDING, job.getStatus());
+        assertEquals(0, job.getAttempts());
+        assertEquals(4, job.getMaxAttempts());
+        assertEquals(uploadTimestamp, job.getUploadTimestamp());
+        assertEquals("memory.wav", job.getAudioFilename());
+        assertEquals(AUDIO.length, job.getAudioLength());
+        try (AudioUpload upload = queue.openAudio(job); InputStream input = upload.resource().getInputStream()) {
+            assertArrayEquals(AUDIO, input.readAllBytes());
+        }
+    }
+
+    @Test
+    void claimNextLeasesTheJobAndSkipsRowsLockedByAnotherWorker() throws Exception {
+        MemoryJobQueue queue = queue(settings -> { });
+        queue.enqueue(processingMemory(), audio(), Instant.now());
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherWorker = CompletableFuture.runAsync(() -> newTransaction().executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("select id from memory_jobs for update");
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            assertTrue(queue.claimNext("worker-a").isEmpty());
+        } finally {
+            release.countDown();
+            otherWorker.get(10, TimeUnit.SECONDS);
+        }
+
+        MemoryJobEntity claimed = queue.claimNext("worker-a").orElseThrow();
+        assertEquals(MemoryJobStatus.RUNNING, claimed.getStatus());
+        assertEquals("worker-a", claimed.getLeaseOwner());
+        assertEquals(1, claimed.getAttempts());
+        assertTrue(claimed.getLeaseExpiresAt().isAfter(Instant.now()));
+        assertTrue(queue.claimNext("worker-b").isEmpty());
+    }
+
+    @Test
+    void heartbeatOnlyExtendsTheOwnersLease() throws Exception {
+        MemoryJobQueue queue = queue(settings -> { });
+        queue.enqueue(processingMemory(), audio(), Instant.now());
+        MemoryJobEntity claimed = queue.claimNext("worker-a").orElseThrow();
+
+        assertFalse(queue.heartbeat(claimed.getId(), "worker-b"));
+        assertTrue(queue.heartbeat(claimed.getId(), "worker-a"));
+        assertFalse(repository.findById(claimed.getId()).orElseThrow().getLeaseExpiresAt()
+            .isBefore(claimed.getLeaseExpiresAt()));
+    }
+
+    @Test
+    void retryOrFailBacksOffThenFailsAndLeavesOtherWorkersJobsAlone() throws Exception {
+        MemoryJobQueue queue = queue(settings -> {
+            settings.setJobMaxAttempts(2);
+            settings.setJobRetryBackoff(Duration.ZERO);
+        });
+        queue.enqueue(processingMemory(), audio(), Instant.now());
+        UUID jobId = queue.claimNext("worker-a").orElseThrow().getId();
+
+        assertEquals(MemoryJobQueue.RetryOutcome.LEASE_LOST, queue.retryOrFail(jobId, "worker-b", "boom"));
+        assertEquals(MemoryJobStatus.RUNNING, repository.findById(jobId).orElseThrow().getStatus());
+
+        assertEquals(MemoryJobQueue.RetryOutcome.RETRYING, queue.retryOrFail(jobId, "worker-a", "boom"));
+        MemoryJobEntity retrying = repository.findById(jobId).orElseThrow();
+        assertEquals(MemoryJobStatus.PENDING, retrying.getStatus());
+        assertNull(retrying.getLeaseOwner());
+        assertEquals("boom", retrying.getLastError());
+
+        queue.claimNext("worker-a").orElseThrow();
+        assertEquals(MemoryJobQueue.RetryOutcome.FAILED, queue.retryOrFail(jobId, "worker-a", "boom again"));
+        assertEquals(MemoryJobStatus.FAILED, repository.findById(jobId).orElseThrow().getStatus());
+        assertNull(jdbcTemplate.queryForObject("select audio from memory_jobs where id = ?", byte[].class, jobId));
+    }
+
+    @Test
+    void completeOnlyDeletesTheJobForItsLeaseOwner() throws Exception {
+        MemoryJobQueue queue = queue(settings -> { });
+        queue.enqueue(processingMemory(), audio(), Instant.now());
+        UUID jobId = queue.claimNext("worker-a").orElseThrow().getId();
+
+        assertThrows(MemoryJobQueue.LeaseLostException.class, () -> queue.complete(jobId, "worker-b"));
+        assertTrue(repository.existsById(jobId));
+
+        queue.complete(jobId, "worker-a");
+        assertFalse(repository.existsById(jobId));
+    }
+
+    @Test
+    void reapingRequeuesExpiredLeasesAndFailsExhaustedJobs() throws Exception {
+        MemoryJobQueue queue = queue(settings -> {
+            settings.setJobMaxAttempts(2);
+            settings.setJobLease(Duration.ofSeconds(-1));
+        });
+        UUID memoryId = processingMemory();
+        queue.enqueue(memoryId, audio(), Instant.now());
+        UUID jobId = queue.claimNext("worker-a").orElseThrow().getId();
+
+        assertEquals(List.of(), queue.reapExpiredLeases());
+        MemoryJobEntity requeued = repository.findById(jobId).orElseThrow();
+        assertEquals(MemoryJobStatus.PENDING, requeued.getStatus());
+        assertEquals("Lease expired", requeued.getLastError());
+        assertFalse(queue.heartbeat(jobId, "worker-a"));
+
+        queue.claimNext("worker-b").orElseThrow();
+        assertEquals(List.of(memoryId), queue.reapExpiredLeases());
+        assertEquals(MemoryJobStatus.FAILED, repository.findById(jobId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void failsAbandonedMemoriesUnlessTheQueueStillHoldsTheirJob() throws Exception {
+        MemoryJobQueue queue = queue(settings -> { });
+        UUID abandoned = processingMemory();
+        UUID queued = processingMemory();
+        queue.enqueue(queued, audio(), Instant.now());
+
+        Instant now = Instant.now();
+        Integer failed = newTransaction().execute(status ->
+            memoryRepository.failAbandoned(now.plusSeconds(1), now, "Processing was interrupted.")
+        );
+
+        assertTrue(failed != null && failed >= 1);
+        MemoryEntity abandonedMemory = memoryRepository.findById(abandoned).orElseThrow();
+        assertEquals(MemoryStatus.FAILED, abandonedMemory.getStatus());
+        assertEquals("Processing was interrupted.", abandonedMemory.getErrorMessage());
+        assertEquals(MemoryStatus.PROCESSING, memoryRepository.findById(queued).orElseThrow().getStatus());
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToOneHour() {
+        Duration base = Duration.ofSeconds(30);
+
+        assertEquals(Duration.ofSeconds(30), MemoryJobQueue.backoff(base, 1));
+        assertEquals(Duration.ofSeconds(60), MemoryJobQueue.backoff(base, 2));
+        assertEquals(Duration.ofMinutes(2), MemoryJobQueue.backoff(base, 3));
+        assertEquals(Duration.ofHours(1), MemoryJobQueue.backoff(base, 40));
+    }
+    private MemoryJobQueue queue(Consumer<AppProperties.Processing> configure) {
+        AppProperties properties = new AppProperties();
+        properties.getProcessing().setDurableQueue(true);
+        configure.accept(properties.getProcessing());
+        return new MemoryJobQueue(properties, repository, jdbcTemplate, transactionManager);
+    }
+
+    private UUID processingMemory() {
+        UserEntity user = userRepository.save(new UserEntity(UUID.randomUUID(), "queue-" + UUID.randomUUID() + "@example.com"));
+        return memoryRepository.save(new MemoryEntity(UUID.randomUUID(), user, Instant.now(), MemoryStatus.PROCESSING)).getId();
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private static MockMultipartFile audio() {
+        return new MockMultipartFile("audio", "memory.wav", "audio/wav", AUDIO);
+    }
+}
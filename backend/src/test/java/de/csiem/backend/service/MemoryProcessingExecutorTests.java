@@ -0,0 +1,87 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryProcessingExecutorTests {
+
+    @Test
+    void staysSynchronousUnlessAsyncIsEnabled() {
+        MemoryProcessingExecutor executor = executor(false, 1, 0);
+        executor.start();
+
+        assertNull(executor.tryReserve());
+    }
+
+    @Test
+    void rejectsReservationsBeyondConcurrencyPlusQueue() throws Exception {
+        MemoryProcessingExecutor executor = executor(true, 1, 1);
+        executor.start();
+        CountDownLatch release = new CountDownLatch(1);
+
+        MemoryProcessingExecutor.Reservation first = executor.tryReserve();
+        MemoryProcessingExecutor.Reservation second = executor.tryReserve();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(executor.tryReserve());
+
+        second.cancel();
+        assertNotNull(executor.tryReserve());
+
+        first.submit(() -> await(release));
+        release.countDown();
+        executor.stop();
+    }
+
+    @Test
+    void drainsInFlightJobsOnStop() {
+        MemoryProcessingExecutor executor = executor(true, 2, 10);
+        executor.start();
+        AtomicInteger completed = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            executor.tryReserve().submit(() -> {
+                sleep(50);
+                completed.incrementAndGet();
+            });
+        }
+        executor.stop();
+
+        assertEquals(5, completed.get());
+        assertNull(executor.tryReserve());
+    }
+
+    private MemoryProcessingExecutor executor(boolean async, int maxConcurrency, int queueCapacity) {
+        AppProperties properties = new AppProperties();
+        properties.getProcessing().setAsync(async);
+        properties.getProcessing().setMaxConcurrency(maxConcurrency);
+        properties.getProcessing().setQueueCapacity(queueCapacity);
+        return new MemoryProcessingExecutor(properties, new SimpleMeterRegistry());
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
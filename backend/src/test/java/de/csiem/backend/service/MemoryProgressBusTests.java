@@ -0,0 +1,113 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.MemoryProcessingStage;
+import de.csiem.backend.model.MemoryStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryProgressBusTests {
+
+    private final UUID memoryId = UUID.randomUUID();
+
+    @Test
+    void replaysOnlyEventsAfterTheLastSeenIdAndThenStreams() {
+        MemoryProgressBus bus = bus(16);
+        bus.publish(memoryId, MemoryProcessingStage.TRANSCRIBING);
+        bus.publish(memoryId, MemoryProcessingStage.SPLITTING);
+
+        List<MemoryProgressBus.Delivery> received = new ArrayList<>();
+        MemoryProgressBus.Subscription subscription = bus.subscribe(memoryId, 1, received::add, () -> { });
+        bus.publish(memoryId, MemoryProcessingStage.READY, List.of(memoryId), null);
+        subscription.close();
+        bus.publish(memoryId, MemoryProcessingStage.FAILED);
+
+        assertEquals(List.of(2L, 3L), received.stream().map(MemoryProgressBus.Delivery::id).toList());
+        assertEquals(MemoryStatus.READY, received.getLast().event().status());
+        assertEquals(List.of(memoryId), received.getLast().event().ids());
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentEventsPerMemory() {
+        MemoryProgressBus bus = bus(2);
+        bus.publish(memoryId, MemoryProcessingStage.TRANSCRIBING);
+        bus.publish(memoryId, MemoryProcessingStage.SPLITTING);
+        bus.publish(memoryId, MemoryProcessingStage.ENRICHING);
+
+        List<MemoryProgressBus.Delivery> received = new ArrayList<>();
+        bus.subscribe(memoryId, 0, received::add, () -> { });
+
+        assertEquals(
+            List.of(MemoryProcessingStage.SPLITTING, MemoryProcessingStage.ENRICHING),
+            received.stream().map(delivery -> delivery.event().stage()).toList()
+        );
+    }
+
+    @Test
+    void dropsSubscribersWhoseConnectionFailed() {
+        MemoryProgressBus bus = bus(16);
+        List<MemoryProgressBus.Delivery> healthy = new ArrayList<>();
+        AtomicInteger dropped = new AtomicInteger();
+        bus.subscribe(memoryId, 0, delivery -> {
+            throw new IllegalStateException("Progress stream closed");
+        }, dropped::incrementAndGet);
+        bus.subscribe(memoryId, 0, healthy::add, () -> { });
+
+        bus.publish(memoryId, MemoryProcessingStage.TRANSCRIBING);
+        bus.publish(memoryId, MemoryProcessingStage.SPLITTING);
+
+        assertEquals(2, healthy.size());
+        assertEquals(1, dropped.get());
+    }
+
+    @Test
+    void aStalledSubscriberNeitherBlocksPublishingNorOtherSubscribers() throws Exception {
+        AppProperties properties = new AppProperties();
+        properties.getProcessing().setProgressSendTimeout(Duration.ofMillis(50));
+        MemoryProgressBus bus = new MemoryProgressBus(properties, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch dropped = new CountDownLatch(1);
+        CountDownLatch healthy = new CountDownLatch(3);
+        bus.subscribe(memoryId, 0, delivery -> await(release), dropped::countDown);
+        bus.subscribe(memoryId, 0, delivery -> healthy.countDown(), () -> { });
+
+        try {
+            long startedAt = System.nanoTime();
+            bus.publish(memoryId, MemoryProcessingStage.TRANSCRIBING);
+            Thread.sleep(100);
+            bus.publish(memoryId, MemoryProcessingStage.SPLITTING);
+            bus.publish(memoryId, MemoryProcessingStage.ENRICHING);
+
+            assertTrue(Duration.ofNanos(System.nanoTime() - startedAt).compareTo(Duration.ofSeconds(1)) < 0);
+            assertTrue(dropped.await(5, TimeUnit.SECONDS));
+            assertTrue(healthy.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private MemoryProgressBus bus(int bufferSize) {
+        AppProperties properties = new AppProperties();
+        properties.getProcessing().setProgressBufferSize(bufferSize);
+        return new MemoryProgressBus(properties, new SimpleMeterRegistry(), Runnable::run);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.csiem.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.model.MemoryTag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Golden transcripts in {@code src/test/resources/tagging/golden.json}, English and German, with the tags the bundled
+ * dictionaries must produce in order.
+ */
+class MemoryTaggingServiceTests {
+
+    private final MemoryTaggingService service = new MemoryTaggingService();
+
+    @Test
+    void tagsTheGoldenCorpus() throws IOException {
+        for (JsonNode testCase : golden()) {
+            String transcript = testCase.get("transcript").asText();
+            List<String> expected = new ArrayList<>();
+            testCase.get("tags").forEach(tag -> expected.add(tag.asText()));
+
+            List<String> actual = service.detectTags(transcript).stream().map(MemoryTag::label).toList();
+
+            assertEquals(expected, actual, transcript);
+        }
+    }
+
+    @Test
+    void fallsBackToGrowthForBlankTranscripts() {
+        assertEquals(List.of(MemoryTag.GROWTH), List.copyOf(service.detectTags(null)));
+        assertEquals(List.of(MemoryTag.GROWTH), List.copyOf(service.detectTags("   ")));
+    }
+
+    @Test
+    void rejectsDictionariesWithUnknownTags() {
+        AppProperties properties = new AppProperties();
+        properties.getTagging().setDictionaries(List.of("classpath:tagging/unknown-tag.properties"));
+
+        assertThrows(IllegalStateException.class, () -> new MemoryTaggingService(properties, new DefaultResourceLoader()));
+    }
+
+    private JsonNode golden() throws IOException {
+        try (InputStream input = getClass().getResourceAsStream("/tagging/golden.json")) {
+            return new ObjectMapper().readTree(input);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.csiem.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelOutputParserTests {
+
+    private static final List<String> CORPUS = List.of(
+        "split-two-memories.json",
+        "split-fenced.md",
+        "split-nested-braces.json",
+        "split-escaped-quotes.json",
+        "split-truncated.json",
+        "split-loose-types.json",
+        "insights-clean.json",
+        "insights-fenced.md",
+        "insights-nested.json",
+        "insights-raw-newline.json"
+    );
+
+    @Test
+    void readsSplitOutputWrappedInProseAndFences() {
+        List<ModelOutputParser.SplitCandidate> candidates = ModelOutputParser.readSplitCandidates(corpus("split-fenced.md"));
+
+        assertEquals(2, candidates.size());
+        assertEquals("on Sunday", candidates.getFirst().dateText());
+        assertEquals(0.8, candidates.get(1).confidence());
+    }
+
+    @Test
+    void keepsBracesInsideStringsAndSkipsNestedObjects() {
+        List<ModelOutputParser.SplitCandidate> candidates = ModelOutputParser.readSplitCandidates(corpus("split-nested-braces.json"));
+
+        assertEquals(2, candidates.size());
+        assertEquals("She drew a face with curly {hair} and said it was grandma.", candidates.getFirst().excerpt());
+        assertNull(candidates.getFirst().dateText());
+        assertEquals("tonight", candidates.get(1).dateText());
+    }
+
+    @Test
+    void decodesEscapesExactly() {
+        List<ModelOutputParser.SplitCandidate> candidates = ModelOutputParser.readSplitCandidates(corpus("split-escaped-quotes.json"));
+
+        assertEquals("He pointed at the moon and said \"Mond!\" twice.\nThen he waved goodbye to it.", candidates.getFirst().excerpt());
+        assertEquals("Sie hat zum ersten Mal allein die Schuhe angezogen – ganz stolz, \\o/ ", candidates.get(1).excerpt());
+        assertEquals("heute früh", candidates.get(1).dateText());
+    }
+
+    @Test
+    void keepsCompleteEntriesOfTruncatedOutput() {
+        List<ModelOutputParser.SplitCandidate> candidates = ModelOutputParser.readSplitCandidates(corpus("split-truncated.json"));
+
+        assertEquals(1, candidates.size());
+        assertEquals("on Saturday", candidates.getFirst().dateText());
+    }
+
+    @Test
+    void toleratesLooseTypesAndTrailingCommas() {
+        List<ModelOutputParser.SplitCandidate> candidates = ModelOutputParser.readSplitCandidates(corpus("split-loose-types.json"));
+
+        assertEquals(3, candidates.size());
+        assertEquals(0.92, candidates.getFirst().confidence());
+        assertEquals("", candidates.get(1).excerpt());
+        assertNull(candidates.get(2).dateText());
+        assertEquals(1.0, candidates.get(2).confidence());
+    }
+
+    @Test
+    void readsInsightsFromEveryCorpusShape() {
+        assertEquals("Climbed the big slide alone", ModelOutputParser.readInsights(corpus("insights-clean.json")).title());
+        assertEquals(
+            "Sie hat zum ersten Mal allein die Schuhe angezogen und sagte stolz \"fertig!\" – ein großer Schritt für sie.",
+            ModelOutputParser.readInsights(corpus("insights-fenced.md")).summary()
+        );
+        assertEquals("Counted ducks at bath time", ModelOutputParser.readInsights(corpus("insights-nested.json")).title());
+        assertEquals(
+            "He said banana clearly at breakfast\nand laughed at his own new word.",
+            ModelOutputParser.readInsights(corpus("insights-raw-newline.json")).summary()
+        );
+        assertEquals("", ModelOutputParser.readInsights("Sorry, I can't help with that.").title());
+    }
+
+    @Test
+    void neverThrowsOnTruncatedOrMutatedOutput() {
+        Random random = new Random(42);
+        String noise = "{}[]\",:\\\n tnf0.5-";
+        for (String name : CORPUS) {
+            String content = corpus(name);
+            for (int end = 0; end <= content.length(); end++) {
+                assertParses(content.substring(0, end));
+            }
+            for (int i = 0; i < 500; i++) {
+                StringBuilder mutated = new StringBuilder(content);
+                for (int edits = 1 + random.nextInt(4); edits > 0; edits--) {
+                    int position = random.nextInt(mutated.length());
+                    char replacement = noise.charAt(random.nextInt(noise.length()));
+                    if (random.nextBoolean()) {
+                        mutated.setCharAt(position, replacement);
+                    } else {
+                        mutated.insert(position, replacement);
+                    }
+                }
+                assertParses(mutated.toString());
+            }
+        }
+    }
+
+    private static void assertParses(String content) {
+        List<ModelOutputParser.SplitCandidate> candidates = assertDoesNotThrow(() -> ModelOutputParser.readSplitCandidates(content));
+        candidates.forEach(candidate -> assertNotNull(candidate.excerpt()));
+        ModelOutputParser.InsightsOutput insights = assertDoesNotThrow(() -> ModelOutputParser.readInsights(content));
+        assertTrue(insights.title() != null && insights.summary() != null);
+    }
+
+    static String corpus(String name) {
+        try (InputStream input = ModelOutputParserTests.class.getResourceAsStream("/model-outputs/" + name)) {
+            assertNotNull(input, name);
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
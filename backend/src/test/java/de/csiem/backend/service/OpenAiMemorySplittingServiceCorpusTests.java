@@ -0,0 +1,127 @@
+package de.csiem.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.openai.OpenAiRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays recorded splitter answers from {@code src/test/resources/split-decisions} with and without the date check,
+ * so a transcript that skips the model call always ends up with the same memories as before.
+ */
+class OpenAiMemorySplittingServiceCorpusTests {
+
+    private static final Instant UPLOAD = Instant.parse("2026-03-11T10:00:00Z"); // Wednesday in Berlin
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void dateCheckKeepsEverySplitDecision() throws Exception {
+        int skipped = 0;
+        for (JsonNode testCase : corpus()) {
+            String name = testCase.get("name").asText();
+            String transcript = testCase.get("transcript").asText();
+            String modelOutput = testCase.get("model_output").asText();
+
+            List<String> withModel = run(transcript, modelOutput, false, new AtomicInteger());
+            AtomicInteger calls = new AtomicInteger();
+            List<String> withDateCheck = run(transcript, modelOutput, true, calls);
+
+            assertEquals(testCase.get("memories").asInt(), withModel.size(), name);
+            assertEquals(withModel, withDateCheck, name);
+            boolean singleDay = "single_day".equals(testCase.get("date_check").asText());
+            assertEquals(singleDay ? 0 : 1, calls.get(), name);
+            if (singleDay) {
+                skipped++;
+            }
+        }
+        assertTrue(skipped > 0);
+    }
+
+    @Test
+    void countsDateCheckResults() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AppProperties properties = properties(true);
+        RecordedOpenAiClient client = new RecordedOpenAiClient(properties, registry, "{\"memories\":[]}", new AtomicInteger());
+        try {
+            OpenAiMemorySplittingService service = service(properties, client, registry);
+            service.split("Heute haben wir Kekse gebacken und Tim hat den ganzen Teig probiert.", UPLOAD);
+            service.split("Gestern waren wir im Zoo. Heute hat er Banane gesagt.", UPLOAD);
+            service.split("Wir waren im Hallenbad und hatten richtig viel Spaß.", UPLOAD);
+
+            assertEquals(2.0, registry.get("memory.splitter.date.check").tag("result", "single_day").counter().count());
+            assertEquals(1.0, registry.get("memory.splitter.date.check").tag("result", "multi_day").counter().count());
+        } finally {
+            client.destroy();
+        }
+    }
+
+    private List<String> run(String transcript, String modelOutput, boolean dateCheck, AtomicInteger calls) throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AppProperties properties = properties(dateCheck);
+        RecordedOpenAiClient client = new RecordedOpenAiClient(properties, registry, modelOutput, calls);
+        try {
+            List<String> memories = new ArrayList<>();
+            for (SplitMemory memory : service(properties, client, registry).split(transcript, UPLOAD)) {
+                memories.add(memory.recordedAt().atZone(BERLIN).toLocalDate() + " " + memory.excerpt());
+            }
+            return memories;
+        } finally {
+            client.destroy();
+        }
+    }
+
+    private OpenAiMemorySplittingService service(
+        AppProperties properties,
+        OpenAiClient client,
+        SimpleMeterRegistry registry
+    ) {
+        AiStageCache cache = new AiStageCache(properties, null, null, registry);
+        return new OpenAiMemorySplittingService(properties, new MemoryDateResolver(), cache, client, registry);
+    }
+
+    private AppProperties properties(boolean dateCheck) {
+        AppProperties properties = new AppProperties();
+        properties.getAiCache().setEnabled(false);
+        properties.getSplitter().setOpenaiApiKey("sk-test");
+        properties.getSplitter().setDateCheck(dateCheck);
+        return properties;
+    }
+
+    private JsonNode corpus() throws IOException {
+        try (InputStream input = getClass().getResourceAsStream("/split-decisions/cases.json")) {
+            return new ObjectMapper().readTree(input);
+        }
+    }
+
+    private static final class RecordedOpenAiClient extends OpenAiClient {
+
+        private final String output;
+        private final AtomicInteger calls;
+
+        private RecordedOpenAiClient(AppProperties properties, SimpleMeterRegistry registry, String output, AtomicInteger calls) {
+            super(properties, new OpenAiRateLimiter(properties, registry), registry);
+            this.output = output;
+            this.calls = calls;
+        }
+
+        @Override
+        public String chatJson(ChatRequest request) {
+            calls.incrementAndGet();
+            return output;
+        }
+    }
+}
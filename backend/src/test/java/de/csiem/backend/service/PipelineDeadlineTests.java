@@ -0,0 +1,78 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import de.csiem.backend.service.openai.OpenAiClient;
+import de.csiem.backend.service.openai.OpenAiRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineDeadlineTests {
+
+    @Test
+    void tracksRemainingBudgetAndStageConsumption() {
+        AtomicLong clock = new AtomicLong();
+        PipelineDeadline deadline = PipelineDeadline.start(Duration.ofSeconds(60), clock::get);
+
+        clock.addAndGet(Duration.ofSeconds(35).toNanos());
+        deadline.finishStage("transcription");
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        deadline.finishStage("split");
+
+        assertEquals(Duration.ofSeconds(15), deadline.remaining());
+        assertEquals(Duration.ofSeconds(35), deadline.stages().get("transcription"));
+        assertEquals(Duration.ofSeconds(10), deadline.stages().get("split"));
+        assertEquals(List.of("transcription", "split"), List.copyOf(deadline.stages().keySet()));
+        assertTrue(deadline.allows(Duration.ofSeconds(15)));
+        assertFalse(deadline.allows(Duration.ofSeconds(16)));
+        assertEquals(Duration.ofSeconds(15), deadline.cap(Duration.ofSeconds(45)));
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(Duration.ZERO, deadline.remaining());
+    }
+
+    @Test
+    void unlimitedDeadlineNeverDowngrades() {
+        PipelineDeadline deadline = PipelineDeadline.unlimited();
+        deadline.downgrade("split");
+        deadline.finishStage("transcription");
+
+        assertTrue(deadline.allows(Duration.ofDays(365)));
+        assertEquals(Duration.ofSeconds(45), deadline.cap(Duration.ofSeconds(45)));
+        assertTrue(deadline.downgrades().isEmpty());
+        assertTrue(deadline.stages().isEmpty());
+    }
+
+    @Test
+    void insightsFallBackWithoutCallingTheModelWhenTheBudgetIsSpent() throws Exception {
+        AppProperties properties = new AppProperties();
+        properties.getInsights().setOpenaiApiKey("test-key");
+        properties.getInsights().setOpenaiBaseUrl("http://127.0.0.1:9");
+        AtomicLong clock = new AtomicLong();
+        PipelineDeadline deadline = PipelineDeadline.start(Duration.ofSeconds(60), clock::get);
+        clock.addAndGet(Duration.ofSeconds(55).toNanos());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenAiClient client = new OpenAiClient(properties, new OpenAiRateLimiter(properties, registry), registry);
+        try {
+            MemoryInsightsService service = new MemoryInsightsService(properties, null, client, registry);
+            MemoryInsightsService.MemoryInsights insights = service.generate(
+                "Today we went to the park and she climbed the slide all by herself.",
+                deadline
+            );
+
+            assertTrue(insights.summary().startsWith("A meaningful moment"));
+            assertEquals(List.of("insights"), deadline.downgrades());
+            assertTrue(registry.find("openai.requests").timers().isEmpty());
+        } finally {
+            client.destroy();
+        }
+    }
+}
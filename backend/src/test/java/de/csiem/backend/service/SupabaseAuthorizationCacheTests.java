@@ -0,0 +1,65 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SupabaseAuthorizationCacheTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SupabaseAuthorizationCache cache = new SupabaseAuthorizationCache(new AppProperties(), meterRegistry);
+
+    @Test
+    void reusesDecisionPerUserAndChild() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        cache.childAccess("user-1", "child-1", () -> owner(lookups));
+        cache.childAccess("user-1", "child-1", () -> owner(lookups));
+        cache.childAccess("user-2", "child-1", () -> owner(lookups));
+
+        assertEquals(2, lookups.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+            .tag("cache", "supabase.authz.child-access")
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+    }
+
+    @Test
+    void roleChangeEvictsOnlyThatMembership() {
+        cache.childAccess("user-1", "child-1", () -> new SupabaseAuthorizationCache.ChildAccess("family-1", "OWNER"));
+        cache.childAccess("user-1", "child-2", () -> new SupabaseAuthorizationCache.ChildAccess("family-2", "OWNER"));
+
+        cache.invalidateMember("family-1", "user-1");
+
+        SupabaseAuthorizationCache.ChildAccess demoted = cache.childAccess(
+            "user-1", "child-1", () -> new SupabaseAuthorizationCache.ChildAccess("family-1", "MEMBER"));
+        SupabaseAuthorizationCache.ChildAccess untouched = cache.childAccess(
+            "user-1", "child-2", () -> new SupabaseAuthorizationCache.ChildAccess("family-2", "MEMBER"));
+
+        assertFalse(demoted.isOwner());
+        assertTrue(untouched.isOwner());
+    }
+
+    @Test
+    void deletedMemoryIsLookedUpAgain() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        cache.memoryChildId("user-1", "memory-1", () -> "child-" + lookups.incrementAndGet());
+        cache.invalidateMemory("memory-1");
+        String childId = cache.memoryChildId("user-1", "memory-1", () -> "child-" + lookups.incrementAndGet());
+
+        assertEquals("child-2", childId);
+    }
+
+    private SupabaseAuthorizationCache.ChildAccess owner(AtomicInteger lookups) {
+        lookups.incrementAndGet();
+        return new SupabaseAuthorizationCache.ChildAccess("family-1", "OWNER");
+    }
+}
@@ -0,0 +1,40 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SupabaseGatewayServiceCountTests {
+
+    private final AppProperties properties = new AppProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SupabaseHttpTransport transport = new SupabaseHttpTransport(properties, meterRegistry);
+    private final SupabaseGatewayService service = new SupabaseGatewayService(
+        properties,
+        transport,
+        new SupabaseJwtVerifier(properties, transport, meterRegistry),
+        new SupabaseAuthorizationCache(properties, meterRegistry)
+    );
+
+    @Test
+    void readsTotalFromContentRange() {
+        assertEquals(123L, service.parseContentRangeTotal("0-19/123"));
+        assertEquals(0L, service.parseContentRangeTotal("*/0"));
+    }
+
+    @Test
+    void returnsUnknownWhenTotalIsMissing() {
+        assertEquals(-1L, service.parseContentRangeTotal("0-19/*"));
+        assertEquals(-1L, service.parseContentRangeTotal(null));
+        assertEquals(-1L, service.parseContentRangeTotal("garbage/abc"));
+    }
+
+    @Test
+    void preferHeaderMatchesPostgrestCountModes() {
+        assertEquals("count=exact", AppProperties.CountStrategy.EXACT.preferHeader());
+        assertEquals("count=planned", AppProperties.CountStrategy.PLANNED.preferHeader());
+        assertEquals("count=estimated", AppProperties.CountStrategy.ESTIMATED.preferHeader());
+    }
+}
@@ -1,6 +1,7 @@
 package de.csiem.backend.service;
 
 import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -12,7 +13,15 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SupabaseGatewayServiceTagFilterTests {
 
-    private final SupabaseGatewayService service = new SupabaseGatewayService(new AppProperties());
+    private final AppProperties properties = new AppProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SupabaseHttpTransport transport = new SupabaseHttpTransport(properties, meterRegistry);
+    private final SupabaseGatewayService service = new SupabaseGatewayService(
+        properties,
+        transport,
+        new SupabaseJwtVerifier(properties, transport, meterRegistry),
+        new SupabaseAuthorizationCache(properties, meterRegistry)
+    );
 
     @Test
     void buildTagOverlapFilterSupportsTagsWithSpaces() {
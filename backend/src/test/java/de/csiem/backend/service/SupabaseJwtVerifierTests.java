@@ -0,0 +1,185 @@
+package de.csiem.backend.service;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SupabaseJwtVerifierTests {
+
+    private static final String SECRET = "super-secret-jwt-token-with-at-least-32-characters";
+    private static final String USER_ID = "8c1d6a4e-3b0f-4a57-9f1e-2f4b7c9d0a11";
+    private static final String SUPABASE_URL = "http://127.0.0.1:54321/";
+    private static final String ISSUER = "http://127.0.0.1:54321/auth/v1";
+
+    private final AppProperties properties = properties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SupabaseJwtVerifier verifier = new SupabaseJwtVerifier(
+        properties,
+        new SupabaseHttpTransport(properties, meterRegistry),
+        meterRegistry
+    );
+
+    @Test
+    void resolvesUserFromValidHs256TokenWithoutRemoteCall() throws Exception {
+        String token = hs256(claims(Instant.now().plusSeconds(600)));
+
+        Optional<SupabaseUser> user = verifier.verify("Bearer " + token);
+
+        assertTrue(user.isPresent());
+        assertEquals(USER_ID, user.get().id());
+        assertEquals("parent@example.com", user.get().email());
+    }
+
+    @Test
+    void rejectsExpiredToken() throws Exception {
+        String token = hs256(claims(Instant.now().minusSeconds(600)));
+
+        ResponseStatusException exception = assertThrows(
+            ResponseStatusException.class,
+            () -> verifier.verify("Bearer " + token)
+        );
+        assertEquals(401, exception.getStatusCode().value());
+    }
+
+    @Test
+    void rejectsTokenWithTamperedPayload() throws Exception {
+        String token = hs256(claims(Instant.now().plusSeconds(600)));
+        String[] parts = token.split("\\.");
+        String forgedPayload = base64Url(claims(Instant.now().plusSeconds(600)).replace(USER_ID, "someone-else"));
+
+        assertThrows(
+            ResponseStatusException.class,
+            () -> verifier.verify("Bearer " + parts[0] + "." + forgedPayload + "." + parts[2])
+        );
+    }
+
+    @Test
+    void fallsBackForOpaqueTokensAndUnknownSigningKeys() throws Exception {
+        assertTrue(verifier.verify("Bearer opaque-session-token").isEmpty());
+
+        KeyPair keyPair = ecKeyPair();
+        String token = es256("unknown-kid", keyPair, claims(Instant.now().plusSeconds(600)));
+        assertTrue(verifier.verify("Bearer " + token).isEmpty());
+    }
+
+    @Test
+    void verifiesEs256TokenAgainstCachedKeySet() throws Exception {
+        KeyPair keyPair = ecKeyPair();
+        verifier.loadJwks(jwks("key-1", (ECPublicKey) keyPair.getPublic()));
+
+        String token = es256("key-1", keyPair, claims(Instant.now().plusSeconds(600)));
+        Optional<SupabaseUser> user = verifier.verify("Bearer " + token);
+
+        assertTrue(user.isPresent());
+        assertEquals(USER_ID, user.get().id());
+    }
+
+    @Test
+    void acceptsAnAudienceListThatContainsAuthenticated() throws Exception {
+        String token = hs256(claims(Instant.now().plusSeconds(600), "\"" + ISSUER + "\"", "[\"authenticated\",\"other\"]"));
+
+        assertTrue(verifier.verify("Bearer " + token).isPresent());
+    }
+
+    @Test
+    void rejectsTokensFromAnotherIssuerOrForAnotherAudience() throws Exception {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        String missingIssuer = hs256(claims(expiresAt, null, "\"authenticated\""));
+        String otherProject = hs256(claims(expiresAt, "\"https://other.supabase.co/auth/v1\"", "\"authenticated\""));
+        String anonKey = hs256(claims(expiresAt, "\"" + ISSUER + "\"", null));
+        String otherAudience = hs256(claims(expiresAt, "\"" + ISSUER + "\"", "[\"anon\"]"));
+
+        for (String token : new String[] {missingIssuer, otherProject, anonKey, otherAudience}) {
+            ResponseStatusException exception = assertThrows(
+                ResponseStatusException.class,
+                () -> verifier.verify("Bearer " + token)
+            );
+            assertEquals(401, exception.getStatusCode().value());
+        }
+    }
+
+    private AppProperties properties() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getSupabase().setUrl(SUPABASE_URL);
+        appProperties.getSupabase().setJwtSecret(SECRET);
+        return appProperties;
+    }
+
+    private String claims(Instant expiresAt) {
+        return claims(expiresAt, "\"" + ISSUER + "\"", "\"authenticated\"");
+    }
+
+    private String claims(Instant expiresAt, String issuerJson, String audienceJson) {
+        StringBuilder claims = new StringBuilder()
+            .append("{\"sub\":\"").append(USER_ID).append("\",\"email\":\"parent@example.com\",\"role\":\"authenticated\"");
+        if (issuerJson != null) {
+            claims.append(",\"iss\":").append(issuerJson);
+        }
+        if (audienceJson != null) {
+            claims.append(",\"aud\":").append(audienceJson);
+        }
+        return claims.append(",\"exp\":").append(expiresAt.getEpochSecond()).append('}').toString();
+    }
+
+    private String hs256(String claims) throws Exception {
+        String signingInput = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}") + "." + base64Url(claims);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return signingInput + "." + base64Url(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private String es256(String keyId, KeyPair keyPair, String claims) throws Exception {
+        String header = "{\"alg\":\"ES256\",\"typ\":\"JWT\",\"kid\":\"" + keyId + "\"}";
+        String signingInput = base64Url(header) + "." + base64Url(claims);
+        Signature signature = Signature.getInstance("SHA256withECDSAinP1363Format");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + base64Url(signature.sign());
+    }
+
+    private KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private String jwks(String keyId, ECPublicKey publicKey) {
+        return """
+            {"keys":[{"kty":"EC","crv":"P-256","alg":"ES256","kid":"%s","x":"%s","y":"%s"}]}
+            """.formatted(
+            keyId,
+            base64Url(unsigned(publicKey.getW().getAffineX().toByteArray())),
+            base64Url(unsigned(publicKey.getW().getAffineY().toByteArray()))
+        );
+    }
+
+    private byte[] unsigned(byte[] value) {
+        return value.length > 32 ? Arrays.copyOfRange(value, value.length - 32, value.length) : value;
+    }
+
+    private String base64Url(String value) {
+        return base64Url(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String base64Url(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
@@ -0,0 +1,67 @@
+package de.csiem.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SupabaseRowDecoderTests {
+
+    @Test
+    void decodesMemoryRowsAndSkipsUnknownFields() throws Exception {
+        String json = """
+            [
+              {"id":"3f0a3c3e-6d3b-4a55-9d0e-4d2a6a1f7b10","created_at":"2025-06-01T08:00:05.123456+00:00",
+               "recorded_at":null,"status":"READY","is_highlight":true,"title":"Tower","summary":"",
+               "transcript":"She built a tower.","error_message":null,"tags":["Play",""," "],
+               "extra":{"nested":[1,2,3]}}
+            ]
+            """;
+
+        List<MemoryRow> rows = SupabaseRowDecoder.readMemoryRows(stream(json));
+
+        assertEquals(1, rows.size());
+        MemoryRow row = rows.get(0);
+        assertEquals(UUID.fromString("3f0a3c3e-6d3b-4a55-9d0e-4d2a6a1f7b10"), row.id());
+        assertEquals(Instant.parse("2025-06-01T08:00:05.123456Z"), row.createdAt());
+        assertEquals(row.createdAt(), row.recordedAt());
+        assertTrue(row.highlight());
+        assertEquals("Tower", row.title());
+        assertNull(row.summary());
+        assertNull(row.errorMessage());
+        assertEquals(List.of("Play"), row.tags());
+    }
+
+    @Test
+    void readsRpcPageWithAndWithoutTotal() throws Exception {
+        SupabaseMemoryPage counted = SupabaseRowDecoder.readMemoryPage(stream("""
+            {"items":[{"id":"3f0a3c3e-6d3b-4a55-9d0e-4d2a6a1f7b10","created_at":"2025-06-01T08:00:05+00:00","is_highlight":false}],"total":42}
+            """));
+        SupabaseMemoryPage uncounted = SupabaseRowDecoder.readMemoryPage(stream("{\"items\":[],\"total\":null}"));
+
+        assertEquals(42L, counted.totalElements());
+        assertFalse(counted.rows().get(0).highlight());
+        assertEquals(-1L, uncounted.totalElements());
+        assertTrue(uncounted.rows().isEmpty());
+    }
+
+    @Test
+    void emptyBodyDecodesToNoRows() throws Exception {
+        assertTrue(SupabaseRowDecoder.readMemoryRows(InputStream.nullInputStream()).isEmpty());
+        assertTrue(SupabaseRowDecoder.readFamilyMemberRows(stream("[{\"user_id\":\"u1\",\"role\":\"OWNER\"}]"))
+            .contains(new FamilyMemberRow("u1", "OWNER", "")));
+    }
+
+    private InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,95 @@
+package de.csiem.backend.service.openai;
+
+import com.sun.net.httpserver.HttpServer;
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenAiClientTests {
+
+    @Test
+    void stagesFallBackToTheTranscriptionKeyAndBaseUrl() throws Exception {
+        AppProperties properties = new AppProperties();
+        properties.getTranscription().setOpenaiApiKey("sk-shared");
+        properties.getTranscription().setOpenaiBaseUrl("https://proxy.example");
+        properties.getSplitter().setOpenaiBaseUrl("");
+        properties.getSplitter().setOpenaiModel("gpt-4.1-mini");
+        properties.getInsights().setOpenaiApiKey("sk-insights");
+        properties.getInsights().setOpenaiBaseUrl("https://insights.example");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenAiClient client = new OpenAiClient(properties, new OpenAiRateLimiter(properties, registry), registry);
+
+        try {
+            assertEquals(
+                new OpenAiClient.StageSettings("https://proxy.example", "gpt-4.1-mini", "sk-shared"),
+                client.settings(OpenAiClient.Stage.SPLIT)
+            );
+            assertEquals(
+                new OpenAiClient.StageSettings("https://insights.example", "gpt-4o-mini", "sk-insights"),
+                client.settings(OpenAiClient.Stage.INSIGHTS)
+            );
+        } finally {
+            client.destroy();
+        }
+    }
+
+    @Test
+    void refusesToCallWithoutAnApiKey() throws Exception {
+        AppProperties properties = new AppProperties();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenAiClient client = new OpenAiClient(properties, new OpenAiRateLimiter(properties, registry), registry);
+
+        try {
+            assertFalse(client.settings(OpenAiClient.Stage.TRANSCRIPTION).isConfigured());
+            assertThrows(
+                IllegalStateException.class,
+                () -> client.chatJson(new OpenAiClient.ChatRequest(OpenAiClient.Stage.INSIGHTS, 0.2, "system", "user", 100))
+            );
+        } finally {
+            client.destroy();
+        }
+    }
+
+    @Test
+    void stopsWaitingForTheResponseWhenTheTimeLimitRunsOut() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+
+        AppProperties properties = new AppProperties();
+        properties.getInsights().setOpenaiApiKey("sk-test");
+        properties.getInsights().setOpenaiBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenAiClient client = new OpenAiClient(properties, new OpenAiRateLimiter(properties, registry), registry);
+        OpenAiClient.ChatRequest request = new OpenAiClient.ChatRequest(OpenAiClient.Stage.INSIGHTS, 0.2, "system", "user", 100);
+
+        try {
+            long startedAt = System.nanoTime();
+            assertThrows(ResourceAccessException.class, () -> client.chatJson(request.withTimeLimit(Duration.ofMillis(300))));
+            assertTrue(Duration.ofNanos(System.nanoTime() - startedAt).compareTo(Duration.ofSeconds(3)) < 0);
+
+            assertThrows(ResponseStatusException.class, () -> client.chatJson(request.withTimeLimit(Duration.ZERO)));
+        } finally {
+            client.destroy();
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package de.csiem.backend.service.openai;
+
+import de.csiem.backend.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenAiRateLimiterTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void tokenBucketRefillsOverTheMinute() {
+        TokenBucket bucket = new TokenBucket(60, clock::get);
+        bucket.take(60);
+
+        assertEquals(Duration.ofSeconds(1).toNanos(), bucket.nanosUntilAvailable(1), 1_000);
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(0, bucket.nanosUntilAvailable(1));
+        // Oversized requests wait for a full bucket instead of forever.
+        assertEquals(Duration.ofSeconds(59).toNanos(), bucket.nanosUntilAvailable(1_000), 1_000);
+    }
+
+    @Test
+    void aimdLimitGrowsSlowlyAndHalvesOnOverload() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(4, 1, 8);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire(0));
+        }
+        assertFalse(limit.tryAcquire(0));
+
+        limit.release(AimdLimit.Outcome.OVERLOADED);
+        assertEquals(2, limit.limit());
+
+        limit.release(AimdLimit.Outcome.SUCCESS);
+        limit.release(AimdLimit.Outcome.SUCCESS);
+        limit.release(AimdLimit.Outcome.SUCCESS);
+        assertEquals(3, limit.limit());
+    }
+
+    @Test
+    void rejectsWhenTheBudgetIsUsedUpAndCountsIt() {
+        AppProperties properties = new AppProperties();
+        properties.getOpenaiLimits().setRequestsPerMinute(1);
+        properties.getOpenaiLimits().setMaxQueueWait(Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenAiRateLimiter limiter = new OpenAiRateLimiter(properties, registry, clock::get);
+
+        assertEquals("ok", limiter.execute("gpt-4o-mini", 10, () -> "ok"));
+        ResponseStatusException rejected = assertThrows(
+            ResponseStatusException.class,
+            () -> limiter.execute("gpt-4o-mini", 10, () -> "ok")
+        );
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertEquals(1.0, registry.get("openai.limiter.rejections").tag("reason", "rate").counter().count());
+    }
+
+    @Test
+    void upstream429HalvesConcurrencyAndPausesTheModel() {
+        AppProperties properties = new AppProperties();
+        properties.getOpenaiLimits().setMaxQueueWait(Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OpenAiRateLimiter limiter = new OpenAiRateLimiter(properties, registry, clock::get);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "2");
+
+        assertThrows(HttpClientErrorException.class, () -> limiter.execute("whisper-1", 0, () -> {
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+        }));
+
+        assertEquals(4, limiter.concurrencyLimit("whisper-1"));
+        assertEquals(1.0, registry.get("openai.limiter.throttled").counter().count());
+        assertThrows(ResponseStatusException.class, () -> limiter.execute("whisper-1", 0, () -> "ok"));
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals("ok", limiter.execute("whisper-1", 0, () -> "ok"));
+    }
+
+    @Test
+    void onlyCallsSlowerThanTheirLatencyThresholdCountAsOverload() {
+        AppProperties properties = new AppProperties();
+        OpenAiRateLimiter limiter = new OpenAiRateLimiter(properties, new SimpleMeterRegistry(), clock::get);
+        Duration twoMinutes = Duration.ofMinutes(2);
+
+        limiter.execute("whisper-1", 0, null, Duration.ofMinutes(3), () -> clock.addAndGet(twoMinutes.toNanos()));
+        assertEquals(8, limiter.concurrencyLimit("whisper-1"));
+
+        limiter.execute("gpt-4o-mini", 10, () -> clock.addAndGet(twoMinutes.toNanos()));
+        assertEquals(4, limiter.concurrencyLimit("gpt-4o-mini"));
+    }
+}
@@ -0,0 +1,48 @@
+package de.csiem.backend.service.prompts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptTemplateTests {
+
+    @Test
+    void transcriptComesAfterTheSharedPrefix() {
+        PromptTemplate prompt = PromptRegistry.INSIGHTS;
+        String first = prompt.userPrompt("Sie hat heute zum ersten Mal Ball gesagt.");
+        String second = prompt.userPrompt("We baked cookies and he tasted all the dough.");
+
+        int shared = 0;
+        while (first.charAt(shared) == second.charAt(shared)) {
+            shared++;
+        }
+        assertTrue(first.substring(shared).startsWith("Sie hat heute"));
+        assertTrue(first.endsWith(">>>"));
+    }
+
+    @Test
+    void splitterPromptsAreBuiltOncePerLimits() {
+        assertSame(PromptRegistry.split(5, 20), PromptRegistry.split(5, 20));
+        assertTrue(PromptRegistry.split(3, 20).systemPrompt().contains("at most 3 memories"));
+        assertSame(PromptRegistry.splitWithInsights(5, 20).schema(), PromptRegistry.splitWithInsights(5, 20).schema());
+    }
+
+    @Test
+    void fitCutsAfterTheLastSentenceWithinTheBudget() {
+        PromptTemplate prompt = PromptRegistry.INSIGHTS;
+        String transcript = "Erster Satz hier. Zweiter Satz ist etwas länger! Dritter Satz kommt noch";
+
+        assertEquals(transcript, prompt.fit(transcript, prompt.fixedTokens() + 100));
+        assertEquals("Erster Satz hier. Zweiter Satz ist etwas länger!", prompt.fit(transcript, prompt.fixedTokens() + 12));
+    }
+
+    @Test
+    void fitFallsBackToWholeWordsWithoutSentenceEnds() {
+        PromptTemplate prompt = PromptRegistry.INSIGHTS;
+        String transcript = "und dann sind wir noch zum see gefahren und haben enten gefüttert und steine geworfen";
+
+        assertEquals("und dann sind wir noch", prompt.fit(transcript, prompt.fixedTokens() + 6));
+    }
+}
@@ -0,0 +1,49 @@
+package de.csiem.backend.service.tagging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeywordAutomatonTests {
+
+    @Test
+    void matchesWholeWordsUnlessTheKeywordIsOpen() {
+        KeywordAutomaton<String> automaton = KeywordAutomaton.compile(Map.of(
+            "mom", List.of("mom"),
+            "stack", List.of("stack*"),
+            "toy", List.of("*spielzeug*")
+        ));
+
+        assertEquals(List.of(), scan(automaton, "what a moment"));
+        assertEquals(List.of("mom", "stack"), scan(automaton, "mom stacked cups"));
+        assertEquals(List.of("toy"), scan(automaton, "das lieblingsspielzeugauto"));
+    }
+
+    @Test
+    void reportsOverlappingKeywordsInOnePass() {
+        KeywordAutomaton<String> automaton = KeywordAutomaton.compile(Map.of(
+            "short", List.of("he*"),
+            "long", List.of("*she"),
+            "phrase", List.of("she said")
+        ));
+
+        assertEquals(List.of("long", "phrase", "short"), scan(automaton, "she said hello"));
+    }
+
+    @Test
+    void skipsBlankKeywords() {
+        KeywordAutomaton<String> automaton = KeywordAutomaton.compile(Map.of("blank", List.of(" ", "*", "")));
+
+        assertEquals(List.of(), scan(automaton, "anything at all"));
+    }
+
+    private static List<String> scan(KeywordAutomaton<String> automaton, String text) {
+        List<String> matches = new ArrayList<>();
+        automaton.scan(text, matches::add);
+        return matches;
+    }
+}
@@ -0,0 +1,90 @@
+package de.csiem.backend.service.transcription;
+
+import de.csiem.backend.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ChunkedTranscriptionTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void transcribesWebmOpusRecordingsInOrderedChunks() throws Exception {
+        // Five seconds of tone, muted between 1.5s and 1.9s, recorded the way the browser uploads it.
+        Path webm = tempDir.resolve("note.webm");
+        assumeTrue(ffmpeg(
+            "-f", "lavfi", "-i", "sine=frequency=440:duration=5",
+            "-af", "volume=enable='between(t,1.5,1.9)':volume=0",
+            "-c:a", "libopus", webm.toString()
+        ), "ffmpeg with libopus is not available");
+
+        Map<String, String> contentTypes = new ConcurrentHashMap<>();
+        String transcript = chunked(Duration.ofSeconds(2)).transcribe(
+            new ByteArrayResource(Files.readAllBytes(webm)),
+            "note.webm",
+            (chunk, contentLength, filename, contentType) -> {
+                assertTrue(contentLength > 0);
+                contentTypes.put(filename, contentType);
+                return filename;
+            }
+        );
+
+        // Cut in the pause at ~1.7s, then on the boundary with overlap: 0-1.7, 1.7-3.7, 3.5-5.
+        assertEquals("note-part1.flac note-part2.flac note-part3.flac", transcript);
+        assertEquals(List.of(FfmpegChunker.CHUNK_CONTENT_TYPE), List.copyOf(Set.copyOf(contentTypes.values())));
+    }
+
+    @Test
+    void leavesRecordingsThatCannotBeDecodedToTheWholeUpload() {
+        String transcript = chunked(Duration.ofSeconds(2)).transcribe(
+            new ByteArrayResource("not audio".getBytes()),
+            "note.webm",
+            (chunk, contentLength, filename, contentType) -> {
+                throw new AssertionError("no chunk expected");
+            }
+        );
+
+        assertNull(transcript);
+    }
+
+    private ChunkedTranscription chunked(Duration chunkDuration) {
+        AppProperties.Transcription settings = new AppProperties.Transcription();
+        settings.setChunkingEnabled(true);
+        settings.setChunkDuration(chunkDuration);
+        settings.setChunkOverlap(Duration.ofMillis(200));
+        settings.setChunkSilenceWindow(Duration.ofMillis(500));
+        settings.setChunkParallelism(2);
+        return new ChunkedTranscription(settings);
+    }
+
+    private static boolean ffmpeg(String... arguments) throws InterruptedException {
+        List<String> command = new ArrayList<>(List.of("ffmpeg", "-nostdin", "-v", "error", "-y"));
+        command.addAll(List.of(arguments));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            process.getInputStream().transferTo(OutputStream.nullOutputStream());
+            return process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.csiem.backend.service.transcription;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FfmpegChunkerTests {
+
+    @Test
+    void readsDurationAndPausesFromTheAnalysisPass() {
+        String output = """
+            Input #0, matroska,webm, from 'source':
+              Duration: N/A, start: 0.000000, bitrate: N/A
+            [silencedetect @ 0x55d5] silence_start: -0.004
+            [silencedetect @ 0x55d5] silence_end: 0.52 | silence_duration: 0.524
+            size=N/A time=00:00:31.20 bitrate=N/A speed= 310x\r\
+            [silencedetect @ 0x55d5] silence_start: 58.1
+            [silencedetect @ 0x55d5] silence_end: 58.9 | silence_duration: 0.8
+            [silencedetect @ 0x55d5] silence_start: 64.75
+            size=N/A time=00:01:05.50 bitrate=N/A speed= 402x
+            """;
+
+        FfmpegChunker.Analysis analysis = FfmpegChunker.Analysis.parse(output);
+
+        assertEquals(65.5, analysis.durationSeconds(), 1e-9);
+        assertEquals(
+            List.of(
+                new FfmpegChunker.Silence(0, 0.52),
+                new FfmpegChunker.Silence(58.1, 58.9),
+                new FfmpegChunker.Silence(64.75, 65.5)
+            ),
+            analysis.silences()
+        );
+    }
+
+    @Test
+    void cutsInsidePausesAndOverlapsWhereThereIsNone() {
+        // A pause just before the first 60s boundary, none near the second.
+        FfmpegChunker.Analysis analysis = new FfmpegChunker.Analysis(
+            150,
+            List.of(new FfmpegChunker.Silence(57.0, 57.6), new FfmpegChunker.Silence(130.0, 131.0))
+        );
+
+        List<FfmpegChunker.Segment> segments = FfmpegChunker.segments(analysis, 60, 2, 5);
+
+        assertEquals(3, segments.size());
+        assertEquals(new FfmpegChunker.Segment(0, 0, 57.3, false), segments.get(0));
+        assertEquals(new FfmpegChunker.Segment(1, 57.3, 117.3, false), segments.get(1));
+        assertEquals(new FfmpegChunker.Segment(2, 115.3, 150, true), segments.get(2));
+    }
+
+    @Test
+    void cutsOnTheBoundaryWhenAPauseSpansIt() {
+        FfmpegChunker.Analysis analysis = new FfmpegChunker.Analysis(90, List.of(new FfmpegChunker.Silence(59.0, 63.0)));
+
+        List<FfmpegChunker.Segment> segments = FfmpegChunker.segments(analysis, 60, 2, 5);
+
+        assertEquals(2, segments.size());
+        assertEquals(60.0, segments.get(0).endSeconds(), 1e-9);
+        assertFalse(segments.get(1).overlapsPrevious());
+    }
+
+    @Test
+    void keepsShortRecordingsInOneSegment() {
+        FfmpegChunker.Analysis analysis = new FfmpegChunker.Analysis(42, List.of());
+
+        List<FfmpegChunker.Segment> segments = FfmpegChunker.segments(analysis, 60, 2, 5);
+
+        assertEquals(List.of(new FfmpegChunker.Segment(0, 0, 42, false)), segments);
+    }
+
+    @Test
+    void overlapsEveryCutOfContinuousSpeech() {
+        FfmpegChunker.Analysis analysis = new FfmpegChunker.Analysis(200, List.of());
+
+        List<FfmpegChunker.Segment> segments = FfmpegChunker.segments(analysis, 60, 2, 5);
+
+        assertEquals(4, segments.size());
+        assertTrue(segments.stream().skip(1).allMatch(FfmpegChunker.Segment::overlapsPrevious));
+        assertEquals(174.0, segments.get(3).startSeconds(), 1e-9);
+        assertEquals(200.0, segments.get(3).endSeconds(), 1e-9);
+    }
+}
@@ -0,0 +1,34 @@
+package de.csiem.backend.service.transcription;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TranscriptStitcherTests {
+
+    @Test
+    void dropsWordsHeardTwiceAcrossAnOverlappingCut() {
+        String stitched = TranscriptStitcher.stitch(
+            List.of("We drove to the lake on Sunday.", "On Sunday, the water was cold.", "Then we went home."),
+            List.of(false, true, false)
+        );
+
+        assertEquals("We drove to the lake on Sunday. the water was cold. Then we went home.", stitched);
+    }
+
+    @Test
+    void keepsRepeatedWordsAtCutsInsidePauses() {
+        String stitched = TranscriptStitcher.stitch(List.of("It was so so", "so good."), List.of(false, false));
+
+        assertEquals("It was so so so good.", stitched);
+    }
+
+    @Test
+    void skipsEmptyChunks() {
+        String stitched = TranscriptStitcher.stitch(List.of("Hello there.", " ", "Bye."), List.of(false, true, true));
+
+        assertEquals("Hello there. Bye.", stitched);
+    }
+}
@@ -0,0 +1,88 @@
+-- Step 13: timeline list RPC
+-- Returns one page of memories (by offset, or by a (recorded_at, created_at, id) cursor in
+-- either direction) plus the total count in a single call, so the backend
+-- no longer resolves the family's children and counts in separate round trips.
+-- Runs as security invoker: the existing RLS policies on children/memories still apply.
+
+create index if not exists idx_memories_child_recorded_created_id_desc
+  on public.memories (child_id, recorded_at desc, created_at desc, id desc);
+
+create or replace function public.rpc_list_memories(
+  p_family_id uuid default null,
+  p_from timestamptz default null,
+  p_to timestamptz default null,
+  p_tags text[] default null,
+  p_highlights_only boolean default false,
+  p_limit integer default 20,
+  p_offset integer default 0,
+  p_cursor_recorded_at timestamptz default null,
+  p_cursor_created_at timestamptz default null,
+  p_cursor_id uuid default null,
+  p_cursor_before boolean default false,
+  p_with_total boolean default true
+)
+returns json
+language sql
+security invoker
+set search_path = public
+stable
+as $$
+  -- not materialized: each use below is planned on its own, so a cursor page can walk the index
+  -- without first collecting the whole timeline.
+  with filtered as not materialized (
+    select m.id, m.created_at, m.recorded_at, m.status, m.is_highlight, m.title,
+           m.transcript, m.error_message, m.tags
+    from public.memories m
+    where (p_family_id is null
+           or m.child_id in (select c.id from public.children c where c.family_id = p_family_id))
+      and (p_from is null or m.recorded_at >= p_from)
+      and (p_to is null or m.recorded_at < p_to)
+      and (p_tags is null or cardinality(p_tags) = 0 or m.tags && p_tags)
+      and (not coalesce(p_highlights_only, false) or m.is_highlight)
+  ),
+  page as (
+    (
+      select f.*
+      from filtered f
+      where not (p_cursor_id is not null and coalesce(p_cursor_before, false))
+        and (p_cursor_id is null
+             or (f.recorded_at, f.created_at, f.id) < (p_cursor_recorded_at, p_cursor_created_at, p_cursor_id))
+      order by f.recorded_at desc, f.created_at desc, f.id desc
+      offset case when p_cursor_id is null then greatest(coalesce(p_offset, 0), 0) else 0 end
+      limit least(greatest(coalesce(p_limit, 20), 1), 101)
+    )
+    union all
+    (
+      -- Paging back towards newer memories: seek upwards, then the aggregate restores timeline order.
+      select f.*
+      from filtered f
+      where p_cursor_id is not null
+        and coalesce(p_cursor_before, false)
+        and (f.recorded_at, f.created_at, f.id) > (p_cursor_recorded_at, p_cursor_created_at, p_cursor_id)
+      order by f.recorded_at asc, f.created_at asc, f.id asc
+      limit least(greatest(coalesce(p_limit, 20), 1), 101)
+    )
+  )
+  select json_build_object(
+    'items', coalesce(
+      (select json_agg(json_build_object(
+          'id', p.id,
+          'created_at', p.created_at,
+          'recorded_at', p.recorded_at,
+          'status', p.status,
+          'is_highlight', p.is_highlight,
+          'title', p.title,
+          -- The list only renders a short snippet, so ship a trimmed prefix instead of the full transcript.
+          'transcript', left(regexp_replace(btrim(coalesce(p.transcript, '')), '\s+', ' ', 'g'), 400),
+          'error_message', p.error_message,
+          'tags', p.tags
+        ) order by p.recorded_at desc, p.created_at desc, p.id desc)
+       from page p),
+      '[]'::json
+    ),
+    'total', case when coalesce(p_with_total, true) then (select count(*) from filtered) end
+  );
+$$;
+
+revoke all on function public.rpc_list_memories(uuid, timestamptz, timestamptz, text[], boolean, integer, integer, timestamptz, timestamptz, uuid, boolean, boolean) from public;
+grant execute on function public.rpc_list_memories(uuid, timestamptz, timestamptz, text[], boolean, integer, integer, timestamptz, timestamptz, uuid, boolean, boolean) to authenticated;
@@ -1 +1,9 @@
-export { createMemory, deleteMemory, getMemory, listMemories, updateMemory } from './memoriesApi'
+export {
+  createMemory,
+  deleteMemory,
+  getMemory,
+  listMemories,
+  openMemoryEvents,
+  parseMemoryProgressEvent,
+  updateMemory,
+} from './memoriesApi'
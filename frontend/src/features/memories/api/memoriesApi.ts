@@ -3,12 +3,14 @@ import type {
   MemoriesListResponse,
   Memory,
   MemoryListItem,
+  MemoryProcessingStage,
+  MemoryProgressEvent,
   MemoryStatus,
   MemoryTag,
   UpdateMemoryRequest,
 } from '../types'
 import { MEMORY_TAG_OPTIONS } from '../types'
-import { backendRequestJson, backendRequestVoid } from '../../../lib/backendApi'
+import { backendRequestJson, backendRequestVoid, openBackendEventSource } from '../../../lib/backendApi'
 
 interface ListMemoriesParams {
   page?: number
@@ -79,6 +81,8 @@ function toMemoryStatus(value: unknown): MemoryStatus {
   return 'FAILED'
 }
 
+const PROCESSING_STAGES = new Set<string>(['TRANSCRIBING', 'SPLITTING', 'ENRICHING', 'READY', 'FAILED'])
+
 function mapCreateResponse(payload: CreateMemoryApiResponse): CreateMemoryResponse {
   return {
     id: String(payload.id),
@@ -184,6 +188,29 @@ export async function getMemory(memoryId: string, options: GetMemoryOptions = {}
   return mapMemory(payload)
 }
 
+export function openMemoryEvents(memoryId: string): Promise<EventSource> {
+  const path = `/memories/${encodeURIComponent(memoryId)}/events`
+  return openBackendEventSource(path, `${path}/ticket`)
+}
+
+export function parseMemoryProgressEvent(data: string): MemoryProgressEvent | null {
+  try {
+    const payload = JSON.parse(data) as Record<string, unknown>
+    if (typeof payload.stage !== 'string' || !PROCESSING_STAGES.has(payload.stage)) {
+      return null
+    }
+    return {
+      memoryId: String(payload.memoryId),
+      stage: payload.stage as MemoryProcessingStage,
+      status: toMemoryStatus(payload.status),
+      ids: Array.isArray(payload.ids) ? payload.ids.map((id) => String(id)) : [],
+      errorMessage: typeof payload.errorMessage === 'string' ? payload.errorMessage : null,
+    }
+  } catch {
+    return null
+  }
+}
+
 export async function updateMemory(memoryId: string, request: UpdateMemoryRequest): Promise<Memory> {
   const patch: Record<string, unknown> = {}
   if (typeof request.title === 'string') {
@@ -146,7 +146,7 @@ export function retryActiveMemoryUpload(): boolean {
   return true
 }
 
-export function setActiveUploadStatusFromPolling(status: MemoryStatus, errorMessage?: string): void {
+export function setActiveUploadStatusFromProcessing(status: MemoryStatus, errorMessage?: string): void {
   if (!activeSession) {
     return
   }
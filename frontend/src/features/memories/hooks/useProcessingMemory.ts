@@ -1,24 +1,24 @@
 import { useCallback, useEffect, useRef, useState } from 'react'
-import { getMemory } from '../api'
-import type { MemoryStatus } from '../types'
+import { getMemory, openMemoryEvents, parseMemoryProgressEvent } from '../api'
+import type { MemoryProcessingStage, MemoryStatus } from '../types'
 
-const DEFAULT_POLL_INTERVAL_MS = 2500
 const DEFAULT_TIMEOUT_MS = 60000
+const RECONNECT_DELAY_MS = 2500
 
 type ProcessingState = MemoryStatus | 'IDLE' | 'TIMEOUT'
 
 interface UseProcessingMemoryOptions {
   memoryId?: string
-  pollIntervalMs?: number
   timeoutMs?: number
 }
 
 interface UseProcessingMemoryResult {
   status: ProcessingState
+  stage: MemoryProcessingStage | null
   error: string
-  isPolling: boolean
-  startPolling: (nextMemoryId?: string) => void
-  stopPolling: () => void
+  isWatching: boolean
+  startWatching: (nextMemoryId?: string) => void
+  stopWatching: () => void
   refreshNow: () => Promise<void>
 }
 
@@ -28,13 +28,13 @@ function toErrorMessage(error: unknown): string {
 
 export function useProcessingMemory({
   memoryId,
-  pollIntervalMs = DEFAULT_POLL_INTERVAL_MS,
   timeoutMs = DEFAULT_TIMEOUT_MS,
 }: UseProcessingMemoryOptions): UseProcessingMemoryResult {
   const [activeMemoryId, setActiveMemoryId] = useState(memoryId ?? '')
   const [status, setStatus] = useState<ProcessingState>('IDLE')
+  const [stage, setStage] = useState<MemoryProcessingStage | null>(null)
   const [error, setError] = useState('')
-  const [isPolling, setIsPolling] = useState(false)
+  const [isWatching, setIsWatching] = useState(false)
 
   const startedAtRef = useRef(0)
   const activeMemoryIdRef = useRef(activeMemoryId)
@@ -47,8 +47,8 @@ export function useProcessingMemory({
     activeMemoryIdRef.current = activeMemoryId
   }, [activeMemoryId])
 
-  const stopPolling = useCallback(() => {
-    setIsPolling(false)
+  const stopWatching = useCallback(() => {
+    setIsWatching(false)
   }, [])
 
   const refreshNow = useCallback(async () => {
@@ -66,7 +66,7 @@ export function useProcessingMemory({
     }
   }, [activeMemoryId])
 
-  const startPolling = useCallback((nextMemoryId?: string) => {
+  const startWatching = useCallback((nextMemoryId?: string) => {
     const resolvedMemoryId = nextMemoryId ?? activeMemoryIdRef.current
     if (!resolvedMemoryId) {
       return
@@ -75,66 +75,95 @@ export function useProcessingMemory({
     setActiveMemoryId(resolvedMemoryId)
     startedAtRef.current = Date.now()
     setStatus('PROCESSING')
+    setStage(null)
     setError('')
-    setIsPolling(true)
+    setIsWatching(true)
   }, [])
 
   useEffect(() => {
-    if (!isPolling || !activeMemoryId) {
+    if (!isWatching || !activeMemoryId) {
       return
     }
 
     let disposed = false
+    let source: EventSource | null = null
+    let reconnectTimer = 0
 
-    const poll = async () => {
-      if (disposed) {
-        return
-      }
-
-      const elapsedMs = Date.now() - startedAtRef.current
-      if (elapsedMs >= timeoutMs) {
-        if (!disposed) {
-          setStatus('TIMEOUT')
-          setIsPolling(false)
-        }
-        return
-      }
+    const scheduleReconnect = () => {
+      window.clearTimeout(reconnectTimer)
+      reconnectTimer = window.setTimeout(() => void connect(), RECONNECT_DELAY_MS)
+    }
 
+    const connect = async () => {
+      source?.close()
+      source = null
       try {
-        const memory = await getMemory(activeMemoryId, { bypassCache: true })
+        const next = await openMemoryEvents(activeMemoryId)
         if (disposed) {
+          next.close()
           return
         }
+        source = next
+
+        next.onmessage = (message: MessageEvent<string>) => {
+          const event = parseMemoryProgressEvent(message.data)
+          if (!event || disposed) {
+            return
+          }
+
+          setStage(event.stage)
+          setStatus(event.status)
+          setError(event.errorMessage ?? '')
+
+          if (event.status === 'READY' || event.status === 'FAILED') {
+            next.close()
+            setIsWatching(false)
+          }
+        }
 
-        setStatus(memory.status)
-        setError('')
-
-        if (memory.status === 'READY' || memory.status === 'FAILED') {
-          setIsPolling(false)
+        next.onerror = () => {
+          // EventSource retries with the same URL, whose single-use ticket the server then refuses; open a new
+          // stream with a fresh ticket once it gave up.
+          if (!disposed && next.readyState === EventSource.CLOSED) {
+            scheduleReconnect()
+          }
         }
-      } catch (pollError) {
+      } catch (connectError) {
         if (disposed) {
           return
         }
-        setError(toErrorMessage(pollError))
+        setError(toErrorMessage(connectError))
+        scheduleReconnect()
       }
     }
 
-    void poll()
-    const timer = window.setInterval(() => void poll(), pollIntervalMs)
+    const remainingMs = Math.max(timeoutMs - (Date.now() - startedAtRef.current), 0)
+    const timeoutTimer = window.setTimeout(() => {
+      if (disposed) {
+        return
+      }
+      source?.close()
+      setStatus('TIMEOUT')
+      setIsWatching(false)
+    }, remainingMs)
+
+    void connect()
 
     return () => {
       disposed = true
-      window.clearInterval(timer)
+      source?.close()
+      window.clearTimeout(reconnectTimer)
+      window.clearTimeout(timeoutTimer)
     }
-  }, [activeMemoryId, isPolling, pollIntervalMs, timeoutMs])
+  }, [activeMemoryId, isWatching, timeoutMs])
 
   return {
     status,
+    stage,
     error,
-    isPolling,
-    startPolling,
-    stopPolling,
+    isWatching,
+    startWatching,
+    stopWatching,
     refreshNow,
   }
 }
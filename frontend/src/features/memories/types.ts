@@ -1,4 +1,5 @@
 export type MemoryStatus = 'PROCESSING' | 'READY' | 'FAILED'
+export type MemoryProcessingStage = 'TRANSCRIBING' | 'SPLITTING' | 'ENRICHING' | 'READY' | 'FAILED'
 export type MemoryTag =
   | 'Language'
   | 'Motor Skills'
@@ -75,3 +76,11 @@ export interface UpdateMemoryRequest {
   recordedAt?: string
   isHighlight?: boolean
 }
+
+export interface MemoryProgressEvent {
+  memoryId: string
+  stage: MemoryProcessingStage
+  status: MemoryStatus
+  ids: string[]
+  errorMessage: string | null
+}
@@ -163,3 +163,18 @@ export async function backendRequestVoid(path: string, init: BackendRequestOptio
     invalidateBackendCache()
   }
 }
+
+// EventSource cannot send headers, and a token in the URL would end up in server and proxy logs. A short-lived,
+// single-use ticket from `ticketPath` authorizes the stream instead; open a new stream (and ticket) to reconnect.
+export async function openBackendEventSource(path: string, ticketPath: string): Promise<EventSource> {
+  const response = await fetch(`${API_BASE_URL}${ticketPath}`, {
+    method: 'POST',
+    headers: { Authorization: await getAuthorizationHeader() },
+  })
+  if (!response.ok) {
+    await throwApiError(response)
+  }
+  const { token } = (await response.json()) as { token: string }
+  const separator = path.includes('?') ? '&' : '?'
+  return new EventSource(`${API_BASE_URL}${path}${separator}ticket=${encodeURIComponent(token)}`)
+}
@@ -8,7 +8,7 @@ import { FilterChipBar } from '../features/memories/components/FilterChipBar'
 import { MemoryListItemCard } from '../features/memories/components/MemoryListItemCard'
 import { MonthPickerSheet } from '../features/memories/components/MonthPickerSheet'
 import { TagPickerSheet } from '../features/memories/components/TagPickerSheet'
-import { setActiveUploadStatusFromPolling, retryActiveMemoryUpload, useActiveMemoryUpload } from '../features/memories/hooks/uploadSessionStore'
+import { setActiveUploadStatusFromProcessing, retryActiveMemoryUpload, useActiveMemoryUpload } from '../features/memories/hooks/uploadSessionStore'
 import { usePaginatedMemories } from '../features/memories/hooks/usePaginatedMemories'
 import { useProcessingMemory } from '../features/memories/hooks/useProcessingMemory'
 import { MEMORY_TAG_OPTIONS, type MemoryListItem, type MemoryTag } from '../features/memories/types'
@@ -211,10 +211,10 @@ export function MemoriesPage({ navigate, familyId }: MemoriesPageProps) {
   const {
     status: processingStatus,
     error: processingError,
-    isPolling: isProcessingPolling,
-    startPolling,
-    stopPolling,
-  } = useProcessingMemory({ memoryId: processingMemoryId, pollIntervalMs: 2500, timeoutMs: 60000 })
+    isWatching: isWatchingProcessing,
+    startWatching,
+    stopWatching,
+  } = useProcessingMemory({ memoryId: processingMemoryId, timeoutMs: 60000 })
 
   const monthFilter = selectedMonth !== 'all' ? selectedMonth : undefined
   const {
@@ -338,13 +338,13 @@ export function MemoriesPage({ navigate, familyId }: MemoriesPageProps) {
 
   useEffect(() => {
     if (!activeUpload || activeUpload.status !== 'processing' || !activeUpload.memoryId) {
-      stopPolling()
+      stopWatching()
       return
     }
 
-    startPolling(activeUpload.memoryId)
-    return () => stopPolling()
-  }, [activeUpload, startPolling, stopPolling])
+    startWatching(activeUpload.memoryId)
+    return () => stopWatching()
+  }, [activeUpload, startWatching, stopWatching])
 
   useEffect(() => {
     if (!activeUpload || activeUpload.status !== 'processing') {
@@ -352,13 +352,13 @@ export function MemoriesPage({ navigate, familyId }: MemoriesPageProps) {
     }
 
     if (processingStatus === 'READY') {
-      setActiveUploadStatusFromPolling('READY')
+      setActiveUploadStatusFromProcessing('READY')
       void reload()
       return
     }
 
     if (processingStatus === 'FAILED') {
-      setActiveUploadStatusFromPolling('FAILED', processingError)
+      setActiveUploadStatusFromProcessing('FAILED', processingError)
       void reload()
     }
   }, [activeUpload, processingError, processingStatus, reload])
@@ -436,7 +436,7 @@ export function MemoriesPage({ navigate, familyId }: MemoriesPageProps) {
     }
 
     if (activeUpload?.memoryId) {
-      startPolling(activeUpload.memoryId)
+      startWatching(activeUpload.memoryId)
     }
     void reload()
   }
@@ -498,7 +498,7 @@ export function MemoriesPage({ navigate, familyId }: MemoriesPageProps) {
       return (
         <StatusBanner
           title="Saving your moment… It will appear here shortly."
-          detail={isProcessingPolling ? 'You can keep scrolling.' : undefined}
+          detail={isWatchingProcessing ? 'You can keep scrolling.' : undefined}
         />
       )
     }